@@ -0,0 +1,74 @@
+package com.benseddik.template.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Limite de concurrence adaptative par groupe de routes
+ * <p>
+ * Chaque groupe apprend, à partir de la latence observée, le nombre de requêtes simultanées que
+ * ses dépendances (PostgreSQL, Keycloak, RustFS) supportent ; l'excédent est refusé en 503.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+@Data
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+    /**
+     * Limite de départ de chaque groupe, avant toute mesure
+     */
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 200;
+    /**
+     * Écart toléré entre la latence récente et la latence de référence avant de réduire la limite
+     */
+    private double rttTolerance = 1.5;
+    /**
+     * Poids d'une nouvelle estimation dans la limite (0 à 1)
+     */
+    private double smoothing = 0.2;
+    /**
+     * Nombre de requêtes par fenêtre de mesure de la latence récente
+     */
+    private int windowSize = 20;
+    /**
+     * Nombre de fenêtres de la moyenne de la latence de référence
+     */
+    private int longWindow = 100;
+    /**
+     * Facteur appliqué à la limite quand une fenêtre contient un échec de l'aval (délai dépassé,
+     * dépendance injoignable ou saturée)
+     */
+    private double backoffRatio = 0.9;
+    private Duration retryAfter = Duration.ofSeconds(1);
+    /**
+     * Groupes de routes, chacun avec sa limite ; la première correspondance s'applique, les autres
+     * routes forment le groupe {@code default}
+     */
+    private List<Group> groups = new ArrayList<>();
+    /**
+     * Routes jamais limitées (sondes de santé)
+     */
+    private List<String> excludedPaths = new ArrayList<>(List.of("/actuator/**"));
+
+    @Data
+    public static class Group {
+        private String name;
+        /**
+         * Motifs de chemin Ant
+         */
+        private List<String> paths = new ArrayList<>();
+        /**
+         * Mesurer aussi la latence des requêtes avec corps ; à désactiver pour les uploads, dont la
+         * durée dépend surtout du débit montant du client
+         */
+        private boolean sampleRequestBodies = true;
+    }
+}
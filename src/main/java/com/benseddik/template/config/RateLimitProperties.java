@@ -0,0 +1,142 @@
+package com.benseddik.template.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Limitation du débit des requêtes (seaux à jetons)
+ * <p>
+ * Deux paliers : une garde contre les flots compte toutes les requêtes par adresse IP avant la
+ * vérification du JWT, puis les requêtes sont comptées par sujet du JWT (authentifiées) ou par
+ * adresse (anonymes). Dans ce second palier, chaque route consomme {@code cost} jetons (1 par
+ * défaut) ; les routes d'upload consomment en plus leur Content-Length dans un seau d'octets distinct.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+@Data
+public class RateLimitProperties {
+
+    public enum Store {
+        /**
+         * Seaux en mémoire, propres à chaque instance : avec N instances, un client obtient N fois la limite
+         */
+        LOCAL,
+        /**
+         * Seaux partagés dans PostgreSQL : limite globale à toutes les instances
+         */
+        JDBC
+    }
+
+    private Store store = Store.LOCAL;
+    /**
+     * Nombre maximal de clés suivies en mémoire ; au-delà, les clés les moins fréquentes sont évincées
+     */
+    private long maxBuckets = 100_000;
+    /**
+     * Premier palier, avant la vérification du JWT : toutes les requêtes par adresse IP, un jeton
+     * chacune. Garde contre les flots, plus large que {@code authenticated} : plusieurs utilisateurs
+     * derrière un même NAT ne doivent pas l'atteindre
+     */
+    private Limit ip = new Limit(3000, Duration.ofMinutes(1));
+    /**
+     * Second palier : requêtes anonymes, par adresse IP
+     */
+    private Limit anonymous = new Limit(300, Duration.ofMinutes(1));
+    /**
+     * Second palier : requêtes authentifiées, par sujet du JWT
+     */
+    private Limit authenticated = new Limit(600, Duration.ofMinutes(1));
+    /**
+     * Activer les seaux de requêtes du second palier ; le seau d'octets des uploads s'applique dans tous les cas
+     */
+    private boolean subjectTierEnabled = true;
+    private Bandwidth uploadBandwidth = new Bandwidth();
+    /**
+     * Routes dont le coût diffère d'un jeton ; la première qui correspond s'applique
+     */
+    private List<Route> routes = new ArrayList<>();
+    private Distributed distributed = new Distributed();
+
+    /**
+     * Seau de {@code capacity} jetons, rempli en continu sur {@code period}
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        private long capacity;
+        private Duration period;
+    }
+
+    /**
+     * Octets envoyés par client sur les routes d'upload
+     */
+    @Data
+    public static class Bandwidth {
+        private DataSize capacity = DataSize.ofMegabytes(200);
+        private Duration period = Duration.ofMinutes(1);
+        /**
+         * Volume décompté pour un envoi sans Content-Length (chunked)
+         */
+        private DataSize unknownLength = DataSize.ofMegabytes(10);
+    }
+
+    @Data
+    public static class Route {
+        /**
+         * Méthode HTTP ; toutes si absente
+         */
+        private String method;
+        /**
+         * Motif de chemin Ant (ex. /images/resumable/**)
+         */
+        private String path;
+        private long cost = 1;
+        /**
+         * Corps de la requête décompté du seau d'octets {@code upload-bandwidth}
+         */
+        private boolean upload;
+    }
+
+    /**
+     * Réglages du mode {@link Store#JDBC}
+     */
+    @Data
+    public static class Distributed {
+        /**
+         * Jetons réservés en base en un aller-retour puis consommés localement ; la limite globale
+         * n'est jamais dépassée, au prix d'au plus {@code leaseSize} jetons inutilisés par instance
+         */
+        private long leaseSize = 10;
+        /**
+         * Durée de vie des jetons réservés non consommés, abandonnés ensuite
+         */
+        private Duration leaseTtl = Duration.ofSeconds(1);
+        /**
+         * Délai maximal pendant lequel un refus est rejoué localement sans interroger la base
+         */
+        private Duration maxDenialCache = Duration.ofSeconds(1);
+        /**
+         * Intervalle de suppression des seaux inactifs (pleins) en base
+         */
+        private Duration cleanupInterval = Duration.ofMinutes(10);
+    }
+
+    /**
+     * Plus longue période de remplissage : au-delà, tout seau inactif est plein
+     */
+    public Duration longestPeriod() {
+        return Stream.of(ip.getPeriod(), anonymous.getPeriod(), authenticated.getPeriod(), uploadBandwidth.getPeriod())
+                .max(Duration::compareTo)
+                .orElseThrow();
+    }
+}
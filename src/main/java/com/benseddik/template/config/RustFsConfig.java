@@ -1,38 +1,151 @@
 package com.benseddik.template.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpConfigurationOption;
+import software.amazon.awssdk.http.SdkHttpService;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.multipart.MultipartConfiguration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.utils.AttributeMap;
 
 import java.net.URI;
+import java.util.ServiceLoader;
 
 @Configuration
 @RequiredArgsConstructor
 public class RustFsConfig {
 
     private final RustFsProperties rustFsProperties;
+    private final MeterRegistry meterRegistry;
 
     @Bean
     public S3Client s3Client() {
-        AwsBasicCredentials credentials = AwsBasicCredentials.create(
-                rustFsProperties.getAccessKey(),
-                rustFsProperties.getSecretKey()
-        );
-
         S3Configuration s3Config = S3Configuration.builder()
                 .pathStyleAccessEnabled(true)
                 .build();
 
         return S3Client.builder()
                 .endpointOverride(URI.create(rustFsProperties.getEndpoint()))
-                .credentialsProvider(StaticCredentialsProvider.create(credentials))
+                .credentialsProvider(credentialsProvider())
                 .region(Region.of(rustFsProperties.getRegion()))
                 .serviceConfiguration(s3Config)
+                .httpClient(syncHttpClient())
+                .overrideConfiguration(override -> override
+                        // Nouvelles tentatives gérées par StorageResilience, sous budget
+                        .retryStrategy(AwsRetryStrategy.doNotRetry())
+                        .addMetricPublisher(new S3ClientMetricPublisher(meterRegistry, "sync")))
+                .build();
+    }
+
+    /**
+     * Client asynchrone (Netty NIO) utilisé par le pipeline d'upload asynchrone :
+     * les transferts ne bloquent aucun thread Tomcat.
+     */
+    @Bean
+    public S3AsyncClient s3AsyncClient() {
+        MultipartConfiguration multipartConfig = MultipartConfiguration.builder()
+                .thresholdInBytes(rustFsProperties.getUpload().getMultipartThreshold().toBytes())
+                .minimumPartSizeInBytes(rustFsProperties.getUpload().getPartSize().toBytes())
+                .build();
+
+        return S3AsyncClient.builder()
+                .endpointOverride(URI.create(rustFsProperties.getEndpoint()))
+                .credentialsProvider(credentialsProvider())
+                .region(Region.of(rustFsProperties.getRegion()))
+                .forcePathStyle(true)
+                .multipartEnabled(true)
+                .multipartConfiguration(multipartConfig)
+                .httpClient(asyncHttpClient())
+                .overrideConfiguration(override -> override
+                        // Nouvelles tentatives gérées par StorageResilience, sous budget
+                        .retryStrategy(AwsRetryStrategy.doNotRetry())
+                        // Aucune tentative ne dépasse l'opération la plus longue (écriture)
+                        .apiCallAttemptTimeout(rustFsProperties.getResilience().getWriteTimeout())
+                        .addMetricPublisher(new S3ClientMetricPublisher(meterRegistry, "async")))
+                .build();
+    }
+
+    /**
+     * Signature d'URLs d'upload direct vers RustFS (aucun octet ne transite par l'API)
+     */
+    @Bean
+    public S3Presigner s3Presigner() {
+        S3Configuration s3Config = S3Configuration.builder()
+                .pathStyleAccessEnabled(true)
                 .build();
+
+        return S3Presigner.builder()
+                .endpointOverride(URI.create(rustFsProperties.getEndpoint()))
+                .credentialsProvider(credentialsProvider())
+                .region(Region.of(rustFsProperties.getRegion()))
+                .serviceConfiguration(s3Config)
+                .build();
+    }
+
+    /**
+     * Client HTTP synchrone selon {@code rustfs.transport.client}
+     * <p>
+     * Les réglages passent par les options génériques du SDK, respectées par chaque implémentation
+     * dans la mesure de ses capacités (le client URL-connection n'a par exemple pas de pool).
+     */
+    private SdkHttpClient syncHttpClient() {
+        RustFsProperties.Transport transport = rustFsProperties.getTransport();
+        RustFsProperties.Transport.HttpClientType type = transport.getClient();
+
+        SdkHttpService httpService = ServiceLoader.load(SdkHttpService.class).stream()
+                .filter(provider -> provider.type().getName().equals(type.getServiceClassName()))
+                .map(ServiceLoader.Provider::get)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(String.format(
+                        "Client HTTP %s introuvable : ajoutez la dépendance software.amazon.awssdk:%s",
+                        type, type.getArtifactId())));
+
+        AttributeMap options = AttributeMap.builder()
+                .put(SdkHttpConfigurationOption.MAX_CONNECTIONS, transport.getMaxConnections())
+                .put(SdkHttpConfigurationOption.CONNECTION_ACQUIRE_TIMEOUT, transport.getConnectionAcquireTimeout())
+                .put(SdkHttpConfigurationOption.CONNECTION_TIMEOUT, transport.getConnectionTimeout())
+                .put(SdkHttpConfigurationOption.READ_TIMEOUT, transport.getSocketTimeout())
+                .put(SdkHttpConfigurationOption.WRITE_TIMEOUT, transport.getSocketTimeout())
+                .put(SdkHttpConfigurationOption.CONNECTION_MAX_IDLE_TIMEOUT, transport.getConnectionMaxIdleTime())
+                .put(SdkHttpConfigurationOption.TCP_KEEPALIVE, transport.isTcpKeepAlive())
+                .build();
+
+        return httpService.createHttpClientBuilder().buildWithDefaults(options);
+    }
+
+    /**
+     * Client HTTP du client asynchrone (Netty), avec les mêmes limites de pool et délais
+     */
+    private SdkAsyncHttpClient asyncHttpClient() {
+        RustFsProperties.Transport transport = rustFsProperties.getTransport();
+        return NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(transport.getMaxConnections())
+                .connectionAcquisitionTimeout(transport.getConnectionAcquireTimeout())
+                .connectionTimeout(transport.getConnectionTimeout())
+                .readTimeout(transport.getSocketTimeout())
+                .writeTimeout(transport.getSocketTimeout())
+                .connectionMaxIdleTime(transport.getConnectionMaxIdleTime())
+                .tcpKeepAlive(transport.isTcpKeepAlive())
+                .build();
+    }
+
+    private StaticCredentialsProvider credentialsProvider() {
+        AwsBasicCredentials credentials = AwsBasicCredentials.create(
+                rustFsProperties.getAccessKey(),
+                rustFsProperties.getSecretKey()
+        );
+        return StaticCredentialsProvider.create(credentials);
     }
-}
\ No newline at end of file
+}
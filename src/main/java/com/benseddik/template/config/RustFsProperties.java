@@ -3,6 +3,10 @@ package com.benseddik.template.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
 
 @Component
 @ConfigurationProperties(prefix = "rustfs")
@@ -13,4 +17,400 @@ public class RustFsProperties {
     private String secretKey;
     private String bucketName;
     private String region;
-}
\ No newline at end of file
+    private Upload upload = new Upload();
+    private Variants variants = new Variants();
+    private Presign presign = new Presign();
+    private ExistenceCache existenceCache = new ExistenceCache();
+    private Delete delete = new Delete();
+    private DiskCache diskCache = new DiskCache();
+    private Validation validation = new Validation();
+    private Transport transport = new Transport();
+    private Resilience resilience = new Resilience();
+    private Storage storage = new Storage();
+    private Gc gc = new Gc();
+    private Quota quota = new Quota();
+    private Admission admission = new Admission();
+
+    /**
+     * Réglages du transfert des fichiers vers RustFS
+     */
+    @Data
+    public static class Upload {
+        /**
+         * Au-delà de cette taille, l'upload bascule en multipart S3
+         */
+        private DataSize multipartThreshold = DataSize.ofMegabytes(8);
+        /**
+         * Taille de chaque part envoyée en multipart (5 MB minimum côté S3)
+         */
+        private DataSize partSize = DataSize.ofMegabytes(5);
+        /**
+         * Clé des objets dérivée du SHA-256 du contenu : un contenu déjà stocké n'est pas renvoyé
+         */
+        private boolean contentAddressed = false;
+        /**
+         * Durée de conservation du statut d'un upload asynchrone
+         */
+        private Duration asyncStatusRetention = Duration.ofHours(1);
+        /**
+         * Nombre maximal de statuts d'uploads asynchrones conservés en mémoire
+         */
+        private long asyncStatusMaxEntries = 10_000;
+        /**
+         * Inactivité au-delà de laquelle un upload reprenable est abandonné (parts déjà envoyées annulées)
+         */
+        private Duration resumableExpiry = Duration.ofHours(1);
+        /**
+         * Nombre maximal d'uploads reprenables ouverts (chacun garde jusqu'à une part sur disque) ;
+         * au-delà, les nouveaux uploads sont refusés (503), les sessions ouvertes ne sont jamais évincées
+         */
+        private long resumableMaxSessions = 500;
+        /**
+         * Nombre maximal d'uploads reprenables ouverts par utilisateur (429 au-delà)
+         */
+        private int resumableMaxSessionsPerUser = 5;
+    }
+
+    /**
+     * Génération des déclinaisons (miniatures) après upload
+     */
+    @Data
+    public static class Variants {
+        private boolean enabled = true;
+        /**
+         * Plus grand côté (en pixels) de chaque déclinaison
+         */
+        private List<Integer> sizes = List.of(64, 256, 1024);
+        /**
+         * Format d'encodage (nom ImageIO) ; repli sur jpeg si aucun encodeur n'est disponible
+         */
+        private String format = "jpeg";
+        private float quality = 0.85f;
+        private int workerThreads = 2;
+        private int queueCapacity = 100;
+        /**
+         * Nombre maximal de pixels accepté pour l'image source avant sous-échantillonnage
+         */
+        private long maxSourcePixels = 100_000_000L;
+    }
+
+    /**
+     * Upload direct vers RustFS via URL présignée
+     */
+    @Data
+    public static class Presign {
+        /**
+         * Durée de validité de l'URL présignée
+         */
+        private Duration expiry = Duration.ofMinutes(10);
+        /**
+         * Nombre maximal d'uploads présignés en attente de finalisation
+         */
+        private long maxPendingUploads = 10_000;
+    }
+
+    /**
+     * Cache des clés connues présentes ou absentes, pour éviter les HEAD répétés
+     */
+    @Data
+    public static class ExistenceCache {
+        private long maxEntries = 100_000;
+        /**
+         * Durée après laquelle une clé est de nouveau vérifiée sur RustFS
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Suppressions groupées (DeleteObjects)
+     */
+    @Data
+    public static class Delete {
+        /**
+         * Nombre de requêtes DeleteObjects (1000 clés chacune) envoyées en parallèle
+         */
+        private int batchParallelism = 4;
+    }
+
+    /**
+     * Cache disque local des images servies (lecture seule, reconstruit à chaque démarrage)
+     */
+    @Data
+    public static class DiskCache {
+        private boolean enabled = true;
+        private String directory = System.getProperty("java.io.tmpdir") + "/template-image-cache";
+        /**
+         * Budget disque total ; au-delà, les images les moins utiles sont évincées
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(512);
+        /**
+         * Les images plus grosses sont servies directement depuis RustFS
+         */
+        private DataSize maxObjectSize = DataSize.ofMegabytes(10);
+    }
+
+    /**
+     * Limites vérifiées sur l'en-tête des images avant tout upload
+     */
+    @Data
+    public static class Validation {
+        /**
+         * Octets lus au maximum pour trouver les dimensions (métadonnées sautées comprises)
+         */
+        private DataSize maxHeaderBytes = DataSize.ofKilobytes(256);
+        private int maxWidth = 16_384;
+        private int maxHeight = 16_384;
+        /**
+         * Nombre de pixels maximal une fois l'image décodée (protection contre les bombes de décompression)
+         */
+        private long maxPixels = 50_000_000L;
+    }
+
+    /**
+     * Transport HTTP des clients S3
+     * <p>
+     * Le pool est partagé par tous les threads Tomcat (200 par défaut) : s'il est plus petit,
+     * les requêtes excédentaires attendent une connexion (voir {@code rustfs.http.pool.pending}).
+     */
+    @Data
+    public static class Transport {
+
+        /**
+         * Implémentation HTTP du client synchrone, chargée via le SPI du SDK
+         * ({@code SdkHttpService}) : seule Apache est fournie par défaut avec le module s3,
+         * les autres nécessitent d'ajouter leur dépendance.
+         */
+        public enum HttpClientType {
+            /**
+             * Apache HttpClient : pool configurable, keep-alive, métriques de pool
+             */
+            APACHE("software.amazon.awssdk.http.apache.ApacheSdkHttpService", "apache-client"),
+            /**
+             * HttpURLConnection du JDK : démarrage léger, pas de pool configurable
+             */
+            URL_CONNECTION("software.amazon.awssdk.http.urlconnection.UrlConnectionSdkHttpService", "url-connection-client"),
+            /**
+             * AWS CRT (natif) : faible empreinte mémoire, nécessite la bibliothèque native
+             */
+            CRT("software.amazon.awssdk.http.crt.AwsCrtSdkHttpService", "aws-crt-client");
+
+            private final String serviceClassName;
+            private final String artifactId;
+
+            HttpClientType(String serviceClassName, String artifactId) {
+                this.serviceClassName = serviceClassName;
+                this.artifactId = artifactId;
+            }
+
+            public String getServiceClassName() {
+                return serviceClassName;
+            }
+
+            public String getArtifactId() {
+                return artifactId;
+            }
+        }
+
+        private HttpClientType client = HttpClientType.APACHE;
+        /**
+         * Connexions simultanées maximales vers RustFS (par client, synchrone et asynchrone)
+         */
+        private int maxConnections = 50;
+        /**
+         * Attente maximale d'une connexion libre dans le pool avant échec
+         */
+        private Duration connectionAcquireTimeout = Duration.ofSeconds(2);
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+        /**
+         * Inactivité maximale sur une connexion établie (lecture/écriture)
+         */
+        private Duration socketTimeout = Duration.ofSeconds(30);
+        /**
+         * Durée au-delà de laquelle une connexion inutilisée est fermée
+         */
+        private Duration connectionMaxIdleTime = Duration.ofSeconds(60);
+        private boolean tcpKeepAlive = true;
+    }
+
+    /**
+     * Protection des appels RustFS (délais, nouvelles tentatives, disjoncteur, hedging)
+     */
+    @Data
+    public static class Resilience {
+        /**
+         * Délai total d'une lecture (HEAD/GET), nouvelles tentatives comprises
+         */
+        private Duration readTimeout = Duration.ofSeconds(2);
+        /**
+         * Délai total d'une écriture (PUT, part multipart)
+         */
+        private Duration writeTimeout = Duration.ofSeconds(30);
+        private Duration deleteTimeout = Duration.ofSeconds(5);
+        /**
+         * Nouvelles tentatives maximales par appel idempotent (lectures et suppressions)
+         */
+        private int maxRetries = 2;
+        private Duration retryBackoff = Duration.ofMillis(50);
+        /**
+         * Part des appels pouvant donner lieu à une nouvelle tentative (ou à un hedge) :
+         * chaque appel crédite le budget de cette fraction, chaque tentative supplémentaire en consomme 1
+         */
+        private double retryBudgetRatio = 0.1;
+        /**
+         * Réserve maximale du budget, qui absorbe les rafales d'erreurs ponctuelles
+         */
+        private int retryBudgetCapacity = 20;
+        /**
+         * Nombre de derniers appels observés par le disjoncteur
+         */
+        private int circuitWindowSize = 20;
+        /**
+         * Appels minimum dans la fenêtre avant que le disjoncteur puisse s'ouvrir
+         */
+        private int circuitMinimumCalls = 10;
+        /**
+         * Taux d'échec (en %) qui ouvre le disjoncteur
+         */
+        private int circuitFailureRateThreshold = 50;
+        /**
+         * Durée pendant laquelle les appels sont refusés (503 + Retry-After) avant un nouvel essai
+         */
+        private Duration circuitOpenDuration = Duration.ofSeconds(30);
+        /**
+         * Appels d'essai autorisés en semi-ouverture ; tous doivent réussir pour refermer le disjoncteur
+         */
+        private int circuitHalfOpenCalls = 3;
+        /**
+         * Lectures doublées quand la première réponse tarde (la plus rapide est retenue)
+         */
+        private boolean hedgeEnabled = false;
+        /**
+         * Attente avant d'envoyer la lecture de couverture (idéalement proche du p95 des GET)
+         */
+        private Duration hedgeDelay = Duration.ofMillis(150);
+    }
+
+    /**
+     * Choix et disposition du stockage des objets
+     */
+    @Data
+    public static class Storage {
+
+        public enum Type {
+            /**
+             * RustFS ou tout service compatible S3 (production)
+             */
+            S3,
+            /**
+             * Disque local : déploiement mono-nœud, développement hors ligne
+             */
+            LOCAL,
+            /**
+             * Mémoire : tests de performance du chemin d'upload sans réseau (contenu perdu à l'arrêt)
+             */
+            MEMORY
+        }
+
+        private Type type = Type.S3;
+        /**
+         * Nombre de caractères hexadécimaux du préfixe de hachage ajouté aux clés S3
+         * ({@code 3f/users/<uuid>.jpg}) pour répartir la charge sur plusieurs préfixes ; 0 le désactive.
+         * Modifier cette valeur rend les objets existants introuvables sans migration.
+         */
+        private int hashPrefixLength = 0;
+        /**
+         * Répertoire racine du stockage local
+         */
+        private String localDirectory = System.getProperty("java.io.tmpdir") + "/template-storage";
+        /**
+         * Base des URLs publiques hors S3 : les images sont servies par l'API
+         */
+        private String publicBaseUrl = "http://localhost:8080/api/v1/images";
+    }
+
+    /**
+     * Ramasse-miettes des images qui ne sont plus référencées
+     */
+    @Data
+    public static class Gc {
+        private boolean enabled = true;
+        /**
+         * Expression cron du passage planifié
+         */
+        private String cron = "0 30 3 * * *";
+        /**
+         * Dossiers parcourus : seuls ceux dont toutes les références sont connues (app_user, media_blob)
+         */
+        private List<String> folders = List.of("users");
+        /**
+         * Âge minimal d'un objet supprimable : couvre les uploads en cours, asynchrones ou présignés
+         * dont la référence n'est pas encore enregistrée
+         */
+        private Duration gracePeriod = Duration.ofHours(24);
+        /**
+         * Journaliser et compter les orphelins sans rien supprimer
+         */
+        private boolean dryRun = false;
+        /**
+         * Lots de suppression traités en parallèle pendant que le parcours continue
+         */
+        private int concurrency = 2;
+    }
+
+    /**
+     * Quotas d'upload par utilisateur, vérifiés en mémoire avant la lecture du corps de la requête
+     */
+    @Data
+    public static class Quota {
+        private boolean enabled = true;
+        /**
+         * Volume uploadé par jour (UTC) ; 0 = illimité
+         */
+        private DataSize maxDailyBytes = DataSize.ofMegabytes(200);
+        /**
+         * Nombre d'images uploadées par jour (UTC) ; 0 = illimité
+         */
+        private long maxDailyObjects = 200;
+        /**
+         * Volume total stocké ; 0 = illimité
+         */
+        private DataSize maxTotalBytes = DataSize.ofGigabytes(1);
+        /**
+         * Nombre total d'images stockées ; 0 = illimité
+         */
+        private long maxTotalObjects = 2_000;
+        /**
+         * Intervalle d'écriture différée des compteurs journaliers en base
+         */
+        private Duration flushInterval = Duration.ofSeconds(30);
+        /**
+         * Jours de compteurs journaliers conservés en base
+         */
+        private int retentionDays = 7;
+    }
+
+    /**
+     * Contrôle d'admission des uploads : octets en cours de réception et uploads simultanés,
+     * tous utilisateurs confondus, bornés pour protéger le tas
+     */
+    @Data
+    public static class Admission {
+        private boolean enabled = true;
+        /**
+         * Octets annoncés (Content-Length) des uploads en cours
+         */
+        private DataSize maxInFlightBytes = DataSize.ofMegabytes(128);
+        /**
+         * Uploads reçus simultanément
+         */
+        private int maxConcurrentUploads = 32;
+        /**
+         * Volume réservé pour une requête sans Content-Length (envoi chunked)
+         */
+        private DataSize unknownLengthBytes = DataSize.ofMegabytes(10);
+        /**
+         * Délai suggéré au client refusé (en-tête Retry-After)
+         */
+        private Duration retryAfter = Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,103 @@
+package com.benseddik.template.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+import software.amazon.awssdk.metrics.SdkMetric;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publication des métriques du SDK AWS (pool HTTP et appels S3) vers Micrometer
+ * <p>
+ * Le SDK publie, après chaque appel, l'état du pool de connexions observé lors de l'acquisition :
+ * connexions louées, requêtes en attente d'une connexion, connexions disponibles et durée
+ * d'acquisition. Une attente non nulle signifie que le pool est saturé.
+ */
+public class S3ClientMetricPublisher implements MetricPublisher {
+
+    private final MeterRegistry meterRegistry;
+    private final String clientName;
+    private final AtomicLong leased = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong available = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    private final Timer acquireTimer;
+    private final Counter retryCounter;
+
+    public S3ClientMetricPublisher(MeterRegistry meterRegistry, String clientName) {
+        this.meterRegistry = meterRegistry;
+        this.clientName = clientName;
+
+        Gauge.builder("rustfs.http.pool.leased", leased, AtomicLong::get)
+                .description("Connexions HTTP vers RustFS en cours d'utilisation")
+                .tag("client", clientName)
+                .register(meterRegistry);
+        Gauge.builder("rustfs.http.pool.pending", pending, AtomicLong::get)
+                .description("Requêtes en attente d'une connexion HTTP libre")
+                .tag("client", clientName)
+                .register(meterRegistry);
+        Gauge.builder("rustfs.http.pool.available", available, AtomicLong::get)
+                .description("Connexions HTTP ouvertes et inutilisées")
+                .tag("client", clientName)
+                .register(meterRegistry);
+        Gauge.builder("rustfs.http.pool.max", max, AtomicLong::get)
+                .description("Taille maximale du pool de connexions HTTP")
+                .tag("client", clientName)
+                .register(meterRegistry);
+        this.acquireTimer = Timer.builder("rustfs.http.pool.acquire")
+                .description("Durée d'acquisition d'une connexion HTTP dans le pool")
+                .tag("client", clientName)
+                .register(meterRegistry);
+        this.retryCounter = Counter.builder("rustfs.api.retries")
+                .description("Nouvelles tentatives d'appels S3 effectuées par le SDK")
+                .tag("client", clientName)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(MetricCollection metricCollection) {
+        String operation = first(metricCollection, CoreMetric.OPERATION_NAME, "unknown");
+        Boolean successful = first(metricCollection, CoreMetric.API_CALL_SUCCESSFUL, null);
+        Duration duration = first(metricCollection, CoreMetric.API_CALL_DURATION, null);
+        if (duration != null) {
+            Timer.builder("rustfs.api.call")
+                    .description("Durée des appels S3 vers RustFS, tentatives comprises")
+                    .tag("client", clientName)
+                    .tag("operation", operation)
+                    .tag("outcome", Boolean.TRUE.equals(successful) ? "success" : "error")
+                    .register(meterRegistry)
+                    .record(duration);
+        }
+        Integer retries = first(metricCollection, CoreMetric.RETRY_COUNT, null);
+        if (retries != null && retries > 0) {
+            retryCounter.increment(retries);
+        }
+
+        recordHttpMetrics(metricCollection);
+    }
+
+    private void recordHttpMetrics(MetricCollection collection) {
+        collection.metricValues(HttpMetric.LEASED_CONCURRENCY).forEach(leased::set);
+        collection.metricValues(HttpMetric.PENDING_CONCURRENCY_ACQUIRES).forEach(pending::set);
+        collection.metricValues(HttpMetric.AVAILABLE_CONCURRENCY).forEach(available::set);
+        collection.metricValues(HttpMetric.MAX_CONCURRENCY).forEach(max::set);
+        collection.metricValues(HttpMetric.CONCURRENCY_ACQUIRE_DURATION).forEach(acquireTimer::record);
+        collection.children().forEach(this::recordHttpMetrics);
+    }
+
+    private static <T> T first(MetricCollection collection, SdkMetric<T> metric, T fallback) {
+        return collection.metricValues(metric).stream().findFirst().orElse(fallback);
+    }
+
+    @Override
+    public void close() {
+        // Les compteurs appartiennent au MeterRegistry
+    }
+}
@@ -22,6 +22,8 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.header.writers.CrossOriginResourcePolicyHeaderWriter;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
+import org.springframework.security.web.util.matcher.RegexRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
@@ -35,6 +37,13 @@ import java.util.stream.Collectors;
 @Slf4j
 public class SecurityConfig {
 
+    /**
+     * GET /images/{folder}/{filename} uniquement : /images/uploads/{id} et /images/resumable/{id}
+     * (statuts d'upload) ont la même forme mais restent authentifiés
+     */
+    static final RequestMatcher PUBLIC_IMAGE_READ = RegexRequestMatcher.regexMatcher(
+            HttpMethod.GET, "^/images/(?!(?:uploads|resumable)/)[^/?]+/[^/?]+(\\?.*)?$");
+
     @Value("${app.cors.allowed-origins}")
     private String allowedOrigins;
 
@@ -88,6 +97,8 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/auth/register").permitAll()
                         .requestMatchers(HttpMethod.GET, "/users/me").authenticated()
                         .requestMatchers(HttpMethod.PUT, "/users/me").authenticated()
+                        // Lecture des images : remplace l'accès direct au bucket public (balises <img> sans jeton)
+                        .requestMatchers(PUBLIC_IMAGE_READ).permitAll()
                         .requestMatchers("/images/**").authenticated()
                         .requestMatchers("/admin/**").hasAnyRole("MODERATOR", "ADMIN")
                         .anyRequest().authenticated()
@@ -178,13 +189,15 @@ public class SecurityConfig {
                 "Content-Type",
                 "Accept",
                 "X-Request-Id",
-                "X-Correlation-Id"
+                "X-Correlation-Id",
+                "Upload-Offset"
         ));
         config.setExposedHeaders(List.of(
                 "X-RateLimit-Limit",
                 "X-RateLimit-Remaining",
                 "X-RateLimit-Reset",
-                "X-Correlation-Id"
+                "X-Correlation-Id",
+                "Upload-Offset"
         ));
         config.setMaxAge(3600L);
 
@@ -0,0 +1,60 @@
+package com.benseddik.template.domain;
+
+import com.benseddik.template.domain.enums.MediaEntityType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Image stockée sur RustFS, enregistrée à chaque upload et retirée à chaque suppression
+ * <p>
+ * Les listes et statistiques par propriétaire sont lues ici, jamais par un parcours du bucket.
+ */
+@Entity
+@Table(name = "media",
+        indexes = {
+                @Index(name = "idx_media_owner", columnList = "owner_id, created_date"),
+                @Index(name = "idx_media_entity", columnList = "entity_type, entity_id"),
+                @Index(name = "idx_media_object_key", columnList = "object_key")
+        })
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class Media extends AbstractAuditingEntity {
+
+    @Id @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    /**
+     * Sujet du JWT du propriétaire ({@link AppUser#getExternalId()})
+     */
+    @Column(name = "owner_id", nullable = false, length = 64)
+    private String ownerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 32)
+    private MediaEntityType entityType;
+
+    @Column(name = "entity_id", length = 64)
+    private String entityId;
+
+    @Column(name = "object_key", nullable = false, length = 255)
+    private String objectKey;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "mime_type", nullable = false, length = 50)
+    private String mimeType;
+
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height")
+    private Integer height;
+
+    /**
+     * SHA-256 du contenu, null s'il n'a pas été calculé (upload hors mode adressé par contenu)
+     */
+    @Column(name = "digest", length = 64)
+    private String digest;
+}
@@ -0,0 +1,39 @@
+package com.benseddik.template.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Objet RustFS adressé par son contenu (SHA-256), partagé entre plusieurs uploads identiques
+ */
+@Entity
+@Table(name = "media_blob",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_media_blob_object_key", columnNames = "object_key")
+        })
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class MediaBlob extends AbstractAuditingEntity {
+
+    @Id @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "object_key", nullable = false, length = 255)
+    private String objectKey;
+
+    @Column(name = "digest", nullable = false, length = 64)
+    private String digest;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    /**
+     * Objet présent sur RustFS ; faux tant que le premier upload de ce contenu n'a pas abouti
+     */
+    @Column(name = "stored", nullable = false)
+    private Boolean stored;
+}
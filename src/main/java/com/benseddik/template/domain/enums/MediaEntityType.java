@@ -2,4 +2,12 @@ package com.benseddik.template.domain.enums;
 
 public enum MediaEntityType {
     USER,        // Photo de profil utilisateur
+    OTHER;       // Image d'un dossier sans entité connue (dogs, walks...)
+
+    /**
+     * Type d'entité d'un dossier de stockage
+     */
+    public static MediaEntityType fromFolder(String folder) {
+        return "users".equals(folder) ? USER : OTHER;
+    }
 }
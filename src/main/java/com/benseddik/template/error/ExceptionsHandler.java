@@ -3,6 +3,7 @@ package com.benseddik.template.error;
 import com.benseddik.template.error.record.ErrorResponse;
 import com.benseddik.template.error.record.ExceptionWithErrorResponse;
 import com.benseddik.template.error.record.FieldError;
+import com.benseddik.template.service.ConcurrencyLimitService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
@@ -25,6 +26,7 @@ import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -68,6 +70,17 @@ public class ExceptionsHandler {
         return ResponseEntity.status(ex.getStatus()).body(b);
     }
 
+    /* ========= Erreurs levées par les services (ResponseStatusException) ========= */
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorResponse> handleResponseStatus(ResponseStatusException ex, HttpServletRequest req) {
+        HttpStatus status = HttpStatus.valueOf(ex.getStatusCode().value());
+        ConcurrencyLimitService.markDownstreamFailure(ex);
+        var body = ErrorResponse.of(status.value(), status.getReasonPhrase(), ex.getReason(), path(req), correlationId(), List.of());
+        // En-têtes portés par l'exception (ex: Retry-After sur un 503)
+        return ResponseEntity.status(status).headers(ex.getHeaders()).body(body);
+    }
+
     /* ========= Validation @RequestBody (Bean Validation) ========= */
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -204,6 +217,8 @@ public class ExceptionsHandler {
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleAny(Exception ex, HttpServletRequest req) {
         log.error("Unhandled error", ex);
+        // Pool de connexions épuisé, requête trop longue : la limite de concurrence doit baisser
+        ConcurrencyLimitService.markDownstreamFailure(ex);
         return respond(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error",
                 "An unexpected error occurred", path(req), List.of());
     }
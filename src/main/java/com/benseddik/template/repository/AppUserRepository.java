@@ -1,13 +1,25 @@
 package com.benseddik.template.repository;
 
 import com.benseddik.template.domain.AppUser;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface AppUserRepository extends JpaRepository<AppUser, UUID> {
     Optional<AppUser> findByExternalId(String externalId);
     Optional<AppUser> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    /**
+     * URLs des photos de profil, lues par lots sans charger les entités (transaction requise)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.photoUrl from AppUser u where u.photoUrl is not null")
+    Stream<String> streamPhotoUrls();
 }
@@ -0,0 +1,39 @@
+package com.benseddik.template.repository;
+
+import com.benseddik.template.domain.MediaBlob;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface MediaBlobRepository extends JpaRepository<MediaBlob, UUID> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from MediaBlob b where b.objectKey = :objectKey")
+    Optional<MediaBlob> findByObjectKeyForUpdate(@Param("objectKey") String objectKey);
+
+    @Modifying
+    @Query("update MediaBlob b set b.stored = true where b.objectKey = :objectKey and b.stored = false")
+    int markStored(@Param("objectKey") String objectKey);
+
+    /**
+     * Clés des objets encore référencés, lues par lots (transaction requise)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select b.objectKey from MediaBlob b")
+    Stream<String> streamObjectKeys();
+
+    @Query("select b.objectKey from MediaBlob b where b.objectKey in :objectKeys")
+    List<String> findExistingObjectKeys(@Param("objectKeys") Collection<String> objectKeys);
+}
@@ -0,0 +1,75 @@
+package com.benseddik.template.repository;
+
+import com.benseddik.template.domain.Media;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface MediaRepository extends JpaRepository<Media, UUID> {
+
+    /**
+     * Volume stocké par un propriétaire
+     */
+    interface OwnerUsage {
+        String getOwnerId();
+
+        Long getSizeBytes();
+
+        Long getObjects();
+    }
+
+    Page<Media> findByOwnerId(String ownerId, Pageable pageable);
+
+    @Query("select coalesce(sum(m.sizeBytes), 0) from Media m where m.ownerId = :ownerId")
+    long sumSizeBytesByOwnerId(@Param("ownerId") String ownerId);
+
+    List<Media> findByObjectKey(String objectKey);
+
+    boolean existsByObjectKeyAndOwnerId(String objectKey, String ownerId);
+
+    Optional<Media> findFirstByObjectKeyAndOwnerIdOrderByCreatedDateDesc(String objectKey, String ownerId);
+
+    @Query("select distinct m.objectKey from Media m where m.ownerId = :ownerId and m.objectKey in :objectKeys")
+    Set<String> findObjectKeysOwnedBy(@Param("objectKeys") Collection<String> objectKeys, @Param("ownerId") String ownerId);
+
+    @Modifying
+    @Query("delete from Media m where m.objectKey = :objectKey")
+    int deleteByObjectKey(@Param("objectKey") String objectKey);
+
+    /**
+     * Clés adressées par contenu d'un propriétaire, une par ligne (chacune porte une référence media_blob)
+     */
+    @Query("select m.objectKey from Media m where m.ownerId = :ownerId and m.digest is not null")
+    List<String> findContentAddressedKeysByOwnerId(@Param("ownerId") String ownerId);
+
+    @Modifying
+    @Query("delete from Media m where m.ownerId = :ownerId")
+    int deleteByOwnerId(@Param("ownerId") String ownerId);
+
+    /**
+     * Clés des images enregistrées, lues par lots (transaction requise)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select m.objectKey from Media m")
+    Stream<String> streamObjectKeys();
+
+    /**
+     * Volume et nombre d'images par propriétaire, lus par lots (transaction requise)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select m.ownerId as ownerId, sum(m.sizeBytes) as sizeBytes, count(m) as objects from Media m group by m.ownerId")
+    Stream<OwnerUsage> streamUsageByOwner();
+}
@@ -0,0 +1,84 @@
+package com.benseddik.template.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+
+/**
+ * Seaux à jetons partagés entre les instances (table rate_limit_bucket)
+ * <p>
+ * Le remplissage et la consommation tiennent dans un seul upsert : la ligne est verrouillée le
+ * temps de l'instruction, sans lecture préalable ni boucle de compare-and-swap. Le temps est celui
+ * de la base, pour que les horloges des instances n'interviennent pas. Une réservation est
+ * entière ou nulle et restitue dans le même upsert les jetons non consommés du bail précédent :
+ * aucun jeton retiré du seau n'est perdu.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RateLimitBucketRepository {
+
+    private static final String DB_NOW_MILLIS = "(extract(epoch from clock_timestamp()) * 1000)::bigint";
+
+    /**
+     * Jetons disponibles après remplissage depuis la dernière mise à jour et restitution
+     * ({@code excluded.updated_at} porte l'heure de la base au moment de l'instruction)
+     */
+    private static final String AVAILABLE = "least(:capacity, b.tokens"
+            + " + greatest(0, excluded.updated_at - b.updated_at) * :tokensPerMilli + :returned)";
+
+    /**
+     * Jetons accordés : jusqu'à {@code requested} si au moins {@code minimum} sont disponibles, aucun sinon
+     */
+    private static final String GRANTED = "(case when floor(%1$s) >= :minimum then least(:requested, floor(%1$s))"
+            .formatted(AVAILABLE) + " else 0 end)::bigint";
+
+    private static final String LEASE_SQL = """
+            insert into rate_limit_bucket as b (bucket_key, tokens, updated_at, last_grant)
+            select :key, :capacity - least(:requested, :capacity), clock.now_ms, least(:requested, :capacity)
+            from (select %1$s as now_ms) clock
+            on conflict (bucket_key) do update
+            set last_grant = %3$s,
+                tokens = %2$s - %3$s,
+                updated_at = greatest(b.updated_at, excluded.updated_at)
+            returning last_grant, tokens
+            """.formatted(DB_NOW_MILLIS, AVAILABLE, GRANTED);
+
+    /**
+     * Jetons obtenus par une réservation
+     *
+     * @param granted   Jetons retirés du seau pour l'appelant : 0, ou de {@code minimum} à {@code requested}
+     * @param remaining Jetons restant dans le seau partagé après la réservation
+     */
+    public record Grant(long granted, double remaining) {
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Restituer {@code returned} jetons puis retirer jusqu'à {@code requested} jetons du seau de
+     * {@code key}, aucun s'il en reste moins de {@code minimum} ; seau créé plein s'il n'existe pas
+     */
+    public Grant lease(String key, long requested, long minimum, long returned, long capacity, double tokensPerMilli) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("key", key)
+                .addValue("requested", requested)
+                .addValue("minimum", minimum)
+                .addValue("returned", returned)
+                .addValue("capacity", capacity)
+                .addValue("tokensPerMilli", tokensPerMilli);
+        return jdbcTemplate.queryForObject(LEASE_SQL, parameters,
+                (rs, rowNum) -> new Grant(rs.getLong("last_grant"), rs.getDouble("tokens")));
+    }
+
+    /**
+     * Supprimer les seaux inactifs depuis {@code idle} : remplis entre-temps, ils équivalent à un seau absent
+     */
+    public int deleteIdle(Duration idle) {
+        return jdbcTemplate.update(
+                "delete from rate_limit_bucket where updated_at < " + DB_NOW_MILLIS + " - :idleMillis",
+                new MapSqlParameterSource("idleMillis", idle.toMillis()));
+    }
+}
@@ -0,0 +1,64 @@
+package com.benseddik.template.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Compteurs journaliers d'upload (table upload_quota_usage)
+ * <p>
+ * Accès JDBC direct : les écritures sont des incréments groupés (upsert), sans entité à charger.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UploadQuotaUsageRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INCREMENT_SQL = """
+            insert into upload_quota_usage (owner_id, usage_day, bytes, objects)
+            values (?, ?, ?, ?)
+            on conflict (owner_id, usage_day) do update
+            set bytes = upload_quota_usage.bytes + excluded.bytes,
+                objects = upload_quota_usage.objects + excluded.objects
+            """;
+
+    /**
+     * Consommation d'un utilisateur sur une journée (ou incrément à y ajouter)
+     */
+    public record DailyUsage(String ownerId, LocalDate day, long bytes, long objects) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Ajouter des incréments aux compteurs existants, par lots de {@value #BATCH_SIZE}
+     */
+    public void incrementAll(List<DailyUsage> increments) {
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, increments, BATCH_SIZE, (ps, usage) -> {
+            ps.setString(1, usage.ownerId());
+            ps.setDate(2, Date.valueOf(usage.day()));
+            ps.setLong(3, usage.bytes());
+            ps.setLong(4, usage.objects());
+        });
+    }
+
+    public List<DailyUsage> findByDay(LocalDate day) {
+        return jdbcTemplate.query(
+                "select owner_id, usage_day, bytes, objects from upload_quota_usage where usage_day = ?",
+                (rs, rowNum) -> new DailyUsage(
+                        rs.getString("owner_id"),
+                        rs.getDate("usage_day").toLocalDate(),
+                        rs.getLong("bytes"),
+                        rs.getLong("objects")),
+                Date.valueOf(day));
+    }
+
+    public int deleteBefore(LocalDate day) {
+        return jdbcTemplate.update("delete from upload_quota_usage where usage_day < ?", Date.valueOf(day));
+    }
+}
@@ -0,0 +1,65 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import com.benseddik.template.service.dto.AsyncUploadStatusResponse;
+import com.benseddik.template.service.dto.ImageUploadResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Suivi en mémoire des uploads asynchrones
+ * <p>
+ * Les statuts sont bornés en nombre et expirent après {@code rustfs.upload.async-status-retention} :
+ * un client qui ne vient jamais consulter son statut ne fait pas grossir la mémoire.
+ */
+@Component
+public class AsyncUploadTracker {
+
+    private final Cache<String, AsyncUploadStatusResponse> statuses;
+
+    public AsyncUploadTracker(RustFsProperties rustFsProperties) {
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(rustFsProperties.getUpload().getAsyncStatusMaxEntries())
+                .expireAfterWrite(rustFsProperties.getUpload().getAsyncStatusRetention())
+                .build();
+    }
+
+    /**
+     * Enregistrer un nouvel upload en attente
+     */
+    public AsyncUploadStatusResponse start(String uploadedBy) {
+        AsyncUploadStatusResponse status = AsyncUploadStatusResponse.builder()
+                .uploadId(UUID.randomUUID().toString())
+                .status(AsyncUploadStatusResponse.Status.PENDING)
+                .uploadedBy(uploadedBy)
+                .submittedAt(Instant.now())
+                .build();
+        statuses.put(status.getUploadId(), status);
+        return status;
+    }
+
+    public void complete(String uploadId, ImageUploadResponse result) {
+        statuses.asMap().computeIfPresent(uploadId, (id, current) -> current.toBuilder()
+                .status(AsyncUploadStatusResponse.Status.COMPLETED)
+                .result(result)
+                .completedAt(Instant.now())
+                .build());
+    }
+
+    public void fail(String uploadId, String error) {
+        statuses.asMap().computeIfPresent(uploadId, (id, current) -> current.toBuilder()
+                .status(AsyncUploadStatusResponse.Status.FAILED)
+                .error(error)
+                .completedAt(Instant.now())
+                .build());
+    }
+
+    public Optional<AsyncUploadStatusResponse> find(String uploadId) {
+        return Optional.ofNullable(statuses.getIfPresent(uploadId));
+    }
+}
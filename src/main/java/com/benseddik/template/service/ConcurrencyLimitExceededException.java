@@ -0,0 +1,32 @@
+package com.benseddik.template.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+/**
+ * Requête refusée par la limite de concurrence de son groupe de routes :
+ * 503 accompagné d'un en-tête Retry-After, avant tout traitement
+ */
+public class ConcurrencyLimitExceededException extends ResponseStatusException {
+
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitExceededException(String reason, Duration retryAfter) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, reason);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+        return headers;
+    }
+}
@@ -0,0 +1,240 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Limite de concurrence adaptative par groupe de routes
+ * <p>
+ * Les seaux à jetons bornent le débit de chaque client, pas la charge totale : quand une dépendance
+ * ralentit, les requêtes s'empilent sur les threads Tomcat et la latence de tout le service
+ * s'effondre. Chaque groupe apprend ici la concurrence soutenable à partir de la latence observée
+ * ({@link GradientConcurrencyLimit}) et refuse aussitôt l'excédent (503 + Retry-After). Limite,
+ * requêtes en cours et refus sont exposés par groupe sous {@code concurrency.*}.
+ * <p>
+ * Seuls les échecs signalés par les dépendances elles-mêmes ({@link #markDownstreamFailure()} :
+ * RustFS, pool de connexions PostgreSQL, Keycloak et son JWKS) réduisent la limite : les refus produits localement (admission, quota, disjoncteur ouvert,
+ * cette limite même) ne disent rien de la capacité de l'aval.
+ */
+@Service
+@Slf4j
+public class ConcurrencyLimitService {
+
+    public static final String DEFAULT_GROUP = "default";
+    /**
+     * Attribut de requête posé quand un appel en aval a échoué pendant son traitement
+     */
+    public static final String DOWNSTREAM_FAILURE_ATTRIBUTE = ConcurrencyLimitService.class.getName() + ".DOWNSTREAM_FAILURE";
+
+    /**
+     * Issue d'une requête, qui détermine son effet sur la limite
+     */
+    public enum Outcome {
+        /**
+         * Latence prise en compte
+         */
+        SUCCESS,
+        /**
+         * Échec d'un appel en aval (délai dépassé, dépendance injoignable ou saturée) : la limite baisse
+         */
+        DROPPED,
+        /**
+         * Latence non représentative (refus local, traitement asynchrone, upload) : ignorée
+         */
+        IGNORED
+    }
+
+    /**
+     * Place occupée par une requête admise, rendue une seule fois
+     */
+    public final class Permit {
+
+        private final Group group;
+        private final long startNanos;
+        private final int inFlight;
+        // Groupe non limité : rien n'a été réservé
+        private final AtomicBoolean released;
+
+        private Permit(Group group, long startNanos, int inFlight) {
+            this.group = group;
+            this.startNanos = startNanos;
+            this.inFlight = inFlight;
+            this.released = new AtomicBoolean(group == null);
+        }
+
+        /**
+         * La latence des requêtes avec corps est représentative dans ce groupe
+         */
+        public boolean samplesRequestBodies() {
+            return group == null || group.sampleRequestBodies;
+        }
+
+        public void release(Outcome outcome) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            group.inFlight.decrementAndGet();
+            if (outcome != Outcome.IGNORED) {
+                group.limit.onSample(nanoClock.getAsLong() - startNanos, inFlight, outcome == Outcome.DROPPED);
+            }
+        }
+    }
+
+    private static final class Group {
+
+        private final String name;
+        private final List<String> paths;
+        private final boolean sampleRequestBodies;
+        private final GradientConcurrencyLimit limit;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter rejections;
+
+        private Group(String name, List<String> paths, boolean sampleRequestBodies,
+                      ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.paths = paths;
+            this.sampleRequestBodies = sampleRequestBodies;
+            this.limit = new GradientConcurrencyLimit(properties);
+            this.rejections = Counter.builder("concurrency.rejected")
+                    .description("Requêtes refusées par la limite de concurrence")
+                    .tag("group", name)
+                    .register(meterRegistry);
+            Gauge.builder("concurrency.limit", limit, GradientConcurrencyLimit::limit)
+                    .description("Limite de concurrence apprise")
+                    .tag("group", name)
+                    .register(meterRegistry);
+            Gauge.builder("concurrency.inflight", inFlight, AtomicInteger::get)
+                    .description("Requêtes en cours")
+                    .tag("group", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ConcurrencyLimitProperties properties;
+    private final LongSupplier nanoClock;
+    private final List<Group> groups = new ArrayList<>();
+    private final Group defaultGroup;
+
+    @Autowired
+    public ConcurrencyLimitService(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    ConcurrencyLimitService(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        for (ConcurrencyLimitProperties.Group group : properties.getGroups()) {
+            groups.add(new Group(group.getName(), List.copyOf(group.getPaths()), group.isSampleRequestBodies(),
+                    properties, meterRegistry));
+        }
+        this.defaultGroup = new Group(DEFAULT_GROUP, List.of(), true, properties, meterRegistry);
+    }
+
+    /**
+     * Occuper une place dans le groupe de la route
+     *
+     * @return Place à rendre en fin de requête
+     * @throws ConcurrencyLimitExceededException 503 si le groupe est à sa limite
+     */
+    public Permit acquire(String path) {
+        if (!properties.isEnabled()
+                || properties.getExcludedPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path))) {
+            return new Permit(null, 0, 0);
+        }
+
+        Group group = resolve(path);
+        while (true) {
+            int current = group.inFlight.get();
+            if (current >= group.limit.limit()) {
+                group.rejections.increment();
+                log.debug("Requête refusée par la limite de concurrence - Groupe: {}, Limite: {}", group.name, current);
+                throw new ConcurrencyLimitExceededException("Service surchargé, réessayez plus tard",
+                        properties.getRetryAfter());
+            }
+            if (group.inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(group, nanoClock.getAsLong(), current + 1);
+            }
+        }
+    }
+
+    /**
+     * Signaler l'échec d'un appel en aval à la requête en cours (sans effet hors requête, par
+     * exemple dans un callback asynchrone)
+     */
+    public static void markDownstreamFailure() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(DOWNSTREAM_FAILURE_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * Signaler l'échec si {@code ex} provient d'une dépendance injoignable ou trop lente
+     */
+    public static void markDownstreamFailure(Throwable ex) {
+        if (isDownstreamFailure(ex)) {
+            markDownstreamFailure();
+        }
+    }
+
+    /**
+     * Délai dépassé ou connexion refusée dans la chaîne des causes : attente du pool Hikari,
+     * requête SQL trop longue, appel HTTP à Keycloak ou à son JWKS
+     */
+    public static boolean isDownstreamFailure(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException || cause instanceof SQLTimeoutException
+                    || cause instanceof QueryTimeoutException || cause instanceof SocketTimeoutException
+                    || cause instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int limit(String group) {
+        return find(group).limit.limit();
+    }
+
+    public int inFlight(String group) {
+        return find(group).inFlight.get();
+    }
+
+    private Group resolve(String path) {
+        for (Group group : groups) {
+            for (String pattern : group.paths) {
+                if (pathMatcher.match(pattern, path)) {
+                    return group;
+                }
+            }
+        }
+        return defaultGroup;
+    }
+
+    private Group find(String name) {
+        return groups.stream()
+                .filter(group -> group.name.equals(name))
+                .findFirst()
+                .orElse(defaultGroup);
+    }
+}
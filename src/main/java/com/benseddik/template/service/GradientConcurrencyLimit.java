@@ -0,0 +1,75 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.ConcurrencyLimitProperties;
+
+/**
+ * Limite de concurrence apprise à partir de la latence, sur le modèle de Gradient2 (Netflix concurrency-limits)
+ * <p>
+ * La latence moyenne de chaque fenêtre de {@code windowSize} requêtes est comparée à une latence de
+ * référence (moyenne de long terme). Tant que l'écart reste dans la tolérance, la limite croît de
+ * sqrt(limite) par fenêtre ; au-delà, elle baisse dans le rapport des deux latences (au plus de
+ * moitié). Un 503/504 venu de l'aval la réduit de {@code backoffRatio}. Une fenêtre où la
+ * concurrence est restée sous la moitié de la limite n'apporte aucune information et l'ignore.
+ */
+final class GradientConcurrencyLimit {
+
+    private final ConcurrencyLimitProperties config;
+    private volatile double limit;
+    // État de la fenêtre et de la référence, protégé par le verrou de l'instance
+    private double longRtt;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    GradientConcurrencyLimit(ConcurrencyLimitProperties config) {
+        this.config = config;
+        this.limit = config.getInitialLimit();
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    /**
+     * @param rttNanos Durée de la requête
+     * @param inFlight Requêtes en cours au démarrage de celle-ci, elle comprise
+     * @param dropped  Appel en aval en échec (délai dépassé, dépendance injoignable ou saturée)
+     */
+    synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+        windowDropped |= dropped;
+        if (windowSamples < config.getWindowSize()) {
+            return;
+        }
+        update((double) windowRttSum / windowSamples, windowMaxInFlight, windowDropped);
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+    }
+
+    private void update(double shortRtt, int maxInFlight, boolean dropped) {
+        if (dropped) {
+            limit = clamp(limit * config.getBackoffRatio());
+            return;
+        }
+        longRtt = longRtt == 0 ? shortRtt : longRtt + (shortRtt - longRtt) / config.getLongWindow();
+        // Référence restée haute après une dégradation : rapprochée pour que la limite puisse remonter
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        if (maxInFlight < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, config.getRttTolerance() * longRtt / shortRtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - config.getSmoothing()) + target * config.getSmoothing());
+    }
+
+    private double clamp(double value) {
+        return Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), value));
+    }
+}
@@ -0,0 +1,142 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Cache disque local des images lues depuis RustFS (read-through)
+ * <p>
+ * L'index est un cache Caffeine pondéré par la taille des fichiers : l'éviction (W-TinyLFU,
+ * fréquence + récence) respecte un budget en octets et supprime le fichier correspondant.
+ * Chaque entrée a son propre fichier, si bien qu'un remplacement ne touche jamais un fichier
+ * en cours de lecture. Le répertoire est vidé au démarrage, l'index n'étant pas persistant.
+ */
+@Component
+@Slf4j
+public class ImageDiskCache {
+
+    /**
+     * Image présente sur le disque local
+     */
+    public record CachedImage(
+            Path file,
+            String contentType,
+            long size,
+            String eTag,
+            Instant lastModified
+    ) {}
+
+    private final RustFsProperties.DiskCache config;
+    private final Path directory;
+    private final Cache<String, CachedImage> index;
+    private final Counter servedBytesCounter;
+
+    public ImageDiskCache(RustFsProperties rustFsProperties, MeterRegistry meterRegistry) throws IOException {
+        this.config = rustFsProperties.getDiskCache();
+        this.directory = Path.of(config.getDirectory());
+        if (config.isEnabled()) {
+            Files.createDirectories(directory);
+            clearDirectory();
+        }
+
+        this.index = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxSize().toBytes())
+                .weigher((String key, CachedImage image) -> (int) Math.min(image.size(), Integer.MAX_VALUE))
+                .removalListener((String key, CachedImage image, RemovalCause cause) -> {
+                    if (image != null) {
+                        deleteQuietly(image.file());
+                    }
+                })
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, index, "image.disk");
+        Gauge.builder("image.disk.cache.size.bytes", index,
+                        cache -> cache.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L))
+                .description("Octets occupés sur le disque par le cache d'images")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.servedBytesCounter = Counter.builder("image.disk.cache.served")
+                .description("Octets d'images servis depuis le disque local au lieu de RustFS")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return true si une image de cette taille peut être mise en cache
+     */
+    public boolean accepts(Long size) {
+        return config.isEnabled() && size != null && size <= config.getMaxObjectSize().toBytes();
+    }
+
+    public Optional<CachedImage> get(String key) {
+        if (!config.isEnabled()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(index.getIfPresent(key));
+    }
+
+    /**
+     * Copier le flux sur le disque puis l'indexer ; le flux est entièrement consommé
+     */
+    public CachedImage put(String key, InputStream content, String contentType, long size,
+                           String eTag, Instant lastModified) throws IOException {
+        Path file = directory.resolve(UUID.randomUUID() + ".img");
+        Path tmp = directory.resolve(file.getFileName() + ".tmp");
+        try {
+            long copied = Files.copy(content, tmp);
+            if (copied != size) {
+                throw new IOException("Taille inattendue pour " + key + ": " + copied + " au lieu de " + size);
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw e;
+        }
+
+        CachedImage image = new CachedImage(file, contentType, size, eTag, lastModified);
+        index.put(key, image);
+        return image;
+    }
+
+    public void invalidate(String key) {
+        index.invalidate(key);
+    }
+
+    public void recordServed(long bytes) {
+        servedBytesCounter.increment(bytes);
+    }
+
+    private void clearDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(Files::isRegularFile).forEach(this::deleteQuietly);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Impossible de supprimer le fichier de cache {}: {}", file, e.getMessage());
+        }
+    }
+}
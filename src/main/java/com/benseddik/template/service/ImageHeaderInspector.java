@@ -0,0 +1,274 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Validation d'une image à partir de ses premiers octets uniquement
+ * <p>
+ * Le format réel est déduit de la signature (magic bytes) et non du Content-Type annoncé, puis
+ * la largeur et la hauteur sont lues dans l'en-tête (SOF JPEG, IHDR PNG, VP8/VP8L/VP8X WebP,
+ * boîte {@code ispe} HEIC). Les segments de métadonnées sont sautés sans être lus et la lecture
+ * est bornée : une image hostile (bombe de décompression, dimensions démesurées, contenu
+ * déguisé) est rejetée avant toute lecture complète ou tout envoi vers RustFS.
+ */
+@Component
+@RequiredArgsConstructor
+public class ImageHeaderInspector {
+
+    private static final int SIGNATURE_BYTES = 32;
+    private static final int MAX_BOX_DEPTH = 4;
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final Set<String> HEIC_BRANDS = Set.of("heic", "heix", "heim", "heis", "hevc", "hevx", "mif1", "msf1");
+
+    private final RustFsProperties rustFsProperties;
+
+    /**
+     * Format d'image reconnu par sa signature
+     */
+    public enum ImageFormat {
+        JPEG(Set.of("image/jpeg", "image/jpg")),
+        PNG(Set.of("image/png")),
+        WEBP(Set.of("image/webp")),
+        HEIC(Set.of("image/heic"));
+
+        private final Set<String> mimeTypes;
+
+        ImageFormat(Set<String> mimeTypes) {
+            this.mimeTypes = mimeTypes;
+        }
+
+        public boolean matches(String contentType) {
+            return contentType != null && mimeTypes.contains(contentType.toLowerCase());
+        }
+    }
+
+    /**
+     * Format et dimensions lus dans l'en-tête
+     */
+    public record ImageInfo(ImageFormat format, int width, int height) {}
+
+    /**
+     * Lire l'en-tête d'une image et vérifier format et dimensions
+     *
+     * @param content             Flux positionné au début du fichier (non fermé par cette méthode)
+     * @param declaredContentType Type MIME annoncé par le client
+     * @return Format réel et dimensions
+     * @throws ResponseStatusException 400 si le contenu est invalide, déguisé ou trop grand
+     * @throws IOException             en cas d'erreur de lecture
+     */
+    public ImageInfo inspect(InputStream content, String declaredContentType) throws IOException {
+        RustFsProperties.Validation config = rustFsProperties.getValidation();
+        InputStream bounded = BoundedInputStream.builder()
+                .setInputStream(content)
+                .setMaxCount(config.getMaxHeaderBytes().toBytes())
+                .setPropagateClose(false)
+                .get();
+
+        byte[] head = bounded.readNBytes(SIGNATURE_BYTES);
+        ImageFormat format = detectFormat(head);
+        if (format == null) {
+            throw badRequest("Format d'image non reconnu : le contenu ne correspond à aucun type accepté");
+        }
+        if (!format.matches(declaredContentType)) {
+            throw badRequest(String.format("Le contenu du fichier (%s) ne correspond pas au type déclaré (%s)",
+                    format.name().toLowerCase(), declaredContentType));
+        }
+
+        ImageInfo info;
+        try {
+            InputStream remaining = new SequenceInputStream(new ByteArrayInputStream(head), bounded);
+            info = switch (format) {
+                case PNG -> readPngDimensions(head);
+                case WEBP -> readWebpDimensions(head);
+                case JPEG -> readJpegDimensions(new DataInputStream(remaining));
+                case HEIC -> readHeicDimensions(new DataInputStream(remaining));
+            };
+        } catch (EOFException e) {
+            info = null;
+        }
+        if (info == null) {
+            throw badRequest(String.format("Impossible de lire les dimensions de l'image dans les %d premiers Ko",
+                    config.getMaxHeaderBytes().toKilobytes()));
+        }
+
+        checkDimensions(info, config);
+        return info;
+    }
+
+    private static ImageFormat detectFormat(byte[] head) {
+        if (head.length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return ImageFormat.JPEG;
+        }
+        if (head.length >= 8 && Arrays.equals(head, 0, 8, PNG_SIGNATURE, 0, 8)) {
+            return ImageFormat.PNG;
+        }
+        if (head.length >= 12 && ascii(head, 0, 4).equals("RIFF") && ascii(head, 8, 4).equals("WEBP")) {
+            return ImageFormat.WEBP;
+        }
+        if (head.length >= 12 && ascii(head, 4, 4).equals("ftyp") && HEIC_BRANDS.contains(ascii(head, 8, 4))) {
+            return ImageFormat.HEIC;
+        }
+        return null;
+    }
+
+    private static ImageInfo readPngDimensions(byte[] head) {
+        if (head.length < 24 || !ascii(head, 12, 4).equals("IHDR")) {
+            return null;
+        }
+        return new ImageInfo(ImageFormat.PNG, int32(head, 16), int32(head, 20));
+    }
+
+    private static ImageInfo readWebpDimensions(byte[] head) {
+        if (head.length < 30) {
+            return null;
+        }
+        return switch (ascii(head, 12, 4)) {
+            case "VP8 " -> new ImageInfo(ImageFormat.WEBP,
+                    ((head[26] & 0xFF) | (head[27] & 0xFF) << 8) & 0x3FFF,
+                    ((head[28] & 0xFF) | (head[29] & 0xFF) << 8) & 0x3FFF);
+            case "VP8L" -> new ImageInfo(ImageFormat.WEBP,
+                    1 + (((head[22] & 0x3F) << 8) | (head[21] & 0xFF)),
+                    1 + (((head[24] & 0x0F) << 10) | ((head[23] & 0xFF) << 2) | ((head[22] & 0xC0) >> 6)));
+            case "VP8X" -> new ImageInfo(ImageFormat.WEBP,
+                    1 + ((head[24] & 0xFF) | (head[25] & 0xFF) << 8 | (head[26] & 0xFF) << 16),
+                    1 + ((head[27] & 0xFF) | (head[28] & 0xFF) << 8 | (head[29] & 0xFF) << 16));
+            default -> null;
+        };
+    }
+
+    /**
+     * Parcourir les segments JPEG jusqu'au SOF, en sautant les métadonnées (EXIF, ICC...) sans les lire
+     */
+    private static ImageInfo readJpegDimensions(DataInputStream in) throws IOException {
+        in.skipNBytes(2); // SOI
+        while (true) {
+            if (in.readUnsignedByte() != 0xFF) {
+                return null;
+            }
+            int marker = in.readUnsignedByte();
+            while (marker == 0xFF) {
+                marker = in.readUnsignedByte(); // Octets de remplissage
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD8)) {
+                continue; // Marqueurs sans longueur
+            }
+            if (marker == 0xD9 || marker == 0xDA) {
+                return null; // Fin d'image ou données compressées sans SOF
+            }
+            int length = in.readUnsignedShort();
+            if (length < 2) {
+                return null;
+            }
+            if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+                in.readUnsignedByte(); // Précision
+                int height = in.readUnsignedShort();
+                int width = in.readUnsignedShort();
+                return new ImageInfo(ImageFormat.JPEG, width, height);
+            }
+            in.skipNBytes(length - 2L);
+        }
+    }
+
+    /**
+     * Parcourir les boîtes ISOBMFF (meta > iprp > ipco > ispe) ; la plus grande image décrite est retenue
+     */
+    private static ImageInfo readHeicDimensions(DataInputStream in) throws IOException {
+        int[] largest = new int[2];
+        // Les boîtes de premier niveau précèdent mdat ; au-delà, les dimensions ne sont plus attendues
+        while (true) {
+            long size = Integer.toUnsignedLong(in.readInt());
+            String type = readType(in);
+            long header = 8;
+            if (size == 1) {
+                size = in.readLong();
+                header = 16;
+            }
+            if (type.equals("meta")) {
+                in.skipNBytes(4); // version + flags
+                readHeicChildren(in, size - header - 4, largest, 0);
+                break;
+            }
+            if (type.equals("mdat") || size == 0 || size < header) {
+                break;
+            }
+            in.skipNBytes(size - header);
+        }
+        return largest[0] > 0 ? new ImageInfo(ImageFormat.HEIC, largest[0], largest[1]) : null;
+    }
+
+    private static void readHeicChildren(DataInputStream in, long remaining, int[] largest, int depth) throws IOException {
+        while (remaining >= 8 && depth <= MAX_BOX_DEPTH) {
+            long size = Integer.toUnsignedLong(in.readInt());
+            String type = readType(in);
+            if (size < 8 || size > remaining) {
+                return;
+            }
+            long body = size - 8;
+            switch (type) {
+                case "iprp", "ipco" -> readHeicChildren(in, body, largest, depth + 1);
+                case "ispe" -> {
+                    in.skipNBytes(4); // version + flags
+                    int width = in.readInt();
+                    int height = in.readInt();
+                    in.skipNBytes(body - 12);
+                    if ((long) width * height > (long) largest[0] * largest[1]) {
+                        largest[0] = width;
+                        largest[1] = height;
+                    }
+                }
+                default -> in.skipNBytes(body);
+            }
+            remaining -= size;
+        }
+        in.skipNBytes(remaining);
+    }
+
+    private void checkDimensions(ImageInfo info, RustFsProperties.Validation config) {
+        if (info.width() <= 0 || info.height() <= 0) {
+            throw badRequest(String.format("Dimensions d'image invalides (%dx%d)", info.width(), info.height()));
+        }
+        if (info.width() > config.getMaxWidth() || info.height() > config.getMaxHeight()) {
+            throw badRequest(String.format("Dimensions trop grandes (%dx%d, maximum %dx%d)",
+                    info.width(), info.height(), config.getMaxWidth(), config.getMaxHeight()));
+        }
+        long pixels = (long) info.width() * info.height();
+        if (pixels > config.getMaxPixels()) {
+            throw badRequest(String.format("Image trop grande une fois décodée (%d pixels, maximum %d)",
+                    pixels, config.getMaxPixels()));
+        }
+    }
+
+    private static String readType(DataInputStream in) throws IOException {
+        byte[] type = new byte[4];
+        in.readFully(type);
+        return new String(type, StandardCharsets.US_ASCII);
+    }
+
+    private static String ascii(byte[] bytes, int offset, int length) {
+        return new String(bytes, offset, length, StandardCharsets.US_ASCII);
+    }
+
+    private static int int32(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16
+                | (bytes[offset + 2] & 0xFF) << 8 | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static ResponseStatusException badRequest(String message) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
+    }
+}
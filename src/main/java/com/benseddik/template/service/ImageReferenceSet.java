@@ -0,0 +1,114 @@
+package com.benseddik.template.service;
+
+import java.util.Arrays;
+
+/**
+ * Ensemble compact des images référencées, pour le ramasse-miettes
+ * <p>
+ * Chaque référence est réduite à une empreinte de 64 bits de sa clé sans extension
+ * ({@code users/<uuid>}), rangée dans un tableau trié : 8 octets par référence au lieu d'une
+ * chaîne et d'une entrée de HashSet. Une collision ne peut que faire conserver un orphelin,
+ * jamais supprimer une image référencée.
+ */
+final class ImageReferenceSet {
+
+    private final long[] fingerprints;
+
+    private ImageReferenceSet(long[] fingerprints) {
+        this.fingerprints = fingerprints;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param stem Clé sans extension (dossier/nom)
+     */
+    boolean contains(String stem) {
+        return Arrays.binarySearch(fingerprints, fingerprint(stem)) >= 0;
+    }
+
+    int size() {
+        return fingerprints.length;
+    }
+
+    /**
+     * Clé sans extension : {@code users/<uuid>} pour {@code users/<uuid>.png}
+     */
+    static String stem(String key) {
+        int dot = key.lastIndexOf('.');
+        return dot > key.lastIndexOf('/') ? key.substring(0, dot) : key;
+    }
+
+    /**
+     * Clé {@code dossier/fichier} désignée par une URL publique, quelle que soit sa base
+     * (endpoint S3, préfixe de hachage, API) ; null si l'URL ne désigne pas un fichier
+     */
+    static String keyFromUrl(String url) {
+        String path = url.trim();
+        int end = path.length();
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            end = query;
+        }
+        int fragment = path.indexOf('#');
+        if (fragment >= 0 && fragment < end) {
+            end = fragment;
+        }
+        path = path.substring(0, end);
+
+        int lastSlash = path.lastIndexOf('/');
+        if (lastSlash <= 0 || lastSlash == path.length() - 1) {
+            return null;
+        }
+        int folderSlash = path.lastIndexOf('/', lastSlash - 1);
+        return path.substring(folderSlash + 1);
+    }
+
+    /**
+     * FNV-1a 64 bits suivi du finaliseur de MurmurHash3, qui disperse les bits de poids faible
+     */
+    private static long fingerprint(String stem) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < stem.length(); i++) {
+            hash ^= stem.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    static final class Builder {
+
+        private long[] fingerprints = new long[1024];
+        private int size;
+
+        /**
+         * @param key Clé {@code dossier/fichier}, avec ou sans extension
+         */
+        Builder add(String key) {
+            if (size == fingerprints.length) {
+                fingerprints = Arrays.copyOf(fingerprints, size * 2);
+            }
+            fingerprints[size++] = fingerprint(stem(key));
+            return this;
+        }
+
+        ImageReferenceSet build() {
+            long[] sorted = Arrays.copyOf(fingerprints, size);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[distinct - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            return new ImageReferenceSet(Arrays.copyOf(sorted, distinct));
+        }
+    }
+}
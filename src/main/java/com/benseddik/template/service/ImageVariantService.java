@@ -0,0 +1,321 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import com.benseddik.template.service.storage.ReadConditions;
+import com.benseddik.template.service.storage.StorageBackend;
+import com.benseddik.template.service.storage.StoredObject;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Génération des déclinaisons redimensionnées (miniatures) d'une image uploadée
+ * <p>
+ * Le traitement tourne sur un pool borné (threads et file d'attente) instrumenté par Micrometer :
+ * il ne consomme jamais de thread Tomcat. L'image source est relue depuis le stockage et décodée
+ * avec sous-échantillonnage, si bien que la mémoire dépend de la plus grande déclinaison
+ * et non de la résolution de l'original.
+ */
+@Service
+@Slf4j
+public class ImageVariantService {
+
+    private static final String FALLBACK_FORMAT = "jpeg";
+
+    private final StorageBackend storageBackend;
+    private final RustFsProperties rustFsProperties;
+    private final ObjectExistenceCache objectExistenceCache;
+    private final ExecutorService executor;
+    private final String outputFormat;
+    private final Timer generationTimer;
+    private final Counter generatedCounter;
+    private final Counter failedCounter;
+    private final Counter rejectedCounter;
+
+    public ImageVariantService(StorageBackend storageBackend, RustFsProperties rustFsProperties,
+                               ObjectExistenceCache objectExistenceCache, MeterRegistry meterRegistry) {
+        this.storageBackend = storageBackend;
+        this.rustFsProperties = rustFsProperties;
+        this.objectExistenceCache = objectExistenceCache;
+
+        RustFsProperties.Variants config = rustFsProperties.getVariants();
+        this.outputFormat = resolveOutputFormat(config.getFormat());
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                config.getWorkerThreads(),
+                config.getWorkerThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "image.variants");
+
+        this.generationTimer = Timer.builder("image.variants.generation")
+                .description("Durée de génération de toutes les déclinaisons d'une image")
+                .register(meterRegistry);
+        this.generatedCounter = Counter.builder("image.variants.generated")
+                .description("Déclinaisons générées et stockées")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("image.variants.failed")
+                .description("Images dont la génération des déclinaisons a échoué")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("image.variants.rejected")
+                .description("Générations refusées car la file d'attente est pleine")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Planifier la génération des déclinaisons d'une image déjà stockée
+     *
+     * @param key         Clé de l'original (folder/filename)
+     * @param contentType Type MIME de l'original
+     * @return Clés des déclinaisons indexées par taille (vide si la génération n'est pas planifiée)
+     */
+    public Map<Integer, String> scheduleVariants(String key, String contentType) {
+        Map<Integer, String> variantKeys = variantKeys(key, contentType);
+        if (variantKeys.isEmpty()) {
+            return variantKeys;
+        }
+
+        try {
+            executor.execute(() -> generateVariants(key));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("File de génération des déclinaisons pleine, déclinaisons ignorées pour {}", key);
+            return Map.of();
+        }
+        return variantKeys;
+    }
+
+    /**
+     * Clés des déclinaisons attendues pour une image, sans déclencher de génération
+     *
+     * @param key         Clé de l'original (folder/filename)
+     * @param contentType Type MIME de l'original
+     * @return Clés indexées par taille (vide si les déclinaisons sont désactivées ou le format non décodable)
+     */
+    public Map<Integer, String> variantKeys(String key, String contentType) {
+        RustFsProperties.Variants config = rustFsProperties.getVariants();
+        if (!config.isEnabled() || config.getSizes().isEmpty()) {
+            return Map.of();
+        }
+
+        if (contentType == null || !ImageIO.getImageReadersByMIMEType(contentType).hasNext()) {
+            log.debug("Aucun décodeur disponible pour {}, pas de déclinaisons pour {}", contentType, key);
+            return Map.of();
+        }
+
+        Map<Integer, String> variantKeys = new TreeMap<>();
+        config.getSizes().forEach(size -> variantKeys.put(size, variantKey(key, size)));
+        return variantKeys;
+    }
+
+    /**
+     * Supprimer en arrière-plan les déclinaisons d'une image (une seule suppression groupée)
+     *
+     * @param key Clé de l'original (folder/filename)
+     */
+    public void deleteVariants(String key) {
+        List<String> variantKeys = allVariantKeys(key);
+        if (variantKeys.isEmpty()) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    Map<String, String> errors = storageBackend.deleteAll(variantKeys);
+                    if (!errors.isEmpty()) {
+                        log.warn("Déclinaisons non supprimées pour {}: {}", key, errors);
+                        return;
+                    }
+                    log.debug("Déclinaisons supprimées pour {}", key);
+                } catch (Exception e) {
+                    log.warn("Impossible de supprimer les déclinaisons de {}: {}", key, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("File de génération des déclinaisons pleine, déclinaisons de {} non supprimées", key);
+        }
+    }
+
+    /**
+     * Clés de toutes les déclinaisons possibles d'un original, qu'elles aient été générées ou non
+     * (utile pour les suppressions : supprimer une clé absente est sans effet sur le stockage)
+     */
+    public List<String> allVariantKeys(String key) {
+        RustFsProperties.Variants config = rustFsProperties.getVariants();
+        if (!config.isEnabled()) {
+            return List.of();
+        }
+        return config.getSizes().stream()
+                .map(size -> variantKey(key, size))
+                .toList();
+    }
+
+    /**
+     * Clé prévisible d'une déclinaison : {@code users/<uuid>_256.jpg} pour {@code users/<uuid>.png}
+     */
+    public String variantKey(String key, int size) {
+        String baseKey = StringUtils.stripFilenameExtension(key);
+        return baseKey + "_" + size + "." + extensionFor(outputFormat);
+    }
+
+    /**
+     * Décoder l'original et stocker chaque déclinaison (exécuté sur le pool dédié)
+     */
+    void generateVariants(String key) {
+        RustFsProperties.Variants config = rustFsProperties.getVariants();
+        List<Integer> sizes = config.getSizes().stream().sorted(Comparator.reverseOrder()).toList();
+
+        Timer.Sample sample = Timer.start();
+        try {
+            BufferedImage source = readSubsampled(key, sizes.get(0), config.getMaxSourcePixels());
+
+            for (int size : sizes) {
+                byte[] encoded = encode(resize(source, size), config.getQuality());
+                storageBackend.put(variantKey(key, size), "image/" + outputFormat,
+                        new ByteArrayInputStream(encoded), encoded.length);
+                // Un 404 constaté avant la génération ne doit pas masquer la déclinaison
+                objectExistenceCache.markPresent(variantKey(key, size));
+                generatedCounter.increment();
+            }
+
+            log.debug("Déclinaisons générées pour {}: {}", key, sizes);
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.warn("Échec de génération des déclinaisons pour {}: {}", key, e.getMessage());
+        } finally {
+            sample.stop(generationTimer);
+        }
+    }
+
+    /**
+     * Décoder l'image avec un pas de sous-échantillonnage tel que le résultat reste
+     * au moins aussi grand que la plus grande déclinaison demandée
+     */
+    private BufferedImage readSubsampled(String key, int largestSize, long maxSourcePixels) throws IOException {
+        StoredObject object = storageBackend.get(key, ReadConditions.none())
+                .orElseThrow(() -> new IOException("Image source introuvable: " + key));
+
+        try (InputStream objectStream = object.openStream();
+             ImageInputStream imageStream = ImageIO.createImageInputStream(objectStream)) {
+
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageStream);
+            if (!readers.hasNext()) {
+                throw new IOException("Format d'image non décodable");
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageStream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    throw new IOException("Image source trop grande: " + width + "x" + height);
+                }
+
+                int step = Math.max(1, Math.max(width, height) / largestSize);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source, int maxSide) {
+        double ratio = Math.min(1.0, (double) maxSide / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        // RGB sans alpha : compatible avec l'encodeur JPEG
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encode(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(outputFormat).next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(imageOutput);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null && param.getCompressionTypes().length > 0) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    private static String resolveOutputFormat(String requested) {
+        String format = requested == null ? FALLBACK_FORMAT : requested.toLowerCase(Locale.ROOT);
+        if (ImageIO.getImageWritersByFormatName(format).hasNext()) {
+            return format;
+        }
+        log.warn("Aucun encodeur ImageIO pour le format '{}', les déclinaisons seront encodées en {}",
+                format, FALLBACK_FORMAT);
+        return FALLBACK_FORMAT;
+    }
+
+    private static String extensionFor(String format) {
+        return "jpeg".equals(format) ? "jpg" : format;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -71,7 +71,8 @@ public class KeycloakService {
             log.error("Erreur lors de la création de l'utilisateur dans Keycloak", e);
             throw new ResponseStatusException(
                     HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Erreur lors de la création de l'utilisateur: " + e.getMessage()
+                    "Erreur lors de la création de l'utilisateur: " + e.getMessage(),
+                    e
             );
         }
     }
@@ -149,7 +150,8 @@ public class KeycloakService {
             log.error("Erreur lors de la suppression de l'utilisateur dans Keycloak: {}", externalId, e);
             throw new ResponseStatusException(
                     HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Erreur lors de la suppression de l'utilisateur: " + e.getMessage()
+                    "Erreur lors de la suppression de l'utilisateur: " + e.getMessage(),
+                    e
             );
         }
     }
@@ -0,0 +1,94 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.domain.MediaBlob;
+import com.benseddik.template.repository.MediaBlobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Comptage des références des objets adressés par leur contenu
+ * <p>
+ * Chaque upload d'un contenu déjà connu incrémente le compteur au lieu de renvoyer les octets ;
+ * l'objet RustFS n'est supprimé que lorsque plus aucune référence ne subsiste. Tant que le premier
+ * PUT d'un contenu n'a pas abouti ({@link #markStored(String)}), les uploads concurrents du même
+ * contenu envoient leurs propres octets : si ce premier PUT échoue, l'objet existe quand même.
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+@Slf4j
+public class MediaBlobService {
+
+    private final MediaBlobRepository mediaBlobRepository;
+
+    public enum ReleaseResult {
+        /** Objet inconnu (upload antérieur au mode adressé par contenu) */
+        UNTRACKED,
+        /** D'autres références existent encore, l'objet doit être conservé */
+        STILL_REFERENCED,
+        /** Dernière référence libérée, l'objet peut être supprimé */
+        UNREFERENCED
+    }
+
+    /**
+     * Ajouter une référence vers un objet
+     *
+     * @return true si l'objet est nouveau ou pas encore présent sur RustFS et doit être envoyé
+     */
+    public boolean acquire(String objectKey, String digest, long sizeBytes) {
+        return mediaBlobRepository.findByObjectKeyForUpdate(objectKey)
+                .map(blob -> {
+                    blob.setRefCount(blob.getRefCount() + 1);
+                    if (!Boolean.TRUE.equals(blob.getStored())) {
+                        log.debug("Contenu {} en cours d'envoi par un autre upload, envoi propre", objectKey);
+                        return true;
+                    }
+                    log.debug("Contenu déjà stocké {}, références: {}", objectKey, blob.getRefCount());
+                    return false;
+                })
+                .orElseGet(() -> {
+                    mediaBlobRepository.saveAndFlush(MediaBlob.builder()
+                            .objectKey(objectKey)
+                            .digest(digest)
+                            .sizeBytes(sizeBytes)
+                            .refCount(1)
+                            .stored(false)
+                            .build());
+                    return true;
+                });
+    }
+
+    /**
+     * Signaler que l'objet est présent sur RustFS : les uploads suivants du même contenu n'enverront plus d'octets
+     */
+    public void markStored(String objectKey) {
+        mediaBlobRepository.markStored(objectKey);
+    }
+
+    /**
+     * Oublier un objet supprimé pour tous ses propriétaires (modération) : un nouvel upload du même
+     * contenu devra renvoyer les octets
+     */
+    public void forget(String objectKey) {
+        mediaBlobRepository.findByObjectKeyForUpdate(objectKey).ifPresent(mediaBlobRepository::delete);
+    }
+
+    /**
+     * Retirer une référence vers un objet
+     */
+    public ReleaseResult release(String objectKey) {
+        return mediaBlobRepository.findByObjectKeyForUpdate(objectKey)
+                .map(blob -> {
+                    if (blob.getRefCount() > 1) {
+                        blob.setRefCount(blob.getRefCount() - 1);
+                        log.debug("Référence retirée pour {}, restantes: {}", objectKey, blob.getRefCount());
+                        return ReleaseResult.STILL_REFERENCED;
+                    }
+                    mediaBlobRepository.delete(blob);
+                    return ReleaseResult.UNREFERENCED;
+                })
+                .orElse(ReleaseResult.UNTRACKED);
+    }
+}
@@ -0,0 +1,171 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.domain.Media;
+import com.benseddik.template.domain.enums.MediaEntityType;
+import com.benseddik.template.repository.MediaRepository;
+import com.benseddik.template.service.dto.MediaPageResponse;
+import com.benseddik.template.service.dto.MediaResponse;
+import com.benseddik.template.service.storage.StorageBackend;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Métadonnées des images stockées (table media)
+ * <p>
+ * Une ligne est écrite à chaque upload et retirée à chaque suppression : « quelles images
+ * possède cet utilisateur, et combien pèsent-elles » se résout par l'index sur le propriétaire
+ * au lieu d'un parcours du bucket.
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+@Slf4j
+public class MediaService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int OWNERSHIP_BATCH_SIZE = 1000;
+
+    private final MediaRepository mediaRepository;
+    private final StorageBackend storageBackend;
+    private final UploadQuotaService uploadQuotaService;
+    private final MediaBlobService mediaBlobService;
+
+    /**
+     * Enregistrer une image uploadée
+     *
+     * @param ownerId   Sujet du JWT du propriétaire
+     * @param key       Clé de l'image (folder/filename)
+     * @param imageInfo Dimensions lues dans l'en-tête, ou null
+     * @param digest    SHA-256 du contenu, ou null s'il n'a pas été calculé
+     */
+    public void record(String ownerId, String key, long sizeBytes, String mimeType,
+                       ImageHeaderInspector.ImageInfo imageInfo, String digest) {
+        MediaEntityType entityType = MediaEntityType.fromFolder(key.substring(0, key.indexOf('/')));
+        mediaRepository.save(Media.builder()
+                .ownerId(ownerId)
+                .entityType(entityType)
+                .entityId(entityType == MediaEntityType.USER ? ownerId : null)
+                .objectKey(key)
+                .sizeBytes(sizeBytes)
+                .mimeType(mimeType)
+                .width(imageInfo != null ? imageInfo.width() : null)
+                .height(imageInfo != null ? imageInfo.height() : null)
+                .digest(digest)
+                .build());
+        uploadQuotaService.recordUpload(ownerId, sizeBytes);
+    }
+
+    /**
+     * L'objet a été supprimé du stockage : toutes ses lignes disparaissent
+     */
+    public void removeAll(String key) {
+        List<Media> medias = mediaRepository.findByObjectKey(key);
+        medias.forEach(media -> uploadQuotaService.recordRemoval(media.getOwnerId(), media.getSizeBytes()));
+        int removed = mediaRepository.deleteByObjectKey(key);
+        log.debug("Métadonnées supprimées pour {}: {}", key, removed);
+    }
+
+    /**
+     * Retirer la référence d'un propriétaire vers un contenu partagé ; celles des autres restent
+     *
+     * @return false si ce propriétaire n'a pas uploadé cette image
+     */
+    public boolean removeOne(String key, String ownerId) {
+        return mediaRepository.findFirstByObjectKeyAndOwnerIdOrderByCreatedDateDesc(key, ownerId)
+                .map(media -> {
+                    mediaRepository.delete(media);
+                    uploadQuotaService.recordRemoval(media.getOwnerId(), media.getSizeBytes());
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    /**
+     * L'image a été uploadée par ce propriétaire (une URL saisie librement ne suffit pas)
+     */
+    @Transactional(readOnly = true)
+    public boolean isOwnedBy(String key, String ownerId) {
+        return mediaRepository.existsByObjectKeyAndOwnerId(key, ownerId);
+    }
+
+    /**
+     * Parmi ces clés, celles que ce propriétaire a uploadées (une requête par lot de 1000 clés)
+     */
+    @Transactional(readOnly = true)
+    public Set<String> ownedKeys(Collection<String> keys, String ownerId) {
+        List<String> distinct = keys.stream().distinct().toList();
+        Set<String> owned = new HashSet<>();
+        for (int from = 0; from < distinct.size(); from += OWNERSHIP_BATCH_SIZE) {
+            owned.addAll(mediaRepository.findObjectKeysOwnedBy(
+                    distinct.subList(from, Math.min(from + OWNERSHIP_BATCH_SIZE, distinct.size())), ownerId));
+        }
+        return owned;
+    }
+
+    /**
+     * Compte supprimé : ses images deviennent orphelines et seront retirées par le ramasse-miettes
+     * <p>
+     * Les références vers les contenus partagés sont rendues d'abord : un contenu qui n'est plus
+     * référencé quitte media_blob et redevient visible pour le ramasse-miettes.
+     */
+    public void removeOwner(String ownerId) {
+        mediaRepository.findContentAddressedKeysByOwnerId(ownerId).forEach(mediaBlobService::release);
+        int removed = mediaRepository.deleteByOwnerId(ownerId);
+        uploadQuotaService.forgetOwner(ownerId);
+        log.info("Métadonnées des images supprimées pour {}: {}", ownerId, removed);
+    }
+
+    /**
+     * Images d'un propriétaire, de la plus récente à la plus ancienne
+     *
+     * @param page Numéro de page (à partir de 0)
+     * @param size Taille de page (1 à 100)
+     */
+    @Transactional(readOnly = true)
+    public MediaPageResponse listForOwner(String ownerId, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Pagination invalide: page >= 0 et taille entre 1 et " + MAX_PAGE_SIZE
+            );
+        }
+
+        Page<Media> medias = mediaRepository.findByOwnerId(ownerId,
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdDate")));
+
+        return MediaPageResponse.builder()
+                .items(medias.map(this::toResponse).getContent())
+                .page(page)
+                .size(size)
+                .totalElements(medias.getTotalElements())
+                .totalPages(medias.getTotalPages())
+                .totalSizeBytes(mediaRepository.sumSizeBytesByOwnerId(ownerId))
+                .build();
+    }
+
+    private MediaResponse toResponse(Media media) {
+        return MediaResponse.builder()
+                .key(media.getObjectKey())
+                .imageUrl(storageBackend.publicUrl(media.getObjectKey()))
+                .entityType(media.getEntityType())
+                .sizeBytes(media.getSizeBytes())
+                .mimeType(media.getMimeType())
+                .width(media.getWidth())
+                .height(media.getHeight())
+                .digest(media.getDigest())
+                .createdAt(media.getCreatedDate())
+                .build();
+    }
+}
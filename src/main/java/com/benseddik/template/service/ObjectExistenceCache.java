@@ -0,0 +1,48 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Cache borné des clés connues présentes ou absentes sur RustFS
+ * <p>
+ * Alimenté par les uploads, les suppressions et les HEAD : une vérification répétée ou un 404
+ * déjà constaté ne coûte plus d'aller-retour. Les entrées expirent pour rattraper les
+ * modifications faites hors de l'application. Succès/échecs exposés via {@code cache.gets}.
+ */
+@Component
+public class ObjectExistenceCache {
+
+    private final Cache<String, Boolean> existence;
+
+    public ObjectExistenceCache(RustFsProperties rustFsProperties, MeterRegistry meterRegistry) {
+        RustFsProperties.ExistenceCache config = rustFsProperties.getExistenceCache();
+        this.existence = Caffeine.newBuilder()
+                .maximumSize(config.getMaxEntries())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, existence, "rustfs.object.existence");
+    }
+
+    /**
+     * @return présence connue de la clé, vide si elle n'est pas en cache
+     */
+    public Optional<Boolean> lookup(String key) {
+        return Optional.ofNullable(existence.getIfPresent(key));
+    }
+
+    public void markPresent(String key) {
+        existence.put(key, Boolean.TRUE);
+    }
+
+    public void markAbsent(String key) {
+        existence.put(key, Boolean.FALSE);
+    }
+}
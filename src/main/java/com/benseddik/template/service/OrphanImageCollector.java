@@ -0,0 +1,297 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import com.benseddik.template.repository.AppUserRepository;
+import com.benseddik.template.repository.MediaBlobRepository;
+import com.benseddik.template.repository.MediaRepository;
+import com.benseddik.template.service.storage.ListedObject;
+import com.benseddik.template.service.storage.StorageBackend;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Ramasse-miettes des images que plus rien ne référence
+ * <p>
+ * Une photo de profil remplacée ou un compte supprimé laissent leurs objets dans le bucket.
+ * Chaque passage charge les références ({@code app_user.photo_url} et {@code media_blob}) dans un
+ * {@link ImageReferenceSet} compact, parcourt les dossiers configurés page par page et supprime par
+ * lots les objets non référencés plus anciens que le délai de grâce. Une déclinaison
+ * ({@code <nom>_256.jpg}) suit le sort de son original. Les lots sont supprimés en parallèle
+ * de façon bornée pendant que le parcours continue.
+ */
+@Service
+@ConditionalOnProperty(prefix = "rustfs.gc", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OrphanImageCollector {
+
+    private static final Pattern VARIANT_STEM = Pattern.compile("(.+)_(\\d{1,5})");
+
+    /**
+     * Bilan d'un passage
+     *
+     * @param scanned Objets parcourus
+     * @param orphans Objets non référencés plus anciens que le délai de grâce
+     * @param deleted Objets supprimés
+     * @param failed  Objets dont la suppression a échoué
+     * @param dryRun  Passage à blanc : rien n'a été supprimé
+     */
+    public record Report(long scanned, long orphans, long deleted, long failed, boolean dryRun) {
+    }
+
+    private final StorageBackend storageBackend;
+    private final AppUserRepository appUserRepository;
+    private final MediaBlobRepository mediaBlobRepository;
+    private final MediaRepository mediaRepository;
+    private final ObjectExistenceCache objectExistenceCache;
+    private final ImageDiskCache imageDiskCache;
+    private final RustFsProperties rustFsProperties;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Clock clock;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong lastSuccess = new AtomicLong();
+    private final AtomicInteger referenceCount = new AtomicInteger();
+    private final Counter scannedCounter;
+    private final Counter orphanCounter;
+    private final Counter deletedCounter;
+    private final Counter failedCounter;
+    private final Timer durationTimer;
+
+    @Autowired
+    public OrphanImageCollector(StorageBackend storageBackend, AppUserRepository appUserRepository,
+                                MediaBlobRepository mediaBlobRepository, MediaRepository mediaRepository,
+                                ObjectExistenceCache objectExistenceCache, ImageDiskCache imageDiskCache,
+                                RustFsProperties rustFsProperties,
+                                PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this(storageBackend, appUserRepository, mediaBlobRepository, mediaRepository, objectExistenceCache,
+                imageDiskCache, rustFsProperties, transactionManager, meterRegistry, Clock.systemUTC());
+    }
+
+    OrphanImageCollector(StorageBackend storageBackend, AppUserRepository appUserRepository,
+                         MediaBlobRepository mediaBlobRepository, MediaRepository mediaRepository,
+                         ObjectExistenceCache objectExistenceCache, ImageDiskCache imageDiskCache,
+                         RustFsProperties rustFsProperties,
+                         PlatformTransactionManager transactionManager, MeterRegistry meterRegistry, Clock clock) {
+        this.storageBackend = storageBackend;
+        this.appUserRepository = appUserRepository;
+        this.mediaBlobRepository = mediaBlobRepository;
+        this.mediaRepository = mediaRepository;
+        this.objectExistenceCache = objectExistenceCache;
+        this.imageDiskCache = imageDiskCache;
+        this.rustFsProperties = rustFsProperties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.clock = clock;
+
+        this.scannedCounter = Counter.builder("rustfs.gc.scanned")
+                .description("Objets parcourus par le ramasse-miettes")
+                .register(meterRegistry);
+        this.orphanCounter = Counter.builder("rustfs.gc.orphans")
+                .description("Objets non référencés trouvés (supprimés ou non selon le mode)")
+                .register(meterRegistry);
+        this.deletedCounter = Counter.builder("rustfs.gc.deleted")
+                .description("Objets orphelins supprimés")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("rustfs.gc.failed")
+                .description("Objets orphelins dont la suppression a échoué")
+                .register(meterRegistry);
+        this.durationTimer = Timer.builder("rustfs.gc.duration")
+                .description("Durée d'un passage du ramasse-miettes")
+                .register(meterRegistry);
+        Gauge.builder("rustfs.gc.running", running, flag -> flag.get() ? 1 : 0)
+                .description("1 pendant un passage du ramasse-miettes")
+                .register(meterRegistry);
+        Gauge.builder("rustfs.gc.references", referenceCount, AtomicInteger::get)
+                .description("Images référencées lors du dernier passage")
+                .register(meterRegistry);
+        Gauge.builder("rustfs.gc.last.success", lastSuccess, AtomicLong::get)
+                .description("Fin du dernier passage réussi (secondes epoch)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${rustfs.gc.cron:0 30 3 * * *}")
+    public void scheduledCollect() {
+        try {
+            collect();
+        } catch (RuntimeException e) {
+            log.error("Échec du ramasse-miettes des images: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Exécuter un passage complet
+     *
+     * @return Bilan du passage, null si un passage est déjà en cours
+     */
+    public Report collect() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Ramasse-miettes des images déjà en cours, passage ignoré");
+            return null;
+        }
+
+        RustFsProperties.Gc config = rustFsProperties.getGc();
+        int concurrency = Math.max(1, config.getConcurrency());
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "image-gc");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Timer.Sample sample = Timer.start();
+        AtomicLong scanned = new AtomicLong();
+        AtomicLong orphans = new AtomicLong();
+        AtomicLong deleted = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+
+        try {
+            // La limite est fixée avant de lire les références : un objet référencé pendant le
+            // passage est forcément plus récent qu'elle, sauf réutilisation d'un contenu (revérifiée)
+            Instant cutoff = clock.instant().minus(config.getGracePeriod());
+            ImageReferenceSet references = loadReferences();
+            referenceCount.set(references.size());
+            log.info("Ramasse-miettes des images - Références: {}, Dossiers: {}, Limite: {}, À blanc: {}",
+                    references.size(), config.getFolders(), cutoff, config.isDryRun());
+
+            Semaphore inFlight = new Semaphore(concurrency);
+            List<CompletableFuture<Void>> batches = new ArrayList<>();
+            try {
+                for (String folder : config.getFolders()) {
+                    storageBackend.list(folder, page -> {
+                        scanned.addAndGet(page.size());
+                        scannedCounter.increment(page.size());
+
+                        List<String> candidates = page.stream()
+                                .filter(object -> object.lastModified() != null && object.lastModified().isBefore(cutoff))
+                                .map(ListedObject::key)
+                                .filter(key -> !references.contains(originalStem(key)))
+                                .toList();
+                        if (candidates.isEmpty()) {
+                            return;
+                        }
+                        orphans.addAndGet(candidates.size());
+                        orphanCounter.increment(candidates.size());
+
+                        if (config.isDryRun()) {
+                            candidates.forEach(key -> log.info("Ramasse-miettes à blanc, orphelin conservé: {}", key));
+                            return;
+                        }
+                        inFlight.acquireUninterruptibly();
+                        batches.add(CompletableFuture
+                                .runAsync(() -> deleteBatch(candidates, deleted, failed), executor)
+                                .whenComplete((result, error) -> inFlight.release()));
+                    });
+                }
+            } finally {
+                // Les lots déjà lancés vont à leur terme, même si le parcours a échoué
+                CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).join();
+            }
+
+            Report report = new Report(scanned.get(), orphans.get(), deleted.get(), failed.get(), config.isDryRun());
+            lastSuccess.set(clock.instant().getEpochSecond());
+            log.info("Ramasse-miettes des images terminé - Parcourus: {}, Orphelins: {}, Supprimés: {}, Échecs: {}",
+                    report.scanned(), report.orphans(), report.deleted(), report.failed());
+            return report;
+        } finally {
+            executor.shutdown();
+            sample.stop(durationTimer);
+            running.set(false);
+        }
+    }
+
+    /**
+     * Photos de profil, objets adressés par contenu et bibliothèque d'images (table media), lus en flux dans une transaction en lecture seule
+     */
+    private ImageReferenceSet loadReferences() {
+        return readOnlyTransaction.execute(status -> {
+            ImageReferenceSet.Builder builder = ImageReferenceSet.builder();
+            try (Stream<String> photoUrls = appUserRepository.streamPhotoUrls()) {
+                photoUrls.map(ImageReferenceSet::keyFromUrl)
+                        .filter(key -> key != null)
+                        .forEach(builder::add);
+            }
+            try (Stream<String> objectKeys = mediaBlobRepository.streamObjectKeys()) {
+                objectKeys.forEach(builder::add);
+            }
+            try (Stream<String> objectKeys = mediaRepository.streamObjectKeys()) {
+                objectKeys.forEach(builder::add);
+            }
+            return builder.build();
+        });
+    }
+
+    /**
+     * Un contenu dédupliqué peut avoir été référencé de nouveau pendant le passage : les clés
+     * présentes dans media_blob sont revérifiées juste avant la suppression
+     */
+    private void deleteBatch(List<String> keys, AtomicLong deleted, AtomicLong failed) {
+        try {
+            Set<String> stillReferenced = new HashSet<>(mediaBlobRepository.findExistingObjectKeys(keys));
+            List<String> orphanKeys = stillReferenced.isEmpty()
+                    ? keys
+                    : keys.stream().filter(key -> !stillReferenced.contains(key)).toList();
+            if (orphanKeys.isEmpty()) {
+                return;
+            }
+
+            Map<String, String> errors = storageBackend.deleteAll(orphanKeys);
+            for (String key : orphanKeys) {
+                if (errors.containsKey(key)) {
+                    continue;
+                }
+                objectExistenceCache.markAbsent(key);
+                imageDiskCache.invalidate(key);
+                log.debug("Orphelin supprimé: {}", key);
+            }
+            deleted.addAndGet(orphanKeys.size() - errors.size());
+            deletedCounter.increment(orphanKeys.size() - errors.size());
+            failed.addAndGet(errors.size());
+            failedCounter.increment(errors.size());
+            if (!errors.isEmpty()) {
+                log.warn("Ramasse-miettes - {} suppressions en échec, exemple: {}", errors.size(),
+                        errors.entrySet().iterator().next());
+            }
+        } catch (RuntimeException e) {
+            log.error("Ramasse-miettes - échec d'un lot de {} clés: {}", keys.size(), e.getMessage());
+            failed.addAndGet(keys.size());
+            failedCounter.increment(keys.size());
+        }
+    }
+
+    /**
+     * Clé sans extension de l'original : {@code users/<uuid>} pour {@code users/<uuid>_256.jpg}
+     */
+    private String originalStem(String key) {
+        String stem = ImageReferenceSet.stem(key);
+        Matcher variant = VARIANT_STEM.matcher(stem);
+        if (variant.matches() && rustFsProperties.getVariants().getSizes().contains(Integer.parseInt(variant.group(2)))) {
+            return variant.group(1);
+        }
+        return stem;
+    }
+}
@@ -0,0 +1,56 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Uploads présignés en attente de finalisation
+ * <p>
+ * Conserve ce qui a été autorisé (auteur, taille, type) pour le comparer à l'objet réellement
+ * déposé sur RustFS. Les entrées expirent avec une marge au-delà de la validité de l'URL.
+ */
+@Component
+public class PresignedUploadRegistry {
+
+    /**
+     * Upload autorisé par une URL présignée
+     */
+    public record PendingUpload(
+            String key,
+            String folder,
+            String generatedFilename,
+            String originalFilename,
+            String contentType,
+            long sizeBytes,
+            String requestedBy
+    ) {}
+
+    private final Cache<String, PendingUpload> pendingUploads;
+
+    public PresignedUploadRegistry(RustFsProperties rustFsProperties) {
+        this.pendingUploads = Caffeine.newBuilder()
+                .maximumSize(rustFsProperties.getPresign().getMaxPendingUploads())
+                .expireAfterWrite(rustFsProperties.getPresign().getExpiry().multipliedBy(2))
+                .build();
+    }
+
+    public void register(PendingUpload pendingUpload) {
+        pendingUploads.put(pendingUpload.key(), pendingUpload);
+    }
+
+    /**
+     * Retirer un upload en attente s'il appartient au demandeur
+     */
+    public Optional<PendingUpload> claim(String key, String requestedBy) {
+        PendingUpload pending = pendingUploads.getIfPresent(key);
+        if (pending == null || !pending.requestedBy().equals(requestedBy)) {
+            return Optional.empty();
+        }
+        // Retrait conditionnel : deux finalisations concurrentes ne peuvent pas réussir toutes les deux
+        return pendingUploads.asMap().remove(key, pending) ? Optional.of(pending) : Optional.empty();
+    }
+}
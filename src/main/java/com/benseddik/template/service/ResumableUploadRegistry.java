@@ -0,0 +1,227 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import com.benseddik.template.service.storage.StorageBackend;
+import com.benseddik.template.service.storage.UploadedPart;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Uploads reprenables en cours
+ * <p>
+ * Nombre de sessions borné au total et par utilisateur : une fois la limite atteinte, ce sont les
+ * nouvelles sessions qui sont refusées, jamais une session en cours qui est évincée. Une session
+ * inactive expire et est abandonnée : ses parts déjà envoyées à RustFS sont annulées
+ * (AbortMultipartUpload) et son fichier temporaire supprimé, sans attendre de ramasse-miettes.
+ */
+@Component
+@Slf4j
+public class ResumableUploadRegistry {
+
+    /**
+     * Upload reprenable : les octets reçus sont accumulés sur disque jusqu'à former une part,
+     * envoyée alors à RustFS. L'état mutable n'est modifié que sous le verrou de la session.
+     */
+    @Getter
+    public static final class Session {
+
+        private final String uploadId;
+        private final String key;
+        private final String folder;
+        private final String generatedFilename;
+        private final String originalFilename;
+        private final String contentType;
+        private final long sizeBytes;
+        private final String requestedBy;
+        private final Path spoolFile;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<UploadedPart> parts = new ArrayList<>();
+        private volatile long offset;
+        private long spooled;
+        private String multipartId;
+        private ImageHeaderInspector.ImageInfo imageInfo;
+        private volatile Instant lastActivity = Instant.now();
+
+        private Session(String uploadId, String key, String folder, String generatedFilename,
+                        String originalFilename, String contentType, long sizeBytes, String requestedBy,
+                        Path spoolFile) {
+            this.uploadId = uploadId;
+            this.key = key;
+            this.folder = folder;
+            this.generatedFilename = generatedFilename;
+            this.originalFilename = originalFilename;
+            this.contentType = contentType;
+            this.sizeBytes = sizeBytes;
+            this.requestedBy = requestedBy;
+            this.spoolFile = spoolFile;
+        }
+
+        /**
+         * Octets reçus et écrits dans le fichier temporaire
+         */
+        void received(long bytes) {
+            offset += bytes;
+            spooled += bytes;
+            lastActivity = Instant.now();
+        }
+
+        /**
+         * Part envoyée : ses octets ont quitté le fichier temporaire
+         */
+        void partUploaded(UploadedPart part, long bytes) {
+            parts.add(part);
+            spooled -= bytes;
+        }
+
+        void multipartStarted(String multipartId) {
+            this.multipartId = multipartId;
+        }
+
+        void inspected(ImageHeaderInspector.ImageInfo imageInfo) {
+            this.imageInfo = imageInfo;
+        }
+    }
+
+    private static final Duration FULL_RETRY_AFTER = Duration.ofMinutes(1);
+
+    private final Cache<String, Session> sessions;
+    private final StorageBackend storageBackend;
+    private final Duration expiry;
+    private final long maxSessions;
+    private final int maxSessionsPerUser;
+    private final Counter expiredCounter;
+    private final Counter rejectedCounter;
+
+    public ResumableUploadRegistry(StorageBackend storageBackend, RustFsProperties rustFsProperties,
+                                   MeterRegistry meterRegistry) {
+        this.storageBackend = storageBackend;
+        this.expiry = rustFsProperties.getUpload().getResumableExpiry();
+        this.maxSessions = rustFsProperties.getUpload().getResumableMaxSessions();
+        this.maxSessionsPerUser = rustFsProperties.getUpload().getResumableMaxSessionsPerUser();
+        this.expiredCounter = Counter.builder("rustfs.resumable.abandoned")
+                .description("Uploads reprenables expirés avant finalisation")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("rustfs.resumable.rejected")
+                .description("Uploads reprenables refusés faute de place")
+                .register(meterRegistry);
+        // Pas de maximumSize : une éviction abandonnerait un upload en cours
+        this.sessions = Caffeine.newBuilder()
+                .expireAfterAccess(expiry)
+                // Expiration traitée à l'échéance, même sans accès au cache
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener(this::onRemoval)
+                .build();
+        Gauge.builder("rustfs.resumable.sessions", sessions, Cache::estimatedSize)
+                .description("Uploads reprenables ouverts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ouvrir une session et son fichier temporaire
+     *
+     * @throws UploadAdmissionRejectedException 503 si le nombre total de sessions est atteint
+     * @throws ResponseStatusException          429 si le demandeur a déjà trop de sessions ouvertes
+     */
+    public synchronized Session open(String key, String folder, String generatedFilename, String originalFilename,
+                                     String contentType, long sizeBytes, String requestedBy) throws IOException {
+        // Sessions expirées retirées d'abord : seules les sessions vivantes sont comptées
+        sessions.cleanUp();
+        if (sessions.estimatedSize() >= maxSessions) {
+            rejectedCounter.increment();
+            log.warn("Uploads reprenables saturés ({} sessions) - User: {}", maxSessions, requestedBy);
+            throw new UploadAdmissionRejectedException(
+                    "Trop d'uploads reprenables en cours, réessayez plus tard", FULL_RETRY_AFTER);
+        }
+        long owned = sessions.asMap().values().stream()
+                .filter(session -> session.getRequestedBy().equals(requestedBy))
+                .count();
+        if (owned >= maxSessionsPerUser) {
+            rejectedCounter.increment();
+            throw new ResponseStatusException(
+                    HttpStatus.TOO_MANY_REQUESTS,
+                    "Trop d'uploads reprenables ouverts (" + maxSessionsPerUser + ") : finalisez ou annulez-en un"
+            );
+        }
+
+        Path spoolFile = Files.createTempFile("rustfs-resumable-", ".part");
+        Session session = new Session(UUID.randomUUID().toString(), key, folder, generatedFilename,
+                originalFilename, contentType, sizeBytes, requestedBy, spoolFile);
+        sessions.put(session.getUploadId(), session);
+        return session;
+    }
+
+    /**
+     * Session appartenant au demandeur
+     */
+    public Optional<Session> find(String uploadId, String requestedBy) {
+        Session session = sessions.getIfPresent(uploadId);
+        if (session == null || !session.getRequestedBy().equals(requestedBy)) {
+            return Optional.empty();
+        }
+        return Optional.of(session);
+    }
+
+    /**
+     * Upload finalisé : la session et son fichier temporaire disparaissent
+     */
+    public void close(Session session) {
+        sessions.asMap().remove(session.getUploadId(), session);
+    }
+
+    /**
+     * Upload annulé par le client : les parts envoyées sont libérées
+     */
+    public void abandon(Session session) {
+        if (sessions.asMap().remove(session.getUploadId(), session)) {
+            abortParts(session);
+        }
+    }
+
+    public Instant expiresAt(Session session) {
+        return session.getLastActivity().plus(expiry);
+    }
+
+    private void onRemoval(String uploadId, Session session, RemovalCause cause) {
+        if (session == null) {
+            return;
+        }
+        if (cause.wasEvicted()) {
+            expiredCounter.increment();
+            log.info("Upload reprenable abandonné ({}) - Id: {}, Key: {}, Reçu: {}/{} bytes",
+                    cause, uploadId, session.getKey(), session.getOffset(), session.getSizeBytes());
+            abortParts(session);
+        }
+        try {
+            Files.deleteIfExists(session.getSpoolFile());
+        } catch (IOException e) {
+            log.warn("Impossible de supprimer le fichier temporaire {}: {}", session.getSpoolFile(), e.getMessage());
+        }
+    }
+
+    private void abortParts(Session session) {
+        if (session.getMultipartId() != null) {
+            storageBackend.abortMultipart(session.getKey(), session.getMultipartId());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.benseddik.template.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * État de RustFS vu par le disjoncteur, exposé dans {@code /actuator/health} (composant {@code rustFs})
+ * <p>
+ * Aucun appel n'est émis : l'indicateur reflète le trafic réel, DOWN tant que le disjoncteur est ouvert.
+ */
+@Component
+@RequiredArgsConstructor
+public class RustFsHealthIndicator implements HealthIndicator {
+
+    private final StorageResilience storageResilience;
+
+    @Override
+    public Health health() {
+        StorageCircuitBreaker.State state = storageResilience.getCircuitState();
+        Health.Builder builder = state == StorageCircuitBreaker.State.OPEN ? Health.down() : Health.up();
+        builder.withDetail("circuit", state.name())
+                .withDetail("failureRate", storageResilience.getFailureRate())
+                .withDetail("retryBudget", storageResilience.getRetryBudgetTokens());
+        if (state == StorageCircuitBreaker.State.OPEN) {
+            builder.withDetail("retryAfterSeconds", storageResilience.getRetryAfter().toSeconds());
+        }
+        return builder.build();
+    }
+}
@@ -1,25 +1,62 @@
 package com.benseddik.template.service;
 
 import com.benseddik.template.config.RustFsProperties;
+import com.benseddik.template.service.dto.AsyncUploadStatusResponse;
+import com.benseddik.template.service.dto.BatchDeleteResponse;
+import com.benseddik.template.service.dto.ImageDownload;
 import com.benseddik.template.service.dto.ImageUploadResponse;
+import com.benseddik.template.service.dto.PresignedUploadRequest;
+import com.benseddik.template.service.dto.PresignedUploadResponse;
+import com.benseddik.template.service.dto.ResumableUploadRequest;
+import com.benseddik.template.service.dto.ResumableUploadResponse;
+import com.benseddik.template.service.storage.PresignedPut;
+import com.benseddik.template.service.storage.ReadConditions;
+import com.benseddik.template.service.storage.StorageBackend;
+import com.benseddik.template.service.storage.StoredObject;
+import com.benseddik.template.service.storage.StoredObjectInfo;
+import com.benseddik.template.service.storage.UploadedPart;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.*;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
 
 /**
  * Service pour gérer les uploads/suppressions vers RustFS (S3-compatible)
@@ -29,8 +66,22 @@ import java.util.UUID;
 @Slf4j
 public class RustFsService {
 
-    private final S3Client s3Client;
+    private final StorageBackend storageBackend;
     private final RustFsProperties rustFsProperties;
+    private final AsyncUploadTracker asyncUploadTracker;
+    private final ImageVariantService imageVariantService;
+    private final MediaBlobService mediaBlobService;
+    private final MediaService mediaService;
+    private final UploadQuotaService uploadQuotaService;
+    private final PresignedUploadRegistry presignedUploadRegistry;
+    private final ResumableUploadRegistry resumableUploadRegistry;
+    private final ObjectExistenceCache objectExistenceCache;
+    private final ImageDiskCache imageDiskCache;
+    private final ImageHeaderInspector imageHeaderInspector;
+    /**
+     * Suppressions différées (anciennes photos de profil) : appels d'E/S courts, un thread virtuel chacun
+     */
+    private final ExecutorService retirementExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     // Configuration
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10 MB
@@ -38,29 +89,25 @@ public class RustFsService {
     private static final List<String> ALLOWED_MIME_TYPES = Arrays.asList(
             "image/jpeg", "image/jpg", "image/png", "image/webp", "image/heic"
     );
+    private static final Pattern OBJECT_KEY = Pattern.compile("^[a-zA-Z0-9_-]+/[a-zA-Z0-9_-][a-zA-Z0-9._-]*$");
+    private static final Pattern SINGLE_BYTE_RANGE = Pattern.compile("^bytes=(\\d+-\\d*|-\\d+)$");
+    private static final Pattern IMMUTABLE_FILENAME = Pattern.compile(
+            "^([0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}|[0-9a-f]{64})(_\\d+)?\\.[A-Za-z0-9]+$");
+    private static final Pattern CONTENT_ADDRESSED_FILENAME = Pattern.compile("^[0-9a-f]{64}\\.[a-z0-9]+$");
+    // Rôles autorisés à supprimer les images de n'importe quel utilisateur
+    private static final Set<String> PRIVILEGED_ROLES = Set.of("ROLE_ADMIN", "ROLE_MODERATOR");
 
     /**
-     * Vérifier la disponibilité du bucket au démarrage
+     * Vérifier la disponibilité du stockage au démarrage
      */
     @PostConstruct
     public void init() {
-        try {
-            HeadBucketRequest headBucketRequest = HeadBucketRequest.builder()
-                    .bucket(rustFsProperties.getBucketName())
-                    .build();
-
-            s3Client.headBucket(headBucketRequest);
-            log.info("RustFS connecté - Bucket '{}' disponible sur {}",
-                    rustFsProperties.getBucketName(),
-                    rustFsProperties.getEndpoint());
+        storageBackend.verify();
+    }
 
-        } catch (NoSuchBucketException e) {
-            log.error("Bucket '{}' introuvable. Créez-le dans l'interface RustFS.",
-                    rustFsProperties.getBucketName());
-            throw new IllegalStateException("Bucket RustFS non disponible: " + rustFsProperties.getBucketName(), e);
-        } catch (Exception e) {
-            log.warn("Impossible de vérifier le bucket RustFS: {}", e.getMessage());
-        }
+    @PreDestroy
+    public void shutdown() {
+        retirementExecutor.close();
     }
 
     /**
@@ -72,44 +119,63 @@ public class RustFsService {
      * @return Informations sur l'upload
      */
     public ImageUploadResponse uploadFile(MultipartFile file, String folder, Authentication auth) {
-        // Validation
-        validateFile(file);
+        // Validation (en-tête uniquement : rien n'est envoyé à RustFS si l'image est refusée)
         validateFolder(folder);
+        ImageHeaderInspector.ImageInfo imageInfo = validateFile(file);
 
-        // Génération du nom de fichier unique
         String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-        String fileExtension = getFileExtension(originalFilename);
-        String generatedFilename = UUID.randomUUID() + "." + fileExtension;
-        String key = folder + "/" + generatedFilename;
+        boolean contentAddressed = rustFsProperties.getUpload().isContentAddressed();
 
-        try {
-            // Upload vers RustFS
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(rustFsProperties.getBucketName())
-                    .key(key)
-                    .contentType(file.getContentType())
-                    .build();
+        // Place réservée jusqu'à l'enregistrement de l'image, rendue si l'upload échoue
+        try (UploadQuotaService.Reservation ignored = uploadQuotaService.reserve(owner(auth), file.getSize())) {
+            // Génération du nom de fichier : UUID, ou empreinte SHA-256 en mode adressé par contenu
+            String generatedFilename;
+            String digest = null;
+            boolean alreadyStored = false;
+            if (contentAddressed) {
+                try (InputStream inputStream = file.getInputStream()) {
+                    digest = sha256Hex(inputStream);
+                }
+                generatedFilename = digest + "." + getFileExtension(originalFilename);
+                alreadyStored = !acquireBlob(folder + "/" + generatedFilename, digest, file.getSize());
+            } else {
+                generatedFilename = generateFilename(originalFilename);
+            }
+            String key = folder + "/" + generatedFilename;
 
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(file.getBytes()));
-
-            // Construire l'URL publique
-            String fileUrl = buildPublicUrl(key);
-
-            log.info("Fichier uploadé sur RustFS - User: {}, Key: {}, Size: {} bytes",
-                    auth != null ? auth.getName() : "system",
-                    key,
-                    file.getSize());
-
-            return ImageUploadResponse.builder()
-                    .imageUrl(fileUrl)
-                    .originalFilename(originalFilename)
-                    .generatedFilename(generatedFilename)
-                    .folder(folder)
-                    .sizeBytes(file.getSize())
-                    .mimeType(file.getContentType())
-                    .uploadedAt(Instant.now())
-                    .uploadedBy(auth != null ? auth.getName() : "system")
-                    .build();
+            Map<Integer, String> variantKeys;
+            if (alreadyStored) {
+                // Contenu identique déjà présent : aucun octet renvoyé à RustFS
+                log.info("Contenu déjà présent sur RustFS, upload ignoré - User: {}, Key: {}",
+                        auth != null ? auth.getName() : "system", key);
+                variantKeys = imageVariantService.variantKeys(key, file.getContentType());
+            } else {
+                // Upload vers RustFS en streaming depuis la part multipart (jamais chargée en mémoire)
+                try (InputStream inputStream = file.getInputStream()) {
+                    storageBackend.put(key, file.getContentType(), inputStream, file.getSize());
+                    objectExistenceCache.markPresent(key);
+                    imageDiskCache.invalidate(key);
+                    if (contentAddressed) {
+                        mediaBlobService.markStored(key);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    if (contentAddressed) {
+                        mediaBlobService.release(key);
+                    }
+                    throw e;
+                }
+
+                log.info("Fichier uploadé sur RustFS - User: {}, Key: {}, Size: {} bytes",
+                        auth != null ? auth.getName() : "system",
+                        key,
+                        file.getSize());
+
+                variantKeys = imageVariantService.scheduleVariants(key, file.getContentType());
+            }
+
+            mediaService.record(owner(auth), key, file.getSize(), file.getContentType(), imageInfo, digest);
+            return buildUploadResponse(folder, generatedFilename, originalFilename,
+                    file.getSize(), file.getContentType(), imageInfo, variantKeys, auth);
 
         } catch (IOException e) {
             log.error("Erreur lors de l'upload du fichier vers RustFS", e);
@@ -117,22 +183,764 @@ public class RustFsService {
                     HttpStatus.INTERNAL_SERVER_ERROR,
                     "Erreur lors de l'upload du fichier: " + e.getMessage()
             );
-        } catch (S3Exception e) {
-            log.error("Erreur S3 lors de l'upload: {}", e.awsErrorDetails().errorMessage());
+        }
+    }
+
+    /**
+     * Upload asynchrone vers RustFS
+     * <p>
+     * Le fichier est déplacé dans un fichier temporaire local puis confié au client S3 asynchrone :
+     * le thread de la requête rend la main sans attendre RustFS. Le résultat est consultable
+     * via {@link #getAsyncUploadStatus(String, Authentication)}.
+     *
+     * @param file   Fichier à uploader
+     * @param folder Dossier de destination
+     * @param auth   Authentification de l'utilisateur
+     * @return Statut initial (PENDING) avec l'identifiant de suivi
+     */
+    public AsyncUploadStatusResponse uploadFileAsync(MultipartFile file, String folder, Authentication auth) {
+        validateFolder(folder);
+        ImageHeaderInspector.ImageInfo imageInfo = validateFile(file);
+        UploadQuotaService.Reservation reservation = uploadQuotaService.reserve(owner(auth), file.getSize());
+
+        String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
+        long size = file.getSize();
+        String contentType = file.getContentType();
+        boolean contentAddressed = rustFsProperties.getUpload().isContentAddressed();
+
+        Path spoolFile = null;
+        String generatedFilename;
+        String digest = null;
+        boolean alreadyStored = false;
+        try {
+            spoolFile = Files.createTempFile("rustfs-upload-", "." + getFileExtension(originalFilename));
+            file.transferTo(spoolFile.toFile());
+
+            if (contentAddressed) {
+                try (InputStream inputStream = Files.newInputStream(spoolFile)) {
+                    digest = sha256Hex(inputStream);
+                }
+                generatedFilename = digest + "." + getFileExtension(originalFilename);
+                alreadyStored = !acquireBlob(folder + "/" + generatedFilename, digest, size);
+            } else {
+                generatedFilename = generateFilename(originalFilename);
+            }
+        } catch (IOException e) {
+            log.error("Erreur lors de la mise en attente du fichier pour l'upload asynchrone", e);
+            deleteSpoolFile(spoolFile);
+            reservation.release();
+            throw new ResponseStatusException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Erreur lors de l'upload du fichier: " + e.getMessage()
+            );
+        } catch (RuntimeException e) {
+            deleteSpoolFile(spoolFile);
+            reservation.release();
+            throw e;
+        }
+        String key = folder + "/" + generatedFilename;
+
+        AsyncUploadStatusResponse pending = asyncUploadTracker.start(auth != null ? auth.getName() : "system");
+
+        if (alreadyStored) {
+            deleteSpoolFile(spoolFile);
+            log.info("Contenu déjà présent sur RustFS, upload asynchrone {} terminé sans transfert - Key: {}",
+                    pending.getUploadId(), key);
+            try {
+                mediaService.record(owner(auth), key, size, contentType, imageInfo, digest);
+            } finally {
+                reservation.release();
+            }
+            asyncUploadTracker.complete(pending.getUploadId(), buildUploadResponse(folder, generatedFilename,
+                    originalFilename, size, contentType, imageInfo, imageVariantService.variantKeys(key, contentType), auth));
+            return pending;
+        }
+
+        String contentDigest = digest;
+        Path submittedFile = spoolFile;
+        CompletableFuture<Void> upload;
+        try {
+            upload = storageBackend.putAsync(key, contentType, submittedFile, size);
+        } catch (RuntimeException e) {
+            // Refus avant tout envoi (ex. disjoncteur) : le callback ne sera jamais appelé
+            log.error("Échec de la soumission de l'upload asynchrone {} ({}): {}", pending.getUploadId(), key, e.getMessage());
+            deleteSpoolFile(submittedFile);
+            reservation.release();
+            if (contentAddressed) {
+                mediaBlobService.release(key);
+            }
+            asyncUploadTracker.fail(pending.getUploadId(), "Erreur RustFS: " + e.getMessage());
+            throw e;
+        }
+        upload.whenComplete((response, error) -> {
+                    deleteSpoolFile(submittedFile);
+                    if (error != null) {
+                        String message = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause().getMessage()
+                                : error.getMessage();
+                        log.error("Échec de l'upload asynchrone {} ({}): {}", pending.getUploadId(), key, message);
+                        if (contentAddressed) {
+                            mediaBlobService.release(key);
+                        }
+                        asyncUploadTracker.fail(pending.getUploadId(), "Erreur RustFS: " + message);
+                        return;
+                    }
+                    log.info("Fichier uploadé sur RustFS (async) - Upload: {}, Key: {}, Size: {} bytes",
+                            pending.getUploadId(), key, size);
+                    objectExistenceCache.markPresent(key);
+                    imageDiskCache.invalidate(key);
+                    try {
+                        if (contentAddressed) {
+                            mediaBlobService.markStored(key);
+                        }
+                        mediaService.record(owner(auth), key, size, contentType, imageInfo, contentDigest);
+                    } catch (RuntimeException e) {
+                        // Objet non enregistré : il sera retiré par le ramasse-miettes
+                        log.error("Échec de l'enregistrement de l'upload asynchrone {} ({}): {}",
+                                pending.getUploadId(), key, e.getMessage());
+                        asyncUploadTracker.fail(pending.getUploadId(), "Erreur lors de l'enregistrement de l'image");
+                        return;
+                    }
+                    Map<Integer, String> variantKeys = imageVariantService.scheduleVariants(key, contentType);
+                    asyncUploadTracker.complete(pending.getUploadId(), buildUploadResponse(
+                            folder, generatedFilename, originalFilename, size, contentType, imageInfo, variantKeys, auth));
+                })
+                // Après l'enregistrement (ou l'échec) : la place réservée ne sert plus
+                .whenComplete((response, error) -> reservation.release());
+
+        return pending;
+    }
+
+    /**
+     * Statut d'un upload asynchrone, visible uniquement par son auteur
+     *
+     * @param uploadId Identifiant retourné par {@link #uploadFileAsync}
+     * @param auth     Authentification de l'utilisateur
+     * @return Statut courant de l'upload
+     */
+    public AsyncUploadStatusResponse getAsyncUploadStatus(String uploadId, Authentication auth) {
+        String requester = auth != null ? auth.getName() : "system";
+        return asyncUploadTracker.find(uploadId)
+                .filter(status -> requester.equals(status.getUploadedBy()))
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND,
+                        "Upload introuvable: " + uploadId
+                ));
+    }
+
+    /**
+     * Préparer un upload direct vers RustFS via une URL présignée
+     * <p>
+     * Le type MIME et la taille sont signés : RustFS refusera un PUT qui ne les respecte pas.
+     * Aucun octet de l'image ne transite par l'API.
+     *
+     * @param request Dossier, nom, type et taille du fichier à envoyer
+     * @param auth    Authentification de l'utilisateur
+     * @return URL présignée et en-têtes à envoyer
+     */
+    public PresignedUploadResponse createPresignedUpload(PresignedUploadRequest request, Authentication auth) {
+        validateFolder(request.getFolder());
+        String originalFilename = StringUtils.cleanPath(request.getFilename());
+        String contentType = request.getContentType().toLowerCase();
+        validateImageMetadata(contentType, request.getSizeBytes(), originalFilename);
+        uploadQuotaService.checkUpload(owner(auth), request.getSizeBytes());
+
+        String generatedFilename = generateFilename(originalFilename);
+        String key = request.getFolder() + "/" + generatedFilename;
+
+        PresignedPut presigned = storageBackend.presignPut(key, contentType, request.getSizeBytes(),
+                        rustFsProperties.getPresign().getExpiry())
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_IMPLEMENTED,
+                        "Upload présigné indisponible avec le stockage configuré"
+                ));
+
+        String requestedBy = auth != null ? auth.getName() : "system";
+        presignedUploadRegistry.register(new PresignedUploadRegistry.PendingUpload(
+                key, request.getFolder(), generatedFilename, originalFilename,
+                contentType, request.getSizeBytes(), requestedBy));
+
+        log.info("URL présignée générée - User: {}, Key: {}, Size: {} bytes", requestedBy, key, request.getSizeBytes());
+
+        Map<String, String> headers = new TreeMap<>();
+        headers.put(HttpHeaders.CONTENT_TYPE, contentType);
+        headers.put(HttpHeaders.CONTENT_LENGTH, String.valueOf(request.getSizeBytes()));
+
+        return PresignedUploadResponse.builder()
+                .uploadUrl(presigned.url())
+                .method(presigned.method())
+                .key(key)
+                .headers(headers)
+                .expiresAt(presigned.expiresAt())
+                .build();
+    }
+
+    /**
+     * Finaliser un upload présigné : vérifier l'objet déposé (HEAD) avant de l'enregistrer
+     *
+     * @param key  Clé retournée par {@link #createPresignedUpload}
+     * @param auth Authentification de l'utilisateur
+     * @return Informations sur l'upload
+     */
+    public ImageUploadResponse completePresignedUpload(String key, Authentication auth) {
+        String requestedBy = auth != null ? auth.getName() : "system";
+        PresignedUploadRegistry.PendingUpload pending = presignedUploadRegistry.claim(key, requestedBy)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND,
+                        "Upload présigné introuvable ou expiré: " + key
+                ));
+
+        Optional<StoredObjectInfo> stored;
+        try {
+            stored = storageBackend.head(key);
+        } catch (ResponseStatusException e) {
+            // Stockage en erreur ou indisponible : la finalisation pourra être retentée
+            presignedUploadRegistry.register(pending);
+            throw e;
+        }
+        if (stored.isEmpty()) {
+            // Le client n'a pas encore envoyé le fichier : il pourra retenter la finalisation
+            presignedUploadRegistry.register(pending);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Fichier non encore reçu par RustFS: " + key);
+        }
+        StoredObjectInfo head = stored.get();
+
+        boolean sizeMatches = head.size() == pending.sizeBytes();
+        boolean typeMatches = pending.contentType().equalsIgnoreCase(head.contentType());
+        if (!sizeMatches || !typeMatches) {
+            log.warn("Upload présigné non conforme, objet supprimé - Key: {}, Taille: {}, Type: {}",
+                    key, head.size(), head.contentType());
+            storageBackend.delete(key);
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Le fichier reçu ne correspond pas à la taille ou au type annoncés"
+            );
+        }
+
+        // Le contenu n'est pas passé par l'API : seul l'en-tête est relu (GET partiel) pour le valider
+        ImageHeaderInspector.ImageInfo imageInfo = inspectStoredObject(key, pending.contentType());
+
+        // Quota vérifié à l'ouverture seulement : d'autres uploads ont pu se terminer depuis
+        UploadQuotaService.Reservation reservation;
+        try {
+            reservation = uploadQuotaService.reserve(requestedBy, pending.sizeBytes());
+        } catch (UploadQuotaExceededException e) {
+            presignedUploadRegistry.register(pending);
+            throw e;
+        }
+        try (reservation) {
+            mediaService.record(requestedBy, key, pending.sizeBytes(), pending.contentType(), imageInfo, null);
+        }
+        log.info("Upload présigné finalisé - User: {}, Key: {}, Size: {} bytes", requestedBy, key, head.size());
+        objectExistenceCache.markPresent(key);
+        imageDiskCache.invalidate(key);
+
+        Map<Integer, String> variantKeys = imageVariantService.scheduleVariants(key, pending.contentType());
+        return buildUploadResponse(pending.folder(), pending.generatedFilename(), pending.originalFilename(),
+                pending.sizeBytes(), pending.contentType(), imageInfo, variantKeys, auth);
+    }
+
+    /**
+     * Ouvrir un upload reprenable : le fichier est ensuite envoyé par morceaux avec leur décalage
+     *
+     * @param request Dossier, nom, type et taille exacte du fichier
+     * @param auth    Authentification de l'utilisateur
+     * @return État initial (décalage 0)
+     */
+    public ResumableUploadResponse createResumableUpload(ResumableUploadRequest request, Authentication auth) {
+        validateFolder(request.getFolder());
+        String originalFilename = StringUtils.cleanPath(request.getFilename());
+        String contentType = request.getContentType().toLowerCase();
+        validateImageMetadata(contentType, request.getSizeBytes(), originalFilename);
+        uploadQuotaService.checkUpload(owner(auth), request.getSizeBytes());
+
+        String generatedFilename = generateFilename(originalFilename);
+        String key = request.getFolder() + "/" + generatedFilename;
+        ResumableUploadRegistry.Session session;
+        try {
+            session = resumableUploadRegistry.open(key, request.getFolder(), generatedFilename, originalFilename,
+                    contentType, request.getSizeBytes(), owner(auth));
+        } catch (IOException e) {
+            log.error("Erreur lors de l'ouverture de l'upload reprenable de {}", key, e);
+            throw new ResponseStatusException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Erreur lors de l'ouverture de l'upload: " + e.getMessage()
+            );
+        }
+
+        log.info("Upload reprenable ouvert - User: {}, Id: {}, Key: {}, Size: {} bytes",
+                owner(auth), session.getUploadId(), key, request.getSizeBytes());
+        return resumableStatus(session);
+    }
+
+    /**
+     * Ajouter un morceau à un upload reprenable
+     * <p>
+     * Les octets reçus avant une coupure de connexion restent acquis : le client interroge le
+     * décalage puis reprend à partir de celui-ci. Dès qu'une part complète est accumulée, elle est
+     * envoyée à RustFS (UploadPart) et quitte le disque local.
+     *
+     * @param offset Décalage du premier octet du morceau, égal aux octets déjà reçus
+     * @param body   Contenu du morceau
+     * @return État après réception
+     */
+    public ResumableUploadResponse appendResumableChunk(String uploadId, long offset, InputStream body,
+                                                        Authentication auth) {
+        ResumableUploadRegistry.Session session = findResumableSession(uploadId, auth);
+        lockResumableSession(session);
+        try {
+            if (offset != session.getOffset()) {
+                throw new ResponseStatusException(
+                        HttpStatus.CONFLICT,
+                        String.format("Décalage invalide: attendu %d, reçu %d", session.getOffset(), offset)
+                );
+            }
+
+            long received = spoolChunk(session, body);
+            session.received(received);
+            log.debug("Morceau reçu - Id: {}, Reçu: {} bytes, Total: {}/{} bytes",
+                    uploadId, received, session.getOffset(), session.getSizeBytes());
+
+            long headerBytes = Math.min(session.getSizeBytes(), rustFsProperties.getValidation().getMaxHeaderBytes().toBytes());
+            if (session.getImageInfo() == null && session.getOffset() >= headerBytes) {
+                inspectResumableHeader(session);
+            }
+
+            long partSize = rustFsProperties.getUpload().getPartSize().toBytes();
+            while (session.getSpooled() >= partSize && startResumableMultipart(session)) {
+                uploadResumablePart(session, partSize);
+            }
+            return resumableStatus(session);
+        } catch (IOException e) {
+            log.error("Erreur lors de l'écriture du morceau de l'upload {}", uploadId, e);
+            throw new ResponseStatusException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Erreur lors de l'écriture du morceau: " + e.getMessage()
+            );
+        } finally {
+            session.getLock().unlock();
+        }
+    }
+
+    /**
+     * Consulter le décalage atteint, pour reprendre après une coupure
+     */
+    public ResumableUploadResponse getResumableUpload(String uploadId, Authentication auth) {
+        return resumableStatus(findResumableSession(uploadId, auth));
+    }
+
+    /**
+     * Finaliser un upload reprenable complet : dernière part et assemblage (CompleteMultipartUpload),
+     * ou écriture d'un bloc si le stockage ne gère pas les parts
+     *
+     * @return Informations sur l'upload
+     */
+    public ImageUploadResponse completeResumableUpload(String uploadId, Authentication auth) {
+        ResumableUploadRegistry.Session session = findResumableSession(uploadId, auth);
+        lockResumableSession(session);
+        UploadQuotaService.Reservation reservation = UploadQuotaService.Reservation.NONE;
+        try {
+            if (session.getOffset() < session.getSizeBytes()) {
+                throw new ResponseStatusException(
+                        HttpStatus.CONFLICT,
+                        String.format("Upload incomplet: %d/%d octets reçus", session.getOffset(), session.getSizeBytes())
+                );
+            }
+            // Quota vérifié à l'ouverture seulement : réservé avant l'assemblage, la session reste
+            // ouverte en cas de refus
+            reservation = uploadQuotaService.reserve(session.getRequestedBy(), session.getSizeBytes());
+            if (session.getImageInfo() == null) {
+                inspectResumableHeader(session);
+            }
+
+            String key = session.getKey();
+            if (session.getMultipartId() != null) {
+                if (session.getSpooled() > 0) {
+                    uploadResumablePart(session, session.getSpooled());
+                }
+                storageBackend.completeMultipart(key, session.getMultipartId(), List.copyOf(session.getParts()));
+            } else {
+                try (InputStream inputStream = Files.newInputStream(session.getSpoolFile())) {
+                    storageBackend.put(key, session.getContentType(), inputStream, session.getSizeBytes());
+                }
+            }
+            resumableUploadRegistry.close(session);
+
+            log.info("Upload reprenable finalisé - User: {}, Key: {}, Size: {} bytes, Parts: {}",
+                    session.getRequestedBy(), key, session.getSizeBytes(), session.getParts().size());
+            objectExistenceCache.markPresent(key);
+            imageDiskCache.invalidate(key);
+            mediaService.record(session.getRequestedBy(), key, session.getSizeBytes(), session.getContentType(),
+                    session.getImageInfo(), null);
+
+            Map<Integer, String> variantKeys = imageVariantService.scheduleVariants(key, session.getContentType());
+            return buildUploadResponse(session.getFolder(), session.getGeneratedFilename(),
+                    session.getOriginalFilename(), session.getSizeBytes(), session.getContentType(),
+                    session.getImageInfo(), variantKeys, auth);
+        } catch (IOException e) {
+            log.error("Erreur lors de la finalisation de l'upload reprenable {}", uploadId, e);
+            throw new ResponseStatusException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Erreur lors de l'upload: " + e.getMessage()
+            );
+        } finally {
+            reservation.release();
+            session.getLock().unlock();
+        }
+    }
+
+    /**
+     * Abandonner un upload reprenable ; les parts déjà envoyées à RustFS sont annulées
+     */
+    public void cancelResumableUpload(String uploadId, Authentication auth) {
+        ResumableUploadRegistry.Session session = findResumableSession(uploadId, auth);
+        lockResumableSession(session);
+        try {
+            resumableUploadRegistry.abandon(session);
+            log.info("Upload reprenable annulé - Id: {}, Key: {}", uploadId, session.getKey());
+        } finally {
+            session.getLock().unlock();
+        }
+    }
+
+    private ResumableUploadRegistry.Session findResumableSession(String uploadId, Authentication auth) {
+        return resumableUploadRegistry.find(uploadId, owner(auth))
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND,
+                        "Upload reprenable introuvable ou expiré: " + uploadId
+                ));
+    }
+
+    /**
+     * Un seul envoi à la fois par session : un client qui reprend pendant que l'ancienne
+     * connexion est encore ouverte reçoit un 409 et réessaie
+     */
+    private static void lockResumableSession(ResumableUploadRegistry.Session session) {
+        if (!session.getLock().tryLock()) {
+            throw new ResponseStatusException(
+                    HttpStatus.CONFLICT,
+                    "Un envoi est déjà en cours pour cet upload"
+            );
+        }
+    }
+
+    /**
+     * Écrire le morceau à la suite du fichier temporaire, sans dépasser la taille annoncée
+     *
+     * @return Octets reçus, y compris ceux arrivés avant une coupure de connexion
+     */
+    private long spoolChunk(ResumableUploadRegistry.Session session, InputStream body) throws IOException {
+        long remaining = session.getSizeBytes() - session.getOffset();
+        long written = 0;
+        try (FileChannel spool = FileChannel.open(session.getSpoolFile(), StandardOpenOption.WRITE)) {
+            spool.position(session.getSpooled());
+            byte[] buffer = new byte[64 * 1024];
+            while (true) {
+                int read;
+                try {
+                    // Un octet de plus que le reste attendu suffit à détecter un morceau trop long
+                    read = body.read(buffer, 0, (int) Math.min(buffer.length, remaining - written + 1));
+                } catch (IOException e) {
+                    // Connexion coupée : les octets déjà écrits restent acquis
+                    log.info("Morceau interrompu - Id: {}, Reçu: {} bytes: {}",
+                            session.getUploadId(), written, e.getMessage());
+                    break;
+                }
+                if (read == -1) {
+                    break;
+                }
+                if (written + read > remaining) {
+                    spool.truncate(session.getSpooled());
+                    throw new ResponseStatusException(
+                            HttpStatus.BAD_REQUEST,
+                            String.format("Le morceau dépasse la taille annoncée (%d octets restants)", remaining)
+                    );
+                }
+                spool.write(ByteBuffer.wrap(buffer, 0, read));
+                written += read;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Valider l'en-tête dès qu'il est reçu, avant que la moindre part ne parte vers RustFS
+     */
+    private void inspectResumableHeader(ResumableUploadRegistry.Session session) throws IOException {
+        try (InputStream header = Files.newInputStream(session.getSpoolFile())) {
+            session.inspected(imageHeaderInspector.inspect(header, session.getContentType()));
+        } catch (ResponseStatusException e) {
+            log.warn("Upload reprenable refusé - Id: {}: {}", session.getUploadId(), e.getReason());
+            resumableUploadRegistry.abandon(session);
+            throw e;
+        }
+    }
+
+    /**
+     * @return false si le stockage ne gère pas les parts : le fichier reste alors entier sur disque
+     */
+    private boolean startResumableMultipart(ResumableUploadRegistry.Session session) {
+        if (session.getMultipartId() == null) {
+            Optional<String> multipartId = storageBackend.startMultipart(session.getKey(), session.getContentType());
+            if (multipartId.isEmpty()) {
+                return false;
+            }
+            session.multipartStarted(multipartId.get());
+        }
+        return true;
+    }
+
+    /**
+     * Envoyer les {@code length} premiers octets du fichier temporaire en une part, puis
+     * ne garder que le reste sur disque
+     */
+    private void uploadResumablePart(ResumableUploadRegistry.Session session, long length) throws IOException {
+        Path spoolFile = session.getSpoolFile();
+        int partNumber = session.getParts().size() + 1;
+        UploadedPart part;
+        try (FileChannel spool = FileChannel.open(spoolFile, StandardOpenOption.READ)) {
+            InputStream partStream = BoundedInputStream.builder()
+                    .setInputStream(Channels.newInputStream(spool))
+                    .setMaxCount(length)
+                    .get();
+            part = storageBackend.uploadPart(session.getKey(), session.getMultipartId(), partNumber, partStream, length);
+        }
+
+        long rest = session.getSpooled() - length;
+        Path tail = Files.createTempFile(spoolFile.getParent(), "rustfs-resumable-", ".part");
+        try (FileChannel source = FileChannel.open(spoolFile, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(tail, StandardOpenOption.WRITE)) {
+            long copied = 0;
+            while (copied < rest) {
+                copied += source.transferTo(length + copied, rest - copied, target);
+            }
+        }
+        Files.move(tail, spoolFile, StandardCopyOption.REPLACE_EXISTING);
+        session.partUploaded(part, length);
+        log.debug("Part envoyée - Id: {}, Part: {}, Taille: {} bytes", session.getUploadId(), partNumber, length);
+    }
+
+    private ResumableUploadResponse resumableStatus(ResumableUploadRegistry.Session session) {
+        return ResumableUploadResponse.builder()
+                .uploadId(session.getUploadId())
+                .key(session.getKey())
+                .sizeBytes(session.getSizeBytes())
+                .offset(session.getOffset())
+                .expiresAt(resumableUploadRegistry.expiresAt(session))
+                .build();
+    }
+
+    /**
+     * Valider l'en-tête d'un objet déjà déposé sur RustFS ; l'objet est supprimé s'il est refusé
+     */
+    private ImageHeaderInspector.ImageInfo inspectStoredObject(String key, String contentType) {
+        StoredObject header = storageBackend.get(key,
+                        ReadConditions.firstBytes(rustFsProperties.getValidation().getMaxHeaderBytes().toBytes()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT, "Fichier non encore reçu par RustFS: " + key));
+
+        try (InputStream stream = header.openStream()) {
+            return imageHeaderInspector.inspect(stream, contentType);
+        } catch (ResponseStatusException e) {
+            log.warn("Upload présigné refusé, objet supprimé - Key: {}: {}", key, e.getReason());
+            storageBackend.delete(key);
+            throw e;
+        } catch (IOException e) {
+            log.error("Erreur lors de la lecture de l'en-tête de {}", key, e);
             throw new ResponseStatusException(
                     HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Erreur RustFS: " + e.awsErrorDetails().errorMessage()
+                    "Erreur lors de la lecture du fichier: " + e.getMessage()
             );
         }
     }
 
+    /**
+     * Référencer un objet adressé par contenu ; en cas de création concurrente
+     * du même contenu, la contrainte d'unicité est levée et on retente comme simple référence.
+     * Tant que le premier envoi n'a pas abouti, chaque upload envoie ses propres octets.
+     *
+     * @return true si l'objet doit être envoyé à RustFS
+     */
+    private boolean acquireBlob(String key, String digest, long size) {
+        try {
+            return mediaBlobService.acquire(key, digest, size);
+        } catch (DataIntegrityViolationException e) {
+            return mediaBlobService.acquire(key, digest, size);
+        }
+    }
+
+    /**
+     * Empreinte SHA-256 (hexadécimal) calculée en streaming
+     */
+    private static String sha256Hex(InputStream inputStream) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Ouvrir une image stockée sur RustFS pour la servir en streaming
+     * <p>
+     * Les conditions HTTP (Range, If-None-Match, If-Modified-Since) sont transmises telles quelles
+     * au stockage : une seule requête suffit, qu'elle aboutisse à un 200, un 206 ou un 304.
+     *
+     * @param folder          Dossier
+     * @param filename        Nom du fichier
+     * @param range           En-tête Range du client (une seule plage), ou null
+     * @param ifNoneMatch     En-tête If-None-Match du client, ou null
+     * @param ifModifiedSince Date If-Modified-Since du client, ou null
+     * @return Flux et métadonnées de l'image
+     */
+    public ImageDownload openImage(String folder, String filename, String range,
+                                   String ifNoneMatch, Instant ifModifiedSince) {
+        String key = folder + "/" + filename;
+        if (!OBJECT_KEY.matcher(key).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Chemin d'image invalide: " + key);
+        }
+        if (objectExistenceCache.lookup(key).filter(Boolean.FALSE::equals).isPresent()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Fichier non trouvé: " + key);
+        }
+
+        boolean immutable = isImmutableFilename(filename);
+        String singleRange = range != null && SINGLE_BYTE_RANGE.matcher(range).matches() ? range : null;
+        ReadConditions conditions = new ReadConditions(singleRange, ifNoneMatch, ifModifiedSince);
+
+        Optional<ImageDiskCache.CachedImage> cached = imageDiskCache.get(key);
+        if (cached.isPresent()) {
+            ImageDownload download = serveFromDisk(cached.get(), conditions, immutable);
+            if (download != null) {
+                if (download.getContentLength() != null) {
+                    imageDiskCache.recordServed(download.getContentLength());
+                }
+                return download;
+            }
+            imageDiskCache.invalidate(key); // Fichier évincé entre-temps
+        }
+
+        StoredObject object = readObject(key, conditions);
+        if (object.notModified()) {
+            return ImageDownload.builder()
+                    .eTag(object.eTag())
+                    .notModified(true)
+                    .immutable(immutable)
+                    .build();
+        }
+        objectExistenceCache.markPresent(key);
+
+        // Réponse complète d'une taille raisonnable : copiée sur le disque puis servie depuis le cache
+        if (object.channel() == null && object.contentRange() == null && imageDiskCache.accepts(object.contentLength())) {
+            ImageDownload download = cacheAndServe(key, object, immutable);
+            if (download != null) {
+                return download;
+            }
+            object = readObject(key, conditions);
+        }
+
+        return ImageDownload.builder()
+                .content(object.content())
+                .fileChannel(object.channel())
+                .position(object.position())
+                .contentType(object.contentType())
+                .contentLength(object.contentLength())
+                .contentRange(object.contentRange())
+                .eTag(object.eTag())
+                .lastModified(object.lastModified())
+                .immutable(immutable)
+                .build();
+    }
+
+    private StoredObject readObject(String key, ReadConditions conditions) {
+        Optional<StoredObject> object = storageBackend.get(key, conditions);
+        if (object.isEmpty()) {
+            objectExistenceCache.markAbsent(key);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Fichier non trouvé: " + key);
+        }
+        return object.get();
+    }
+
+    /**
+     * Écrire l'objet dans le cache disque ; null si l'écriture échoue (le flux est alors consommé)
+     */
+    private ImageDownload cacheAndServe(String key, StoredObject object, boolean immutable) {
+        ImageDiskCache.CachedImage image;
+        try (InputStream content = object.content()) {
+            image = imageDiskCache.put(key, content, object.contentType(), object.contentLength(),
+                    object.eTag(), object.lastModified());
+        } catch (IOException e) {
+            log.warn("Impossible de mettre {} en cache disque: {}", key, e.getMessage());
+            return null;
+        }
+        return serveFromDisk(image, ReadConditions.none(), immutable);
+    }
+
+    /**
+     * Servir une image du cache disque en appliquant localement les conditions HTTP et la plage demandée
+     *
+     * @return null si le fichier a disparu (éviction concurrente)
+     */
+    private ImageDownload serveFromDisk(ImageDiskCache.CachedImage image, ReadConditions conditions, boolean immutable) {
+        if (conditions.isNotModified(image.eTag(), image.lastModified())) {
+            return ImageDownload.builder()
+                    .eTag(image.eTag())
+                    .notModified(true)
+                    .immutable(immutable)
+                    .build();
+        }
+
+        long[] bounds = conditions.resolveRange(image.size());
+        if (bounds == null) {
+            throw new ResponseStatusException(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, "Plage demandée invalide: " + conditions.range());
+        }
+        String contentRange = conditions.range() != null
+                ? "bytes " + bounds[0] + "-" + bounds[1] + "/" + image.size()
+                : null;
+
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(image.file(), StandardOpenOption.READ);
+        } catch (IOException e) {
+            return null;
+        }
+
+        return ImageDownload.builder()
+                .fileChannel(channel)
+                .position(bounds[0])
+                .contentType(image.contentType())
+                .contentLength(bounds[1] - bounds[0] + 1)
+                .contentRange(contentRange)
+                .eTag(image.eTag())
+                .lastModified(image.lastModified())
+                .immutable(immutable)
+                .build();
+    }
+
+    /**
+     * Nom généré par l'application (UUID ou SHA-256, éventuellement suffixé d'une taille de déclinaison) :
+     * le contenu derrière une telle clé ne change jamais
+     */
+    private static boolean isImmutableFilename(String filename) {
+        return IMMUTABLE_FILENAME.matcher(filename).matches();
+    }
+
     /**
      * Supprimer un fichier de RustFS
+     * <p>
+     * Un contenu partagé (adressé par contenu) n'est supprimé qu'avec sa dernière référence :
+     * l'appelant ne retire que la sienne.
      *
      * @param folder   Dossier (dogs, walks, users)
      * @param filename Nom du fichier
+     * @param auth     Authentification de l'utilisateur
      */
-    public void deleteFile(String folder, String filename) {
+    public void deleteFile(String folder, String filename, Authentication auth) {
         if (folder == null || folder.isBlank() || filename == null || filename.isBlank()) {
             throw new ResponseStatusException(
                     HttpStatus.BAD_REQUEST,
@@ -143,8 +951,16 @@ public class RustFsService {
         String key = folder + "/" + filename;
 
         try {
-            // Vérifier que le fichier existe avant de supprimer
-            if (!fileExists(key)) {
+            // Objet adressé par contenu encore référencé par d'autres uploads : on le conserve
+            if (rustFsProperties.getUpload().isContentAddressed()
+                    && CONTENT_ADDRESSED_FILENAME.matcher(filename).matches()
+                    && releaseReference(key, auth)) {
+                log.info("Référence retirée, fichier conservé car encore référencé: {}", key);
+                return;
+            }
+
+            // Absence déjà constatée : 404 sans aller-retour. Sinon un seul DELETE, idempotent côté S3
+            if (objectExistenceCache.lookup(key).filter(Boolean.FALSE::equals).isPresent()) {
                 log.warn("Tentative de suppression d'un fichier inexistant: {}", key);
                 throw new ResponseStatusException(
                         HttpStatus.NOT_FOUND,
@@ -152,23 +968,16 @@ public class RustFsService {
                 );
             }
 
-            DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
-                    .bucket(rustFsProperties.getBucketName())
-                    .key(key)
-                    .build();
-
-            s3Client.deleteObject(deleteObjectRequest);
+            storageBackend.delete(key);
+            objectExistenceCache.markAbsent(key);
+            imageDiskCache.invalidate(key);
+            imageVariantService.allVariantKeys(key).forEach(imageDiskCache::invalidate);
+            imageVariantService.deleteVariants(key);
+            mediaService.removeAll(key);
             log.info("Fichier supprimé de RustFS: {}", key);
 
         } catch (ResponseStatusException e) {
-            throw e; // Repropager les erreurs 404/400
-        } catch (S3Exception e) {
-            log.error("Erreur S3 lors de la suppression de {}: {}",
-                    key, e.awsErrorDetails().errorMessage());
-            throw new ResponseStatusException(
-                    HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Erreur lors de la suppression du fichier: " + e.awsErrorDetails().errorMessage()
-            );
+            throw e; // Repropager les erreurs 404/400 et celles du stockage
         } catch (Exception e) {
             log.error("Erreur inattendue lors de la suppression de {}", key, e);
             throw new ResponseStatusException(
@@ -178,44 +987,241 @@ public class RustFsService {
         }
     }
 
+    /**
+     * Supprimer un lot d'images en une suppression groupée du stockage
+     * <p>
+     * Les clés et leurs déclinaisons sont confiées ensemble au stockage (DeleteObjects par 1000
+     * clés sur S3). Chaque clé reçoit son propre résultat : un échec partiel n'interrompt pas le
+     * reste du lot. Un utilisateur ne supprime que ses propres images (les autres clés sont
+     * rapportées FORBIDDEN) ; un administrateur ou un modérateur supprime toute clé.
+     *
+     * @param keys Clés des images (folder/filename)
+     * @param auth Authentification de l'utilisateur
+     * @return Résultat par clé, dans l'ordre de la requête
+     */
+    public BatchDeleteResponse deleteFiles(List<String> keys, Authentication auth) {
+        Map<String, BatchDeleteResponse.KeyResult> results = new LinkedHashMap<>();
+        List<String> originals = new ArrayList<>();
+        boolean contentAddressed = rustFsProperties.getUpload().isContentAddressed();
+        boolean privileged = isPrivileged(auth);
+        Set<String> owned = privileged ? Set.of() : mediaService.ownedKeys(keys.stream()
+                .filter(key -> key != null && OBJECT_KEY.matcher(key).matches())
+                .toList(), owner(auth));
+
+        for (String key : keys) {
+            if (results.containsKey(key)) {
+                continue;
+            }
+            if (key == null || !OBJECT_KEY.matcher(key).matches()) {
+                results.put(key, keyResult(key, BatchDeleteResponse.Status.INVALID, "Clé invalide (attendu: dossier/fichier)"));
+                continue;
+            }
+            if (!privileged && !owned.contains(key)) {
+                results.put(key, keyResult(key, BatchDeleteResponse.Status.FORBIDDEN, "Image inconnue ou appartenant à un autre utilisateur"));
+                continue;
+            }
+            String filename = key.substring(key.indexOf('/') + 1);
+            if (contentAddressed && CONTENT_ADDRESSED_FILENAME.matcher(filename).matches()) {
+                boolean stillReferenced;
+                try {
+                    stillReferenced = releaseReference(key, auth);
+                } catch (ResponseStatusException e) {
+                    // Image supprimée entre-temps par son propriétaire
+                    results.put(key, keyResult(key, BatchDeleteResponse.Status.FORBIDDEN, e.getReason()));
+                    continue;
+                }
+                if (stillReferenced) {
+                    results.put(key, keyResult(key, BatchDeleteResponse.Status.STILL_REFERENCED, null));
+                    continue;
+                }
+            }
+            results.put(key, null);
+            originals.add(key);
+        }
+
+        // Originaux et déclinaisons dans les mêmes requêtes ; seuls les originaux sont rapportés
+        List<String> objectKeys = new ArrayList<>();
+        for (String key : originals) {
+            objectKeys.add(key);
+            objectKeys.addAll(imageVariantService.allVariantKeys(key));
+        }
+
+        Map<String, String> errors = objectKeys.isEmpty() ? Map.of() : storageBackend.deleteAll(objectKeys);
+        for (String key : objectKeys) {
+            String error = errors.get(key);
+            if (error == null) {
+                imageDiskCache.invalidate(key);
+            }
+            if (!results.containsKey(key)) {
+                continue; // Déclinaison
+            }
+            if (error != null) {
+                results.put(key, keyResult(key, BatchDeleteResponse.Status.FAILED, error));
+            } else {
+                objectExistenceCache.markAbsent(key);
+                mediaService.removeAll(key);
+                results.put(key, keyResult(key, BatchDeleteResponse.Status.DELETED, null));
+            }
+        }
+
+        List<BatchDeleteResponse.KeyResult> keyResults = new ArrayList<>(results.values());
+        int deleted = (int) keyResults.stream()
+                .filter(r -> r.getStatus() == BatchDeleteResponse.Status.DELETED)
+                .count();
+        int failed = (int) keyResults.stream()
+                .filter(r -> r.getStatus() == BatchDeleteResponse.Status.FAILED
+                        || r.getStatus() == BatchDeleteResponse.Status.INVALID
+                        || r.getStatus() == BatchDeleteResponse.Status.FORBIDDEN)
+                .count();
+
+        log.info("Suppression groupée - Demandées: {}, Supprimées: {}, Échecs: {}",
+                keyResults.size(), deleted, failed);
+
+        return BatchDeleteResponse.builder()
+                .deleted(deleted)
+                .failed(failed)
+                .results(keyResults)
+                .build();
+    }
+
+    /**
+     * Retirer la référence de l'appelant vers un contenu partagé
+     * <p>
+     * Seule sa propre ligne media disparaît. Un administrateur ou un modérateur qui n'en possède
+     * pas retire le contenu pour tous ses propriétaires.
+     *
+     * @return true si d'autres références subsistent : l'objet doit être conservé
+     */
+    private boolean releaseReference(String key, Authentication auth) {
+        if (mediaService.removeOne(key, owner(auth))) {
+            return mediaBlobService.release(key) == MediaBlobService.ReleaseResult.STILL_REFERENCED;
+        }
+        if (!isPrivileged(auth)) {
+            throw new ResponseStatusException(
+                    HttpStatus.FORBIDDEN,
+                    "Image inconnue ou appartenant à un autre utilisateur"
+            );
+        }
+        mediaBlobService.forget(key);
+        return false;
+    }
+
+    /**
+     * Supprimer une image en arrière-plan, sans faire attendre la requête
+     * <p>
+     * Un échec est seulement journalisé : l'image n'étant plus référencée, le ramasse-miettes
+     * la retirera à son prochain passage.
+     *
+     * @param key  Clé de l'image (folder/filename)
+     * @param auth Authentification de son propriétaire
+     */
+    public void deleteFileInBackground(String key, Authentication auth) {
+        int slash = key.indexOf('/');
+        retirementExecutor.execute(() -> {
+            try {
+                deleteFile(key.substring(0, slash), key.substring(slash + 1), auth);
+            } catch (RuntimeException e) {
+                log.warn("Suppression en arrière-plan de {} en échec: {}", key, e.getMessage());
+            }
+        });
+    }
+
+    private static BatchDeleteResponse.KeyResult keyResult(String key, BatchDeleteResponse.Status status, String error) {
+        return BatchDeleteResponse.KeyResult.builder()
+                .key(key)
+                .status(status)
+                .error(error)
+                .build();
+    }
+
     /**
      * Vérifier si un fichier existe sur RustFS
      *
+     * <p>
+     * Seule une réponse 404 signifie « absent » : une erreur ou un timeout du stockage est propagé
+     * au lieu d'être confondu avec un fichier inexistant.
+     *
      * @param key Clé du fichier (folder/filename)
      * @return true si le fichier existe
      */
     public boolean fileExists(String key) {
-        try {
-            HeadObjectRequest headObjectRequest = HeadObjectRequest.builder()
-                    .bucket(rustFsProperties.getBucketName())
-                    .key(key)
-                    .build();
+        Optional<Boolean> cached = objectExistenceCache.lookup(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
 
-            s3Client.headObject(headObjectRequest);
-            return true;
-        } catch (NoSuchKeyException e) {
-            return false;
-        } catch (Exception e) {
-            log.error("Erreur lors de la vérification d'existence de {}: {}", key, e.getMessage());
-            return false;
+        boolean exists = storageBackend.head(key).isPresent();
+        if (exists) {
+            objectExistenceCache.markPresent(key);
+        } else {
+            objectExistenceCache.markAbsent(key);
+        }
+        return exists;
+    }
+
+    private ImageUploadResponse buildUploadResponse(String folder, String generatedFilename, String originalFilename,
+                                                    long size, String contentType,
+                                                    ImageHeaderInspector.ImageInfo imageInfo,
+                                                    Map<Integer, String> variantKeys, Authentication auth) {
+        Map<Integer, String> variantUrls = new TreeMap<>();
+        variantKeys.forEach((variantSize, variantKey) -> variantUrls.put(variantSize, buildPublicUrl(variantKey)));
+
+        return ImageUploadResponse.builder()
+                .imageUrl(buildPublicUrl(folder + "/" + generatedFilename))
+                .originalFilename(originalFilename)
+                .generatedFilename(generatedFilename)
+                .folder(folder)
+                .sizeBytes(size)
+                .mimeType(contentType)
+                .width(imageInfo != null ? imageInfo.width() : null)
+                .height(imageInfo != null ? imageInfo.height() : null)
+                .uploadedAt(Instant.now())
+                .uploadedBy(auth != null ? auth.getName() : "system")
+                .variants(variantUrls.isEmpty() ? null : variantUrls)
+                .build();
+    }
+
+    private static String owner(Authentication auth) {
+        return auth != null ? auth.getName() : "system";
+    }
+
+    private static boolean isPrivileged(Authentication auth) {
+        return auth != null && auth.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(PRIVILEGED_ROLES::contains);
+    }
+
+    private void deleteSpoolFile(Path spoolFile) {
+        if (spoolFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(spoolFile);
+        } catch (IOException e) {
+            log.warn("Impossible de supprimer le fichier temporaire {}: {}", spoolFile, e.getMessage());
         }
     }
 
+    /**
+     * Générer un nom de fichier unique en conservant l'extension d'origine
+     */
+    private String generateFilename(String originalFilename) {
+        return UUID.randomUUID() + "." + getFileExtension(originalFilename);
+    }
+
     /**
      * Construire l'URL publique d'un fichier
      */
     private String buildPublicUrl(String key) {
-        return String.format("%s/%s/%s",
-                rustFsProperties.getEndpoint(),
-                rustFsProperties.getBucketName(),
-                key
-        );
+        return storageBackend.publicUrl(key);
     }
 
     /**
-     * Valider le fichier uploadé
+     * Valider le fichier uploadé : métadonnées annoncées puis en-tête réel (premiers Ko seulement)
+     *
+     * @return Format et dimensions lus dans l'en-tête
      */
-    private void validateFile(MultipartFile file) {
+    private ImageHeaderInspector.ImageInfo validateFile(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new ResponseStatusException(
                     HttpStatus.BAD_REQUEST,
@@ -223,8 +1229,24 @@ public class RustFsService {
             );
         }
 
+        validateImageMetadata(file.getContentType(), file.getSize(), StringUtils.cleanPath(file.getOriginalFilename()));
+
+        try (InputStream header = file.getInputStream()) {
+            return imageHeaderInspector.inspect(header, file.getContentType());
+        } catch (IOException e) {
+            log.error("Erreur lors de la lecture de l'en-tête du fichier", e);
+            throw new ResponseStatusException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Erreur lors de la lecture du fichier: " + e.getMessage()
+            );
+        }
+    }
+
+    /**
+     * Valider type MIME, taille et extension d'une image (upload classique ou présigné)
+     */
+    private void validateImageMetadata(String contentType, long size, String filename) {
         // Vérifier le type MIME
-        String contentType = file.getContentType();
         if (contentType == null || !ALLOWED_MIME_TYPES.contains(contentType.toLowerCase())) {
             throw new ResponseStatusException(
                     HttpStatus.BAD_REQUEST,
@@ -234,17 +1256,16 @@ public class RustFsService {
         }
 
         // Vérifier la taille
-        if (file.getSize() > MAX_FILE_SIZE) {
+        if (size > MAX_FILE_SIZE) {
             throw new ResponseStatusException(
                     HttpStatus.BAD_REQUEST,
                     String.format("L'image ne doit pas dépasser %d MB (taille actuelle: %.2f MB)",
                             MAX_FILE_SIZE / 1024 / 1024,
-                            file.getSize() / 1024.0 / 1024.0)
+                            size / 1024.0 / 1024.0)
             );
         }
 
         // Vérifier l'extension
-        String filename = StringUtils.cleanPath(file.getOriginalFilename());
         String extension = getFileExtension(filename);
 
         if (extension.isEmpty() || !ALLOWED_EXTENSIONS.contains(extension.toLowerCase())) {
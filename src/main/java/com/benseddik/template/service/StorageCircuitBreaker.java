@@ -0,0 +1,156 @@
+package com.benseddik.template.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Disjoncteur à fenêtre glissante sur le nombre d'appels
+ * <p>
+ * Fermé, il observe les N derniers appels et s'ouvre quand le taux d'échec dépasse le seuil.
+ * Ouvert, il refuse tout appel jusqu'à l'échéance, puis passe en semi-ouverture : quelques
+ * appels d'essai sont autorisés, le disjoncteur se referme s'ils réussissent tous et se
+ * rouvre au premier échec.
+ */
+public class StorageCircuitBreaker {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final Duration openDuration;
+    private final int halfOpenCalls;
+    private final Clock clock;
+    private final Consumer<State> onTransition;
+
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private Instant openUntil = Instant.MIN;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    /**
+     * @param windowSize           Nombre de derniers appels observés
+     * @param minimumCalls         Appels minimum avant de pouvoir s'ouvrir
+     * @param failureRateThreshold Taux d'échec d'ouverture, en pourcentage
+     * @param openDuration         Durée d'ouverture avant la semi-ouverture
+     * @param halfOpenCalls        Appels d'essai en semi-ouverture
+     * @param clock                Horloge
+     * @param onTransition         Notifié à chaque changement d'état (sous verrou : doit rester léger)
+     */
+    public StorageCircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                                 Duration openDuration, int halfOpenCalls, Clock clock,
+                                 Consumer<State> onTransition) {
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.clock = clock;
+        this.onTransition = onTransition;
+    }
+
+    /**
+     * Autoriser un appel ; en semi-ouverture, consomme l'un des appels d'essai
+     *
+     * @return false si l'appel doit être refusé sans contacter RustFS
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openUntil)) {
+                return false;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                transition(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transition(State.OPEN);
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (windowCount >= minimumCalls && failureRate() >= failureRateThreshold) {
+                transition(State.OPEN);
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Taux d'échec observé dans la fenêtre, en pourcentage
+     */
+    public synchronized double failureRate() {
+        return windowCount == 0 ? 0 : 100.0 * windowFailures / windowCount;
+    }
+
+    /**
+     * Délai conseillé au client avant de réessayer (au moins une seconde)
+     */
+    public synchronized Duration retryAfter() {
+        if (state != State.OPEN) {
+            return Duration.ofSeconds(1);
+        }
+        Duration remaining = Duration.between(clock.instant(), openUntil);
+        long seconds = remaining.toMillis() <= 0 ? 1 : (remaining.toMillis() + 999) / 1000;
+        return Duration.ofSeconds(seconds);
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void transition(State target) {
+        state = target;
+        switch (target) {
+            case OPEN -> openUntil = clock.instant().plus(openDuration);
+            case HALF_OPEN -> {
+                halfOpenPermits = halfOpenCalls;
+                halfOpenSuccesses = 0;
+            }
+            case CLOSED -> {
+                windowIndex = 0;
+                windowCount = 0;
+                windowFailures = 0;
+            }
+        }
+        onTransition.accept(target);
+    }
+}
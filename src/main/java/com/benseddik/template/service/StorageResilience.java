@@ -0,0 +1,445 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.http.Abortable;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Protection des appels RustFS : délai par opération, nouvelles tentatives bornées par un budget,
+ * disjoncteur et lectures de couverture (hedging)
+ * <p>
+ * Quand RustFS ralentit, chaque appel bloque un thread Tomcat jusqu'à l'abandon du SDK. Le délai
+ * borne cette attente (nouvelles tentatives comprises), le disjoncteur la supprime quand RustFS est
+ * en panne (503 immédiat avec Retry-After) et le budget empêche les nouvelles tentatives d'amplifier
+ * la charge d'un service déjà dégradé. Seules les erreurs de RustFS lui-même (réseau, délai, 5xx,
+ * 429) comptent comme des échecs : un 404 ou un 304 est une réponse normale.
+ */
+@Component
+@Slf4j
+public class StorageResilience {
+
+    /**
+     * Nature d'un appel, qui détermine son délai et s'il peut être rejoué
+     */
+    public enum Operation {
+        /**
+         * HEAD/GET : idempotent, éligible au hedging
+         */
+        READ(true),
+        /**
+         * PUT et parts multipart : le flux envoyé ne peut pas être rejoué
+         */
+        WRITE(false),
+        /**
+         * DELETE : idempotent côté S3
+         */
+        DELETE(true);
+
+        private final boolean idempotent;
+
+        Operation(boolean idempotent) {
+            this.idempotent = idempotent;
+        }
+
+        public boolean isIdempotent() {
+            return idempotent;
+        }
+    }
+
+    private final RustFsProperties.Resilience properties;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final StorageCircuitBreaker circuitBreaker;
+    private final RetryBudget retryBudget;
+    private final Counter rejectedCounter;
+    // Lectures de couverture et nouvelles tentatives asynchrones
+    private final ExecutorService hedgeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    public StorageResilience(RustFsProperties rustFsProperties, MeterRegistry meterRegistry) {
+        this(rustFsProperties, meterRegistry, Clock.systemUTC());
+    }
+
+    StorageResilience(RustFsProperties rustFsProperties, MeterRegistry meterRegistry, Clock clock) {
+        this.properties = rustFsProperties.getResilience();
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.retryBudget = new RetryBudget(properties.getRetryBudgetRatio(), properties.getRetryBudgetCapacity());
+        this.circuitBreaker = new StorageCircuitBreaker(
+                properties.getCircuitWindowSize(),
+                properties.getCircuitMinimumCalls(),
+                properties.getCircuitFailureRateThreshold(),
+                properties.getCircuitOpenDuration(),
+                properties.getCircuitHalfOpenCalls(),
+                clock,
+                this::onTransition);
+
+        Gauge.builder("rustfs.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("État du disjoncteur RustFS (0 fermé, 1 semi-ouvert, 2 ouvert)")
+                .register(meterRegistry);
+        Gauge.builder("rustfs.circuit.failure.rate", circuitBreaker, StorageCircuitBreaker::failureRate)
+                .description("Taux d'échec des appels RustFS dans la fenêtre du disjoncteur (%)")
+                .register(meterRegistry);
+        Gauge.builder("rustfs.retry.budget.tokens", retryBudget, RetryBudget::tokens)
+                .description("Nouvelles tentatives encore autorisées par le budget")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("rustfs.circuit.rejected")
+                .description("Appels RustFS refusés par le disjoncteur")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Exécuter un appel synchrone
+     *
+     * @param operation Nature de l'appel
+     * @param call      Appel S3, qui doit appliquer la configuration fournie à sa requête
+     *                  (elle porte le délai restant)
+     * @return Résultat de l'appel
+     * @throws StorageUnavailableException si le disjoncteur est ouvert, le délai dépassé ou RustFS injoignable
+     */
+    public <T> T execute(Operation operation, Function<AwsRequestOverrideConfiguration, T> call) {
+        Instant deadline = clock.instant().plus(timeoutOf(operation));
+        retryBudget.deposit();
+
+        int attempt = 0;
+        while (true) {
+            acquirePermission();
+            try {
+                T result = operation == Operation.READ && properties.isHedgeEnabled()
+                        ? hedged(call, deadline)
+                        : call.apply(overrideFor(deadline));
+                circuitBreaker.onSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                if (!isStorageFailure(e)) {
+                    circuitBreaker.onSuccess(); // RustFS a répondu
+                    throw e;
+                }
+                circuitBreaker.onFailure();
+                ConcurrencyLimitService.markDownstreamFailure();
+
+                Duration backoff = properties.getRetryBackoff().multipliedBy(1L << attempt);
+                if (!operation.isIdempotent()
+                        || attempt >= properties.getMaxRetries()
+                        || remaining(deadline).compareTo(backoff) <= 0) {
+                    throw unavailable(e);
+                }
+                if (!retryBudget.tryWithdraw()) {
+                    retryCounter(operation, "budget_exhausted").increment();
+                    throw unavailable(e);
+                }
+                retryCounter(operation, "attempted").increment();
+                attempt++;
+                sleep(backoff);
+            }
+        }
+    }
+
+    /**
+     * Exécuter un appel asynchrone, avec les mêmes délais, nouvelles tentatives sous budget et
+     * disjoncteur que {@link #execute} ; le client asynchrone ne retente rien lui-même
+     *
+     * @return Future de l'appel, en échec immédiat ({@link StorageUnavailableException}) si le disjoncteur est ouvert
+     */
+    public <T> CompletableFuture<T> executeAsync(Operation operation,
+                                                 Function<AwsRequestOverrideConfiguration, CompletableFuture<T>> call) {
+        Instant deadline = clock.instant().plus(timeoutOf(operation));
+        retryBudget.deposit();
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(operation, call, deadline, 0, result);
+        return result;
+    }
+
+    private <T> void attemptAsync(Operation operation,
+                                  Function<AwsRequestOverrideConfiguration, CompletableFuture<T>> call,
+                                  Instant deadline, int attempt, CompletableFuture<T> result) {
+        if (!circuitBreaker.tryAcquire()) {
+            rejectedCounter.increment();
+            result.completeExceptionally(circuitOpen());
+            return;
+        }
+
+        CompletableFuture<T> future;
+        try {
+            future = call.apply(overrideFor(deadline));
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause == null || !isStorageFailure(cause)) {
+                circuitBreaker.onSuccess(); // RustFS a répondu
+                if (cause == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(cause);
+                }
+                return;
+            }
+            circuitBreaker.onFailure();
+            ConcurrencyLimitService.markDownstreamFailure();
+
+            Duration backoff = properties.getRetryBackoff().multipliedBy(1L << attempt);
+            if (!operation.isIdempotent()
+                    || attempt >= properties.getMaxRetries()
+                    || remaining(deadline).compareTo(backoff) <= 0) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            if (!retryBudget.tryWithdraw()) {
+                retryCounter(operation, "budget_exhausted").increment();
+                result.completeExceptionally(cause);
+                return;
+            }
+            retryCounter(operation, "attempted").increment();
+            CompletableFuture.delayedExecutor(jitter(backoff), TimeUnit.MILLISECONDS, hedgeExecutor)
+                    .execute(() -> attemptAsync(operation, call, deadline, attempt + 1, result));
+        });
+    }
+
+    public StorageCircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    public double getFailureRate() {
+        return circuitBreaker.failureRate();
+    }
+
+    public Duration getRetryAfter() {
+        return circuitBreaker.retryAfter();
+    }
+
+    public double getRetryBudgetTokens() {
+        return retryBudget.tokens();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    /**
+     * Lecture de couverture : si la réponse tarde au-delà de {@code hedge-delay}, une seconde
+     * requête identique part (aux frais du budget) et la première réponse réussie est retenue.
+     * La réponse perdante est abandonnée pour libérer sa connexion.
+     */
+    private <T> T hedged(Function<AwsRequestOverrideConfiguration, T> call, Instant deadline) {
+        CompletableFuture<T> primary = CompletableFuture.supplyAsync(() -> call.apply(overrideFor(deadline)), hedgeExecutor);
+        try {
+            return primary.get(properties.getHedgeDelay().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Réponse lente : lecture de couverture ci-dessous
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primary.thenAccept(StorageResilience::discard);
+            throw new StorageUnavailableException("Lecture RustFS interrompue", Duration.ofSeconds(1), e);
+        }
+
+        if (remaining(deadline).isZero() || !retryBudget.tryWithdraw()) {
+            hedgeCounter("skipped").increment();
+            return join(primary);
+        }
+
+        CompletableFuture<T> hedge = CompletableFuture.supplyAsync(() -> call.apply(overrideFor(deadline)), hedgeExecutor);
+        CompletableFuture<T> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<T> candidate : List.of(primary, hedge)) {
+            candidate.whenComplete((result, error) -> {
+                if (error == null) {
+                    if (first.complete(result)) {
+                        hedgeCounter(candidate == primary ? "primary" : "hedge").increment();
+                    } else {
+                        discard(result);
+                    }
+                } else if (failures.incrementAndGet() == 2) {
+                    first.completeExceptionally(error);
+                }
+            });
+        }
+        return join(first);
+    }
+
+    private void acquirePermission() {
+        if (!circuitBreaker.tryAcquire()) {
+            rejectedCounter.increment();
+            throw circuitOpen();
+        }
+    }
+
+    private StorageUnavailableException circuitOpen() {
+        return new StorageUnavailableException(
+                "RustFS est momentanément indisponible (disjoncteur ouvert)", circuitBreaker.retryAfter());
+    }
+
+    /**
+     * Erreur imputable à RustFS : réseau, délai dépassé, 5xx ou limitation (429)
+     */
+    private static boolean isStorageFailure(Throwable error) {
+        if (error instanceof SdkClientException) {
+            return true;
+        }
+        return error instanceof S3Exception s3Exception
+                && (s3Exception.statusCode() >= 500 || s3Exception.statusCode() == 429);
+    }
+
+    /**
+     * Les erreurs réseau et les délais dépassés deviennent un 503 ; les réponses en erreur de RustFS
+     * sont propagées telles quelles pour que l'appelant les traduise
+     */
+    private RuntimeException unavailable(RuntimeException error) {
+        if (error instanceof SdkClientException) {
+            log.warn("RustFS injoignable ou trop lent: {}", error.getMessage());
+            return new StorageUnavailableException(
+                    "RustFS est momentanément indisponible", circuitBreaker.retryAfter(), error);
+        }
+        return error;
+    }
+
+    private Duration timeoutOf(Operation operation) {
+        return switch (operation) {
+            case READ -> properties.getReadTimeout();
+            case WRITE -> properties.getWriteTimeout();
+            case DELETE -> properties.getDeleteTimeout();
+        };
+    }
+
+    private Duration remaining(Instant deadline) {
+        Duration remaining = Duration.between(clock.instant(), deadline);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private AwsRequestOverrideConfiguration overrideFor(Instant deadline) {
+        Duration remaining = remaining(deadline);
+        return AwsRequestOverrideConfiguration.builder()
+                .apiCallTimeout(remaining.isZero() ? Duration.ofMillis(1) : remaining)
+                .build();
+    }
+
+    private void sleep(Duration backoff) {
+        try {
+            Thread.sleep(jitter(backoff));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageUnavailableException("Appel RustFS interrompu", Duration.ofSeconds(1), e);
+        }
+    }
+
+    /**
+     * Moitié fixe, moitié aléatoire : les clients ne retentent pas tous au même instant
+     */
+    private static long jitter(Duration backoff) {
+        long millis = backoff.toMillis();
+        return millis / 2 + ThreadLocalRandom.current().nextLong(millis / 2 + 1);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw propagate(e.getCause());
+        }
+    }
+
+    private static RuntimeException propagate(Throwable error) {
+        if (error instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (error instanceof Error fatal) {
+            throw fatal;
+        }
+        return new IllegalStateException(error);
+    }
+
+    /**
+     * Libérer une réponse devenue inutile (flux GET perdant d'un hedge)
+     */
+    private static void discard(Object result) {
+        if (result instanceof Abortable abortable) {
+            abortable.abort();
+        }
+        if (result instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.debug("Fermeture d'une réponse abandonnée impossible: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void onTransition(StorageCircuitBreaker.State state) {
+        if (state == StorageCircuitBreaker.State.OPEN) {
+            log.warn("Disjoncteur RustFS ouvert : appels refusés pendant {}", properties.getCircuitOpenDuration());
+        } else {
+            log.info("Disjoncteur RustFS {}", state == StorageCircuitBreaker.State.CLOSED ? "refermé" : "semi-ouvert");
+        }
+        meterRegistry.counter("rustfs.circuit.transitions", "state", state.name().toLowerCase()).increment();
+    }
+
+    private Counter retryCounter(Operation operation, String outcome) {
+        return meterRegistry.counter("rustfs.retries",
+                "operation", operation.name().toLowerCase(), "outcome", outcome);
+    }
+
+    private Counter hedgeCounter(String outcome) {
+        return meterRegistry.counter("rustfs.hedges", "outcome", outcome);
+    }
+
+    /**
+     * Budget de nouvelles tentatives : chaque appel crédite {@code ratio}, chaque tentative
+     * supplémentaire (ou lecture de couverture) coûte 1, dans la limite de {@code capacity}
+     */
+    private static final class RetryBudget {
+        private final double ratio;
+        private final double capacity;
+        private double tokens;
+
+        private RetryBudget(double ratio, double capacity) {
+            this.ratio = ratio;
+            this.capacity = capacity;
+            this.tokens = capacity;
+        }
+
+        synchronized void deposit() {
+            tokens = Math.min(capacity, tokens + ratio);
+        }
+
+        synchronized boolean tryWithdraw() {
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized double tokens() {
+            return tokens;
+        }
+    }
+}
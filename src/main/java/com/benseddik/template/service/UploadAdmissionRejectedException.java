@@ -0,0 +1,32 @@
+package com.benseddik.template.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+/**
+ * Upload refusé par le contrôle d'admission (trop d'octets ou d'uploads en cours) :
+ * 503 accompagné d'un en-tête Retry-After, avant lecture du corps
+ */
+public class UploadAdmissionRejectedException extends ResponseStatusException {
+
+    private final Duration retryAfter;
+
+    public UploadAdmissionRejectedException(String reason, Duration retryAfter) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, reason);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+        return headers;
+    }
+}
@@ -0,0 +1,129 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Contrôle d'admission global des uploads
+ * <p>
+ * Chaque upload réserve le volume annoncé par son Content-Length avant que le corps ne soit lu,
+ * et le rend à la fin de la requête. Au-delà du budget d'octets ou du nombre d'uploads
+ * simultanés, la requête est refusée aussitôt (503 + Retry-After) : une rafale d'uploads
+ * dégrade le service au lieu d'épuiser le tas.
+ */
+@Service
+@Slf4j
+public class UploadAdmissionService {
+
+    /**
+     * Réservation d'un upload admis, rendue une seule fois à la fermeture
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final long bytes;
+        // Contrôle désactivé : rien n'a été réservé
+        private final AtomicBoolean released;
+
+        private Permit(long bytes, boolean reserved) {
+            this.bytes = bytes;
+            this.released = new AtomicBoolean(!reserved);
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(bytes);
+            }
+        }
+    }
+
+    private final RustFsProperties rustFsProperties;
+    private final Counter bytesRejections;
+    private final Counter concurrencyRejections;
+    // Modifiés sous le verrou de l'instance ; lus sans verrou par les jauges
+    private volatile long inFlightBytes;
+    private volatile int inFlightUploads;
+
+    public UploadAdmissionService(RustFsProperties rustFsProperties, MeterRegistry meterRegistry) {
+        this.rustFsProperties = rustFsProperties;
+
+        this.bytesRejections = Counter.builder("rustfs.admission.rejected")
+                .description("Uploads refusés par le contrôle d'admission")
+                .tag("reason", "bytes")
+                .register(meterRegistry);
+        this.concurrencyRejections = Counter.builder("rustfs.admission.rejected")
+                .description("Uploads refusés par le contrôle d'admission")
+                .tag("reason", "concurrency")
+                .register(meterRegistry);
+        Gauge.builder("rustfs.admission.inflight.bytes", this, admission -> admission.inFlightBytes)
+                .description("Octets annoncés des uploads en cours")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("rustfs.admission.inflight.uploads", this, admission -> admission.inFlightUploads)
+                .description("Uploads en cours de réception")
+                .register(meterRegistry);
+        Gauge.builder("rustfs.admission.utilization", this, UploadAdmissionService::utilization)
+                .description("Part du budget d'octets en cours d'utilisation (0 à 1)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Réserver le budget d'un upload
+     *
+     * @param declaredBytes Content-Length de la requête, négatif s'il est inconnu
+     * @return Réservation à fermer en fin de requête
+     * @throws UploadAdmissionRejectedException 503 si le budget est épuisé
+     */
+    public Permit admit(long declaredBytes) {
+        RustFsProperties.Admission config = rustFsProperties.getAdmission();
+        long bytes = declaredBytes >= 0 ? declaredBytes : config.getUnknownLengthBytes().toBytes();
+        if (!config.isEnabled()) {
+            return new Permit(0, false);
+        }
+
+        synchronized (this) {
+            if (inFlightUploads + 1 > config.getMaxConcurrentUploads()) {
+                concurrencyRejections.increment();
+                throw rejected("Trop d'uploads en cours", bytes, config);
+            }
+            // Une requête plus grosse que le budget entier passe seule, faute de quoi elle ne passerait jamais
+            if (inFlightBytes > 0 && inFlightBytes + bytes > config.getMaxInFlightBytes().toBytes()) {
+                bytesRejections.increment();
+                throw rejected("Volume d'uploads en cours trop important", bytes, config);
+            }
+            inFlightBytes += bytes;
+            inFlightUploads++;
+        }
+        return new Permit(bytes, true);
+    }
+
+    public long inFlightBytes() {
+        return inFlightBytes;
+    }
+
+    public int inFlightUploads() {
+        return inFlightUploads;
+    }
+
+    private synchronized void release(long bytes) {
+        inFlightBytes -= bytes;
+        inFlightUploads--;
+    }
+
+    private double utilization() {
+        long budget = rustFsProperties.getAdmission().getMaxInFlightBytes().toBytes();
+        return budget > 0 ? (double) inFlightBytes / budget : 0;
+    }
+
+    private UploadAdmissionRejectedException rejected(String reason, long bytes, RustFsProperties.Admission config) {
+        log.warn("Upload refusé par le contrôle d'admission ({}) - Taille: {} bytes, En cours: {} uploads / {} bytes",
+                reason, bytes, inFlightUploads, inFlightBytes);
+        return new UploadAdmissionRejectedException(reason + ", réessayez plus tard", config.getRetryAfter());
+    }
+}
@@ -0,0 +1,34 @@
+package com.benseddik.template.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+/**
+ * Quota d'upload dépassé : 429 avec Retry-After (fin de journée) pour le quota journalier,
+ * 507 pour le quota de stockage total
+ */
+public class UploadQuotaExceededException extends ResponseStatusException {
+
+    private final Duration retryAfter;
+
+    public UploadQuotaExceededException(HttpStatus status, String reason, Duration retryAfter) {
+        super(status, reason);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        if (retryAfter != null) {
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,402 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import com.benseddik.template.repository.MediaRepository;
+import com.benseddik.template.repository.UploadQuotaUsageRepository;
+import com.benseddik.template.repository.UploadQuotaUsageRepository.DailyUsage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Quotas d'upload par utilisateur : volume et nombre d'images, par jour (UTC) et au total
+ * <p>
+ * La vérification ne lit que des compteurs en mémoire, sans requête SQL sur le chemin de l'upload.
+ * Un upload réserve sa place par compare-and-set avant le transfert ({@link #reserve}) : N uploads
+ * simultanés ne peuvent pas dépasser ensemble le quota. Les totaux sont reconstruits au démarrage depuis la table media, qui
+ * reste la référence ; les compteurs journaliers sont écrits en différé par lots dans
+ * upload_quota_usage et relus au démarrage. Un arrêt brutal perd au plus un intervalle d'écriture.
+ * <p>
+ * Les compteurs sont propres à l'instance : avec plusieurs instances, chacune applique le quota
+ * à ce qu'elle a vu depuis son démarrage en plus de ce qui était en base.
+ */
+@Service
+@Slf4j
+public class UploadQuotaService {
+
+    /**
+     * Consommation d'un utilisateur
+     */
+    public record Usage(long dailyBytes, long dailyObjects, long totalBytes, long totalObjects) {
+    }
+
+    /**
+     * Place réservée pour un upload en cours, à libérer une fois l'upload enregistré
+     * ({@link #recordUpload}) ou abandonné ; libérer plusieurs fois est sans effet
+     */
+    @FunctionalInterface
+    public interface Reservation extends AutoCloseable {
+
+        /**
+         * Réservation vide (quotas désactivés)
+         */
+        Reservation NONE = () -> {
+        };
+
+        void release();
+
+        @Override
+        default void close() {
+            release();
+        }
+    }
+
+    private final MediaRepository mediaRepository;
+    private final UploadQuotaUsageRepository usageRepository;
+    private final RustFsProperties rustFsProperties;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Clock clock;
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    /**
+     * Reliquats non écrits d'une journée terminée, ou d'une écriture en échec
+     */
+    private final Queue<DailyUsage> pendingIncrements = new ConcurrentLinkedQueue<>();
+    private final Counter dailyRejections;
+    private final Counter totalRejections;
+    private volatile LocalDate lastPurge;
+
+    @Autowired
+    public UploadQuotaService(MediaRepository mediaRepository, UploadQuotaUsageRepository usageRepository,
+                              RustFsProperties rustFsProperties, PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this(mediaRepository, usageRepository, rustFsProperties, transactionManager, meterRegistry, Clock.systemUTC());
+    }
+
+    UploadQuotaService(MediaRepository mediaRepository, UploadQuotaUsageRepository usageRepository,
+                       RustFsProperties rustFsProperties, PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry, Clock clock) {
+        this.mediaRepository = mediaRepository;
+        this.usageRepository = usageRepository;
+        this.rustFsProperties = rustFsProperties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.clock = clock;
+
+        this.dailyRejections = Counter.builder("rustfs.quota.rejected")
+                .description("Uploads refusés pour dépassement de quota")
+                .tag("scope", "daily")
+                .register(meterRegistry);
+        this.totalRejections = Counter.builder("rustfs.quota.rejected")
+                .description("Uploads refusés pour dépassement de quota")
+                .tag("scope", "total")
+                .register(meterRegistry);
+        Gauge.builder("rustfs.quota.owners", counters, Map::size)
+                .description("Utilisateurs suivis en mémoire")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Totaux depuis la table media, consommation du jour depuis upload_quota_usage
+     */
+    @PostConstruct
+    void rebuild() {
+        LocalDate today = today();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<MediaRepository.OwnerUsage> owners = mediaRepository.streamUsageByOwner()) {
+                owners.forEach(owner -> {
+                    Counters entry = countersFor(owner.getOwnerId(), today);
+                    entry.totalBytes.addAndGet(owner.getSizeBytes());
+                    entry.totalObjects.addAndGet(owner.getObjects());
+                });
+            }
+        });
+        for (DailyUsage usage : usageRepository.findByDay(today)) {
+            Counters entry = countersFor(usage.ownerId(), today);
+            entry.dailyBytes.addAndGet(usage.bytes());
+            entry.dailyObjects.addAndGet(usage.objects());
+        }
+        log.info("Compteurs de quota reconstruits pour {} utilisateurs", counters.size());
+    }
+
+    /**
+     * Vérifier qu'un upload de {@code bytes} octets tient dans les quotas, sans rien réserver
+     * (refus anticipé, ou ouverture d'un upload dont les octets arriveront plus tard)
+     *
+     * @throws UploadQuotaExceededException 429 (quota journalier) ou 507 (quota total)
+     */
+    public void checkUpload(String ownerId, long bytes) {
+        RustFsProperties.Quota quota = rustFsProperties.getQuota();
+        if (!quota.isEnabled()) {
+            return;
+        }
+        Counters entry = countersFor(ownerId, today());
+        long incoming = Math.max(0, bytes);
+
+        if (exceeds(entry.dailyObjects.get() + 1, quota.getMaxDailyObjects())
+                || exceeds(entry.dailyBytes.get() + incoming, quota.getMaxDailyBytes().toBytes())) {
+            throw dailyExceeded(ownerId, incoming);
+        }
+        if (exceeds(entry.totalObjects.get() + 1, quota.getMaxTotalObjects())
+                || exceeds(entry.totalBytes.get() + incoming, quota.getMaxTotalBytes().toBytes())) {
+            throw totalExceeded(ownerId, incoming);
+        }
+    }
+
+    /**
+     * Réserver la place d'un upload de {@code bytes} octets : chaque compteur est incrémenté par
+     * compare-and-set seulement s'il reste sous sa limite, les compteurs déjà réservés sont rendus
+     * en cas de refus
+     *
+     * @return Réservation à libérer après {@link #recordUpload}, ou si l'upload échoue
+     * @throws UploadQuotaExceededException 429 (quota journalier) ou 507 (quota total)
+     */
+    public Reservation reserve(String ownerId, long bytes) {
+        RustFsProperties.Quota quota = rustFsProperties.getQuota();
+        if (!quota.isEnabled()) {
+            return Reservation.NONE;
+        }
+        LocalDate today = today();
+        Counters entry = countersFor(ownerId, today);
+        long incoming = Math.max(0, bytes);
+
+        if (!tryAdd(entry.dailyObjects, 1, quota.getMaxDailyObjects())) {
+            throw dailyExceeded(ownerId, incoming);
+        }
+        if (!tryAdd(entry.dailyBytes, incoming, quota.getMaxDailyBytes().toBytes())) {
+            entry.dailyObjects.decrementAndGet();
+            throw dailyExceeded(ownerId, incoming);
+        }
+        if (!tryAdd(entry.totalObjects, 1, quota.getMaxTotalObjects())) {
+            entry.release(today, incoming, false);
+            throw totalExceeded(ownerId, incoming);
+        }
+        if (!tryAdd(entry.totalBytes, incoming, quota.getMaxTotalBytes().toBytes())) {
+            entry.totalObjects.decrementAndGet();
+            entry.release(today, incoming, false);
+            throw totalExceeded(ownerId, incoming);
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                entry.release(today, incoming, true);
+            }
+        };
+    }
+
+    /**
+     * Upload terminé : compté dans la journée et dans le total
+     */
+    public void recordUpload(String ownerId, long bytes) {
+        Counters entry = countersFor(ownerId, today());
+        entry.dailyBytes.addAndGet(bytes);
+        entry.dailyObjects.incrementAndGet();
+        entry.totalBytes.addAndGet(bytes);
+        entry.totalObjects.incrementAndGet();
+        entry.unflushedBytes.addAndGet(bytes);
+        entry.unflushedObjects.incrementAndGet();
+    }
+
+    /**
+     * Image supprimée : libère le total, la consommation du jour reste acquise
+     */
+    public void recordRemoval(String ownerId, long bytes) {
+        Counters entry = counters.get(ownerId);
+        if (entry != null) {
+            entry.totalBytes.addAndGet(-bytes);
+            entry.totalObjects.decrementAndGet();
+        }
+    }
+
+    /**
+     * Compte supprimé : plus rien n'est stocké pour lui
+     */
+    public void forgetOwner(String ownerId) {
+        Counters entry = counters.get(ownerId);
+        if (entry != null) {
+            entry.totalBytes.set(0);
+            entry.totalObjects.set(0);
+        }
+    }
+
+    public Usage usage(String ownerId) {
+        Counters entry = countersFor(ownerId, today());
+        return new Usage(entry.dailyBytes.get(), entry.dailyObjects.get(),
+                entry.totalBytes.get(), entry.totalObjects.get());
+    }
+
+    /**
+     * Écriture différée des compteurs journaliers, en un seul lot
+     */
+    @Scheduled(fixedDelayString = "#{@rustFsProperties.quota.flushInterval.toMillis()}")
+    public void flush() {
+        LocalDate today = today();
+        List<DailyUsage> increments = new ArrayList<>();
+        DailyUsage pending;
+        while ((pending = pendingIncrements.poll()) != null) {
+            increments.add(pending);
+        }
+        counters.forEach((ownerId, entry) -> {
+            entry.rollOver(ownerId, today, pendingIncrements);
+            entry.drain(ownerId, increments);
+        });
+        while ((pending = pendingIncrements.poll()) != null) {
+            increments.add(pending);
+        }
+
+        if (!increments.isEmpty()) {
+            try {
+                usageRepository.incrementAll(increments);
+                log.debug("Compteurs de quota écrits: {}", increments.size());
+            } catch (RuntimeException e) {
+                // Conservés pour la prochaine écriture
+                pendingIncrements.addAll(increments);
+                log.warn("Écriture des compteurs de quota en échec ({} en attente): {}",
+                        increments.size(), e.getMessage());
+                return;
+            }
+        }
+
+        if (!today.equals(lastPurge)) {
+            int purged = usageRepository.deleteBefore(today.minusDays(rustFsProperties.getQuota().getRetentionDays()));
+            lastPurge = today;
+            log.debug("Compteurs de quota expirés supprimés: {}", purged);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private Counters countersFor(String ownerId, LocalDate today) {
+        Counters entry = counters.computeIfAbsent(ownerId, id -> new Counters(today));
+        entry.rollOver(ownerId, today, pendingIncrements);
+        return entry;
+    }
+
+    private static boolean exceeds(long value, long limit) {
+        return limit > 0 && value > limit;
+    }
+
+    /**
+     * Ajouter {@code delta} sans jamais dépasser la limite, même sous concurrence
+     */
+    private static boolean tryAdd(AtomicLong counter, long delta, long limit) {
+        long current;
+        do {
+            current = counter.get();
+            if (exceeds(current + delta, limit)) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current + delta));
+        return true;
+    }
+
+    private UploadQuotaExceededException dailyExceeded(String ownerId, long incoming) {
+        dailyRejections.increment();
+        log.warn("Quota journalier atteint - User: {}, Taille: {} bytes", ownerId, incoming);
+        return new UploadQuotaExceededException(HttpStatus.TOO_MANY_REQUESTS,
+                "Quota journalier d'upload atteint", untilTomorrow());
+    }
+
+    private UploadQuotaExceededException totalExceeded(String ownerId, long incoming) {
+        totalRejections.increment();
+        log.warn("Quota de stockage atteint - User: {}, Taille: {} bytes", ownerId, incoming);
+        return new UploadQuotaExceededException(HttpStatus.INSUFFICIENT_STORAGE,
+                "Quota de stockage atteint : supprimez des images avant d'en ajouter", null);
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(clock.withZone(ZoneOffset.UTC));
+    }
+
+    private Duration untilTomorrow() {
+        return Duration.between(clock.instant(), today().plusDays(1).atStartOfDay(ZoneOffset.UTC));
+    }
+
+    /**
+     * Compteurs d'un utilisateur, réservations en cours comprises : lus et incrémentés sans verrou,
+     * seul le changement de jour et la lecture des incréments à écrire sont synchronisés
+     */
+    private static final class Counters {
+
+        private volatile LocalDate day;
+        private final AtomicLong dailyBytes = new AtomicLong();
+        private final AtomicLong dailyObjects = new AtomicLong();
+        private final AtomicLong totalBytes = new AtomicLong();
+        private final AtomicLong totalObjects = new AtomicLong();
+        // getAndSet à l'écriture : aucun incrément perdu entre la lecture et la remise à zéro
+        private final AtomicLong unflushedBytes = new AtomicLong();
+        private final AtomicLong unflushedObjects = new AtomicLong();
+
+        private Counters(LocalDate day) {
+            this.day = day;
+        }
+
+        /**
+         * Nouvelle journée : le reliquat non écrit part avec l'ancienne date
+         */
+        void rollOver(String ownerId, LocalDate today, Queue<DailyUsage> pendingIncrements) {
+            if (today.equals(day)) {
+                return;
+            }
+            synchronized (this) {
+                if (today.equals(day)) {
+                    return;
+                }
+                List<DailyUsage> carried = new ArrayList<>(1);
+                drain(ownerId, carried);
+                pendingIncrements.addAll(carried);
+                dailyBytes.set(0);
+                dailyObjects.set(0);
+                day = today;
+            }
+        }
+
+        /**
+         * Rendre une réservation ; la part journalière est déjà partie si le jour a changé
+         */
+        void release(LocalDate reservedOn, long bytes, boolean total) {
+            if (total) {
+                totalBytes.addAndGet(-bytes);
+                totalObjects.decrementAndGet();
+            }
+            if (reservedOn.equals(day)) {
+                dailyBytes.addAndGet(-bytes);
+                dailyObjects.decrementAndGet();
+            }
+        }
+
+        synchronized void drain(String ownerId, List<DailyUsage> increments) {
+            long bytes = unflushedBytes.getAndSet(0);
+            long objects = unflushedObjects.getAndSet(0);
+            if (bytes != 0 || objects != 0) {
+                increments.add(new DailyUsage(ownerId, day, bytes, objects));
+            }
+        }
+    }
+}
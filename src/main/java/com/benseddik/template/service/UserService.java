@@ -3,6 +3,7 @@ package com.benseddik.template.service;
 import com.benseddik.template.domain.AppUser;
 import com.benseddik.template.repository.AppUserRepository;
 import com.benseddik.template.security.CurrentUserService;
+import com.benseddik.template.service.dto.ImageUploadResponse;
 import com.benseddik.template.service.dto.MeResponse;
 import com.benseddik.template.service.dto.UpdateProfileRequest;
 import lombok.RequiredArgsConstructor;
@@ -12,7 +13,12 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
@@ -21,9 +27,14 @@ import org.springframework.web.server.ResponseStatusException;
 @Slf4j
 public class UserService {
 
+    private static final String PROFILE_PHOTO_FOLDER = "users";
+
     private final AppUserRepository userRepository;
     private final CurrentUserService currentUserService;
     private final KeycloakService keycloakService;
+    private final MediaService mediaService;
+    private final RustFsService rustFsService;
+    private final TransactionTemplate transactionTemplate;
 
     @Transactional(readOnly = true)
     public MeResponse getCurrentUserProfile(Authentication auth) {
@@ -82,6 +93,44 @@ public class UserService {
         }
     }
 
+    /**
+     * Remplacer la photo de profil en un seul appel : upload, mise à jour du profil, puis
+     * suppression en arrière-plan de l'ancienne image une fois la transaction validée
+     * <p>
+     * L'upload se fait hors transaction : aucune connexion à la base n'est retenue pendant le
+     * transfert vers RustFS. Seules la mise à jour du profil et la décision de supprimer l'ancienne
+     * photo passent ensuite dans une courte transaction.
+     * <p>
+     * Seule une ancienne photo uploadée par l'utilisateur lui-même est supprimée ; une URL
+     * externe ou une image d'un autre propriétaire est simplement remplacée. Si la transaction
+     * échoue après l'upload, la nouvelle image n'est plus référencée et sera retirée par le
+     * ramasse-miettes.
+     *
+     * @return Informations sur la nouvelle image
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImageUploadResponse setProfilePhoto(MultipartFile file, Authentication auth) {
+        ImageUploadResponse upload = rustFsService.uploadFile(file, PROFILE_PHOTO_FOLDER, auth);
+        String newKey = PROFILE_PHOTO_FOLDER + "/" + upload.getGeneratedFilename();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            AppUser user = currentUserService.ensureCurrentUser(auth);
+            String previousKey = user.getPhotoUrl() != null ? ImageReferenceSet.keyFromUrl(user.getPhotoUrl()) : null;
+
+            user.setPhotoUrl(upload.getImageUrl());
+            userRepository.save(user);
+            log.info("Photo de profil remplacée pour l'utilisateur: {}", user.getEmail());
+
+            if (previousKey != null
+                    && previousKey.startsWith(PROFILE_PHOTO_FOLDER + "/")
+                    && !previousKey.equals(newKey)
+                    && mediaService.isOwnedBy(previousKey, auth.getName())) {
+                afterCommit(() -> rustFsService.deleteFileInBackground(previousKey, auth));
+            }
+        });
+        return upload;
+    }
+
     public void deleteAccount(Authentication auth) {
         AppUser user = currentUserService.ensureCurrentUser(auth);
 
@@ -106,6 +155,10 @@ public class UserService {
 
             // Supprimer l'utilisateur de la base de données locale
             userRepository.delete(user);
+            // Les images de l'utilisateur deviennent orphelines : le ramasse-miettes les retirera
+            if (user.getExternalId() != null && !user.getExternalId().isBlank()) {
+                mediaService.removeOwner(user.getExternalId());
+            }
             log.info("User account deleted successfully: {} (ID: {})", user.getEmail(), user.getId());
 
         } catch (ResponseStatusException e) {
@@ -119,4 +172,20 @@ public class UserService {
             );
         }
     }
+
+    /**
+     * Exécuter une action après la validation de la transaction courante (immédiatement hors transaction)
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 }
\ No newline at end of file
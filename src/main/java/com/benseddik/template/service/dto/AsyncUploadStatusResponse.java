@@ -0,0 +1,46 @@
+package com.benseddik.template.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Statut d'un upload asynchrone vers RustFS
+ */
+@Value
+@Builder(toBuilder = true)
+@Schema(description = "Statut d'un upload asynchrone")
+public class AsyncUploadStatusResponse {
+
+    @Schema(
+            description = "Identifiant de suivi de l'upload",
+            example = "4f1c2a9e-5b7d-4c1e-9a3f-2d8e6b0c1a7f"
+    )
+    String uploadId;
+
+    @Schema(description = "État de l'upload", example = "PENDING")
+    Status status;
+
+    @Schema(description = "Résultat de l'upload, renseigné une fois terminé")
+    ImageUploadResponse result;
+
+    @Schema(description = "Message d'erreur en cas d'échec")
+    String error;
+
+    @Schema(description = "Nom d'utilisateur ayant lancé l'upload", example = "john.doe")
+    String uploadedBy;
+
+    @Schema(description = "Timestamp de prise en charge", example = "2025-01-15T10:30:00Z")
+    Instant submittedAt;
+
+    @Schema(description = "Timestamp de fin (succès ou échec)", example = "2025-01-15T10:30:02Z")
+    Instant completedAt;
+
+    public enum Status {
+        PENDING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,22 @@
+package com.benseddik.template.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "Suppression groupée d'images")
+public class BatchDeleteRequest {
+
+    @NotEmpty(message = "Au moins une clé est obligatoire")
+    @Size(max = 10_000, message = "10000 clés maximum par requête")
+    @Schema(
+            description = "Clés des images à supprimer (folder/filename)",
+            example = "[\"users/123e4567-e89b-12d3-a456-426614174000.jpg\"]"
+    )
+    private List<@NotBlank String> keys;
+}
@@ -0,0 +1,48 @@
+package com.benseddik.template.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Résultat d'une suppression groupée, clé par clé
+ */
+@Value
+@Builder
+@Schema(description = "Résultat d'une suppression groupée")
+public class BatchDeleteResponse {
+
+    public enum Status {
+        DELETED,
+        STILL_REFERENCED,
+        INVALID,
+        FORBIDDEN,
+        FAILED
+    }
+
+    @Value
+    @Builder
+    @Schema(description = "Résultat pour une clé")
+    public static class KeyResult {
+
+        @Schema(description = "Clé de l'image", example = "users/123e4567-e89b-12d3-a456-426614174000.jpg")
+        String key;
+
+        @Schema(description = "Issue de la suppression", example = "DELETED")
+        Status status;
+
+        @Schema(description = "Message d'erreur RustFS (FAILED / INVALID / FORBIDDEN)")
+        String error;
+    }
+
+    @Schema(description = "Nombre de clés supprimées", example = "998")
+    int deleted;
+
+    @Schema(description = "Nombre de clés en échec, invalides ou refusées", example = "2")
+    int failed;
+
+    @Schema(description = "Résultat par clé, dans l'ordre de la requête")
+    List<KeyResult> results;
+}
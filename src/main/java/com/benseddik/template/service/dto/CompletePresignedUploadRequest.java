@@ -0,0 +1,15 @@
+package com.benseddik.template.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+@Schema(description = "Finalisation d'un upload direct vers RustFS")
+public class CompletePresignedUploadRequest {
+
+    @NotBlank(message = "La clé est obligatoire")
+    @Schema(description = "Clé retournée par la demande d'URL présignée",
+            example = "users/123e4567-e89b-12d3-a456-426614174000.jpg")
+    private String key;
+}
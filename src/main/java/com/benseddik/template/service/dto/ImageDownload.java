@@ -0,0 +1,46 @@
+package com.benseddik.template.service.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.time.Instant;
+
+/**
+ * Image lue depuis RustFS, prête à être copiée dans la réponse HTTP
+ * <p>
+ * Le contenu est soit le flux S3 ouvert ({@code content}), soit un fichier du cache disque
+ * ({@code fileChannel}, à copier à partir de {@code position}) : l'appelant doit le fermer.
+ * Les deux sont absents quand l'objet n'a pas changé depuis la version détenue par le client (304).
+ */
+@Value
+@Builder
+public class ImageDownload {
+
+    InputStream content;
+
+    FileChannel fileChannel;
+
+    long position;
+
+    String contentType;
+
+    Long contentLength;
+
+    /**
+     * Plage servie ({@code bytes 0-1023/52344}) pour une réponse 206, sinon null
+     */
+    String contentRange;
+
+    String eTag;
+
+    Instant lastModified;
+
+    boolean notModified;
+
+    /**
+     * Clé immuable (UUID ou empreinte SHA-256) : cacheable sans revalidation
+     */
+    boolean immutable;
+}
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Value;
 
 import java.time.Instant;
+import java.util.Map;
 
 /**
  * Réponse après upload d'une image sur RustFS
@@ -51,6 +52,18 @@ public class ImageUploadResponse {
     )
     String mimeType;
 
+    @Schema(
+            description = "Largeur de l'image en pixels, lue dans son en-tête",
+            example = "1920"
+    )
+    Integer width;
+
+    @Schema(
+            description = "Hauteur de l'image en pixels, lue dans son en-tête",
+            example = "1080"
+    )
+    Integer height;
+
     @Schema(
             description = "Timestamp de l'upload",
             example = "2025-01-15T10:30:00Z"
@@ -62,4 +75,10 @@ public class ImageUploadResponse {
             example = "john.doe"
     )
     String uploadedBy;
-}
\ No newline at end of file
+
+    @Schema(
+            description = "URLs des déclinaisons redimensionnées, indexées par taille (plus grand côté en pixels)",
+            example = "{\"64\": \"https://rustfs.example.com/realms/users/123e4567-e89b-12d3-a456-426614174000_64.jpg\"}"
+    )
+    Map<Integer, String> variants;
+}
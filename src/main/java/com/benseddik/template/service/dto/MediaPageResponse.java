@@ -0,0 +1,34 @@
+package com.benseddik.template.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Page d'images d'un utilisateur, de la plus récente à la plus ancienne
+ */
+@Value
+@Builder
+@Schema(description = "Images de l'utilisateur, paginées")
+public class MediaPageResponse {
+
+    @Schema(description = "Images de la page")
+    List<MediaResponse> items;
+
+    @Schema(description = "Numéro de page (à partir de 0)", example = "0")
+    int page;
+
+    @Schema(description = "Taille de page demandée", example = "20")
+    int size;
+
+    @Schema(description = "Nombre total d'images", example = "42")
+    long totalElements;
+
+    @Schema(description = "Nombre total de pages", example = "3")
+    int totalPages;
+
+    @Schema(description = "Espace occupé par toutes les images de l'utilisateur, en octets", example = "22020096")
+    long totalSizeBytes;
+}
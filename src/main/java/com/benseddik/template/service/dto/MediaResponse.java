@@ -0,0 +1,47 @@
+package com.benseddik.template.service.dto;
+
+import com.benseddik.template.domain.enums.MediaEntityType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Image enregistrée dans la table media
+ */
+@Value
+@Builder
+@Schema(description = "Image appartenant à l'utilisateur")
+public class MediaResponse {
+
+    @Schema(description = "Clé de l'image", example = "users/123e4567-e89b-12d3-a456-426614174000.jpg")
+    String key;
+
+    @Schema(
+            description = "URL publique complète de l'image",
+            example = "https://rustfs.example.com/realms/users/123e4567-e89b-12d3-a456-426614174000.jpg"
+    )
+    String imageUrl;
+
+    @Schema(description = "Type d'entité associée", example = "USER")
+    MediaEntityType entityType;
+
+    @Schema(description = "Taille du fichier en octets", example = "524288")
+    Long sizeBytes;
+
+    @Schema(description = "Type MIME du fichier", example = "image/jpeg")
+    String mimeType;
+
+    @Schema(description = "Largeur de l'image en pixels", example = "1920")
+    Integer width;
+
+    @Schema(description = "Hauteur de l'image en pixels", example = "1080")
+    Integer height;
+
+    @Schema(description = "SHA-256 du contenu, si calculé lors de l'upload")
+    String digest;
+
+    @Schema(description = "Date de l'upload", example = "2025-01-15T10:30:00")
+    LocalDateTime createdAt;
+}
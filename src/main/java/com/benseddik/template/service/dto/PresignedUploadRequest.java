@@ -0,0 +1,29 @@
+package com.benseddik.template.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+@Schema(description = "Demande d'URL présignée pour un upload direct vers RustFS")
+public class PresignedUploadRequest {
+
+    @NotBlank(message = "Le dossier de destination est obligatoire")
+    @Schema(description = "Dossier de destination", example = "users")
+    private String folder;
+
+    @NotBlank(message = "Le nom du fichier est obligatoire")
+    @Schema(description = "Nom du fichier original", example = "mon-chien.jpg")
+    private String filename;
+
+    @NotBlank(message = "Le type MIME est obligatoire")
+    @Schema(description = "Type MIME exact qui sera envoyé", example = "image/jpeg")
+    private String contentType;
+
+    @NotNull(message = "La taille est obligatoire")
+    @Positive
+    @Schema(description = "Taille exacte du fichier en octets", example = "524288")
+    private Long sizeBytes;
+}
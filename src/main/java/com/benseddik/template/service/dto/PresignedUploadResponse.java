@@ -0,0 +1,38 @@
+package com.benseddik.template.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * URL présignée permettant au client d'envoyer l'image directement à RustFS
+ */
+@Value
+@Builder
+@Schema(description = "URL présignée d'upload direct")
+public class PresignedUploadResponse {
+
+    @Schema(description = "URL à appeler en PUT avec le contenu du fichier")
+    String uploadUrl;
+
+    @Schema(description = "Méthode HTTP à utiliser", example = "PUT")
+    String method;
+
+    @Schema(
+            description = "Clé de l'objet, à transmettre lors de la finalisation",
+            example = "users/123e4567-e89b-12d3-a456-426614174000.jpg"
+    )
+    String key;
+
+    @Schema(
+            description = "En-têtes signés à envoyer tels quels avec le PUT",
+            example = "{\"Content-Type\": \"image/jpeg\", \"Content-Length\": \"524288\"}"
+    )
+    Map<String, String> headers;
+
+    @Schema(description = "Expiration de l'URL", example = "2025-01-15T10:40:00Z")
+    Instant expiresAt;
+}
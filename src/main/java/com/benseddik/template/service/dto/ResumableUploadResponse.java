@@ -0,0 +1,31 @@
+package com.benseddik.template.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * État d'un upload reprenable : le prochain morceau doit commencer à {@code offset}
+ */
+@Value
+@Builder
+@Schema(description = "État d'un upload reprenable")
+public class ResumableUploadResponse {
+
+    @Schema(description = "Identifiant de l'upload", example = "123e4567-e89b-12d3-a456-426614174000")
+    String uploadId;
+
+    @Schema(description = "Clé de l'objet final", example = "users/9f1c2a4e-5b7d-4e8a-9c3f-2d6b8e1a7c40.jpg")
+    String key;
+
+    @Schema(description = "Taille totale annoncée, en octets", example = "10485760")
+    long sizeBytes;
+
+    @Schema(description = "Octets reçus : décalage du prochain morceau", example = "9437184")
+    long offset;
+
+    @Schema(description = "Abandon automatique sans nouvel envoi avant cette date", example = "2025-01-15T11:30:00Z")
+    Instant expiresAt;
+}
@@ -0,0 +1,225 @@
+package com.benseddik.template.service.ratelimit;
+
+import com.benseddik.template.config.RateLimitProperties;
+import com.benseddik.template.repository.RateLimitBucketRepository;
+import com.benseddik.template.repository.RateLimitBucketRepository.Grant;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Seaux partagés dans PostgreSQL : la limite vaut pour l'ensemble des instances et survit aux déploiements
+ * <p>
+ * Chaque instance réserve les jetons par lots de {@code leaseSize} en un aller-retour, puis les
+ * consomme localement jusqu'à épuisement ou expiration : la base voit au plus une requête par lot
+ * et par clé. Les jetons non consommés d'un bail sont restitués au seau partagé par la réservation
+ * suivante, ou à l'éviction du bail : aucun n'est perdu, une instance en détient au plus
+ * {@code leaseSize} par clé à un instant donné. Un refus est rejoué localement jusqu'au remplissage
+ * attendu (borné par {@code maxDenialCache}). Base indisponible : repli sur des seaux locaux, la
+ * limite redevient propre à l'instance le temps de l'incident.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.rate-limit", name = "store", havingValue = "jdbc")
+@Slf4j
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    /**
+     * Jetons réservés par l'instance pour une clé ; la réservation en base se fait sous le verrou du bail
+     */
+    private static final class Lease {
+
+        private final AtomicLong available = new AtomicLong();
+        private volatile RateLimitPolicy policy;
+        private volatile long expiresAt;
+        private volatile long deniedUntil;
+        private volatile long retryAfter;
+        // Estimation des jetons restant en base lors de la dernière réservation
+        private volatile long sharedRemaining;
+
+        Lease(long now) {
+            this.expiresAt = now;
+            this.deniedUntil = now;
+            this.retryAfter = now;
+        }
+
+        /**
+         * @return Jetons restant dans le bail après consommation, -1 si insuffisants ou expirés
+         */
+        long tryTake(long tokens, long now) {
+            if (now - expiresAt >= 0) {
+                return -1;
+            }
+            while (true) {
+                long current = available.get();
+                if (current < tokens) {
+                    return -1;
+                }
+                if (available.compareAndSet(current, current - tokens)) {
+                    return current - tokens;
+                }
+            }
+        }
+
+        /**
+         * Retirer tous les jetons du bail, pour les restituer au seau partagé
+         */
+        long drain() {
+            return available.getAndSet(0);
+        }
+
+        void refill(long granted, long expiresAt) {
+            available.addAndGet(granted);
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final RateLimitBucketRepository repository;
+    private final RateLimitProperties properties;
+    private final LocalRateLimitStore fallback;
+    private final LongSupplier nanoClock;
+    private final Cache<String, Lease> leases;
+    private final AtomicBoolean degraded = new AtomicBoolean();
+    private final Counter roundTrips;
+    private final Counter fallbacks;
+
+    @Autowired
+    public JdbcRateLimitStore(RateLimitBucketRepository repository, RateLimitProperties properties,
+                              MeterRegistry meterRegistry) {
+        this(repository, properties, meterRegistry, System::nanoTime);
+    }
+
+    JdbcRateLimitStore(RateLimitBucketRepository repository, RateLimitProperties properties,
+                       MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.repository = repository;
+        this.properties = properties;
+        this.fallback = new LocalRateLimitStore(properties, meterRegistry, "rate.limit.fallback.buckets");
+        this.nanoClock = nanoClock;
+        // Au-delà de la durée du bail et du refus mis en cache, une entrée ne porte plus d'information
+        RateLimitProperties.Distributed distributed = properties.getDistributed();
+        this.leases = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(max(distributed.getLeaseTtl(), distributed.getMaxDenialCache()))
+                .removalListener((String key, Lease lease, RemovalCause cause) -> {
+                    if (key != null && lease != null && cause.wasEvicted()) {
+                        giveBack(key, lease);
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, leases, "rate.limit.leases");
+        this.roundTrips = Counter.builder("rate.limit.store.round.trips")
+                .description("Réservations de jetons en base")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("rate.limit.store.fallback")
+                .description("Décisions prises par les seaux locaux, base indisponible")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public RateLimitResult tryConsume(String key, RateLimitPolicy policy, long tokens) {
+        long now = nanoClock.getAsLong();
+        Lease lease = leases.get(key, k -> new Lease(now));
+        long left = lease.tryTake(tokens, now);
+        if (left >= 0) {
+            return RateLimitResult.allowed(left + lease.sharedRemaining);
+        }
+        synchronized (lease) {
+            // Un autre thread a pu renouveler le bail ou constater un refus pendant l'attente du verrou
+            left = lease.tryTake(tokens, now);
+            if (left >= 0) {
+                return RateLimitResult.allowed(left + lease.sharedRemaining);
+            }
+            if (now - lease.deniedUntil < 0) {
+                return RateLimitResult.denied(lease.retryAfter - now);
+            }
+            return reserve(key, policy, lease, tokens, now);
+        }
+    }
+
+    private RateLimitResult reserve(String key, RateLimitPolicy policy, Lease lease, long tokens, long now) {
+        RateLimitProperties.Distributed distributed = properties.getDistributed();
+        double tokensPerMilli = policy.tokensPerMilli();
+        // Jetons restants du bail, insuffisants ou expirés : restitués par la même instruction
+        long leftover = lease.drain();
+        lease.policy = policy;
+        Grant grant;
+        try {
+            grant = repository.lease(key, Math.max(tokens, distributed.getLeaseSize()), tokens, leftover,
+                    policy.capacity(), tokensPerMilli);
+            roundTrips.increment();
+        } catch (DataAccessException ex) {
+            // Conservés pour la prochaine réservation ; le bail expiré ne les sert plus
+            lease.available.addAndGet(leftover);
+            lease.expiresAt = now;
+            if (degraded.compareAndSet(false, true)) {
+                log.warn("Limitation de débit : base indisponible, repli sur les seaux locaux", ex);
+            }
+            fallbacks.increment();
+            return fallback.tryConsume(key, policy, tokens);
+        }
+        if (degraded.compareAndSet(true, false)) {
+            log.info("Limitation de débit : base de nouveau disponible, seaux partagés rétablis");
+        }
+
+        lease.sharedRemaining = (long) grant.remaining();
+        lease.refill(grant.granted(), now + distributed.getLeaseTtl().toNanos());
+        long left = lease.tryTake(tokens, now);
+        if (left >= 0) {
+            return RateLimitResult.allowed(left + lease.sharedRemaining);
+        }
+
+        // Réservation nulle : jetons manquants dans le seau partagé, remplis au rythme capacity / period
+        double missing = tokens - grant.remaining();
+        long retryAfter = Math.max(1, (long) Math.ceil(missing / tokensPerMilli * TimeUnit.MILLISECONDS.toNanos(1)));
+        lease.retryAfter = now + retryAfter;
+        lease.deniedUntil = now + Math.min(retryAfter, distributed.getMaxDenialCache().toNanos());
+        return RateLimitResult.denied(retryAfter);
+    }
+
+    /**
+     * Restituer au seau partagé les jetons d'un bail évincé
+     */
+    private void giveBack(String key, Lease lease) {
+        long leftover = lease.drain();
+        RateLimitPolicy policy = lease.policy;
+        if (leftover <= 0 || policy == null) {
+            return;
+        }
+        try {
+            repository.lease(key, 0, 0, leftover, policy.capacity(), policy.tokensPerMilli());
+            roundTrips.increment();
+        } catch (DataAccessException ex) {
+            log.debug("Limitation de débit : jetons du bail {} non restitués", key, ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "#{@rateLimitProperties.distributed.cleanupInterval.toMillis()}",
+            initialDelayString = "#{@rateLimitProperties.distributed.cleanupInterval.toMillis()}")
+    public void cleanup() {
+        try {
+            int deleted = repository.deleteIdle(properties.longestPeriod());
+            log.debug("Limitation de débit : {} seau(x) inactif(s) supprimé(s)", deleted);
+        } catch (DataAccessException ex) {
+            log.warn("Limitation de débit : échec du nettoyage des seaux inactifs", ex);
+        }
+    }
+
+    private static Duration max(Duration a, Duration b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+}
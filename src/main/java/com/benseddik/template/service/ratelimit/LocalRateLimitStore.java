@@ -0,0 +1,74 @@
+package com.benseddik.template.service.ratelimit;
+
+import com.benseddik.template.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seaux Bucket4j en mémoire, propres à l'instance
+ * <p>
+ * Le nombre de seaux est borné ({@code max-buckets}) : au-delà, l'éviction W-TinyLFU de Caffeine
+ * écarte les clés vues une seule fois (scans, rotation d'adresses IPv6) avant les clients
+ * réguliers, dont les seaux entamés sont conservés. Un seau inactif pendant la plus longue période est
+ * plein : il expire sans rien changer aux décisions. Taille, évictions et empreinte mémoire
+ * estimée sont exposées sous {@code rate.limit.buckets}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.rate-limit", name = "store", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimitStore implements RateLimitStore {
+
+    /**
+     * Empreinte approximative d'une entrée (clé IPv6, seau à une limite, nœud du cache), mesurée sur 200 000 seaux
+     */
+    static final long ESTIMATED_ENTRY_BYTES = 480;
+
+    private final Cache<String, Bucket> buckets;
+
+    @Autowired
+    public LocalRateLimitStore(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, "rate.limit.buckets");
+    }
+
+    LocalRateLimitStore(RateLimitProperties properties, MeterRegistry meterRegistry, String metricName) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(properties.longestPeriod())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, metricName);
+        Gauge.builder(metricName + ".memory", buckets, cache -> cache.estimatedSize() * ESTIMATED_ENTRY_BYTES)
+                .description("Empreinte mémoire estimée des seaux")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public RateLimitResult tryConsume(String key, RateLimitPolicy policy, long tokens) {
+        ConsumptionProbe probe = buckets.get(key, k -> newBucket(policy))
+                .tryConsumeAndReturnRemaining(tokens);
+        return probe.isConsumed()
+                ? RateLimitResult.allowed(probe.getRemainingTokens())
+                : RateLimitResult.denied(probe.getNanosToWaitForRefill());
+    }
+
+    long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    static Bucket newBucket(RateLimitPolicy policy) {
+        return Bucket.builder()
+                .addLimit(limit -> limit
+                        .capacity(policy.capacity())
+                        .refillGreedy(policy.capacity(), policy.period()))
+                .build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.benseddik.template.service.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Décision de la limitation de débit et valeurs des en-têtes X-RateLimit-*
+ *
+ * @param allowed    Requête acceptée
+ * @param limit      Capacité du seau de requêtes du client, -1 si seul le seau d'octets a été consulté
+ * @param remaining  Jetons restant dans ce seau
+ * @param reset      Délai avant que ce seau soit de nouveau plein
+ * @param retryAfter Attente avant de réessayer une requête refusée, nulle si acceptée
+ * @param reason     Seau épuisé (requêtes ou octets), absent si acceptée
+ */
+public record RateLimitDecision(boolean allowed, long limit, long remaining, Duration reset,
+                                Duration retryAfter, String reason) {
+
+    /**
+     * Durée arrondie à la seconde supérieure : valeur des en-têtes exprimés en secondes
+     */
+    public static long ceilSeconds(Duration duration) {
+        return duration.toSeconds() + (duration.toNanosPart() > 0 ? 1 : 0);
+    }
+}
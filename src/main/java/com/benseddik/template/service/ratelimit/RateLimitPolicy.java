@@ -0,0 +1,31 @@
+package com.benseddik.template.service.ratelimit;
+
+import com.benseddik.template.config.RateLimitProperties;
+
+import java.time.Duration;
+
+/**
+ * Seau de {@code capacity} jetons, rempli en continu sur {@code period}
+ */
+public record RateLimitPolicy(long capacity, Duration period) {
+
+    public static RateLimitPolicy of(RateLimitProperties.Limit limit) {
+        return new RateLimitPolicy(limit.getCapacity(), limit.getPeriod());
+    }
+
+    public static RateLimitPolicy of(RateLimitProperties.Bandwidth bandwidth) {
+        return new RateLimitPolicy(bandwidth.getCapacity().toBytes(), bandwidth.getPeriod());
+    }
+
+    public double tokensPerMilli() {
+        return (double) capacity / period.toMillis();
+    }
+
+    /**
+     * Délai avant que le seau soit de nouveau plein
+     */
+    public Duration timeToFull(long remaining) {
+        long missing = Math.max(0, capacity - remaining);
+        return Duration.ofMillis((long) Math.ceil(missing / tokensPerMilli()));
+    }
+}
@@ -0,0 +1,19 @@
+package com.benseddik.template.service.ratelimit;
+
+/**
+ * Résultat d'une consommation de jetons
+ *
+ * @param allowed          Jetons consommés : la requête peut passer
+ * @param remaining        Jetons encore disponibles (estimation en mode distribué)
+ * @param retryAfterNanos  Attente avant qu'une requête refusée puisse passer, 0 si acceptée
+ */
+public record RateLimitResult(boolean allowed, long remaining, long retryAfterNanos) {
+
+    public static RateLimitResult allowed(long remaining) {
+        return new RateLimitResult(true, remaining, 0);
+    }
+
+    public static RateLimitResult denied(long retryAfterNanos) {
+        return new RateLimitResult(false, 0, retryAfterNanos);
+    }
+}
@@ -0,0 +1,108 @@
+package com.benseddik.template.service.ratelimit;
+
+import com.benseddik.template.config.RateLimitProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Politiques de limitation de débit par client et par route, en deux paliers
+ * <p>
+ * Le premier palier est une garde contre les flots : un jeton par requête et par adresse IP, avant
+ * la vérification du JWT, pour refuser un flot de jetons invalides sans calcul de signature. Sa
+ * capacité dépasse celle du second palier, qui porte les politiques : requêtes authentifiées
+ * comptées sur le sujet du JWT quelle que soit l'adresse, anonymes sur l'adresse, uploads décomptés
+ * d'un seau d'octets. Une route coûteuse y consomme plusieurs jetons : les chemins chers sont
+ * protégés sans ralentir les lectures.
+ */
+@Service
+@RequiredArgsConstructor
+public class RateLimitService {
+
+    private static final String TOO_MANY_REQUESTS = "Trop de requêtes";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final RateLimitStore rateLimitStore;
+    private final RateLimitProperties properties;
+
+    /**
+     * Premier palier : consommer un jeton sur le seau de l'adresse IP, sans coût de route
+     */
+    public RateLimitDecision consumeByAddress(String clientAddress) {
+        RateLimitPolicy policy = RateLimitPolicy.of(properties.getIp());
+        RateLimitResult result = rateLimitStore.tryConsume("ip:" + clientAddress, policy, 1);
+        return result.allowed() ? allowed(policy, result) : denied(policy, result, TOO_MANY_REQUESTS);
+    }
+
+    /**
+     * Second palier : consommer les jetons de la requête sur le seau du sujet (de l'adresse pour une
+     * requête anonyme), et son volume s'il s'agit d'un upload
+     *
+     * @param subject       Sujet du JWT, {@code null} pour une requête anonyme
+     * @param clientAddress Adresse IP du client, clé des seaux d'une requête anonyme
+     * @param contentLength Content-Length de la requête, négatif s'il est inconnu
+     * @return Décision, vide si aucun seau de ce palier ne concerne la requête
+     */
+    public Optional<RateLimitDecision> consumeBySubject(String subject, String clientAddress, String method,
+                                                        String path, long contentLength) {
+        RateLimitProperties.Route route = findRoute(method, path);
+        RateLimitDecision decision = null;
+        if (properties.isSubjectTierEnabled()) {
+            RateLimitPolicy policy = RateLimitPolicy.of(subject != null
+                    ? properties.getAuthenticated() : properties.getAnonymous());
+            String key = subject != null ? "user:" + subject : "anon:" + clientAddress;
+            RateLimitResult result = rateLimitStore.tryConsume(key, policy, cost(route, policy));
+            if (!result.allowed()) {
+                return Optional.of(denied(policy, result, TOO_MANY_REQUESTS));
+            }
+            decision = allowed(policy, result);
+        }
+
+        if (route != null && route.isUpload()) {
+            RateLimitProperties.Bandwidth bandwidth = properties.getUploadBandwidth();
+            RateLimitPolicy bytesPolicy = RateLimitPolicy.of(bandwidth);
+            long bytes = contentLength >= 0 ? contentLength : bandwidth.getUnknownLength().toBytes();
+            String clientKey = subject != null ? "user:" + subject : "ip:" + clientAddress;
+            RateLimitResult upload = rateLimitStore.tryConsume("upload:" + clientKey, bytesPolicy,
+                    Math.min(bytes, bytesPolicy.capacity()));
+            if (!upload.allowed()) {
+                Duration retryAfter = Duration.ofNanos(upload.retryAfterNanos());
+                return Optional.of(decision != null
+                        ? new RateLimitDecision(false, decision.limit(), decision.remaining(), decision.reset(),
+                        retryAfter, "Volume d'upload dépassé")
+                        : new RateLimitDecision(false, -1, 0, Duration.ZERO, retryAfter, "Volume d'upload dépassé"));
+            }
+        }
+        return Optional.ofNullable(decision);
+    }
+
+    private RateLimitProperties.Route findRoute(String method, String path) {
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            if ((route.getMethod() == null || route.getMethod().equalsIgnoreCase(method))
+                    && pathMatcher.match(route.getPath(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Coût de la route ; un coût supérieur à la capacité ne passerait jamais : il vide le seau
+     */
+    private static long cost(RateLimitProperties.Route route, RateLimitPolicy policy) {
+        return Math.min(route != null ? route.getCost() : 1, policy.capacity());
+    }
+
+    private static RateLimitDecision allowed(RateLimitPolicy policy, RateLimitResult result) {
+        return new RateLimitDecision(true, policy.capacity(), result.remaining(),
+                policy.timeToFull(result.remaining()), Duration.ZERO, null);
+    }
+
+    private static RateLimitDecision denied(RateLimitPolicy policy, RateLimitResult result, String reason) {
+        return new RateLimitDecision(false, policy.capacity(), 0, policy.timeToFull(0),
+                Duration.ofNanos(result.retryAfterNanos()), reason);
+    }
+}
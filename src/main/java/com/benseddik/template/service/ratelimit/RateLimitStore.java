@@ -0,0 +1,18 @@
+package com.benseddik.template.service.ratelimit;
+
+/**
+ * Seaux à jetons de la limitation de débit, indexés par clé
+ * <p>
+ * L'implémentation est choisie par {@code app.rate-limit.store} : en mémoire (par instance) ou
+ * partagée dans PostgreSQL (globale). Une clé désigne toujours la même politique : elle est
+ * préfixée par le nom de la politique.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Consommer des jetons du seau de {@code key}, créé plein selon {@code policy} s'il n'existe pas
+     *
+     * @param tokens Nombre de jetons demandés (coût de la route, ou octets envoyés)
+     */
+    RateLimitResult tryConsume(String key, RateLimitPolicy policy, long tokens);
+}
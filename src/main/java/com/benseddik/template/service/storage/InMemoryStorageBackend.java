@@ -0,0 +1,136 @@
+package com.benseddik.template.service.storage;
+
+import com.benseddik.template.config.RustFsProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Stockage en mémoire, pour mesurer le chemin d'upload sans réseau ni disque
+ * <p>
+ * Le contenu est perdu à l'arrêt et n'est pas borné : réservé aux tests et aux bancs de mesure.
+ * L'ETag est le MD5 du contenu, comme pour un PUT simple sur S3.
+ */
+@Component
+@ConditionalOnProperty(prefix = "rustfs.storage", name = "type", havingValue = "memory")
+@Slf4j
+public class InMemoryStorageBackend implements StorageBackend {
+
+    private record Entry(byte[] data, String contentType, String eTag, Instant lastModified) {
+    }
+
+    private final Map<String, Entry> objects = new ConcurrentHashMap<>();
+    private final String publicBaseUrl;
+
+    public InMemoryStorageBackend(RustFsProperties rustFsProperties) {
+        this.publicBaseUrl = rustFsProperties.getStorage().getPublicBaseUrl();
+    }
+
+    @Override
+    public void verify() {
+        log.warn("Stockage en mémoire actif : les images seront perdues à l'arrêt");
+    }
+
+    @Override
+    public void put(String key, String contentType, InputStream content, long size) throws IOException {
+        byte[] data = content.readNBytes((int) Math.min(size, Integer.MAX_VALUE));
+        if (data.length != size) {
+            throw new IOException("Taille reçue (" + data.length + ") différente de la taille annoncée (" + size + ")");
+        }
+        objects.put(key, new Entry(data, contentType, md5(data), Instant.now().truncatedTo(ChronoUnit.MILLIS)));
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(String key, String contentType, Path source, long size) {
+        try (InputStream content = Files.newInputStream(source)) {
+            put(key, contentType, content, size);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public Optional<StoredObjectInfo> head(String key) {
+        return Optional.ofNullable(objects.get(key))
+                .map(entry -> new StoredObjectInfo(entry.contentType(), entry.data().length, entry.eTag(), entry.lastModified()));
+    }
+
+    @Override
+    public Optional<StoredObject> get(String key, ReadConditions conditions) {
+        Entry entry = objects.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (conditions.isNotModified(entry.eTag(), entry.lastModified())) {
+            return Optional.of(StoredObject.notModified(entry.eTag()));
+        }
+
+        long size = entry.data().length;
+        long[] bounds = conditions.resolveRange(size);
+        if (bounds == null) {
+            throw new ResponseStatusException(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE,
+                    "Plage demandée invalide: " + conditions.range());
+        }
+        int length = (int) (bounds[1] - bounds[0] + 1);
+        String contentRange = conditions.range() != null
+                ? "bytes " + bounds[0] + "-" + bounds[1] + "/" + size
+                : null;
+        return Optional.of(new StoredObject(new ByteArrayInputStream(entry.data(), (int) bounds[0], length), null, 0,
+                entry.contentType(), (long) length, contentRange, entry.eTag(), entry.lastModified(), false));
+    }
+
+    @Override
+    public void delete(String key) {
+        objects.remove(key);
+    }
+
+    @Override
+    public Map<String, String> deleteAll(List<String> keys) {
+        keys.forEach(objects::remove);
+        return Map.of();
+    }
+
+    @Override
+    public void list(String folder, Consumer<List<ListedObject>> pageHandler) {
+        List<ListedObject> page = objects.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(folder + "/"))
+                .map(entry -> new ListedObject(entry.getKey(), entry.getValue().data().length, entry.getValue().lastModified()))
+                .toList();
+        if (!page.isEmpty()) {
+            pageHandler.accept(page);
+        }
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        return publicBaseUrl + "/" + key;
+    }
+
+    private static String md5(byte[] data) {
+        try {
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(data)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 indisponible", e);
+        }
+    }
+}
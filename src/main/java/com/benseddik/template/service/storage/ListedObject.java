@@ -0,0 +1,13 @@
+package com.benseddik.template.service.storage;
+
+import java.time.Instant;
+
+/**
+ * Objet rencontré lors d'un parcours du stockage
+ *
+ * @param key          Clé logique (dossier/fichier)
+ * @param size         Taille en octets
+ * @param lastModified Date de dernière modification
+ */
+public record ListedObject(String key, long size, Instant lastModified) {
+}
@@ -0,0 +1,248 @@
+package com.benseddik.template.service.storage;
+
+import com.benseddik.template.config.RustFsProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Stockage sur le disque local (déploiement mono-nœud, développement hors ligne)
+ * <p>
+ * Chaque clé correspond à un fichier sous le répertoire racine. Les écritures passent par un
+ * fichier temporaire renommé atomiquement : un lecteur ne voit jamais un fichier partiel. Les
+ * lectures renvoient un {@link FileChannel}, servi par {@code transferTo} sans copie en mémoire.
+ * Le type MIME est déduit de l'extension et l'ETag de la taille et de la date de modification.
+ */
+@Component
+@ConditionalOnProperty(prefix = "rustfs.storage", name = "type", havingValue = "local")
+@Slf4j
+public class LocalStorageBackend implements StorageBackend {
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jpg", "image/jpeg",
+            "jpeg", "image/jpeg",
+            "png", "image/png",
+            "webp", "image/webp",
+            "heic", "image/heic"
+    );
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int LIST_PAGE_SIZE = 1000;
+
+    private final Path root;
+    private final String publicBaseUrl;
+
+    public LocalStorageBackend(RustFsProperties rustFsProperties) {
+        this.root = Paths.get(rustFsProperties.getStorage().getLocalDirectory()).toAbsolutePath().normalize();
+        this.publicBaseUrl = rustFsProperties.getStorage().getPublicBaseUrl();
+    }
+
+    @Override
+    public void verify() {
+        try {
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            throw new IllegalStateException("Répertoire de stockage inaccessible: " + root, e);
+        }
+        if (!Files.isWritable(root)) {
+            throw new IllegalStateException("Répertoire de stockage non modifiable: " + root);
+        }
+        log.info("Stockage local actif dans {}", root);
+    }
+
+    @Override
+    public void put(String key, String contentType, InputStream content, long size) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), TEMP_SUFFIX);
+        try {
+            long written = Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            if (written != size) {
+                throw new IOException("Taille reçue (" + written + ") différente de la taille annoncée (" + size + ")");
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Copie locale : aussi rapide que la mise en attente du fichier elle-même, elle est faite sur place
+     */
+    @Override
+    public CompletableFuture<Void> putAsync(String key, String contentType, Path source, long size) {
+        try (InputStream content = Files.newInputStream(source)) {
+            put(key, contentType, content, size);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public Optional<StoredObjectInfo> head(String key) {
+        Path file = resolve(key);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return Optional.of(info(key, attributes));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw storageError(key, e);
+        }
+    }
+
+    @Override
+    public Optional<StoredObject> get(String key, ReadConditions conditions) {
+        Path file = resolve(key);
+        FileChannel channel;
+        StoredObjectInfo info;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            info = info(key, Files.readAttributes(file, BasicFileAttributes.class));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw storageError(key, e);
+        }
+
+        if (conditions.isNotModified(info.eTag(), info.lastModified())) {
+            closeQuietly(channel);
+            return Optional.of(StoredObject.notModified(info.eTag()));
+        }
+
+        long[] bounds = conditions.resolveRange(info.size());
+        if (bounds == null) {
+            closeQuietly(channel);
+            throw new ResponseStatusException(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE,
+                    "Plage demandée invalide: " + conditions.range());
+        }
+        String contentRange = conditions.range() != null
+                ? "bytes " + bounds[0] + "-" + bounds[1] + "/" + info.size()
+                : null;
+        return Optional.of(new StoredObject(null, channel, bounds[0], info.contentType(),
+                bounds[1] - bounds[0] + 1, contentRange, info.eTag(), info.lastModified(), false));
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            throw storageError(key, e);
+        }
+    }
+
+    @Override
+    public Map<String, String> deleteAll(List<String> keys) {
+        Map<String, String> errors = new HashMap<>();
+        for (String key : keys) {
+            try {
+                Files.deleteIfExists(resolve(key));
+            } catch (IOException | ResponseStatusException e) {
+                errors.put(key, e.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Les fichiers temporaires d'une écriture en cours ne sont jamais listés
+     */
+    @Override
+    public void list(String folder, Consumer<List<ListedObject>> pageHandler) {
+        Path directory = resolve(folder);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<ListedObject> page = new ArrayList<>(LIST_PAGE_SIZE);
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (!attributes.isRegularFile()) {
+                    continue;
+                }
+                String key = root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+                page.add(new ListedObject(key, attributes.size(), attributes.lastModifiedTime().toInstant()));
+                if (page.size() == LIST_PAGE_SIZE) {
+                    pageHandler.accept(List.copyOf(page));
+                    page.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw storageError(folder, e);
+        }
+        if (!page.isEmpty()) {
+            pageHandler.accept(List.copyOf(page));
+        }
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        return publicBaseUrl + "/" + key;
+    }
+
+    /**
+     * Fichier d'une clé, sans jamais sortir du répertoire racine
+     */
+    private Path resolve(String key) {
+        Path file = root.resolve(key).normalize();
+        if (!file.startsWith(root) || file.equals(root)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Clé de stockage invalide: " + key);
+        }
+        return file;
+    }
+
+    private static StoredObjectInfo info(String key, BasicFileAttributes attributes) {
+        Instant lastModified = attributes.lastModifiedTime().toInstant();
+        String eTag = "\"" + Long.toHexString(attributes.size()) + "-" + Long.toHexString(lastModified.toEpochMilli()) + "\"";
+        return new StoredObjectInfo(contentTypeOf(key), attributes.size(), eTag, lastModified);
+    }
+
+    private static String contentTypeOf(String key) {
+        int dot = key.lastIndexOf('.');
+        String extension = dot < 0 ? "" : key.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+    }
+
+    private static ResponseStatusException storageError(String key, IOException e) {
+        log.error("Erreur du stockage local pour {}: {}", key, e.getMessage());
+        return new ResponseStatusException(
+                HttpStatus.INTERNAL_SERVER_ERROR,
+                "Erreur du stockage local: " + e.getMessage()
+        );
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Canal en lecture seule : rien à perdre
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.benseddik.template.service.storage;
+
+import java.time.Instant;
+
+/**
+ * URL présignée d'envoi direct vers le stockage
+ */
+public record PresignedPut(String url, String method, Instant expiresAt) {
+}
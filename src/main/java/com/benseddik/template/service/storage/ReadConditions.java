@@ -0,0 +1,77 @@
+package com.benseddik.template.service.storage;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+/**
+ * Plage et conditions HTTP d'une lecture (Range, If-None-Match, If-Modified-Since)
+ * <p>
+ * Les stockages qui ne les gèrent pas eux-mêmes (disque, mémoire, cache local) les évaluent ici.
+ *
+ * @param range           Plage unique {@code bytes=a-b}, {@code bytes=a-} ou {@code bytes=-n}, ou null
+ * @param ifNoneMatch     En-tête If-None-Match, ou null
+ * @param ifModifiedSince Date If-Modified-Since, ou null
+ */
+public record ReadConditions(String range, String ifNoneMatch, Instant ifModifiedSince) {
+
+    private static final ReadConditions NONE = new ReadConditions(null, null, null);
+
+    /**
+     * Lecture complète et inconditionnelle
+     */
+    public static ReadConditions none() {
+        return NONE;
+    }
+
+    /**
+     * Lecture des {@code count} premiers octets
+     */
+    public static ReadConditions firstBytes(long count) {
+        return new ReadConditions("bytes=0-" + (count - 1), null, null);
+    }
+
+    /**
+     * If-None-Match prime sur If-Modified-Since (RFC 9110, section 13.2.2)
+     */
+    public boolean isNotModified(String eTag, Instant lastModified) {
+        if (ifNoneMatch != null) {
+            return Arrays.stream(ifNoneMatch.split(","))
+                    .map(String::trim)
+                    .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                    .anyMatch(tag -> tag.equals("*") || tag.equals(eTag));
+        }
+        return ifModifiedSince != null
+                && lastModified != null
+                && !lastModified.truncatedTo(ChronoUnit.SECONDS).isAfter(ifModifiedSince);
+    }
+
+    /**
+     * Bornes inclusives à servir pour un objet de {@code size} octets : tout l'objet sans plage,
+     * null si la plage ne peut pas être satisfaite. Une plage mal formée couvre tout l'objet.
+     */
+    public long[] resolveRange(long size) {
+        if (range == null) {
+            return new long[]{0, size - 1};
+        }
+        String spec = range.substring("bytes=".length());
+        int dash = spec.indexOf('-');
+        try {
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                return suffix == 0 || size == 0 ? null : new long[]{Math.max(0, size - suffix), size - 1};
+            }
+            long start = Long.parseLong(spec.substring(0, dash));
+            if (start >= size) {
+                return null;
+            }
+            long end = dash == spec.length() - 1 ? size - 1 : Long.parseLong(spec.substring(dash + 1));
+            if (end < start) {
+                return new long[]{0, size - 1};
+            }
+            return new long[]{start, Math.min(end, size - 1)};
+        } catch (NumberFormatException e) {
+            return new long[]{0, size - 1};
+        }
+    }
+}
@@ -0,0 +1,539 @@
+package com.benseddik.template.service.storage;
+
+import com.benseddik.template.config.RustFsProperties;
+import com.benseddik.template.service.StorageResilience;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Stockage sur RustFS (ou tout service compatible S3)
+ * <p>
+ * Chaque appel passe par {@link StorageResilience} (délai, budget de nouvelles tentatives,
+ * disjoncteur). Avec {@code rustfs.storage.hash-prefix-length}, la clé physique est préfixée
+ * par quelques caractères de son empreinte ({@code 3f/users/<uuid>.jpg}) : les écritures se
+ * répartissent sur plusieurs préfixes au lieu de toutes viser {@code users/}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "rustfs.storage", name = "type", havingValue = "s3", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class S3StorageBackend implements StorageBackend {
+
+    private static final int DELETE_OBJECTS_MAX_KEYS = 1000; // Limite S3 par requête DeleteObjects
+
+    private final S3Client s3Client;
+    private final S3AsyncClient s3AsyncClient;
+    private final S3Presigner s3Presigner;
+    private final RustFsProperties rustFsProperties;
+    private final StorageResilience storageResilience;
+
+    @Override
+    public void verify() {
+        try {
+            s3Client.headBucket(HeadBucketRequest.builder()
+                    .bucket(rustFsProperties.getBucketName())
+                    .build());
+            log.info("RustFS connecté - Bucket '{}' disponible sur {}",
+                    rustFsProperties.getBucketName(),
+                    rustFsProperties.getEndpoint());
+
+        } catch (NoSuchBucketException e) {
+            log.error("Bucket '{}' introuvable. Créez-le dans l'interface RustFS.",
+                    rustFsProperties.getBucketName());
+            throw new IllegalStateException("Bucket RustFS non disponible: " + rustFsProperties.getBucketName(), e);
+        } catch (Exception e) {
+            log.warn("Impossible de vérifier le bucket RustFS: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * PUT simple, ou multipart au-delà du seuil configuré
+     */
+    @Override
+    public void put(String key, String contentType, InputStream content, long size) throws IOException {
+        try {
+            if (size > rustFsProperties.getUpload().getMultipartThreshold().toBytes()) {
+                multipartUpload(physicalKey(key), contentType, content, size);
+                return;
+            }
+
+            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                    .bucket(rustFsProperties.getBucketName())
+                    .key(physicalKey(key))
+                    .contentType(contentType)
+                    .contentLength(size)
+                    .build();
+
+            storageResilience.execute(StorageResilience.Operation.WRITE, deadline -> s3Client.putObject(
+                    putObjectRequest.toBuilder().overrideConfiguration(deadline).build(),
+                    RequestBody.fromInputStream(content, size)));
+        } catch (S3Exception e) {
+            log.error("Erreur S3 lors de l'upload de {}: {}", key, errorMessage(e));
+            throw rustFsError(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(String key, String contentType, Path source, long size) {
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(rustFsProperties.getBucketName())
+                .key(physicalKey(key))
+                .contentType(contentType)
+                .contentLength(size)
+                .build();
+
+        return storageResilience.executeAsync(StorageResilience.Operation.WRITE, deadline -> s3AsyncClient.putObject(
+                        putObjectRequest.toBuilder().overrideConfiguration(deadline).build(),
+                        AsyncRequestBody.fromFile(source)))
+                .thenApply(response -> null);
+    }
+
+    @Override
+    public Optional<StoredObjectInfo> head(String key) {
+        HeadObjectRequest headObjectRequest = HeadObjectRequest.builder()
+                .bucket(rustFsProperties.getBucketName())
+                .key(physicalKey(key))
+                .build();
+        try {
+            HeadObjectResponse head = storageResilience.execute(StorageResilience.Operation.READ, deadline ->
+                    s3Client.headObject(headObjectRequest.toBuilder().overrideConfiguration(deadline).build()));
+            return Optional.of(new StoredObjectInfo(head.contentType(),
+                    head.contentLength() != null ? head.contentLength() : 0,
+                    head.eTag(), head.lastModified()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            if (e.statusCode() == HttpStatus.NOT_FOUND.value()) {
+                return Optional.empty();
+            }
+            log.error("Erreur S3 lors de la vérification de {}: {}", key, errorMessage(e));
+            throw rustFsError(e);
+        }
+    }
+
+    /**
+     * Les conditions sont transmises telles quelles à RustFS : une seule requête suffit,
+     * qu'elle aboutisse à un 200, un 206 ou un 304
+     */
+    @Override
+    public Optional<StoredObject> get(String key, ReadConditions conditions) {
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(rustFsProperties.getBucketName())
+                .key(physicalKey(key))
+                .range(conditions.range())
+                .ifNoneMatch(conditions.ifNoneMatch())
+                .ifModifiedSince(conditions.ifModifiedSince())
+                .build();
+
+        try {
+            ResponseInputStream<GetObjectResponse> object = storageResilience.execute(StorageResilience.Operation.READ,
+                    deadline -> s3Client.getObject(getObjectRequest.toBuilder().overrideConfiguration(deadline).build()));
+            GetObjectResponse response = object.response();
+            return Optional.of(new StoredObject(object, null, 0, response.contentType(), response.contentLength(),
+                    response.contentRange(), response.eTag(), response.lastModified(), false));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            if (e.statusCode() == HttpStatus.NOT_MODIFIED.value()) {
+                return storedETag(key, e).map(StoredObject::notModified);
+            }
+            if (e.statusCode() == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+                throw new ResponseStatusException(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE,
+                        "Plage demandée invalide: " + conditions.range());
+            }
+            if (e.statusCode() == HttpStatus.NOT_FOUND.value()) {
+                return Optional.empty();
+            }
+            log.error("Erreur S3 lors de la lecture de {}: {}", key, e.getMessage());
+            throw new ResponseStatusException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Erreur RustFS: " + e.getMessage()
+            );
+        }
+    }
+
+    /**
+     * ETag de l'objet pour une réponse 304 : l'en-tête If-None-Match du client peut valoir
+     * {@code *} ou une liste, et ne peut donc pas être renvoyé tel quel. RustFS joint
+     * normalement l'ETag au 304 ; à défaut, un HEAD le relit (vide si l'objet a disparu entre-temps)
+     */
+    private Optional<String> storedETag(String key, S3Exception notModified) {
+        return Optional.ofNullable(notModified.awsErrorDetails())
+                .map(AwsErrorDetails::sdkHttpResponse)
+                .flatMap(response -> response.firstMatchingHeader("ETag"))
+                .or(() -> head(key).map(StoredObjectInfo::eTag));
+    }
+
+    /**
+     * Un seul DELETE, idempotent côté S3
+     */
+    @Override
+    public void delete(String key) {
+        DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
+                .bucket(rustFsProperties.getBucketName())
+                .key(physicalKey(key))
+                .build();
+        try {
+            storageResilience.execute(StorageResilience.Operation.DELETE, deadline -> s3Client.deleteObject(
+                    deleteObjectRequest.toBuilder().overrideConfiguration(deadline).build()));
+        } catch (S3Exception e) {
+            log.error("Erreur S3 lors de la suppression de {}: {}", key, errorMessage(e));
+            throw new ResponseStatusException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Erreur lors de la suppression du fichier: " + errorMessage(e)
+            );
+        }
+    }
+
+    /**
+     * Les clés sont regroupées par 1000, limite d'une requête DeleteObjects, et les groupes sont
+     * envoyés en parallèle de façon bornée sur le client asynchrone. Un groupe en échec marque
+     * toutes ses clés en échec sans interrompre les autres.
+     */
+    @Override
+    public Map<String, String> deleteAll(List<String> keys) {
+        Map<String, String> logicalKeys = new HashMap<>();
+        List<String> physicalKeys = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            String physicalKey = physicalKey(key);
+            logicalKeys.put(physicalKey, key);
+            physicalKeys.add(physicalKey);
+        }
+
+        Semaphore inFlight = new Semaphore(Math.max(1, rustFsProperties.getDelete().getBatchParallelism()));
+        List<List<String>> chunks = new ArrayList<>();
+        List<CompletableFuture<DeleteObjectsResponse>> futures = new ArrayList<>();
+        for (int from = 0; from < physicalKeys.size(); from += DELETE_OBJECTS_MAX_KEYS) {
+            List<String> chunk = physicalKeys.subList(from, Math.min(from + DELETE_OBJECTS_MAX_KEYS, physicalKeys.size()));
+            DeleteObjectsRequest request = DeleteObjectsRequest.builder()
+                    .bucket(rustFsProperties.getBucketName())
+                    .delete(Delete.builder()
+                            .objects(chunk.stream().map(k -> ObjectIdentifier.builder().key(k).build()).toList())
+                            .quiet(true)
+                            .build())
+                    .build();
+
+            inFlight.acquireUninterruptibly();
+            CompletableFuture<DeleteObjectsResponse> future;
+            try {
+                future = storageResilience.executeAsync(StorageResilience.Operation.DELETE, deadline ->
+                        s3AsyncClient.deleteObjects(request.toBuilder().overrideConfiguration(deadline).build()));
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            chunks.add(chunk);
+            futures.add(future.whenComplete((response, error) -> inFlight.release()));
+        }
+
+        Map<String, String> errors = new HashMap<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            List<String> chunk = chunks.get(i);
+            try {
+                futures.get(i).join().errors()
+                        .forEach(error -> errors.put(logicalKeys.getOrDefault(error.key(), error.key()), error.message()));
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.error("Échec d'une requête DeleteObjects ({} clés): {}", chunk.size(), cause.getMessage());
+                chunk.forEach(physicalKey -> errors.put(logicalKeys.get(physicalKey), cause.getMessage()));
+            }
+        }
+
+        log.debug("Suppression groupée sur RustFS - Clés: {}, Requêtes: {}, Échecs: {}",
+                keys.size(), chunks.size(), errors.size());
+        return errors;
+    }
+
+    /**
+     * ListObjectsV2 par pages de 1000 clés. Avec un préfixe de hachage, les objets d'un dossier sont
+     * dispersés dans tout le bucket : celui-ci est parcouru entièrement et filtré sur la clé logique.
+     */
+    @Override
+    public void list(String folder, Consumer<List<ListedObject>> pageHandler) {
+        int prefixLength = hashPrefixLength();
+        String folderPrefix = folder + "/";
+        ListObjectsV2Request.Builder request = ListObjectsV2Request.builder()
+                .bucket(rustFsProperties.getBucketName())
+                .prefix(prefixLength > 0 ? null : folderPrefix)
+                .maxKeys(DELETE_OBJECTS_MAX_KEYS);
+
+        String continuationToken = null;
+        do {
+            ListObjectsV2Request pageRequest = request.continuationToken(continuationToken).build();
+            ListObjectsV2Response response;
+            try {
+                response = storageResilience.execute(StorageResilience.Operation.READ, deadline ->
+                        s3Client.listObjectsV2(pageRequest.toBuilder().overrideConfiguration(deadline).build()));
+            } catch (S3Exception e) {
+                log.error("Erreur S3 lors du parcours de {}: {}", folderPrefix, errorMessage(e));
+                throw rustFsError(e);
+            }
+
+            List<ListedObject> page = new ArrayList<>(response.contents().size());
+            for (S3Object object : response.contents()) {
+                String key = logicalKey(object.key(), prefixLength);
+                if (key != null && key.startsWith(folderPrefix)) {
+                    page.add(new ListedObject(key, object.size() != null ? object.size() : 0, object.lastModified()));
+                }
+            }
+            if (!page.isEmpty()) {
+                pageHandler.accept(page);
+            }
+            continuationToken = Boolean.TRUE.equals(response.isTruncated()) ? response.nextContinuationToken() : null;
+        } while (continuationToken != null);
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        return String.format("%s/%s/%s",
+                rustFsProperties.getEndpoint(),
+                rustFsProperties.getBucketName(),
+                physicalKey(key)
+        );
+    }
+
+    /**
+     * Le type MIME et la taille sont signés : RustFS refusera un PUT qui ne les respecte pas
+     */
+    @Override
+    public Optional<PresignedPut> presignPut(String key, String contentType, long size, Duration expiry) {
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(rustFsProperties.getBucketName())
+                .key(physicalKey(key))
+                .contentType(contentType)
+                .contentLength(size)
+                .build();
+
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(expiry)
+                .putObjectRequest(putObjectRequest)
+                .build());
+
+        return Optional.of(new PresignedPut(
+                presigned.url().toString(),
+                presigned.httpRequest().method().name(),
+                presigned.expiration()));
+    }
+
+    @Override
+    public Optional<String> startMultipart(String key, String contentType) {
+        try {
+            return Optional.of(storageResilience.execute(StorageResilience.Operation.WRITE, deadline ->
+                            s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                                    .bucket(rustFsProperties.getBucketName())
+                                    .key(physicalKey(key))
+                                    .contentType(contentType)
+                                    .overrideConfiguration(deadline)
+                                    .build()))
+                    .uploadId());
+        } catch (S3Exception e) {
+            log.error("Erreur S3 lors de l'ouverture de l'upload multipart de {}: {}", key, errorMessage(e));
+            throw rustFsError(e);
+        }
+    }
+
+    @Override
+    public UploadedPart uploadPart(String key, String multipartId, int partNumber, InputStream content, long size) {
+        try {
+            UploadPartResponse response = storageResilience.execute(StorageResilience.Operation.WRITE,
+                    deadline -> s3Client.uploadPart(UploadPartRequest.builder()
+                                    .bucket(rustFsProperties.getBucketName())
+                                    .key(physicalKey(key))
+                                    .uploadId(multipartId)
+                                    .partNumber(partNumber)
+                                    .contentLength(size)
+                                    .overrideConfiguration(deadline)
+                                    .build(),
+                            RequestBody.fromInputStream(content, size)));
+            return new UploadedPart(partNumber, response.eTag());
+        } catch (S3Exception e) {
+            log.error("Erreur S3 lors de l'envoi de la part {} de {}: {}", partNumber, key, errorMessage(e));
+            throw rustFsError(e);
+        }
+    }
+
+    @Override
+    public void completeMultipart(String key, String multipartId, List<UploadedPart> parts) {
+        List<CompletedPart> completedParts = parts.stream()
+                .map(part -> CompletedPart.builder().partNumber(part.partNumber()).eTag(part.eTag()).build())
+                .toList();
+        try {
+            storageResilience.execute(StorageResilience.Operation.WRITE, deadline ->
+                    s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                            .bucket(rustFsProperties.getBucketName())
+                            .key(physicalKey(key))
+                            .uploadId(multipartId)
+                            .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                            .overrideConfiguration(deadline)
+                            .build()));
+        } catch (S3Exception e) {
+            log.error("Erreur S3 lors de l'assemblage de {}: {}", key, errorMessage(e));
+            throw rustFsError(e);
+        }
+    }
+
+    @Override
+    public void abortMultipart(String key, String multipartId) {
+        abortMultipartUpload(physicalKey(key), multipartId);
+    }
+
+    /**
+     * Clé S3 d'une clé logique : préfixée par le début de son SHA-256 si la répartition est activée
+     */
+    public String physicalKey(String key) {
+        int prefixLength = hashPrefixLength();
+        if (prefixLength <= 0) {
+            return key;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest).substring(0, prefixLength) + "/" + key;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Clé logique d'une clé S3, null si elle ne porte pas le préfixe de hachage attendu
+     */
+    private static String logicalKey(String physicalKey, int prefixLength) {
+        if (prefixLength <= 0) {
+            return physicalKey;
+        }
+        if (physicalKey.length() <= prefixLength + 1 || physicalKey.charAt(prefixLength) != '/') {
+            return null;
+        }
+        return physicalKey.substring(prefixLength + 1);
+    }
+
+    private int hashPrefixLength() {
+        return Math.max(0, Math.min(64, rustFsProperties.getStorage().getHashPrefixLength()));
+    }
+
+    /**
+     * Upload multipart S3 : le flux est découpé en parts de taille fixe,
+     * la mémoire consommée ne dépend donc pas de la taille du fichier.
+     * L'upload est annulé côté RustFS en cas d'échec pour ne pas laisser de parts orphelines.
+     */
+    private void multipartUpload(String key, String contentType, InputStream inputStream, long size) throws IOException {
+        String bucket = rustFsProperties.getBucketName();
+        long partSize = rustFsProperties.getUpload().getPartSize().toBytes();
+
+        String uploadId = storageResilience.execute(StorageResilience.Operation.WRITE, deadline ->
+                        s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                                .bucket(bucket)
+                                .key(key)
+                                .contentType(contentType)
+                                .overrideConfiguration(deadline)
+                                .build()))
+                .uploadId();
+
+        try {
+            List<CompletedPart> completedParts = new ArrayList<>();
+            long remaining = size;
+            int partNumber = 1;
+
+            while (remaining > 0) {
+                long partLength = Math.min(partSize, remaining);
+                InputStream partStream = BoundedInputStream.builder()
+                        .setInputStream(CloseShieldInputStream.wrap(inputStream))
+                        .setMaxCount(partLength)
+                        .get();
+
+                int currentPart = partNumber;
+                UploadPartResponse partResponse = storageResilience.execute(StorageResilience.Operation.WRITE,
+                        deadline -> s3Client.uploadPart(UploadPartRequest.builder()
+                                        .bucket(bucket)
+                                        .key(key)
+                                        .uploadId(uploadId)
+                                        .partNumber(currentPart)
+                                        .contentLength(partLength)
+                                        .overrideConfiguration(deadline)
+                                        .build(),
+                                RequestBody.fromInputStream(partStream, partLength)));
+
+                completedParts.add(CompletedPart.builder()
+                        .partNumber(partNumber)
+                        .eTag(partResponse.eTag())
+                        .build());
+
+                remaining -= partLength;
+                partNumber++;
+            }
+
+            storageResilience.execute(StorageResilience.Operation.WRITE, deadline ->
+                    s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                            .bucket(bucket)
+                            .key(key)
+                            .uploadId(uploadId)
+                            .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                            .overrideConfiguration(deadline)
+                            .build()));
+
+            log.debug("Upload multipart terminé - Key: {}, Parts: {}", key, completedParts.size());
+
+        } catch (IOException | RuntimeException e) {
+            abortMultipartUpload(key, uploadId);
+            throw e;
+        }
+    }
+
+    private void abortMultipartUpload(String key, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(rustFsProperties.getBucketName())
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+            log.warn("Upload multipart annulé - Key: {}", key);
+        } catch (Exception e) {
+            log.error("Impossible d'annuler l'upload multipart {} pour {}: {}", uploadId, key, e.getMessage());
+        }
+    }
+
+    private static ResponseStatusException rustFsError(S3Exception e) {
+        return new ResponseStatusException(
+                HttpStatus.INTERNAL_SERVER_ERROR,
+                "Erreur RustFS: " + errorMessage(e)
+        );
+    }
+
+    private static String errorMessage(S3Exception e) {
+        return e.awsErrorDetails() != null && e.awsErrorDetails().errorMessage() != null
+                ? e.awsErrorDetails().errorMessage()
+                : e.getMessage();
+    }
+}
@@ -0,0 +1,121 @@
+package com.benseddik.template.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Stockage des images et de leurs déclinaisons, adressées par une clé logique {@code dossier/fichier}
+ * <p>
+ * L'implémentation est choisie par {@code rustfs.storage.type} : RustFS (S3) en production, disque
+ * local pour un déploiement mono-nœud, mémoire pour mesurer le chemin d'upload sans réseau.
+ * Les erreurs du stockage sont levées en {@code ResponseStatusException} (500, ou 503 si le
+ * stockage est indisponible) ; une clé absente n'est jamais une erreur.
+ */
+public interface StorageBackend {
+
+    /**
+     * Vérifier au démarrage que le stockage est utilisable
+     *
+     * @throws IllegalStateException si la configuration ne peut pas fonctionner (bucket absent, répertoire inaccessible)
+     */
+    void verify();
+
+    /**
+     * Écrire un objet en streaming ; un objet existant sous la même clé est remplacé
+     */
+    void put(String key, String contentType, InputStream content, long size) throws IOException;
+
+    /**
+     * Écrire un fichier local sans bloquer l'appelant
+     *
+     * @return Future terminée quand l'objet est stocké (le fichier source peut alors être supprimé)
+     */
+    CompletableFuture<Void> putAsync(String key, String contentType, Path source, long size);
+
+    /**
+     * Métadonnées d'un objet, vide s'il n'existe pas
+     */
+    Optional<StoredObjectInfo> head(String key);
+
+    /**
+     * Lire un objet en appliquant la plage et les conditions HTTP demandées
+     *
+     * @return Contenu (ou réponse « non modifié »), vide si l'objet n'existe pas
+     * @throws org.springframework.web.server.ResponseStatusException 416 si la plage ne peut pas être satisfaite
+     */
+    Optional<StoredObject> get(String key, ReadConditions conditions);
+
+    /**
+     * Supprimer un objet ; sans effet s'il n'existe pas
+     */
+    void delete(String key);
+
+    /**
+     * Supprimer un lot d'objets ; les clés absentes sont considérées comme supprimées
+     *
+     * @return Message d'erreur des seules clés en échec
+     */
+    Map<String, String> deleteAll(List<String> keys);
+
+    /**
+     * Parcourir les objets d'un dossier page par page, sans jamais tout charger en mémoire
+     *
+     * @param folder      Dossier (premier segment des clés)
+     * @param pageHandler Appelé pour chaque page non vide, dans l'ordre du parcours
+     */
+    void list(String folder, Consumer<List<ListedObject>> pageHandler);
+
+    /**
+     * URL publique d'un objet
+     */
+    String publicUrl(String key);
+
+    /**
+     * Préparer un envoi direct du client vers le stockage, si celui-ci le permet
+     *
+     * @return URL présignée, vide si le stockage ne sait pas en produire
+     */
+    default Optional<PresignedPut> presignPut(String key, String contentType, long size, Duration expiry) {
+        return Optional.empty();
+    }
+
+    /**
+     * Ouvrir un upload en plusieurs parts (uploads reprenables), si le stockage le permet
+     *
+     * @return Identifiant de l'upload côté stockage, vide si le stockage ne sait pas assembler des parts :
+     * l'appelant écrit alors l'objet d'un bloc avec {@link #put}
+     */
+    default Optional<String> startMultipart(String key, String contentType) {
+        return Optional.empty();
+    }
+
+    /**
+     * Envoyer une part ; toutes les parts sauf la dernière doivent atteindre la taille minimale du stockage
+     *
+     * @param partNumber Numéro de la part, à partir de 1
+     */
+    default UploadedPart uploadPart(String key, String multipartId, int partNumber, InputStream content, long size)
+            throws IOException {
+        throw new UnsupportedOperationException("Upload en plusieurs parts non pris en charge");
+    }
+
+    /**
+     * Assembler les parts envoyées en un objet
+     */
+    default void completeMultipart(String key, String multipartId, List<UploadedPart> parts) {
+        throw new UnsupportedOperationException("Upload en plusieurs parts non pris en charge");
+    }
+
+    /**
+     * Abandonner un upload en plusieurs parts et libérer ses parts ; les erreurs sont journalisées, jamais levées
+     */
+    default void abortMultipart(String key, String multipartId) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.benseddik.template.service.storage;
+
+import org.apache.commons.io.input.BoundedInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.time.Instant;
+
+/**
+ * Résultat d'une lecture : flux (S3, mémoire) ou canal de fichier (disque, transfert zero-copy)
+ *
+ * @param content       Flux du contenu, ou null
+ * @param channel       Canal du fichier, ou null ; le contenu commence à {@code position}
+ * @param position      Position du premier octet dans le canal
+ * @param contentType   Type MIME
+ * @param contentLength Octets à servir
+ * @param contentRange  En-tête Content-Range si une plage a été servie, sinon null
+ * @param eTag          ETag de l'objet
+ * @param lastModified  Date de dernière modification
+ * @param notModified   Conditions non remplies : rien à servir (304)
+ */
+public record StoredObject(InputStream content, FileChannel channel, long position, String contentType,
+                           Long contentLength, String contentRange, String eTag, Instant lastModified,
+                           boolean notModified) {
+
+    /**
+     * Réponse « non modifié » : aucun contenu
+     */
+    public static StoredObject notModified(String eTag) {
+        return new StoredObject(null, null, 0, null, null, null, eTag, null, true);
+    }
+
+    /**
+     * Contenu servi sous forme de flux, quel que soit le support
+     */
+    public InputStream openStream() throws IOException {
+        if (content != null) {
+            return content;
+        }
+        channel.position(position);
+        return BoundedInputStream.builder()
+                .setInputStream(Channels.newInputStream(channel))
+                .setMaxCount(contentLength)
+                .get();
+    }
+
+    /**
+     * Libérer le flux ou le canal sans l'avoir servi
+     */
+    public void discard() {
+        try {
+            if (content != null) {
+                content.close();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            // Rien à servir : l'erreur de fermeture est sans conséquence
+        }
+    }
+}
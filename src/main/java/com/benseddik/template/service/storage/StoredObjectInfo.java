@@ -0,0 +1,9 @@
+package com.benseddik.template.service.storage;
+
+import java.time.Instant;
+
+/**
+ * Métadonnées d'un objet stocké
+ */
+public record StoredObjectInfo(String contentType, long size, String eTag, Instant lastModified) {
+}
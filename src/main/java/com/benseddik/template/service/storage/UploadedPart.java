@@ -0,0 +1,7 @@
+package com.benseddik.template.service.storage;
+
+/**
+ * Part envoyée dans un upload en plusieurs parts
+ */
+public record UploadedPart(int partNumber, String eTag) {
+}
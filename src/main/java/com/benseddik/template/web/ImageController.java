@@ -1,16 +1,45 @@
 package com.benseddik.template.web;
 
+import com.benseddik.template.service.MediaService;
 import com.benseddik.template.service.RustFsService;
+import com.benseddik.template.service.dto.AsyncUploadStatusResponse;
+import com.benseddik.template.service.dto.BatchDeleteRequest;
+import com.benseddik.template.service.dto.BatchDeleteResponse;
+import com.benseddik.template.service.dto.CompletePresignedUploadRequest;
+import com.benseddik.template.service.dto.ImageDownload;
 import com.benseddik.template.service.dto.ImageUploadResponse;
+import com.benseddik.template.service.dto.MediaPageResponse;
+import com.benseddik.template.service.dto.PresignedUploadRequest;
+import com.benseddik.template.service.dto.PresignedUploadResponse;
+import com.benseddik.template.service.dto.ResumableUploadRequest;
+import com.benseddik.template.service.dto.ResumableUploadResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 @RestController
 @RequestMapping("/images")
@@ -19,7 +48,18 @@ import org.springframework.web.multipart.MultipartFile;
 @Tag(name = "Images", description = "Upload et gestion des images via RustFS")
 public class ImageController {
 
+    /**
+     * Durée de cache des clés immuables (UUID / SHA-256) : le contenu d'une clé ne change jamais
+     */
+    private static final Duration IMMUTABLE_MAX_AGE = Duration.ofDays(365);
+
+    /**
+     * Décalage d'un upload reprenable (même en-tête que le protocole tus)
+     */
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+
     private final RustFsService rustFsService;
+    private final MediaService mediaService;
 
     @PostMapping("/users")
     @PreAuthorize("hasRole('USER')")
@@ -32,15 +72,254 @@ public class ImageController {
         return ResponseEntity.ok(rustFsService.uploadFile(file, "users", auth));
     }
 
+    @PostMapping("/users/async")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(
+            summary = "Uploader une photo de profil en asynchrone",
+            description = "Retourne 202 immédiatement ; le résultat est consultable sur /images/uploads/{uploadId}"
+    )
+    public ResponseEntity<AsyncUploadStatusResponse> uploadUserImageAsync(
+            @RequestParam("file") MultipartFile file,
+            Authentication auth) {
+
+        log.info("Upload asynchrone photo de profil - User: {}, Taille: {} bytes",
+                auth.getName(), file.getSize());
+        AsyncUploadStatusResponse status = rustFsService.uploadFileAsync(file, "users", auth);
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/images/uploads/{uploadId}")
+                .buildAndExpand(status.getUploadId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(status);
+    }
+
+    @GetMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Consulter le statut d'un upload asynchrone")
+    public ResponseEntity<AsyncUploadStatusResponse> getUploadStatus(
+            @PathVariable String uploadId,
+            Authentication auth) {
+        return ResponseEntity.ok(rustFsService.getAsyncUploadStatus(uploadId, auth));
+    }
+
+    @PostMapping("/presigned")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(
+            summary = "Obtenir une URL présignée d'upload direct",
+            description = "Le client envoie ensuite le fichier en PUT directement à RustFS, puis appelle /images/presigned/complete"
+    )
+    public ResponseEntity<PresignedUploadResponse> createPresignedUpload(
+            @Valid @RequestBody PresignedUploadRequest request,
+            Authentication auth) {
+
+        log.info("Demande d'URL présignée - User: {}, Dossier: {}, Taille: {} bytes",
+                auth.getName(), request.getFolder(), request.getSizeBytes());
+        return ResponseEntity.ok(rustFsService.createPresignedUpload(request, auth));
+    }
+
+    @PostMapping("/presigned/complete")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Finaliser un upload direct après vérification de l'objet déposé")
+    public ResponseEntity<ImageUploadResponse> completePresignedUpload(
+            @Valid @RequestBody CompletePresignedUploadRequest request,
+            Authentication auth) {
+        return ResponseEntity.ok(rustFsService.completePresignedUpload(request.getKey(), auth));
+    }
+
+    @PostMapping("/resumable")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(
+            summary = "Ouvrir un upload reprenable",
+            description = "Le fichier est ensuite envoyé par morceaux (PATCH) et l'envoi peut reprendre après une coupure"
+    )
+    public ResponseEntity<ResumableUploadResponse> createResumableUpload(
+            @Valid @RequestBody ResumableUploadRequest request,
+            Authentication auth) {
+
+        log.info("Ouverture d'upload reprenable - User: {}, Dossier: {}, Taille: {} bytes",
+                auth.getName(), request.getFolder(), request.getSizeBytes());
+        ResumableUploadResponse status = rustFsService.createResumableUpload(request, auth);
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/images/resumable/{uploadId}")
+                .buildAndExpand(status.getUploadId())
+                .toUri();
+        return ResponseEntity.created(location)
+                .header(UPLOAD_OFFSET, String.valueOf(status.getOffset()))
+                .body(status);
+    }
+
+    @PatchMapping(
+            path = "/resumable/{uploadId}",
+            consumes = {"application/offset+octet-stream", MediaType.APPLICATION_OCTET_STREAM_VALUE}
+    )
+    @PreAuthorize("hasRole('USER')")
+    @Operation(
+            summary = "Envoyer un morceau d'un upload reprenable",
+            description = "Le morceau commence au décalage Upload-Offset, qui doit être égal aux octets déjà reçus (409 sinon)"
+    )
+    public ResponseEntity<ResumableUploadResponse> appendResumableChunk(
+            @PathVariable String uploadId,
+            @RequestHeader(UPLOAD_OFFSET) long offset,
+            InputStream body,
+            Authentication auth) {
+        ResumableUploadResponse status = rustFsService.appendResumableChunk(uploadId, offset, body, auth);
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, String.valueOf(status.getOffset()))
+                .body(status);
+    }
+
+    @GetMapping("/resumable/{uploadId}")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Consulter le décalage atteint par un upload reprenable")
+    public ResponseEntity<ResumableUploadResponse> getResumableUpload(
+            @PathVariable String uploadId,
+            Authentication auth) {
+        ResumableUploadResponse status = rustFsService.getResumableUpload(uploadId, auth);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header(UPLOAD_OFFSET, String.valueOf(status.getOffset()))
+                .body(status);
+    }
+
+    @PostMapping("/resumable/{uploadId}/complete")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Finaliser un upload reprenable dont tous les octets ont été reçus")
+    public ResponseEntity<ImageUploadResponse> completeResumableUpload(
+            @PathVariable String uploadId,
+            Authentication auth) {
+        return ResponseEntity.ok(rustFsService.completeResumableUpload(uploadId, auth));
+    }
+
+    @DeleteMapping("/resumable/{uploadId}")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Abandonner un upload reprenable")
+    public ResponseEntity<Void> cancelResumableUpload(
+            @PathVariable String uploadId,
+            Authentication auth) {
+        rustFsService.cancelResumableUpload(uploadId, auth);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/batch-delete")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(
+            summary = "Supprimer plusieurs images",
+            description = "Suppression par lots de 1000 clés (DeleteObjects) avec un résultat par clé ; "
+                    + "les images d'autres utilisateurs sont refusées (FORBIDDEN), sauf pour un administrateur ou un modérateur"
+    )
+    public ResponseEntity<BatchDeleteResponse> deleteImages(
+            @Valid @RequestBody BatchDeleteRequest request,
+            Authentication auth) {
+        BatchDeleteResponse response = rustFsService.deleteFiles(request.getKeys(), auth);
+        log.info("Suppression groupée: {} supprimées, {} en échec", response.getDeleted(), response.getFailed());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/me")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(
+            summary = "Lister mes images",
+            description = "Images de l'utilisateur connecté, de la plus récente à la plus ancienne, avec le volume total"
+    )
+    public ResponseEntity<MediaPageResponse> listMyImages(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication auth) {
+        return ResponseEntity.ok(mediaService.listForOwner(auth.getName(), page, size));
+    }
+
+    @GetMapping("/{folder}/{filename}")
+    @Operation(
+            summary = "Servir une image",
+            description = "Streaming depuis RustFS avec prise en charge de Range, If-None-Match et If-Modified-Since"
+    )
+    public ResponseEntity<StreamingResponseBody> getImage(
+            @PathVariable String folder,
+            @PathVariable String filename,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince) {
+
+        ImageDownload image = rustFsService.openImage(folder, filename, range, ifNoneMatch, parseHttpDate(ifModifiedSince));
+
+        CacheControl cacheControl = image.isImmutable()
+                ? CacheControl.maxAge(IMMUTABLE_MAX_AGE).cachePublic().immutable()
+                : CacheControl.noCache().cachePublic();
+
+        if (image.isNotModified()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .eTag(image.getETag())
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity
+                .status(image.getContentRange() != null ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .eTag(image.getETag());
+        if (image.getContentType() != null) {
+            response.contentType(MediaType.parseMediaType(image.getContentType()));
+        }
+        if (image.getContentLength() != null) {
+            response.contentLength(image.getContentLength());
+        }
+        if (image.getLastModified() != null) {
+            response.lastModified(image.getLastModified());
+        }
+        if (image.getContentRange() != null) {
+            response.header(HttpHeaders.CONTENT_RANGE, image.getContentRange());
+        }
+
+        if (image.getFileChannel() != null) {
+            // Image en cache disque : FileChannel.transferTo vers la sortie servlet
+            return response.body(outputStream -> {
+                try (FileChannel channel = image.getFileChannel()) {
+                    WritableByteChannel target = Channels.newChannel(outputStream);
+                    long position = image.getPosition();
+                    long remaining = image.getContentLength();
+                    while (remaining > 0) {
+                        long transferred = channel.transferTo(position, remaining, target);
+                        if (transferred <= 0) {
+                            break;
+                        }
+                        position += transferred;
+                        remaining -= transferred;
+                    }
+                }
+            });
+        }
+
+        // Copie directe du flux RustFS vers la sortie servlet, sans mise en mémoire de l'image
+        return response.body(outputStream -> {
+            try (InputStream content = image.getContent()) {
+                content.transferTo(outputStream);
+            }
+        });
+    }
+
     @DeleteMapping("/{folder}/{filename}")
     @PreAuthorize("hasRole('USER')")
     @Operation(summary = "Supprimer une image")
     public ResponseEntity<Void> deleteImage(
             @PathVariable String folder,
-            @PathVariable String filename) {
-        rustFsService.deleteFile(folder, filename);
+            @PathVariable String filename,
+            Authentication auth) {
+        rustFsService.deleteFile(folder, filename, auth);
         log.info("Image supprimée: {}/{}", folder, filename);
         return ResponseEntity.noContent().build();
     }
-}
 
+    /**
+     * Date HTTP (RFC 1123) ; une valeur illisible est ignorée, comme le prévoit la RFC 9110
+     */
+    private static Instant parseHttpDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
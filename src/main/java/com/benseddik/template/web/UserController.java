@@ -1,6 +1,7 @@
 package com.benseddik.template.web;
 
 import com.benseddik.template.service.UserService;
+import com.benseddik.template.service.dto.ImageUploadResponse;
 import com.benseddik.template.service.dto.MeResponse;
 import com.benseddik.template.service.dto.UpdateProfileRequest;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,10 +13,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 @RestController
 @RequestMapping("/users")
@@ -66,6 +69,29 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    @PutMapping(value = "/me/photo", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    @Operation(
+            summary = "Remplacer la photo de profil",
+            description = "Upload l'image, met à jour le profil et supprime l'ancienne photo en arrière-plan"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Photo remplacée",
+                    content = @Content(schema = @Schema(implementation = ImageUploadResponse.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Image invalide"),
+            @ApiResponse(responseCode = "401", description = "Non authentifié")
+    })
+    public ResponseEntity<ImageUploadResponse> setProfilePhoto(
+            @RequestParam("file") MultipartFile file,
+            Authentication auth) {
+
+        log.info("PUT /users/me/photo - User: {}, Taille: {} bytes", auth.getName(), file.getSize());
+        return ResponseEntity.ok(userService.setProfilePhoto(file, auth));
+    }
+
     @DeleteMapping("/me")
     @PreAuthorize("hasRole('USER')")
     @Operation(
@@ -0,0 +1,136 @@
+package com.benseddik.template.web.filter;
+
+import com.benseddik.template.service.ConcurrencyLimitService;
+import com.benseddik.template.service.ConcurrencyLimitService.Outcome;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Limite de concurrence adaptative par groupe de routes
+ * <p>
+ * S'exécute après le premier palier de limitation du débit et avant la chaîne de sécurité : une
+ * requête excédentaire reçoit son 503 sans vérification du JWT. La latence mesurée couvre tout le
+ * traitement, jusqu'à la fin de la réponse pour une requête asynchrone. Seul un échec d'une
+ * dépendance (délai dépassé, RustFS, PostgreSQL ou Keycloak injoignable) réduit la limite ; les
+ * refus produits par l'application elle-même (admission, quota, disjoncteur ouvert, débit) et les
+ * uploads des groupes qui ne les mesurent pas sont ignorés.
+ */
+@Component
+// Strictement après OrderedRequestContextFilter (DEFAULT_FILTER_ORDER - 5) : markDownstreamFailure
+// s'appuie sur le RequestContextHolder lié à la requête
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 4)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<Integer> LOCAL_REJECTIONS = Set.of(
+            HttpStatus.TOO_MANY_REQUESTS.value(),
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            HttpStatus.GATEWAY_TIMEOUT.value(),
+            HttpStatus.INSUFFICIENT_STORAGE.value());
+
+    private final ConcurrencyLimitService concurrencyLimitService;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitService concurrencyLimitService,
+                                  @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
+        this.concurrencyLimitService = concurrencyLimitService;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ConcurrencyLimitService.Permit permit;
+        try {
+            permit = concurrencyLimitService.acquire(RateLimitFilter.pathOf(request));
+        } catch (ResponseStatusException e) {
+            handlerExceptionResolver.resolveException(request, response, null, e);
+            return;
+        }
+
+        Outcome outcome = Outcome.IGNORED;
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Réponse en flux (StreamingResponseBody) : mesurée jusqu'à la fin de la réponse
+                request.getAsyncContext().addListener(new CompletionListener(permit, request, response));
+                async = true;
+            } else {
+                outcome = outcomeOf(request, response, permit);
+            }
+        } catch (IOException | ServletException | RuntimeException e) {
+            // Propagée hors de MVC, par exemple par la chaîne de sécurité quand le JWKS ne répond pas
+            if (ConcurrencyLimitService.isDownstreamFailure(e)) {
+                outcome = Outcome.DROPPED;
+            }
+            throw e;
+        } finally {
+            if (!async) {
+                permit.release(outcome);
+            }
+        }
+    }
+
+    /**
+     * Rend la place d'une requête asynchrone à sa fin, avec son issue
+     */
+    private record CompletionListener(ConcurrencyLimitService.Permit permit, HttpServletRequest request,
+                                      HttpServletResponse response) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release(outcomeOf(request, response, permit));
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // Suivi de onComplete
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // Interruption (client parti…) : durée non représentative
+            permit.release(Outcome.IGNORED);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    private static Outcome outcomeOf(HttpServletRequest request, HttpServletResponse response,
+                                     ConcurrencyLimitService.Permit permit) {
+        if (request.getAttribute(ConcurrencyLimitService.DOWNSTREAM_FAILURE_ATTRIBUTE) != null) {
+            return Outcome.DROPPED;
+        }
+        if (LOCAL_REJECTIONS.contains(response.getStatus())) {
+            // Refus produit ici, sans appel en aval : ni capacité dépassée, ni latence représentative
+            return Outcome.IGNORED;
+        }
+        if (hasBody(request) && !permit.samplesRequestBodies()) {
+            return Outcome.IGNORED;
+        }
+        return Outcome.SUCCESS;
+    }
+
+    private static boolean hasBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.benseddik.template.web.filter;
+
+import com.benseddik.template.service.ratelimit.RateLimitService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+
+/**
+ * Premier palier de limitation du débit, par adresse IP
+ * <p>
+ * S'exécute avant la chaîne de sécurité : une requête au-delà de la limite de son adresse est
+ * refusée (429) avant que le JWT ne soit décodé et sa signature RSA vérifiée. Un flot de jetons
+ * invalides ne coûte donc qu'une consultation de seau par requête. Simple garde contre les flots :
+ * un jeton par requête, sans coût de route, sur un seau plus large que celui d'un utilisateur.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 10)
+public class PreAuthRateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitService rateLimitService;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+
+    public PreAuthRateLimitFilter(RateLimitService rateLimitService,
+                                  @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
+        this.rateLimitService = rateLimitService;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (RateLimitFilter.apply(rateLimitService.consumeByAddress(request.getRemoteAddr()), request, response,
+                handlerExceptionResolver)) {
+            chain.doFilter(request, response);
+        }
+    }
+}
@@ -1,43 +1,90 @@
 package com.benseddik.template.web.filter;
 
-import io.github.bucket4j.Bucket;
-import jakarta.servlet.*;
+import com.benseddik.template.service.ratelimit.RateLimitDecision;
+import com.benseddik.template.service.ratelimit.RateLimitExceededException;
+import com.benseddik.template.service.ratelimit.RateLimitService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
 
 import java.io.IOException;
-import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
 
+/**
+ * Second palier de limitation du débit, par sujet du JWT
+ * <p>
+ * S'exécute juste après la chaîne de sécurité (l'utilisateur est connu) et avant les filtres
+ * d'upload. Les en-têtes X-RateLimit-* décrivent le seau le plus serré des deux paliers (le moins
+ * de jetons restants) ; un refus (429 + Retry-After) passe par les gestionnaires d'exceptions MVC
+ * pour garder le format d'erreur habituel.
+ */
 @Component
-public class RateLimitFilter implements Filter {
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
-
-    private Bucket resolveBucket(String key) {
-        return buckets.computeIfAbsent(key, k ->
-                Bucket.builder()
-                        .addLimit(limit -> limit
-                                .capacity(300)
-                                .refillGreedy(300, Duration.ofMinutes(1))
-                        )
-                        .build()
-        );
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 10)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private final RateLimitService rateLimitService;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+
+    public RateLimitFilter(RateLimitService rateLimitService,
+                           @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
+        this.rateLimitService = rateLimitService;
+        this.handlerExceptionResolver = handlerExceptionResolver;
     }
 
     @Override
-    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
-            throws IOException, ServletException {
-        HttpServletRequest req = (HttpServletRequest) request;
-        HttpServletResponse res = (HttpServletResponse) response;
-        String key = req.getRemoteAddr();
-        Bucket bucket = resolveBucket(key);
-        if (bucket.tryConsume(1)) {
-            chain.doFilter(request, response);
-        } else {
-            res.setStatus(429);
-            res.getWriter().write("Too Many Requests");
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String subject = auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)
+                ? auth.getName() : null;
+
+        Optional<RateLimitDecision> decision = rateLimitService.consumeBySubject(subject, request.getRemoteAddr(),
+                request.getMethod(), pathOf(request), request.getContentLengthLong());
+        if (decision.isPresent() && !apply(decision.get(), request, response, handlerExceptionResolver)) {
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Écrire les en-têtes X-RateLimit-* s'ils décrivent un seau plus serré que ceux déjà écrits et,
+     * en cas de refus, la réponse 429
+     *
+     * @return {@code true} si la requête peut poursuivre
+     */
+    static boolean apply(RateLimitDecision decision, HttpServletRequest request, HttpServletResponse response,
+                         HandlerExceptionResolver handlerExceptionResolver) {
+        if (decision.limit() >= 0 && (!decision.allowed() || isTighter(decision, response))) {
+            response.setHeader("X-RateLimit-Limit", String.valueOf(decision.limit()));
+            response.setHeader(REMAINING_HEADER, String.valueOf(decision.remaining()));
+            response.setHeader("X-RateLimit-Reset", String.valueOf(RateLimitDecision.ceilSeconds(decision.reset())));
         }
+        if (decision.allowed()) {
+            return true;
+        }
+        handlerExceptionResolver.resolveException(request, response, null,
+                new RateLimitExceededException(decision.reason(), decision.retryAfter()));
+        return false;
+    }
+
+    private static boolean isTighter(RateLimitDecision decision, HttpServletResponse response) {
+        String remaining = response.getHeader(REMAINING_HEADER);
+        return remaining == null || decision.remaining() <= Long.parseLong(remaining);
     }
-}
\ No newline at end of file
+}
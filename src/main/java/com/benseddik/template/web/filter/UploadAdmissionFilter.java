@@ -0,0 +1,57 @@
+package com.benseddik.template.web.filter;
+
+import com.benseddik.template.service.UploadAdmissionService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+
+/**
+ * Contrôle d'admission appliqué aux requêtes qui transportent une image
+ * <p>
+ * Comme {@link UploadQuotaFilter}, s'exécute avant le DispatcherServlet : une requête refusée
+ * reçoit son 503 sans que le corps soit lu. La réservation est rendue à la fin de la requête,
+ * une fois le corps entièrement consommé.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 30)
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    private final UploadAdmissionService uploadAdmissionService;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+
+    public UploadAdmissionFilter(UploadAdmissionService uploadAdmissionService,
+                                 @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
+        this.uploadAdmissionService = uploadAdmissionService;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !UploadEndpoints.isSingleShot(request) && !UploadEndpoints.isResumableChunk(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        UploadAdmissionService.Permit permit;
+        try {
+            permit = uploadAdmissionService.admit(request.getContentLengthLong());
+        } catch (ResponseStatusException e) {
+            handlerExceptionResolver.resolveException(request, response, null, e);
+            return;
+        }
+        try (permit) {
+            chain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.benseddik.template.web.filter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+
+import java.util.Set;
+
+/**
+ * Routes qui transportent une image dans leur corps, partagées par les filtres d'upload
+ */
+final class UploadEndpoints {
+
+    private static final Set<String> SINGLE_SHOT = Set.of(
+            "POST /images/users", "POST /images/users/async", "PUT /users/me/photo");
+    private static final String RESUMABLE_CHUNK_PREFIX = "/images/resumable/";
+
+    private UploadEndpoints() {
+    }
+
+    /**
+     * Upload envoyé en une seule requête (multipart ou corps brut)
+     */
+    static boolean isSingleShot(HttpServletRequest request) {
+        return SINGLE_SHOT.contains(request.getMethod() + " " + RateLimitFilter.pathOf(request));
+    }
+
+    /**
+     * Morceau d'un upload reprenable
+     */
+    static boolean isResumableChunk(HttpServletRequest request) {
+        return HttpMethod.PATCH.matches(request.getMethod())
+                && RateLimitFilter.pathOf(request).startsWith(RESUMABLE_CHUNK_PREFIX);
+    }
+}
@@ -0,0 +1,67 @@
+package com.benseddik.template.web.filter;
+
+import com.benseddik.template.service.UploadQuotaService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+
+/**
+ * Quotas d'upload vérifiés avant la lecture du corps multipart
+ * <p>
+ * S'exécute après la chaîne de sécurité (l'utilisateur est connu) et avant le DispatcherServlet,
+ * qui lit le multipart : une requête hors quota est refusée sur son Content-Length, sans qu'un
+ * octet du fichier soit reçu. Le refus passe par les gestionnaires d'exceptions MVC pour garder
+ * le format d'erreur habituel.
+ * <p>
+ * Ordonné avant {@link UploadAdmissionFilter} : une requête hors quota est écartée sans occuper
+ * une place d'admission.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 20)
+public class UploadQuotaFilter extends OncePerRequestFilter {
+
+    private final UploadQuotaService uploadQuotaService;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+
+    public UploadQuotaFilter(UploadQuotaService uploadQuotaService,
+                             @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
+        this.uploadQuotaService = uploadQuotaService;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Les morceaux reprenables sont comptés à l'ouverture de la session, pas ici
+        return !UploadEndpoints.isSingleShot(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            try {
+                // Content-Length inclut l'enveloppe multipart (légèrement pessimiste) ; absent en envoi
+                // chunked, seul le nombre d'images est vérifié ici et le volume l'est après lecture
+                uploadQuotaService.checkUpload(auth.getName(), Math.max(0, request.getContentLengthLong()));
+            } catch (ResponseStatusException e) {
+                handlerExceptionResolver.resolveException(request, response, null, e);
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,75 @@
+package com.benseddik.template.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollector;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("S3ClientMetricPublisher - Unit Tests")
+class S3ClientMetricPublisherTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private S3ClientMetricPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new S3ClientMetricPublisher(meterRegistry, "sync");
+    }
+
+    @Test
+    @DisplayName("publish - Should expose connection pool state from nested HTTP metrics")
+    void publish_RecordsPoolMetrics() {
+        // Given
+        MetricCollector apiCall = MetricCollector.create("ApiCall");
+        apiCall.reportMetric(CoreMetric.OPERATION_NAME, "GetObject");
+        apiCall.reportMetric(CoreMetric.API_CALL_SUCCESSFUL, true);
+        apiCall.reportMetric(CoreMetric.API_CALL_DURATION, Duration.ofMillis(40));
+        apiCall.reportMetric(CoreMetric.RETRY_COUNT, 1);
+        MetricCollector httpClient = apiCall.createChild("ApiCallAttempt").createChild("HttpClient");
+        httpClient.reportMetric(HttpMetric.LEASED_CONCURRENCY, 12);
+        httpClient.reportMetric(HttpMetric.PENDING_CONCURRENCY_ACQUIRES, 3);
+        httpClient.reportMetric(HttpMetric.AVAILABLE_CONCURRENCY, 0);
+        httpClient.reportMetric(HttpMetric.MAX_CONCURRENCY, 50);
+        httpClient.reportMetric(HttpMetric.CONCURRENCY_ACQUIRE_DURATION, Duration.ofMillis(15));
+
+        // When
+        publisher.publish(apiCall.collect());
+
+        // Then
+        assertThat(meterRegistry.get("rustfs.http.pool.leased").tag("client", "sync").gauge().value()).isEqualTo(12);
+        assertThat(meterRegistry.get("rustfs.http.pool.pending").gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get("rustfs.http.pool.available").gauge().value()).isZero();
+        assertThat(meterRegistry.get("rustfs.http.pool.max").gauge().value()).isEqualTo(50);
+        assertThat(meterRegistry.get("rustfs.http.pool.acquire").timer().totalTime(TimeUnit.MILLISECONDS)).isEqualTo(15);
+        assertThat(meterRegistry.get("rustfs.api.retries").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("publish - Should time S3 calls by operation and outcome")
+    void publish_RecordsApiCallTimer() {
+        // Given
+        MetricCollector apiCall = MetricCollector.create("ApiCall");
+        apiCall.reportMetric(CoreMetric.OPERATION_NAME, "PutObject");
+        apiCall.reportMetric(CoreMetric.API_CALL_SUCCESSFUL, false);
+        apiCall.reportMetric(CoreMetric.API_CALL_DURATION, Duration.ofMillis(200));
+
+        // When
+        publisher.publish(apiCall.collect());
+
+        // Then
+        assertThat(meterRegistry.get("rustfs.api.call")
+                .tag("operation", "PutObject")
+                .tag("outcome", "error")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("rustfs.api.retries").counter().count()).isZero();
+    }
+}
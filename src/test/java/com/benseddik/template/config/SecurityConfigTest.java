@@ -0,0 +1,31 @@
+package com.benseddik.template.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SecurityConfig - Unit Tests")
+class SecurityConfigTest {
+
+    @Test
+    @DisplayName("PUBLIC_IMAGE_READ - Should open image reads only, not upload status routes")
+    void publicImageRead_ExcludesUploadStatus() {
+        // Then
+        assertThat(matches("GET", "/images/users/a.jpg", null)).isTrue();
+        assertThat(matches("GET", "/images/users/a.jpg", "w=64")).isTrue();
+        assertThat(matches("GET", "/images/uploads/123", null)).isFalse();
+        assertThat(matches("GET", "/images/resumable/123", null)).isFalse();
+        assertThat(matches("GET", "/images/me", null)).isFalse();
+        assertThat(matches("GET", "/images/users/a/b.jpg", null)).isFalse();
+        assertThat(matches("DELETE", "/images/users/a.jpg", null)).isFalse();
+    }
+
+    private static boolean matches(String method, String path, String query) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        request.setQueryString(query);
+        return SecurityConfig.PUBLIC_IMAGE_READ.matches(request);
+    }
+}
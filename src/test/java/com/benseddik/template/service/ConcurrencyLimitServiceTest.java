@@ -0,0 +1,130 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.ConcurrencyLimitProperties;
+import com.benseddik.template.service.ConcurrencyLimitService.Outcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ConcurrencyLimitService - Unit Tests")
+class ConcurrencyLimitServiceTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitService concurrencyLimitService;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(50);
+        properties.setWindowSize(10);
+        properties.setRetryAfter(Duration.ofSeconds(2));
+        ConcurrencyLimitProperties.Group storage = new ConcurrencyLimitProperties.Group();
+        storage.setName("storage");
+        storage.setPaths(List.of("/images/**"));
+        properties.setGroups(List.of(storage));
+        meterRegistry = new SimpleMeterRegistry();
+        concurrencyLimitService = new ConcurrencyLimitService(properties, meterRegistry, clock::get);
+    }
+
+    @Test
+    @DisplayName("acquire - Should reject with 503 and Retry-After beyond the group limit, other groups unaffected")
+    void acquire_GroupAtLimit_ServiceUnavailable() {
+        // Given
+        List<ConcurrencyLimitService.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            permits.add(concurrencyLimitService.acquire("/images/users/a.jpg"));
+        }
+
+        // When & Then
+        assertThatThrownBy(() -> concurrencyLimitService.acquire("/images/me"))
+                .isInstanceOfSatisfying(ConcurrencyLimitExceededException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+                });
+        concurrencyLimitService.acquire("/users/me").release(Outcome.SUCCESS);
+        concurrencyLimitService.acquire("/actuator/health");
+
+        assertThat(meterRegistry.get("concurrency.rejected").tag("group", "storage").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("concurrency.inflight").tag("group", "storage").gauge().value()).isEqualTo(10.0);
+        assertThat(concurrencyLimitService.inFlight(ConcurrencyLimitService.DEFAULT_GROUP)).isZero();
+
+        permits.getFirst().release(Outcome.IGNORED);
+        permits.getFirst().release(Outcome.IGNORED);
+        assertThat(concurrencyLimitService.inFlight("storage")).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("acquire - Should raise the limit while latency is stable and cut it when latency rises")
+    void acquire_AdaptsToLatency() {
+        // When : latence stable de 10 ms à pleine concurrence
+        for (int i = 0; i < 20; i++) {
+            runWindow(10);
+        }
+        int learned = concurrencyLimitService.limit("storage");
+
+        // Then
+        assertThat(learned).isGreaterThan(10);
+        assertThat(meterRegistry.get("concurrency.limit").tag("group", "storage").gauge().value()).isEqualTo(learned);
+
+        // When : la dépendance ralentit (latence x5)
+        for (int i = 0; i < 5; i++) {
+            runWindow(50);
+        }
+
+        // Then
+        assertThat(concurrencyLimitService.limit("storage")).isLessThan(learned);
+    }
+
+    @Test
+    @DisplayName("isDownstreamFailure - Should recognise pool, SQL and HTTP timeouts anywhere in the cause chain")
+    void isDownstreamFailure_CauseChain() {
+        // Given
+        Exception poolTimeout = new CannotCreateTransactionException("Could not open JPA EntityManager",
+                new SQLTransientConnectionException("HikariPool-1 - Connection is not available, request timed out"));
+        Exception keycloakDown = new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Erreur",
+                new IllegalStateException("RESTEASY004655", new ConnectException("Connection refused")));
+
+        // When & Then
+        assertThat(ConcurrencyLimitService.isDownstreamFailure(poolTimeout)).isTrue();
+        assertThat(ConcurrencyLimitService.isDownstreamFailure(keycloakDown)).isTrue();
+        assertThat(ConcurrencyLimitService.isDownstreamFailure(new SocketTimeoutException("Read timed out"))).isTrue();
+        assertThat(ConcurrencyLimitService.isDownstreamFailure(
+                new StorageUnavailableException("Disjoncteur ouvert", Duration.ofSeconds(5)))).isFalse();
+        assertThat(ConcurrencyLimitService.isDownstreamFailure(new IllegalStateException("bug"))).isFalse();
+    }
+
+    /**
+     * Occuper toute la limite le temps d'une fenêtre de mesure
+     */
+    private void runWindow(long latencyMillis) {
+        int concurrency = concurrencyLimitService.limit("storage");
+        for (int done = 0; done < 10; done += concurrency) {
+            List<ConcurrencyLimitService.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                permits.add(concurrencyLimitService.acquire("/images/users/a.jpg"));
+            }
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+            permits.forEach(permit -> permit.release(Outcome.SUCCESS));
+        }
+    }
+}
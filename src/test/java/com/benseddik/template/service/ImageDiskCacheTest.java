@@ -0,0 +1,132 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ImageDiskCache - Unit Tests")
+class ImageDiskCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ImageDiskCache imageDiskCache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        RustFsProperties rustFsProperties = new RustFsProperties();
+        rustFsProperties.getDiskCache().setDirectory(directory.toString());
+        rustFsProperties.getDiskCache().setMaxSize(DataSize.ofBytes(1000));
+        rustFsProperties.getDiskCache().setMaxObjectSize(DataSize.ofBytes(600));
+        meterRegistry = new SimpleMeterRegistry();
+        imageDiskCache = new ImageDiskCache(rustFsProperties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("put - Should store the image on disk and index it")
+    void put_StoresFile() throws IOException {
+        // When
+        ImageDiskCache.CachedImage image = put("users/a.jpg", 100);
+
+        // Then
+        assertThat(Files.size(image.file())).isEqualTo(100);
+        assertThat(imageDiskCache.get("users/a.jpg")).contains(image);
+        assertThat(meterRegistry.get("image.disk.cache.size.bytes").gauge().value()).isEqualTo(100.0);
+    }
+
+    @Test
+    @DisplayName("put - Should reject a truncated stream without indexing it")
+    void put_TruncatedStream_Throws() {
+        // When & Then
+        assertThatThrownBy(() -> imageDiskCache.put("users/a.jpg", new ByteArrayInputStream(new byte[10]),
+                "image/jpeg", 100, "\"e\"", Instant.now()))
+                .isInstanceOf(IOException.class);
+
+        assertThat(imageDiskCache.get("users/a.jpg")).isEmpty();
+        assertThat(directory).isEmptyDirectory();
+    }
+
+    @Test
+    @DisplayName("put - Should evict entries and delete their files beyond the byte budget")
+    void put_OverBudget_Evicts() throws IOException {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            put("users/img-" + i + ".jpg", 400);
+        }
+
+        // When
+        long cached = IntStream.range(0, 5)
+                .filter(i -> imageDiskCache.get("users/img-" + i + ".jpg").isPresent())
+                .count();
+
+        // Then
+        assertThat(cached).isLessThanOrEqualTo(2);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count()).isEqualTo(cached);
+        }
+        assertThat(meterRegistry.get("cache.evictions").tag("cache", "image.disk").functionCounter().count())
+                .isGreaterThanOrEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("invalidate - Should remove the entry and its file")
+    void invalidate_DeletesFile() throws IOException {
+        // Given
+        ImageDiskCache.CachedImage image = put("users/a.jpg", 100);
+
+        // When
+        imageDiskCache.invalidate("users/a.jpg");
+
+        // Then
+        assertThat(imageDiskCache.get("users/a.jpg")).isEmpty();
+        assertThat(image.file()).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("accepts - Should refuse images above the per-object limit")
+    void accepts_SizeLimit() {
+        assertThat(imageDiskCache.accepts(600L)).isTrue();
+        assertThat(imageDiskCache.accepts(601L)).isFalse();
+        assertThat(imageDiskCache.accepts(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("get - Should expose hits, misses and bytes served")
+    void get_RecordsMetrics() throws IOException {
+        // Given
+        put("users/a.jpg", 100);
+
+        // When
+        imageDiskCache.get("users/a.jpg");
+        imageDiskCache.get("users/unknown.jpg");
+        imageDiskCache.recordServed(100);
+
+        // Then
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "image.disk").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "image.disk").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("image.disk.cache.served").counter().count()).isEqualTo(100.0);
+    }
+
+    private ImageDiskCache.CachedImage put(String key, int size) throws IOException {
+        return imageDiskCache.put(key, new ByteArrayInputStream(new byte[size]), "image/jpeg", size,
+                "\"etag\"", Instant.parse("2025-01-15T10:30:00Z"));
+    }
+}
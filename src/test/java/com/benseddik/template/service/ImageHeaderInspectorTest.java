@@ -0,0 +1,202 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ImageHeaderInspector - Unit Tests")
+class ImageHeaderInspectorTest {
+
+    private RustFsProperties rustFsProperties;
+    private ImageHeaderInspector imageHeaderInspector;
+
+    @BeforeEach
+    void setUp() {
+        rustFsProperties = new RustFsProperties();
+        imageHeaderInspector = new ImageHeaderInspector(rustFsProperties);
+    }
+
+    @Test
+    @DisplayName("inspect - Should read PNG dimensions from IHDR")
+    void inspect_Png() throws IOException {
+        // When
+        ImageHeaderInspector.ImageInfo info = inspect(encode(new BufferedImage(320, 200, BufferedImage.TYPE_INT_RGB), "png"), "image/png");
+
+        // Then
+        assertThat(info).isEqualTo(new ImageHeaderInspector.ImageInfo(ImageHeaderInspector.ImageFormat.PNG, 320, 200));
+    }
+
+    @Test
+    @DisplayName("inspect - Should read JPEG dimensions from SOF, skipping large metadata segments")
+    void inspect_JpegWithLargeExif() throws IOException {
+        // Given : segment APP1 de 60 Ko inséré avant le SOF
+        byte[] jpeg = encode(new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB), "jpeg");
+        ByteArrayOutputStream withExif = new ByteArrayOutputStream();
+        withExif.write(jpeg, 0, 2);
+        withExif.write(new byte[]{(byte) 0xFF, (byte) 0xE1, (byte) 0xEA, 0x60});
+        withExif.write(new byte[60_000 - 2]);
+        withExif.write(jpeg, 2, jpeg.length - 2);
+
+        // When
+        ImageHeaderInspector.ImageInfo info = inspect(withExif.toByteArray(), "image/jpg");
+
+        // Then
+        assertThat(info.format()).isEqualTo(ImageHeaderInspector.ImageFormat.JPEG);
+        assertThat(info.width()).isEqualTo(640);
+        assertThat(info.height()).isEqualTo(480);
+    }
+
+    @Test
+    @DisplayName("inspect - Should read WebP VP8X canvas dimensions")
+    void inspect_WebpVp8x() throws IOException {
+        // Given
+        ByteBuffer webp = ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN);
+        webp.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(22)
+                .put("WEBP".getBytes(StandardCharsets.US_ASCII))
+                .put("VP8X".getBytes(StandardCharsets.US_ASCII)).putInt(10)
+                .putInt(0)
+                .put(new byte[]{(byte) 0x7F, 0x07, 0x00}) // 1920 - 1
+                .put(new byte[]{(byte) 0x37, 0x04, 0x00}); // 1080 - 1
+
+        // When
+        ImageHeaderInspector.ImageInfo info = inspect(webp.array(), "image/webp");
+
+        // Then
+        assertThat(info).isEqualTo(new ImageHeaderInspector.ImageInfo(ImageHeaderInspector.ImageFormat.WEBP, 1920, 1080));
+    }
+
+    @Test
+    @DisplayName("inspect - Should read HEIC dimensions from the largest ispe box")
+    void inspect_Heic() throws IOException {
+        // Given
+        byte[] ispeThumb = box("ispe", ByteBuffer.allocate(12).putInt(0).putInt(320).putInt(240).array());
+        byte[] ispeMain = box("ispe", ByteBuffer.allocate(12).putInt(0).putInt(4032).putInt(3024).array());
+        byte[] ipco = box("ipco", concat(ispeThumb, ispeMain));
+        byte[] iprp = box("iprp", ipco);
+        byte[] meta = box("meta", concat(new byte[4], box("hdlr", new byte[24]), iprp));
+        byte[] ftyp = box("ftyp", "heic\0\0\0\0mif1heic".getBytes(StandardCharsets.US_ASCII));
+
+        // When
+        ImageHeaderInspector.ImageInfo info = inspect(concat(ftyp, meta, box("mdat", new byte[16])), "image/heic");
+
+        // Then
+        assertThat(info).isEqualTo(new ImageHeaderInspector.ImageInfo(ImageHeaderInspector.ImageFormat.HEIC, 4032, 3024));
+    }
+
+    @Test
+    @DisplayName("inspect - Should reject content that does not match the declared type")
+    void inspect_DisguisedContent() throws IOException {
+        byte[] png = encode(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB), "png");
+
+        assertBadRequest(png, "image/jpeg", "ne correspond pas au type déclaré");
+        assertBadRequest("<?php system($_GET['c']); ?>".getBytes(), "image/jpeg", "Format d'image non reconnu");
+    }
+
+    @Test
+    @DisplayName("inspect - Should reject a decompression bomb from its header alone, without reading the body")
+    void inspect_DecompressionBomb() {
+        // Given : IHDR annonçant 16000 x 16000, suivi d'un corps qui ne doit jamais être lu
+        byte[] header = pngHeader(16_000, 16_000);
+        InputStream content = new SequenceInputStream(new ByteArrayInputStream(header), new InputStream() {
+            @Override
+            public int read() {
+                throw new AssertionError("Le corps de l'image ne doit pas être lu");
+            }
+        });
+
+        // When & Then
+        assertThatThrownBy(() -> imageHeaderInspector.inspect(content, "image/png"))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Image trop grande une fois décodée");
+    }
+
+    @Test
+    @DisplayName("inspect - Should reject oversize dimensions")
+    void inspect_OversizeDimensions() {
+        assertBadRequest(pngHeader(20_000, 10), "image/png", "Dimensions trop grandes");
+        assertBadRequest(pngHeader(0, 10), "image/png", "Dimensions d'image invalides");
+    }
+
+    @Test
+    @DisplayName("inspect - Should give up when dimensions are beyond the header budget")
+    void inspect_SofBeyondBudget() throws IOException {
+        // Given
+        rustFsProperties.getValidation().setMaxHeaderBytes(DataSize.ofKilobytes(4));
+        byte[] jpeg = encode(new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB), "jpeg");
+        ByteArrayOutputStream padded = new ByteArrayOutputStream();
+        padded.write(jpeg, 0, 2);
+        padded.write(new byte[]{(byte) 0xFF, (byte) 0xE1, 0x27, 0x10});
+        padded.write(new byte[10_000 - 2]);
+        padded.write(jpeg, 2, jpeg.length - 2);
+
+        // When & Then
+        assertBadRequest(padded.toByteArray(), "image/jpeg", "Impossible de lire les dimensions");
+    }
+
+    private ImageHeaderInspector.ImageInfo inspect(byte[] content, String contentType) throws IOException {
+        return imageHeaderInspector.inspect(new ByteArrayInputStream(content), contentType);
+    }
+
+    private void assertBadRequest(byte[] content, String contentType, String message) {
+        assertThatThrownBy(() -> inspect(content, contentType))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining(message)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] pngHeader(int width, int height) {
+        return ByteBuffer.allocate(33)
+                .put(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'})
+                .putInt(13)
+                .put("IHDR".getBytes(StandardCharsets.US_ASCII))
+                .putInt(width)
+                .putInt(height)
+                .put(new byte[]{8, 2, 0, 0, 0})
+                .putInt(0)
+                .array();
+    }
+
+    private static byte[] box(String type, byte[] body) {
+        return ByteBuffer.allocate(8 + body.length)
+                .putInt(8 + body.length)
+                .put(type.getBytes(StandardCharsets.US_ASCII))
+                .put(body)
+                .array();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        byte[] result = new byte[Arrays.stream(parts).mapToInt(p -> p.length).sum()];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
+}
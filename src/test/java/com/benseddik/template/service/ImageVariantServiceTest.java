@@ -0,0 +1,157 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import com.benseddik.template.service.storage.ReadConditions;
+import com.benseddik.template.service.storage.StorageBackend;
+import com.benseddik.template.service.storage.StoredObject;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ImageVariantService - Unit Tests")
+class ImageVariantServiceTest {
+
+    @Mock
+    private StorageBackend storageBackend;
+
+    @Mock
+    private ObjectExistenceCache objectExistenceCache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RustFsProperties rustFsProperties;
+    private ImageVariantService imageVariantService;
+
+    @BeforeEach
+    void setUp() {
+        rustFsProperties = new RustFsProperties();
+        rustFsProperties.setBucketName("test-bucket");
+        rustFsProperties.getVariants().setSizes(List.of(64, 256));
+        meterRegistry = new SimpleMeterRegistry();
+        imageVariantService = new ImageVariantService(storageBackend, rustFsProperties, objectExistenceCache, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("variantKey - Should build predictable keys next to the original")
+    void variantKey_Predictable() {
+        assertThat(imageVariantService.variantKey("users/abc.png", 256)).isEqualTo("users/abc_256.jpg");
+    }
+
+    @Test
+    @DisplayName("allVariantKeys - Should list every configured size, even for undecodable formats")
+    void allVariantKeys_AllSizes() {
+        assertThat(imageVariantService.allVariantKeys("users/abc.heic"))
+                .containsExactly("users/abc_64.jpg", "users/abc_256.jpg");
+    }
+
+    @Test
+    @DisplayName("scheduleVariants - Should return variant keys for decodable formats")
+    void scheduleVariants_DecodableFormat_ReturnsKeys() {
+        Map<Integer, String> keys = imageVariantService.scheduleVariants("users/abc.png", "image/png");
+
+        assertThat(keys).containsEntry(64, "users/abc_64.jpg").containsEntry(256, "users/abc_256.jpg");
+    }
+
+    @Test
+    @DisplayName("scheduleVariants - Should skip formats without decoder")
+    void scheduleVariants_UndecodableFormat_ReturnsEmpty() {
+        assertThat(imageVariantService.scheduleVariants("users/abc.heic", "image/heic")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("scheduleVariants - Should do nothing when disabled")
+    void scheduleVariants_Disabled_ReturnsEmpty() {
+        rustFsProperties.getVariants().setEnabled(false);
+
+        assertThat(imageVariantService.scheduleVariants("users/abc.png", "image/png")).isEmpty();
+        verifyNoInteractions(storageBackend);
+    }
+
+    @Test
+    @DisplayName("generateVariants - Should resize and store every variant")
+    void generateVariants_StoresResizedImages() throws IOException {
+        // Given
+        byte[] source = png(1200, 600);
+        when(storageBackend.get("users/abc.png", ReadConditions.none())).thenReturn(stored(source));
+
+        // When
+        imageVariantService.generateVariants("users/abc.png");
+
+        // Then
+        ArgumentCaptor<String> keyCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<InputStream> bodyCaptor = ArgumentCaptor.forClass(InputStream.class);
+        verify(storageBackend, times(2)).put(keyCaptor.capture(), eq("image/jpeg"), bodyCaptor.capture(), anyLong());
+
+        assertThat(keyCaptor.getAllValues()).containsExactly("users/abc_256.jpg", "users/abc_64.jpg");
+
+        BufferedImage largest = ImageIO.read(bodyCaptor.getAllValues().get(0));
+        assertThat(largest.getWidth()).isEqualTo(256);
+        assertThat(largest.getHeight()).isEqualTo(128);
+
+        assertThat(meterRegistry.get("image.variants.generated").counter().count()).isEqualTo(2.0);
+        verify(objectExistenceCache).markPresent("users/abc_256.jpg");
+        verify(objectExistenceCache).markPresent("users/abc_64.jpg");
+    }
+
+    @Test
+    @DisplayName("generateVariants - Should count failures without throwing")
+    void generateVariants_UnreadableSource_CountsFailure() throws IOException {
+        // Given
+        when(storageBackend.get("users/abc.png", ReadConditions.none())).thenReturn(stored("not an image".getBytes()));
+
+        // When
+        imageVariantService.generateVariants("users/abc.png");
+
+        // Then
+        verify(storageBackend, never()).put(anyString(), anyString(), any(InputStream.class), anyLong());
+        assertThat(meterRegistry.get("image.variants.failed").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("generateVariants - Should count a missing source as a failure")
+    void generateVariants_MissingSource_CountsFailure() throws IOException {
+        // Given
+        when(storageBackend.get("users/abc.png", ReadConditions.none())).thenReturn(Optional.empty());
+
+        // When
+        imageVariantService.generateVariants("users/abc.png");
+
+        // Then
+        verify(storageBackend, never()).put(anyString(), anyString(), any(InputStream.class), anyLong());
+        assertThat(meterRegistry.get("image.variants.failed").counter().count()).isEqualTo(1.0);
+    }
+
+    private static Optional<StoredObject> stored(byte[] content) {
+        return Optional.of(new StoredObject(new ByteArrayInputStream(content), null, 0, "image/png",
+                (long) content.length, null, "\"etag\"", null, false));
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+}
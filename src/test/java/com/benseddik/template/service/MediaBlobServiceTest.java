@@ -0,0 +1,112 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.domain.MediaBlob;
+import com.benseddik.template.repository.MediaBlobRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MediaBlobService - Unit Tests")
+class MediaBlobServiceTest {
+
+    private static final String KEY = "users/ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad.jpg";
+
+    @Mock
+    private MediaBlobRepository mediaBlobRepository;
+
+    @InjectMocks
+    private MediaBlobService mediaBlobService;
+
+    @Test
+    @DisplayName("acquire - Should create blob with one reference for new content")
+    void acquire_NewContent_CreatesBlob() {
+        // Given
+        when(mediaBlobRepository.findByObjectKeyForUpdate(KEY)).thenReturn(Optional.empty());
+
+        // When
+        boolean mustUpload = mediaBlobService.acquire(KEY, "digest", 42L);
+
+        // Then
+        assertThat(mustUpload).isTrue();
+        ArgumentCaptor<MediaBlob> blobCaptor = ArgumentCaptor.forClass(MediaBlob.class);
+        verify(mediaBlobRepository).saveAndFlush(blobCaptor.capture());
+        assertThat(blobCaptor.getValue().getRefCount()).isEqualTo(1);
+        assertThat(blobCaptor.getValue().getSizeBytes()).isEqualTo(42L);
+        assertThat(blobCaptor.getValue().getStored()).isFalse();
+    }
+
+    @Test
+    @DisplayName("acquire - Should increment reference count for known content")
+    void acquire_KnownContent_IncrementsRefCount() {
+        // Given
+        MediaBlob blob = MediaBlob.builder().objectKey(KEY).refCount(2).stored(true).build();
+        when(mediaBlobRepository.findByObjectKeyForUpdate(KEY)).thenReturn(Optional.of(blob));
+
+        // When
+        boolean mustUpload = mediaBlobService.acquire(KEY, "digest", 42L);
+
+        // Then
+        assertThat(mustUpload).isFalse();
+        assertThat(blob.getRefCount()).isEqualTo(3);
+        verify(mediaBlobRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("acquire - Should require its own PUT while the first upload of the content is pending")
+    void acquire_PendingContent_MustUpload() {
+        // Given : premier upload du même contenu pas encore terminé
+        MediaBlob blob = MediaBlob.builder().objectKey(KEY).refCount(1).stored(false).build();
+        when(mediaBlobRepository.findByObjectKeyForUpdate(KEY)).thenReturn(Optional.of(blob));
+
+        // When
+        boolean mustUpload = mediaBlobService.acquire(KEY, "digest", 42L);
+
+        // Then
+        assertThat(mustUpload).isTrue();
+        assertThat(blob.getRefCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("release - Should keep blob while other references remain")
+    void release_OtherReferences_StillReferenced() {
+        // Given
+        MediaBlob blob = MediaBlob.builder().objectKey(KEY).refCount(2).build();
+        when(mediaBlobRepository.findByObjectKeyForUpdate(KEY)).thenReturn(Optional.of(blob));
+
+        // When & Then
+        assertThat(mediaBlobService.release(KEY)).isEqualTo(MediaBlobService.ReleaseResult.STILL_REFERENCED);
+        assertThat(blob.getRefCount()).isEqualTo(1);
+        verify(mediaBlobRepository, never()).delete(any());
+    }
+
+    @Test
+    @DisplayName("release - Should delete blob on last reference")
+    void release_LastReference_Unreferenced() {
+        // Given
+        MediaBlob blob = MediaBlob.builder().objectKey(KEY).refCount(1).build();
+        when(mediaBlobRepository.findByObjectKeyForUpdate(KEY)).thenReturn(Optional.of(blob));
+
+        // When & Then
+        assertThat(mediaBlobService.release(KEY)).isEqualTo(MediaBlobService.ReleaseResult.UNREFERENCED);
+        verify(mediaBlobRepository).delete(blob);
+    }
+
+    @Test
+    @DisplayName("release - Should report untracked objects")
+    void release_Unknown_Untracked() {
+        when(mediaBlobRepository.findByObjectKeyForUpdate(KEY)).thenReturn(Optional.empty());
+
+        assertThat(mediaBlobService.release(KEY)).isEqualTo(MediaBlobService.ReleaseResult.UNTRACKED);
+    }
+}
@@ -0,0 +1,148 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.domain.Media;
+import com.benseddik.template.domain.enums.MediaEntityType;
+import com.benseddik.template.repository.MediaRepository;
+import com.benseddik.template.service.dto.MediaPageResponse;
+import com.benseddik.template.service.storage.StorageBackend;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MediaService - Unit Tests")
+class MediaServiceTest {
+
+    @Mock
+    private MediaRepository mediaRepository;
+
+    @Mock
+    private StorageBackend storageBackend;
+
+    @Mock
+    private UploadQuotaService uploadQuotaService;
+
+    @Mock
+    private MediaBlobService mediaBlobService;
+
+    @InjectMocks
+    private MediaService mediaService;
+
+    @Test
+    @DisplayName("record - Should attach profile photos to their owner")
+    void record_UserFolder_SetsEntity() {
+        // Given
+        ImageHeaderInspector.ImageInfo imageInfo =
+                new ImageHeaderInspector.ImageInfo(ImageHeaderInspector.ImageFormat.PNG, 640, 480);
+
+        // When
+        mediaService.record("subject-1", "users/a.png", 42L, "image/png", imageInfo, "digest");
+
+        // Then
+        ArgumentCaptor<Media> mediaCaptor = ArgumentCaptor.forClass(Media.class);
+        verify(mediaRepository).save(mediaCaptor.capture());
+        Media media = mediaCaptor.getValue();
+        assertThat(media.getEntityType()).isEqualTo(MediaEntityType.USER);
+        assertThat(media.getEntityId()).isEqualTo("subject-1");
+        assertThat(media.getWidth()).isEqualTo(640);
+        assertThat(media.getHeight()).isEqualTo(480);
+        assertThat(media.getDigest()).isEqualTo("digest");
+        verify(uploadQuotaService).recordUpload("subject-1", 42L);
+    }
+
+    @Test
+    @DisplayName("removeOne - Should only remove the owner's most recent row of a shared object")
+    void removeOne_DeletesOwnersLatestRow() {
+        // Given
+        Media latest = Media.builder().ownerId("subject-1").objectKey("users/a.png").sizeBytes(42L).build();
+        when(mediaRepository.findFirstByObjectKeyAndOwnerIdOrderByCreatedDateDesc("users/a.png", "subject-1"))
+                .thenReturn(Optional.of(latest));
+
+        // When
+        boolean removed = mediaService.removeOne("users/a.png", "subject-1");
+
+        // Then
+        assertThat(removed).isTrue();
+        assertThat(mediaService.removeOne("users/a.png", "subject-2")).isFalse();
+        verify(mediaRepository).delete(latest);
+        verify(uploadQuotaService).recordRemoval("subject-1", 42L);
+        verify(mediaRepository, never()).deleteByObjectKey(any());
+    }
+
+    @Test
+    @DisplayName("removeOwner - Should release shared content references before deleting the owner's rows")
+    void removeOwner_ReleasesBlobReferences() {
+        // Given
+        when(mediaRepository.findContentAddressedKeysByOwnerId("subject-1"))
+                .thenReturn(List.of("users/a.png", "walks/b.jpg"));
+        when(mediaRepository.deleteByOwnerId("subject-1")).thenReturn(3);
+
+        // When
+        mediaService.removeOwner("subject-1");
+
+        // Then
+        InOrder order = inOrder(mediaBlobService, mediaRepository);
+        order.verify(mediaBlobService).release("users/a.png");
+        order.verify(mediaBlobService).release("walks/b.jpg");
+        order.verify(mediaRepository).deleteByOwnerId("subject-1");
+        verify(uploadQuotaService).forgetOwner("subject-1");
+    }
+
+    @Test
+    @DisplayName("listForOwner - Should map the page and the total size")
+    void listForOwner_MapsPage() {
+        // Given
+        Media media = Media.builder()
+                .ownerId("subject-1")
+                .entityType(MediaEntityType.USER)
+                .objectKey("users/a.png")
+                .sizeBytes(42L)
+                .mimeType("image/png")
+                .build();
+        Pageable pageable = PageRequest.of(1, 1, Sort.by(Sort.Direction.DESC, "createdDate"));
+        when(mediaRepository.findByOwnerId("subject-1", pageable)).thenReturn(new PageImpl<>(List.of(media), pageable, 3));
+        when(mediaRepository.sumSizeBytesByOwnerId("subject-1")).thenReturn(126L);
+        when(storageBackend.publicUrl("users/a.png")).thenReturn("https://s3.example.com/bucket/users/a.png");
+
+        // When
+        MediaPageResponse response = mediaService.listForOwner("subject-1", 1, 1);
+
+        // Then
+        assertThat(response.getItems()).singleElement()
+                .satisfies(item -> assertThat(item.getImageUrl()).isEqualTo("https://s3.example.com/bucket/users/a.png"));
+        assertThat(response.getTotalElements()).isEqualTo(3);
+        assertThat(response.getTotalPages()).isEqualTo(3);
+        assertThat(response.getTotalSizeBytes()).isEqualTo(126L);
+    }
+
+    @Test
+    @DisplayName("listForOwner - Should reject an out-of-range page size")
+    void listForOwner_InvalidSize_BadRequest() {
+        // When & Then
+        assertThatThrownBy(() -> mediaService.listForOwner("subject-1", 0, 101))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+
+        verifyNoInteractions(mediaRepository);
+    }
+}
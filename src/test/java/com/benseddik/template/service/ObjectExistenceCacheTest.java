@@ -0,0 +1,66 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ObjectExistenceCache - Unit Tests")
+class ObjectExistenceCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ObjectExistenceCache objectExistenceCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        objectExistenceCache = new ObjectExistenceCache(new RustFsProperties(), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("lookup - Should remember present and absent keys")
+    void lookup_KnownKeys() {
+        // Given
+        objectExistenceCache.markPresent("users/a.jpg");
+        objectExistenceCache.markAbsent("users/b.jpg");
+
+        // When & Then
+        assertThat(objectExistenceCache.lookup("users/a.jpg")).contains(true);
+        assertThat(objectExistenceCache.lookup("users/b.jpg")).contains(false);
+        assertThat(objectExistenceCache.lookup("users/c.jpg")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("lookup - Should expose hit and miss counts")
+    void lookup_RecordsHitAndMissMetrics() {
+        // Given
+        objectExistenceCache.markPresent("users/a.jpg");
+
+        // When
+        objectExistenceCache.lookup("users/a.jpg");
+        objectExistenceCache.lookup("users/a.jpg");
+        objectExistenceCache.lookup("users/unknown.jpg");
+
+        // Then
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "rustfs.object.existence")
+                .tag("result", "hit").functionCounter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "rustfs.object.existence")
+                .tag("result", "miss").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("markAbsent - Should override a previously present key after deletion")
+    void markAbsent_OverridesPresent() {
+        // Given
+        objectExistenceCache.markPresent("users/a.jpg");
+
+        // When
+        objectExistenceCache.markAbsent("users/a.jpg");
+
+        // Then
+        assertThat(objectExistenceCache.lookup("users/a.jpg")).contains(false);
+    }
+}
@@ -0,0 +1,153 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import com.benseddik.template.repository.AppUserRepository;
+import com.benseddik.template.repository.MediaBlobRepository;
+import com.benseddik.template.repository.MediaRepository;
+import com.benseddik.template.service.storage.InMemoryStorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrphanImageCollector - Unit Tests")
+class OrphanImageCollectorTest {
+
+    @Mock
+    private AppUserRepository appUserRepository;
+
+    @Mock
+    private MediaBlobRepository mediaBlobRepository;
+
+    @Mock
+    private MediaRepository mediaRepository;
+
+    @Mock
+    private ObjectExistenceCache objectExistenceCache;
+
+    @Mock
+    private ImageDiskCache imageDiskCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RustFsProperties rustFsProperties;
+    private InMemoryStorageBackend storageBackend;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        rustFsProperties = new RustFsProperties();
+        rustFsProperties.getVariants().setSizes(List.of(64, 256));
+        storageBackend = new InMemoryStorageBackend(rustFsProperties);
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(mediaBlobRepository.streamObjectKeys()).thenReturn(Stream.empty());
+        lenient().when(mediaBlobRepository.findExistingObjectKeys(anyCollection())).thenReturn(List.of());
+        lenient().when(mediaRepository.streamObjectKeys()).thenReturn(Stream.empty());
+    }
+
+    @Test
+    @DisplayName("collect - Should delete unreferenced originals with their variants and keep referenced ones")
+    void collect_DeletesOrphansAndVariants() throws IOException {
+        // Given
+        store("users/kept.jpg", "users/kept_64.jpg", "users/orphan.png", "users/orphan_256.jpg", "users/hashed.jpg");
+        when(appUserRepository.streamPhotoUrls()).thenReturn(Stream.of(
+                "https://s3.example.com/bucket/users/kept.jpg?v=2",
+                "https://s3.example.com/bucket/3f/users/hashed.jpg"));
+
+        // When
+        OrphanImageCollector.Report report = collector(Duration.ofDays(2)).collect();
+
+        // Then
+        assertThat(report).isEqualTo(new OrphanImageCollector.Report(5, 2, 2, 0, false));
+        assertThat(storageBackend.head("users/kept.jpg")).isPresent();
+        assertThat(storageBackend.head("users/kept_64.jpg")).isPresent();
+        assertThat(storageBackend.head("users/hashed.jpg")).isPresent();
+        assertThat(storageBackend.head("users/orphan.png")).isEmpty();
+        assertThat(storageBackend.head("users/orphan_256.jpg")).isEmpty();
+        verify(objectExistenceCache).markAbsent("users/orphan.png");
+        verify(imageDiskCache).invalidate("users/orphan_256.jpg");
+        assertThat(meterRegistry.get("rustfs.gc.deleted").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("collect - Should keep objects younger than the grace period")
+    void collect_RecentObjects_Kept() throws IOException {
+        // Given
+        store("users/fresh.jpg");
+        when(appUserRepository.streamPhotoUrls()).thenReturn(Stream.empty());
+
+        // When
+        OrphanImageCollector.Report report = collector(Duration.ofHours(1)).collect();
+
+        // Then
+        assertThat(report.orphans()).isZero();
+        assertThat(storageBackend.head("users/fresh.jpg")).isPresent();
+    }
+
+    @Test
+    @DisplayName("collect - Should only count orphans in dry-run mode")
+    void collect_DryRun_DeletesNothing() throws IOException {
+        // Given
+        rustFsProperties.getGc().setDryRun(true);
+        store("users/orphan.jpg");
+        when(appUserRepository.streamPhotoUrls()).thenReturn(Stream.empty());
+
+        // When
+        OrphanImageCollector.Report report = collector(Duration.ofDays(2)).collect();
+
+        // Then
+        assertThat(report).isEqualTo(new OrphanImageCollector.Report(1, 1, 0, 0, true));
+        assertThat(storageBackend.head("users/orphan.jpg")).isPresent();
+        assertThat(meterRegistry.get("rustfs.gc.orphans").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("collect - Should keep deduplicated content referenced again during the run")
+    void collect_ContentReferencedDuringRun_Kept() throws IOException {
+        // Given
+        store("users/abc.jpg");
+        when(appUserRepository.streamPhotoUrls()).thenReturn(Stream.empty());
+        when(mediaBlobRepository.findExistingObjectKeys(anyCollection())).thenReturn(List.of("users/abc.jpg"));
+
+        // When
+        OrphanImageCollector.Report report = collector(Duration.ofDays(2)).collect();
+
+        // Then
+        assertThat(report.orphans()).isEqualTo(1);
+        assertThat(report.deleted()).isZero();
+        assertThat(storageBackend.head("users/abc.jpg")).isPresent();
+    }
+
+    private OrphanImageCollector collector(Duration elapsed) {
+        Clock clock = Clock.fixed(Instant.now().plus(elapsed), ZoneOffset.UTC);
+        return new OrphanImageCollector(storageBackend, appUserRepository, mediaBlobRepository, mediaRepository,
+                objectExistenceCache, imageDiskCache, rustFsProperties, transactionManager, meterRegistry, clock);
+    }
+
+    private void store(String... keys) throws IOException {
+        for (String key : keys) {
+            storageBackend.put(key, "image/jpeg", new ByteArrayInputStream(new byte[]{1, 2, 3}), 3);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import com.benseddik.template.service.storage.StorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ResumableUploadRegistry - Unit Tests")
+class ResumableUploadRegistryTest {
+
+    @Mock
+    private StorageBackend storageBackend;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ResumableUploadRegistry registry;
+    private final List<ResumableUploadRegistry.Session> opened = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        RustFsProperties properties = new RustFsProperties();
+        properties.getUpload().setResumableMaxSessions(3);
+        properties.getUpload().setResumableMaxSessionsPerUser(2);
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new ResumableUploadRegistry(storageBackend, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(registry::close);
+    }
+
+    @Test
+    @DisplayName("open - Should refuse a new session per user (429) and when full (503) without evicting live ones")
+    void open_Full_RefusesNewSessions() throws IOException {
+        // Given
+        ResumableUploadRegistry.Session first = open("subject-1");
+        open("subject-1");
+
+        // When & Then
+        assertThatThrownBy(() -> open("subject-1"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        open("subject-2");
+        assertThatThrownBy(() -> open("subject-3"))
+                .isInstanceOfSatisfying(UploadAdmissionRejectedException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("60");
+                });
+
+        assertThat(registry.find(first.getUploadId(), "subject-1")).contains(first);
+        assertThat(first.getSpoolFile()).exists();
+        verify(storageBackend, never()).abortMultipart(any(), any());
+        assertThat(meterRegistry.get("rustfs.resumable.rejected").counter().count()).isEqualTo(2.0);
+
+        // Une session finalisée libère sa place
+        registry.close(first);
+        opened.remove(first);
+        open("subject-3");
+    }
+
+    private ResumableUploadRegistry.Session open(String requestedBy) throws IOException {
+        ResumableUploadRegistry.Session session = registry.open("users/a.jpg", "users", "a.jpg", "a.jpg",
+                "image/jpeg", 1_000, requestedBy);
+        opened.add(session);
+        return session;
+    }
+}
@@ -1,26 +1,71 @@
 package com.benseddik.template.service;
 
 import com.benseddik.template.config.RustFsProperties;
+import com.benseddik.template.service.dto.AsyncUploadStatusResponse;
+import com.benseddik.template.service.dto.BatchDeleteResponse;
+import com.benseddik.template.service.dto.ImageDownload;
 import com.benseddik.template.service.dto.ImageUploadResponse;
+import com.benseddik.template.service.dto.PresignedUploadRequest;
+import com.benseddik.template.service.dto.PresignedUploadResponse;
+import com.benseddik.template.service.dto.ResumableUploadRequest;
+import com.benseddik.template.service.dto.ResumableUploadResponse;
+import com.benseddik.template.service.storage.S3StorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.http.SdkHttpRequest;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,20 +75,80 @@ class RustFsServiceTest {
     @Mock
     private S3Client s3Client;
 
+    @Mock
+    private S3AsyncClient s3AsyncClient;
+
     @Mock
     private RustFsProperties rustFsProperties;
 
+    @Mock
+    private AsyncUploadTracker asyncUploadTracker;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
+    @Mock
+    private MediaBlobService mediaBlobService;
+
+    @Mock
+    private MediaService mediaService;
+
+    @Mock
+    private UploadQuotaService uploadQuotaService;
+
+    @Mock
+    private S3Presigner s3Presigner;
+
+    @Mock
+    private PresignedUploadRegistry presignedUploadRegistry;
+
+    @Mock
+    private ObjectExistenceCache objectExistenceCache;
+
+    @Mock
+    private ImageDiskCache imageDiskCache;
+
+    @Mock
+    private ImageHeaderInspector imageHeaderInspector;
+
     @Mock
     private Authentication authentication;
 
-    @InjectMocks
+    // Instance réelle, sans nouvelle tentative : la résilience est testée dans StorageResilienceTest
+    @Spy
+    private StorageResilience storageResilience = new StorageResilience(propertiesWithoutRetries(), new SimpleMeterRegistry());
+
+    @TempDir
+    Path tempDir;
+
     private RustFsService rustFsService;
+    private ResumableUploadRegistry resumableUploadRegistry;
+
+    private static RustFsProperties propertiesWithoutRetries() {
+        RustFsProperties properties = new RustFsProperties();
+        properties.getResilience().setMaxRetries(0);
+        return properties;
+    }
 
     @BeforeEach
-    void setUp() {
-        when(rustFsProperties.getBucketName()).thenReturn("test-bucket");
-        when(rustFsProperties.getEndpoint()).thenReturn("https://s3.example.com");
-        when(authentication.getName()).thenReturn("testuser");
+    void setUp() throws IOException {
+        lenient().when(rustFsProperties.getBucketName()).thenReturn("test-bucket");
+        lenient().when(rustFsProperties.getEndpoint()).thenReturn("https://s3.example.com");
+        lenient().when(authentication.getName()).thenReturn("testuser");
+        lenient().when(rustFsProperties.getUpload()).thenReturn(new RustFsProperties.Upload());
+        lenient().when(rustFsProperties.getStorage()).thenReturn(new RustFsProperties.Storage());
+        lenient().when(rustFsProperties.getDelete()).thenReturn(new RustFsProperties.Delete());
+        lenient().when(uploadQuotaService.reserve(any(), anyLong())).thenReturn(UploadQuotaService.Reservation.NONE);
+        lenient().when(imageHeaderInspector.inspect(any(), any()))
+                .thenReturn(new ImageHeaderInspector.ImageInfo(ImageHeaderInspector.ImageFormat.JPEG, 800, 600));
+
+        // Stockage S3 réel au-dessus des clients simulés : les requêtes S3 restent vérifiables
+        S3StorageBackend storageBackend = new S3StorageBackend(
+                s3Client, s3AsyncClient, s3Presigner, rustFsProperties, storageResilience);
+        resumableUploadRegistry = new ResumableUploadRegistry(storageBackend, rustFsProperties, new SimpleMeterRegistry());
+        rustFsService = new RustFsService(storageBackend, rustFsProperties, asyncUploadTracker, imageVariantService,
+                mediaBlobService, mediaService, uploadQuotaService, presignedUploadRegistry, resumableUploadRegistry,
+                objectExistenceCache, imageDiskCache, imageHeaderInspector);
     }
 
     @Test
@@ -82,6 +187,299 @@ class RustFsServiceTest {
         assertThat(capturedRequest.bucket()).isEqualTo("test-bucket");
         assertThat(capturedRequest.key()).startsWith("users/");
         assertThat(capturedRequest.contentType()).isEqualTo("image/jpeg");
+        verify(objectExistenceCache).markPresent(capturedRequest.key());
+    }
+
+    @Test
+    @DisplayName("uploadFile - Content-addressed mode should key objects by SHA-256")
+    void uploadFile_ContentAddressed_NewContent_Uploads() {
+        // Given
+        RustFsProperties.Upload upload = new RustFsProperties.Upload();
+        upload.setContentAddressed(true);
+        when(rustFsProperties.getUpload()).thenReturn(upload);
+
+        MultipartFile file = new MockMultipartFile("file", "test-image.jpg", "image/jpeg", "abc".getBytes());
+        String digest = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        when(mediaBlobService.acquire("users/" + digest + ".jpg", digest, 3L)).thenReturn(true);
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+
+        // When
+        ImageUploadResponse response = rustFsService.uploadFile(file, "users", authentication);
+
+        // Then
+        assertThat(response.getGeneratedFilename()).isEqualTo(digest + ".jpg");
+        ArgumentCaptor<PutObjectRequest> requestCaptor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client).putObject(requestCaptor.capture(), any(RequestBody.class));
+        assertThat(requestCaptor.getValue().key()).isEqualTo("users/" + digest + ".jpg");
+        verify(mediaService).record(eq("testuser"), eq("users/" + digest + ".jpg"), eq(3L), eq("image/jpeg"),
+                any(ImageHeaderInspector.ImageInfo.class), eq(digest));
+        verify(mediaBlobService).markStored("users/" + digest + ".jpg");
+    }
+
+    @Test
+    @DisplayName("uploadFile - Content-addressed mode should skip PUT for known content")
+    void uploadFile_ContentAddressed_KnownContent_SkipsPut() {
+        // Given
+        RustFsProperties.Upload upload = new RustFsProperties.Upload();
+        upload.setContentAddressed(true);
+        when(rustFsProperties.getUpload()).thenReturn(upload);
+
+        MultipartFile file = new MockMultipartFile("file", "test-image.jpg", "image/jpeg", "abc".getBytes());
+        when(mediaBlobService.acquire(any(), any(), anyLong())).thenReturn(false);
+
+        // When
+        ImageUploadResponse response = rustFsService.uploadFile(file, "users", authentication);
+
+        // Then
+        assertThat(response.getImageUrl()).endsWith(".jpg");
+        verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(imageVariantService, never()).scheduleVariants(any(), any());
+    }
+
+    @Test
+    @DisplayName("uploadFile - Content-addressed mode should release reference when upload fails")
+    void uploadFile_ContentAddressed_UploadFails_ReleasesReference() {
+        // Given
+        RustFsProperties.Upload upload = new RustFsProperties.Upload();
+        upload.setContentAddressed(true);
+        when(rustFsProperties.getUpload()).thenReturn(upload);
+
+        MultipartFile file = new MockMultipartFile("file", "test-image.jpg", "image/jpeg", "abc".getBytes());
+        when(mediaBlobService.acquire(any(), any(), anyLong())).thenReturn(true);
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenThrow(S3Exception.builder()
+                        .awsErrorDetails(AwsErrorDetails.builder().errorMessage("Internal error").build())
+                        .build());
+
+        // When & Then
+        assertThatThrownBy(() -> rustFsService.uploadFile(file, "users", authentication))
+                .isInstanceOf(ResponseStatusException.class);
+        verify(mediaBlobService).release(startsWith("users/"));
+        verify(mediaBlobService, never()).markStored(any());
+    }
+
+    @Test
+    @DisplayName("deleteFile - Content-addressed object still referenced should be kept")
+    void deleteFile_ContentAddressed_StillReferenced_KeepsObject() {
+        // Given
+        RustFsProperties.Upload upload = new RustFsProperties.Upload();
+        upload.setContentAddressed(true);
+        when(rustFsProperties.getUpload()).thenReturn(upload);
+        String filename = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad.jpg";
+        when(mediaService.removeOne("users/" + filename, "testuser")).thenReturn(true);
+        when(mediaBlobService.release("users/" + filename))
+                .thenReturn(MediaBlobService.ReleaseResult.STILL_REFERENCED);
+
+        // When
+        rustFsService.deleteFile("users", filename, authentication);
+
+        // Then
+        verify(s3Client, never()).deleteObject(any(DeleteObjectRequest.class));
+        verify(mediaService).removeOne("users/" + filename, "testuser");
+        verify(mediaService, never()).removeAll(any());
+    }
+
+    @Test
+    @DisplayName("deleteFile - Should refuse to release another user's reference to shared content")
+    void deleteFile_ContentAddressed_OtherUsersContent_Forbidden() {
+        // Given
+        RustFsProperties.Upload upload = new RustFsProperties.Upload();
+        upload.setContentAddressed(true);
+        when(rustFsProperties.getUpload()).thenReturn(upload);
+        String filename = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad.jpg";
+        when(mediaService.removeOne("users/" + filename, "testuser")).thenReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> rustFsService.deleteFile("users", filename, authentication))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(ex -> ((ResponseStatusException) ex).getStatusCode())
+                .isEqualTo(HttpStatus.FORBIDDEN);
+        verify(mediaBlobService, never()).release(any());
+        verify(s3Client, never()).deleteObject(any(DeleteObjectRequest.class));
+    }
+
+    @Test
+    @DisplayName("uploadFile - Should switch to multipart upload above threshold")
+    void uploadFile_AboveThreshold_UsesMultipartUpload() {
+        // Given
+        RustFsProperties.Upload upload = new RustFsProperties.Upload();
+        upload.setMultipartThreshold(DataSize.ofBytes(16));
+        upload.setPartSize(DataSize.ofBytes(10));
+        when(rustFsProperties.getUpload()).thenReturn(upload);
+
+        byte[] fileContent = "0123456789abcdefghijklmnopqrstuvwxyz".getBytes(); // 36 bytes -> 4 parts
+        MultipartFile file = new MockMultipartFile("file", "big.jpg", "image/jpeg", fileContent);
+
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+        when(s3Client.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+                .thenReturn(CompleteMultipartUploadResponse.builder().build());
+
+        // When
+        ImageUploadResponse response = rustFsService.uploadFile(file, "users", authentication);
+
+        // Then
+        assertThat(response.getSizeBytes()).isEqualTo(fileContent.length);
+
+        ArgumentCaptor<UploadPartRequest> partCaptor = ArgumentCaptor.forClass(UploadPartRequest.class);
+        verify(s3Client, times(4)).uploadPart(partCaptor.capture(), any(RequestBody.class));
+        assertThat(partCaptor.getAllValues())
+                .extracting(UploadPartRequest::contentLength)
+                .containsExactly(10L, 10L, 10L, 6L);
+        assertThat(partCaptor.getAllValues())
+                .extracting(UploadPartRequest::partNumber)
+                .containsExactly(1, 2, 3, 4);
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> completeCaptor =
+                ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3Client).completeMultipartUpload(completeCaptor.capture());
+        assertThat(completeCaptor.getValue().uploadId()).isEqualTo("upload-1");
+        assertThat(completeCaptor.getValue().multipartUpload().parts()).hasSize(4);
+
+        verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+    }
+
+    @Test
+    @DisplayName("uploadFile - Should abort multipart upload when a part fails")
+    void uploadFile_MultipartPartFails_AbortsUpload() {
+        // Given
+        RustFsProperties.Upload upload = new RustFsProperties.Upload();
+        upload.setMultipartThreshold(DataSize.ofBytes(16));
+        upload.setPartSize(DataSize.ofBytes(10));
+        when(rustFsProperties.getUpload()).thenReturn(upload);
+
+        MultipartFile file = new MockMultipartFile("file", "big.jpg", "image/jpeg", new byte[32]);
+
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenThrow(S3Exception.builder()
+                        .awsErrorDetails(AwsErrorDetails.builder().errorMessage("Slow down").build())
+                        .build());
+
+        // When & Then
+        assertThatThrownBy(() -> rustFsService.uploadFile(file, "users", authentication))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Slow down");
+
+        ArgumentCaptor<AbortMultipartUploadRequest> abortCaptor =
+                ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+        verify(s3Client).abortMultipartUpload(abortCaptor.capture());
+        assertThat(abortCaptor.getValue().uploadId()).isEqualTo("upload-1");
+        verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    @DisplayName("uploadFileAsync - Should return pending status and complete when RustFS answers")
+    void uploadFileAsync_Success() {
+        // Given
+        MultipartFile file = new MockMultipartFile("file", "test-image.jpg", "image/jpeg", "content".getBytes());
+        AsyncUploadStatusResponse pending = AsyncUploadStatusResponse.builder()
+                .uploadId("upload-1")
+                .status(AsyncUploadStatusResponse.Status.PENDING)
+                .uploadedBy("testuser")
+                .build();
+        CompletableFuture<PutObjectResponse> transfer = new CompletableFuture<>();
+
+        when(asyncUploadTracker.start("testuser")).thenReturn(pending);
+        when(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class))).thenReturn(transfer);
+
+        // When
+        AsyncUploadStatusResponse response = rustFsService.uploadFileAsync(file, "users", authentication);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(AsyncUploadStatusResponse.Status.PENDING);
+        verify(asyncUploadTracker, never()).complete(any(), any());
+
+        transfer.complete(PutObjectResponse.builder().build());
+
+        ArgumentCaptor<ImageUploadResponse> resultCaptor = ArgumentCaptor.forClass(ImageUploadResponse.class);
+        verify(asyncUploadTracker).complete(eq("upload-1"), resultCaptor.capture());
+        assertThat(resultCaptor.getValue().getImageUrl()).startsWith("https://s3.example.com/test-bucket/users/");
+        assertThat(resultCaptor.getValue().getSizeBytes()).isEqualTo(7L);
+        verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+    }
+
+    @Test
+    @DisplayName("uploadFileAsync - Should mark upload as failed when RustFS fails")
+    void uploadFileAsync_Failure() {
+        // Given
+        MultipartFile file = new MockMultipartFile("file", "test-image.jpg", "image/jpeg", "content".getBytes());
+        AsyncUploadStatusResponse pending = AsyncUploadStatusResponse.builder()
+                .uploadId("upload-1")
+                .status(AsyncUploadStatusResponse.Status.PENDING)
+                .build();
+
+        UploadQuotaService.Reservation reservation = mock(UploadQuotaService.Reservation.class);
+
+        when(uploadQuotaService.reserve("testuser", 7L)).thenReturn(reservation);
+        when(asyncUploadTracker.start("testuser")).thenReturn(pending);
+        when(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Connection reset")));
+
+        // When
+        rustFsService.uploadFileAsync(file, "users", authentication);
+
+        // Then
+        verify(asyncUploadTracker).fail(eq("upload-1"), contains("Connection reset"));
+        verify(asyncUploadTracker, never()).complete(any(), any());
+        verify(reservation).release();
+    }
+
+    @Test
+    @DisplayName("uploadFileAsync - Should delete the spool file when the multipart copy fails")
+    void uploadFileAsync_SpoolCopyFails_DeletesSpoolFile() {
+        // Given
+        SpoolingMultipartFile file = new SpoolingMultipartFile(new IOException("Disque plein"));
+
+        // When & Then
+        assertThatThrownBy(() -> rustFsService.uploadFileAsync(file, "users", authentication))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Disque plein");
+        assertThat(file.destination).isNotNull().doesNotExist();
+        verify(asyncUploadTracker, never()).start(any());
+        verify(s3AsyncClient, never()).putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class));
+    }
+
+    @Test
+    @DisplayName("uploadFileAsync - Should delete the spool file and fail the tracker when submission throws")
+    void uploadFileAsync_SubmissionThrows_FailsTracker() {
+        // Given
+        SpoolingMultipartFile file = new SpoolingMultipartFile(null);
+        AsyncUploadStatusResponse pending = AsyncUploadStatusResponse.builder()
+                .uploadId("upload-1")
+                .status(AsyncUploadStatusResponse.Status.PENDING)
+                .build();
+
+        when(asyncUploadTracker.start("testuser")).thenReturn(pending);
+        doThrow(new StorageUnavailableException("RustFS est momentanément indisponible", Duration.ofSeconds(5)))
+                .when(storageResilience).executeAsync(eq(StorageResilience.Operation.WRITE), any());
+
+        // When & Then
+        assertThatThrownBy(() -> rustFsService.uploadFileAsync(file, "users", authentication))
+                .isInstanceOf(StorageUnavailableException.class);
+        assertThat(file.destination).isNotNull().doesNotExist();
+        verify(asyncUploadTracker).fail(eq("upload-1"), contains("indisponible"));
+        verify(asyncUploadTracker, never()).complete(any(), any());
+    }
+
+    @Test
+    @DisplayName("getAsyncUploadStatus - Should hide uploads of other users")
+    void getAsyncUploadStatus_OtherUser_ThrowsNotFound() {
+        // Given
+        when(asyncUploadTracker.find("upload-1")).thenReturn(Optional.of(AsyncUploadStatusResponse.builder()
+                .uploadId("upload-1")
+                .uploadedBy("someone-else")
+                .build()));
+
+        // When & Then
+        assertThatThrownBy(() -> rustFsService.getAsyncUploadStatus("upload-1", authentication))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(ex -> ((ResponseStatusException) ex).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
     }
 
     @Test
@@ -226,13 +624,11 @@ class RustFsServiceTest {
         String folder = "users";
         String filename = "test-123.jpg";
 
-        when(s3Client.headObject(any(HeadObjectRequest.class)))
-                .thenReturn(HeadObjectResponse.builder().build());
         when(s3Client.deleteObject(any(DeleteObjectRequest.class)))
                 .thenReturn(DeleteObjectResponse.builder().build());
 
         // When
-        rustFsService.deleteFile(folder, filename);
+        rustFsService.deleteFile(folder, filename, authentication);
 
         // Then
         ArgumentCaptor<DeleteObjectRequest> requestCaptor = ArgumentCaptor.forClass(DeleteObjectRequest.class);
@@ -241,6 +637,9 @@ class RustFsServiceTest {
         DeleteObjectRequest capturedRequest = requestCaptor.getValue();
         assertThat(capturedRequest.bucket()).isEqualTo("test-bucket");
         assertThat(capturedRequest.key()).isEqualTo("users/test-123.jpg");
+        verify(imageVariantService).deleteVariants("users/test-123.jpg");
+        verify(s3Client, never()).headObject(any(HeadObjectRequest.class));
+        verify(objectExistenceCache).markAbsent("users/test-123.jpg");
     }
 
     @Test
@@ -250,24 +649,24 @@ class RustFsServiceTest {
         String folder = "users";
         String filename = "non-existent.jpg";
 
-        when(s3Client.headObject(any(HeadObjectRequest.class)))
-                .thenThrow(NoSuchKeyException.builder().message("Key not found").build());
+        when(objectExistenceCache.lookup("users/non-existent.jpg")).thenReturn(Optional.of(false));
 
         // When & Then
-        assertThatThrownBy(() -> rustFsService.deleteFile(folder, filename))
+        assertThatThrownBy(() -> rustFsService.deleteFile(folder, filename, authentication))
                 .isInstanceOf(ResponseStatusException.class)
                 .hasMessageContaining("Fichier non trouvé")
                 .extracting(ex -> ((ResponseStatusException) ex).getStatusCode())
                 .isEqualTo(HttpStatus.NOT_FOUND);
 
         verify(s3Client, never()).deleteObject(any(DeleteObjectRequest.class));
+        verify(s3Client, never()).headObject(any(HeadObjectRequest.class));
     }
 
     @Test
     @DisplayName("deleteFile - Should throw exception when folder is null")
     void deleteFile_NullFolder_ThrowsException() {
         // When & Then
-        assertThatThrownBy(() -> rustFsService.deleteFile(null, "test.jpg"))
+        assertThatThrownBy(() -> rustFsService.deleteFile(null, "test.jpg", authentication))
                 .isInstanceOf(ResponseStatusException.class)
                 .hasMessageContaining("Folder et filename sont obligatoires")
                 .extracting(ex -> ((ResponseStatusException) ex).getStatusCode())
@@ -280,7 +679,7 @@ class RustFsServiceTest {
     @DisplayName("deleteFile - Should throw exception when filename is null")
     void deleteFile_NullFilename_ThrowsException() {
         // When & Then
-        assertThatThrownBy(() -> rustFsService.deleteFile("users", null))
+        assertThatThrownBy(() -> rustFsService.deleteFile("users", null, authentication))
                 .isInstanceOf(ResponseStatusException.class)
                 .hasMessageContaining("Folder et filename sont obligatoires")
                 .extracting(ex -> ((ResponseStatusException) ex).getStatusCode())
@@ -324,6 +723,51 @@ class RustFsServiceTest {
 
         // Then
         assertThat(exists).isFalse();
+        verify(objectExistenceCache).markAbsent(key);
+    }
+
+    @Test
+    @DisplayName("fileExists - Should answer from cache without calling RustFS")
+    void fileExists_CachedKey_NoHeadRequest() {
+        // Given
+        when(objectExistenceCache.lookup("users/known.jpg")).thenReturn(Optional.of(true));
+
+        // When
+        boolean exists = rustFsService.fileExists("users/known.jpg");
+
+        // Then
+        assertThat(exists).isTrue();
+        verifyNoInteractions(s3Client);
+    }
+
+    @Test
+    @DisplayName("fileExists - Should propagate RustFS errors instead of reporting absence")
+    void fileExists_ServerError_Throws() {
+        // Given
+        when(s3Client.headObject(any(HeadObjectRequest.class)))
+                .thenThrow(S3Exception.builder().statusCode(500).message("Internal error").build());
+
+        // When & Then
+        assertThatThrownBy(() -> rustFsService.fileExists("users/test.jpg"))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(ex -> ((ResponseStatusException) ex).getStatusCode())
+                .isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+
+        verify(objectExistenceCache, never()).markAbsent(any());
+    }
+
+    @Test
+    @DisplayName("fileExists - Should return 503 when RustFS is unreachable")
+    void fileExists_Timeout_ServiceUnavailable() {
+        // Given
+        when(s3Client.headObject(any(HeadObjectRequest.class)))
+                .thenThrow(SdkClientException.create("Read timed out"));
+
+        // When & Then
+        assertThatThrownBy(() -> rustFsService.fileExists("users/test.jpg"))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(ex -> ((ResponseStatusException) ex).getStatusCode())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
     }
 
     @Test
@@ -351,4 +795,648 @@ class RustFsServiceTest {
         verify(s3Client, times(validFormats.length))
                 .putObject(any(PutObjectRequest.class), any(RequestBody.class));
     }
+
+    @Test
+    @DisplayName("createPresignedUpload - Should sign content type and length and register pending upload")
+    void createPresignedUpload_Success() {
+        // Given
+        when(rustFsProperties.getPresign()).thenReturn(new RustFsProperties.Presign());
+        PresignedUploadRequest request = new PresignedUploadRequest();
+        request.setFolder("users");
+        request.setFilename("avatar.png");
+        request.setContentType("image/png");
+        request.setSizeBytes(2048L);
+
+        Instant expiration = Instant.now().plusSeconds(600);
+        PresignedPutObjectRequest presigned = PresignedPutObjectRequest.builder()
+                .expiration(expiration)
+                .isBrowserExecutable(false)
+                .signedHeaders(Map.of("host", List.of("s3.example.com")))
+                .httpRequest(SdkHttpRequest.builder()
+                        .method(SdkHttpMethod.PUT)
+                        .uri(URI.create("https://s3.example.com/test-bucket/users/x.png?X-Amz-Signature=abc"))
+                        .build())
+                .build();
+        when(s3Presigner.presignPutObject(any(PutObjectPresignRequest.class))).thenReturn(presigned);
+
+        // When
+        PresignedUploadResponse response = rustFsService.createPresignedUpload(request, authentication);
+
+        // Then
+        assertThat(response.getMethod()).isEqualTo("PUT");
+        assertThat(response.getUploadUrl()).contains("X-Amz-Signature");
+        assertThat(response.getKey()).startsWith("users/").endsWith(".png");
+        assertThat(response.getExpiresAt()).isEqualTo(expiration);
+        assertThat(response.getHeaders()).containsEntry("Content-Type", "image/png")
+                .containsEntry("Content-Length", "2048");
+
+        ArgumentCaptor<PutObjectPresignRequest> presignCaptor = ArgumentCaptor.forClass(PutObjectPresignRequest.class);
+        verify(s3Presigner).presignPutObject(presignCaptor.capture());
+        assertThat(presignCaptor.getValue().putObjectRequest().contentType()).isEqualTo("image/png");
+        assertThat(presignCaptor.getValue().putObjectRequest().contentLength()).isEqualTo(2048L);
+
+        ArgumentCaptor<PresignedUploadRegistry.PendingUpload> pendingCaptor =
+                ArgumentCaptor.forClass(PresignedUploadRegistry.PendingUpload.class);
+        verify(presignedUploadRegistry).register(pendingCaptor.capture());
+        assertThat(pendingCaptor.getValue().key()).isEqualTo(response.getKey());
+        assertThat(pendingCaptor.getValue().requestedBy()).isEqualTo("testuser");
+    }
+
+    @Test
+    @DisplayName("createPresignedUpload - Should reject oversized file before signing")
+    void createPresignedUpload_TooLarge() {
+        // Given
+        PresignedUploadRequest request = new PresignedUploadRequest();
+        request.setFolder("users");
+        request.setFilename("avatar.png");
+        request.setContentType("image/png");
+        request.setSizeBytes(11L * 1024 * 1024);
+
+        // When & Then
+        assertThatThrownBy(() -> rustFsService.createPresignedUpload(request, authentication))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("ne doit pas dépasser");
+
+        verifyNoInteractions(s3Presigner, presignedUploadRegistry);
+    }
+
+    @Test
+    @DisplayName("completePresignedUpload - Should verify object with HEAD and return upload response")
+    void completePresignedUpload_Success() {
+        // Given
+        PresignedUploadRegistry.PendingUpload pending = new PresignedUploadRegistry.PendingUpload(
+                "users/abc.png", "users", "abc.png", "avatar.png", "image/png", 2048L, "testuser");
+        when(presignedUploadRegistry.claim("users/abc.png", "testuser")).thenReturn(Optional.of(pending));
+        when(s3Client.headObject(any(HeadObjectRequest.class)))
+                .thenReturn(HeadObjectResponse.builder().contentLength(2048L).contentType("image/png").build());
+        when(rustFsProperties.getValidation()).thenReturn(new RustFsProperties.Validation());
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenReturn(new ResponseInputStream<>(
+                GetObjectResponse.builder().build(), AbortableInputStream.create(new ByteArrayInputStream(new byte[64]))));
+        when(imageVariantService.scheduleVariants("users/abc.png", "image/png")).thenReturn(Map.of());
+
+        // When
+        ImageUploadResponse response = rustFsService.completePresignedUpload("users/abc.png", authentication);
+
+        // Then
+        assertThat(response.getImageUrl()).isEqualTo("https://s3.example.com/test-bucket/users/abc.png");
+        assertThat(response.getSizeBytes()).isEqualTo(2048L);
+        assertThat(response.getOriginalFilename()).isEqualTo("avatar.png");
+        assertThat(response.getWidth()).isEqualTo(800);
+        verify(s3Client, never()).deleteObject(any(DeleteObjectRequest.class));
+
+        ArgumentCaptor<GetObjectRequest> headerCaptor = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3Client).getObject(headerCaptor.capture());
+        assertThat(headerCaptor.getValue().range()).isEqualTo("bytes=0-262143");
+    }
+
+    @Test
+    @DisplayName("completePresignedUpload - Should delete an object whose header is rejected")
+    void completePresignedUpload_InvalidHeader_DeletesObject() throws IOException {
+        // Given
+        PresignedUploadRegistry.PendingUpload pending = new PresignedUploadRegistry.PendingUpload(
+                "users/abc.png", "users", "abc.png", "avatar.png", "image/png", 2048L, "testuser");
+        when(presignedUploadRegistry.claim("users/abc.png", "testuser")).thenReturn(Optional.of(pending));
+        when(s3Client.headObject(any(HeadObjectRequest.class)))
+                .thenReturn(HeadObjectResponse.builder().contentLength(2048L).contentType("image/png").build());
+        when(rustFsProperties.getValidation()).thenReturn(new RustFsProperties.Validation());
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenReturn(new ResponseInputStream<>(
+                GetObjectResponse.builder().build(), AbortableInputStream.create(new ByteArrayInputStream(new byte[64]))));
+        when(imageHeaderInspector.inspect(any(), eq("image/png")))
+                .thenThrow(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Format d'image non reconnu"));
+
+        // When & Then
+        assertThatThrownBy(() -> rustFsService.completePresignedUpload("users/abc.png", authentication))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+
+        verify(s3Client).deleteObject(any(DeleteObjectRequest.class));
+        verifyNoInteractions(imageVariantService);
+    }
+
+    @Test
+    @DisplayName("completePresignedUpload - Should delete object whose size does not match the signed one")
+    void completePresignedUpload_SizeMismatch() {
+        // Given
+        PresignedUploadRegistry.PendingUpload pending = new PresignedUploadRegistry.PendingUpload(
+                "users/abc.png", "users", "abc.png", "avatar.png", "image/png", 2048L, "testuser");
+        when(presignedUploadRegistry.claim("users/abc.png", "testuser")).thenReturn(Optional.of(pending));
+        when(s3Client.headObject(any(HeadObjectRequest.class)))
+                .thenReturn(HeadObjectResponse.builder().contentLength(9999L).contentType("image/png").build());
+
+        // When & Then
+        assertThatThrownBy(() -> rustFsService.completePresignedUpload("users/abc.png", authentication))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+
+        verify(s3Client).deleteObject(any(DeleteObjectRequest.class));
+        verifyNoInteractions(imageVariantService);
+    }
+
+    @Test
+    @DisplayName("completePresignedUpload - Should keep pending upload when object not yet received")
+    void completePresignedUpload_NotYetUploaded() {
+        // Given
+        PresignedUploadRegistry.PendingUpload pending = new PresignedUploadRegistry.PendingUpload(
+                "users/abc.png", "users", "abc.png", "avatar.png", "image/png", 2048L, "testuser");
+        when(presignedUploadRegistry.claim("users/abc.png", "testuser")).thenReturn(Optional.of(pending));
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+
+        // When & Then
+        assertThatThrownBy(() -> rustFsService.completePresignedUpload("users/abc.png", authentication))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+
+        verify(presignedUploadRegistry).register(pending);
+    }
+
+    @Test
+    @DisplayName("completePresignedUpload - Should return 404 for unknown or foreign upload")
+    void completePresignedUpload_Unknown() {
+        // Given
+        when(presignedUploadRegistry.claim("users/abc.png", "testuser")).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> rustFsService.completePresignedUpload("users/abc.png", authentication))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+
+        verifyNoInteractions(s3Client);
+    }
+
+    @Test
+    @DisplayName("deleteFiles - Should group keys and variants into DeleteObjects requests of 1000")
+    void deleteFiles_ChunksByThousand() {
+        // Given
+        when(imageVariantService.allVariantKeys(any())).thenReturn(List.of());
+        when(s3AsyncClient.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(DeleteObjectsResponse.builder().build()));
+        List<String> keys = IntStream.range(0, 2500)
+                .mapToObj(i -> "users/img-" + i + ".jpg")
+                .toList();
+        when(mediaService.ownedKeys(keys, "testuser")).thenReturn(Set.copyOf(keys));
+
+        // When
+        BatchDeleteResponse response = rustFsService.deleteFiles(keys, authentication);
+
+        // Then
+        ArgumentCaptor<DeleteObjectsRequest> captor = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(s3AsyncClient, times(3)).deleteObjects(captor.capture());
+        assertThat(captor.getAllValues()).extracting(r -> r.delete().objects().size())
+                .containsExactly(1000, 1000, 500);
+        assertThat(captor.getAllValues()).allMatch(r -> r.bucket().equals("test-bucket") && r.delete().quiet());
+        assertThat(response.getDeleted()).isEqualTo(2500);
+        assertThat(response.getFailed()).isZero();
+        assertThat(response.getResults()).extracting(BatchDeleteResponse.KeyResult::getKey)
+                .containsExactlyElementsOf(keys);
+        verify(s3Client, never()).headObject(any(HeadObjectRequest.class));
+    }
+
+    @Test
+    @DisplayName("deleteFiles - Should report per-key errors, invalid keys and failed chunks")
+    void deleteFiles_PerKeyResults() {
+        // Given
+        when(imageVariantService.allVariantKeys("users/a.jpg")).thenReturn(List.of("users/a_64.jpg"));
+        when(imageVariantService.allVariantKeys("users/b.jpg")).thenReturn(List.of("users/b_64.jpg"));
+        when(s3AsyncClient.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(DeleteObjectsResponse.builder()
+                        .errors(S3Error.builder().key("users/b.jpg").code("AccessDenied").message("Access Denied").build())
+                        .build()));
+        when(mediaService.ownedKeys(List.of("users/a.jpg", "users/b.jpg"), "testuser"))
+                .thenReturn(Set.of("users/a.jpg", "users/b.jpg"));
+
+        // When
+        BatchDeleteResponse response = rustFsService.deleteFiles(List.of("users/a.jpg", "../etc/passwd", "users/b.jpg"), authentication);
+
+        // Then
+        assertThat(response.getResults()).extracting(BatchDeleteResponse.KeyResult::getStatus)
+                .containsExactly(
+                        BatchDeleteResponse.Status.DELETED,
+                        BatchDeleteResponse.Status.INVALID,
+                        BatchDeleteResponse.Status.FAILED);
+        assertThat(response.getResults().get(2).getError()).isEqualTo("Access Denied");
+        assertThat(response.getDeleted()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(2);
+
+        ArgumentCaptor<DeleteObjectsRequest> captor = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(s3AsyncClient).deleteObjects(captor.capture());
+        assertThat(captor.getValue().delete().objects()).extracting(ObjectIdentifier::key)
+                .containsExactly("users/a.jpg", "users/a_64.jpg", "users/b.jpg", "users/b_64.jpg");
+        verify(objectExistenceCache).markAbsent("users/a.jpg");
+        verify(objectExistenceCache, never()).markAbsent("users/b.jpg");
+    }
+
+    @Test
+    @DisplayName("deleteFiles - Should mark every key of a failed request as FAILED")
+    void deleteFiles_ChunkFailure() {
+        // Given
+        when(imageVariantService.allVariantKeys(any())).thenReturn(List.of());
+        when(s3AsyncClient.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(S3Exception.builder().message("Slow down").build()));
+        when(mediaService.ownedKeys(any(), eq("testuser"))).thenReturn(Set.of("users/a.jpg", "users/b.jpg"));
+
+        // When
+        BatchDeleteResponse response = rustFsService.deleteFiles(List.of("users/a.jpg", "users/b.jpg"), authentication);
+
+        // Then
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getResults()).allMatch(r -> r.getStatus() == BatchDeleteResponse.Status.FAILED
+                && r.getError().equals("Slow down"));
+    }
+
+    @Test
+    @DisplayName("deleteFiles - Should refuse keys owned by another user without touching them")
+    void deleteFiles_OtherUsersKey_Forbidden() {
+        // Given
+        String mine = "users/" + "a".repeat(64) + ".jpg";
+        String theirs = "users/" + "b".repeat(64) + ".jpg";
+        RustFsProperties.Upload upload = new RustFsProperties.Upload();
+        upload.setContentAddressed(true);
+        when(rustFsProperties.getUpload()).thenReturn(upload);
+        when(mediaService.ownedKeys(List.of(mine, theirs), "testuser")).thenReturn(Set.of(mine));
+        when(mediaService.removeOne(mine, "testuser")).thenReturn(true);
+        when(mediaBlobService.release(mine)).thenReturn(MediaBlobService.ReleaseResult.STILL_REFERENCED);
+
+        // When
+        BatchDeleteResponse response = rustFsService.deleteFiles(List.of(mine, theirs), authentication);
+
+        // Then
+        assertThat(response.getResults()).extracting(BatchDeleteResponse.KeyResult::getStatus)
+                .containsExactly(BatchDeleteResponse.Status.STILL_REFERENCED, BatchDeleteResponse.Status.FORBIDDEN);
+        assertThat(response.getFailed()).isEqualTo(1);
+        verify(mediaService).removeOne(mine, "testuser");
+        verify(mediaBlobService, never()).release(theirs);
+        verify(mediaService, never()).removeAll(theirs);
+        verify(mediaService, never()).removeOne(eq(theirs), any());
+        verify(s3AsyncClient, never()).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
+    @Test
+    @DisplayName("deleteFiles - Should let an administrator delete any key")
+    void deleteFiles_Admin_DeletesAnyKey() {
+        // Given
+        doReturn(List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))).when(authentication).getAuthorities();
+        when(imageVariantService.allVariantKeys(any())).thenReturn(List.of());
+        when(s3AsyncClient.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(DeleteObjectsResponse.builder().build()));
+
+        // When
+        BatchDeleteResponse response = rustFsService.deleteFiles(List.of("users/someone-else.jpg"), authentication);
+
+        // Then
+        assertThat(response.getDeleted()).isEqualTo(1);
+        verify(mediaService, never()).ownedKeys(any(), any());
+        verify(mediaService).removeAll("users/someone-else.jpg");
+    }
+
+    @Test
+    @DisplayName("openImage - Should forward Range and conditions to RustFS in a single GET")
+    void openImage_ForwardsConditions() {
+        // Given
+        String filename = "123e4567-e89b-12d3-a456-426614174000.jpg";
+        Instant since = Instant.parse("2025-01-15T10:30:00Z");
+        GetObjectResponse objectResponse = GetObjectResponse.builder()
+                .contentType("image/jpeg")
+                .contentLength(1024L)
+                .contentRange("bytes 0-1023/52344")
+                .eTag("\"abc\"")
+                .build();
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenReturn(new ResponseInputStream<>(
+                objectResponse, AbortableInputStream.create(new ByteArrayInputStream(new byte[1024]))));
+
+        // When
+        ImageDownload image = rustFsService.openImage("users", filename, "bytes=0-1023", "\"old\"", since);
+
+        // Then
+        ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3Client).getObject(captor.capture());
+        assertThat(captor.getValue().key()).isEqualTo("users/" + filename);
+        assertThat(captor.getValue().range()).isEqualTo("bytes=0-1023");
+        assertThat(captor.getValue().ifNoneMatch()).isEqualTo("\"old\"");
+        assertThat(captor.getValue().ifModifiedSince()).isEqualTo(since);
+        verify(s3Client, never()).headObject(any(HeadObjectRequest.class));
+
+        assertThat(image.getContentRange()).isEqualTo("bytes 0-1023/52344");
+        assertThat(image.getETag()).isEqualTo("\"abc\"");
+        assertThat(image.isImmutable()).isTrue();
+        assertThat(image.isNotModified()).isFalse();
+    }
+
+    @Test
+    @DisplayName("openImage - Should ignore multi-range requests and flag mutable keys")
+    void openImage_MultiRangeIgnored() {
+        // Given
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenReturn(new ResponseInputStream<>(
+                GetObjectResponse.builder().build(), AbortableInputStream.create(new ByteArrayInputStream(new byte[0]))));
+
+        // When
+        ImageDownload image = rustFsService.openImage("users", "avatar.jpg", "bytes=0-1,5-9", null, null);
+
+        // Then
+        ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3Client).getObject(captor.capture());
+        assertThat(captor.getValue().range()).isNull();
+        assertThat(image.isImmutable()).isFalse();
+    }
+
+    @Test
+    @DisplayName("openImage - Should report not modified when RustFS answers 304")
+    void openImage_NotModified() {
+        // Given
+        when(s3Client.getObject(any(GetObjectRequest.class)))
+                .thenThrow(S3Exception.builder().statusCode(304).build());
+        when(s3Client.headObject(any(HeadObjectRequest.class)))
+                .thenReturn(HeadObjectResponse.builder().contentLength(10L).eTag("\"abc\"").build());
+
+        // When
+        ImageDownload image = rustFsService.openImage("users", "avatar.jpg", null, "*", null);
+
+        // Then
+        assertThat(image.isNotModified()).isTrue();
+        assertThat(image.getETag()).isEqualTo("\"abc\"");
+        assertThat(image.getContent()).isNull();
+    }
+
+    @Test
+    @DisplayName("openImage - Should return 404 and remember the missing key")
+    void openImage_NotFound() {
+        // Given
+        when(s3Client.getObject(any(GetObjectRequest.class)))
+                .thenThrow(NoSuchKeyException.builder().message("Key not found").build());
+
+        // When & Then
+        assertThatThrownBy(() -> rustFsService.openImage("users", "missing.jpg", null, null, null))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(ex -> ((ResponseStatusException) ex).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+
+        verify(objectExistenceCache).markAbsent("users/missing.jpg");
+    }
+
+    @Test
+    @DisplayName("openImage - Should reject path traversal")
+    void openImage_InvalidPath() {
+        // When & Then
+        assertThatThrownBy(() -> rustFsService.openImage("users", "..", null, null, null))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(ex -> ((ResponseStatusException) ex).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+
+        verifyNoInteractions(s3Client);
+    }
+
+    @Test
+    @DisplayName("openImage - Should serve a disk cache hit with a local range, without calling RustFS")
+    void openImage_DiskCacheHit_ServesRange() throws IOException {
+        // Given
+        Path file = Files.write(tempDir.resolve("cached.img"), new byte[100]);
+        when(imageDiskCache.get("users/avatar.jpg")).thenReturn(Optional.of(new ImageDiskCache.CachedImage(
+                file, "image/jpeg", 100, "\"abc\"", Instant.parse("2025-01-15T10:30:00Z"))));
+
+        // When
+        ImageDownload image = rustFsService.openImage("users", "avatar.jpg", "bytes=-10", null, null);
+
+        // Then
+        try (FileChannel channel = image.getFileChannel()) {
+            assertThat(channel).isNotNull();
+            assertThat(image.getPosition()).isEqualTo(90);
+            assertThat(image.getContentLength()).isEqualTo(10);
+            assertThat(image.getContentRange()).isEqualTo("bytes 90-99/100");
+        }
+        verify(imageDiskCache).recordServed(10);
+        verifyNoInteractions(s3Client);
+    }
+
+    @Test
+    @DisplayName("openImage - Should answer 304 from the disk cache when the ETag matches")
+    void openImage_DiskCacheHit_NotModified() throws IOException {
+        // Given
+        Path file = Files.write(tempDir.resolve("cached.img"), new byte[100]);
+        when(imageDiskCache.get("users/avatar.jpg")).thenReturn(Optional.of(new ImageDiskCache.CachedImage(
+                file, "image/jpeg", 100, "\"abc\"", Instant.parse("2025-01-15T10:30:00Z"))));
+
+        // When
+        ImageDownload image = rustFsService.openImage("users", "avatar.jpg", null, "W/\"abc\"", null);
+
+        // Then
+        assertThat(image.isNotModified()).isTrue();
+        assertThat(image.getFileChannel()).isNull();
+        verifyNoInteractions(s3Client);
+    }
+
+    @Test
+    @DisplayName("openImage - Should copy a full RustFS response to the disk cache and serve it from disk")
+    void openImage_DiskCacheMiss_Populates() throws IOException {
+        // Given
+        Path file = Files.write(tempDir.resolve("cached.img"), new byte[4]);
+        GetObjectResponse objectResponse = GetObjectResponse.builder()
+                .contentType("image/jpeg")
+                .contentLength(4L)
+                .eTag("\"abc\"")
+                .build();
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenReturn(new ResponseInputStream<>(
+                objectResponse, AbortableInputStream.create(new ByteArrayInputStream(new byte[4]))));
+        when(imageDiskCache.accepts(4L)).thenReturn(true);
+        when(imageDiskCache.put(eq("users/avatar.jpg"), any(), eq("image/jpeg"), eq(4L), eq("\"abc\""), any()))
+                .thenReturn(new ImageDiskCache.CachedImage(file, "image/jpeg", 4, "\"abc\"", null));
+
+        // When
+        ImageDownload image = rustFsService.openImage("users", "avatar.jpg", null, null, null);
+
+        // Then
+        try (FileChannel channel = image.getFileChannel()) {
+            assertThat(channel).isNotNull();
+            assertThat(image.getContentLength()).isEqualTo(4);
+            assertThat(image.getContent()).isNull();
+        }
+        verify(imageDiskCache, never()).recordServed(anyLong());
+    }
+
+    @Test
+    @DisplayName("deleteFile - Should invalidate disk cache entries of the original and its variants")
+    void deleteFile_InvalidatesDiskCache() {
+        // Given
+        when(imageVariantService.allVariantKeys("users/a.jpg")).thenReturn(List.of("users/a_64.jpg"));
+
+        // When
+        rustFsService.deleteFile("users", "a.jpg", authentication);
+
+        // Then
+        verify(imageDiskCache).invalidate("users/a.jpg");
+        verify(imageDiskCache).invalidate("users/a_64.jpg");
+    }
+
+    @Test
+    @DisplayName("uploadFile - Should reject a disguised file before anything is sent to RustFS")
+    void uploadFile_HeaderRejected_NoUpload() throws IOException {
+        // Given
+        MultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", "<?php echo 1; ?>".getBytes());
+        when(imageHeaderInspector.inspect(any(), eq("image/jpeg")))
+                .thenThrow(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Format d'image non reconnu"));
+
+        // When & Then
+        assertThatThrownBy(() -> rustFsService.uploadFile(file, "users", authentication))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(ex -> ((ResponseStatusException) ex).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+
+        verifyNoInteractions(s3Client, mediaBlobService, imageVariantService);
+    }
+
+    @Test
+    @DisplayName("uploadFile - Should return dimensions read from the image header")
+    void uploadFile_ReturnsDimensions() {
+        // Given
+        MultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", "jpeg".getBytes());
+
+        // When
+        ImageUploadResponse response = rustFsService.uploadFile(file, "users", authentication);
+
+        // Then
+        assertThat(response.getWidth()).isEqualTo(800);
+        assertThat(response.getHeight()).isEqualTo(600);
+    }
+
+    @Test
+    @DisplayName("appendResumableChunk - Should send full parts as chunks arrive and assemble them on completion")
+    void resumableUpload_ChunksMappedToParts() {
+        // Given
+        RustFsProperties.Upload upload = new RustFsProperties.Upload();
+        upload.setPartSize(DataSize.ofBytes(4));
+        when(rustFsProperties.getUpload()).thenReturn(upload);
+        when(rustFsProperties.getValidation()).thenReturn(new RustFsProperties.Validation());
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("multipart-1").build());
+        List<String> partContents = new CopyOnWriteArrayList<>();
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            RequestBody body = invocation.getArgument(1);
+            try (InputStream content = body.contentStreamProvider().newStream()) {
+                partContents.add(new String(content.readAllBytes()));
+            }
+            return UploadPartResponse.builder().eTag("etag-" + partContents.size()).build();
+        });
+        when(s3Client.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+                .thenReturn(CompleteMultipartUploadResponse.builder().build());
+
+        // When
+        ResumableUploadResponse created = rustFsService.createResumableUpload(resumableRequest(10), authentication);
+        ResumableUploadResponse afterFirst = rustFsService.appendResumableChunk(created.getUploadId(), 0,
+                new ByteArrayInputStream("abcdef".getBytes()), authentication);
+        rustFsService.appendResumableChunk(created.getUploadId(), 6,
+                new ByteArrayInputStream("ghij".getBytes()), authentication);
+        ImageUploadResponse response = rustFsService.completeResumableUpload(created.getUploadId(), authentication);
+
+        // Then
+        assertThat(afterFirst.getOffset()).isEqualTo(6);
+        assertThat(partContents).containsExactly("abcd", "efgh", "ij");
+        ArgumentCaptor<CompleteMultipartUploadRequest> completeCaptor =
+                ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3Client).completeMultipartUpload(completeCaptor.capture());
+        assertThat(completeCaptor.getValue().uploadId()).isEqualTo("multipart-1");
+        assertThat(completeCaptor.getValue().multipartUpload().parts())
+                .extracting(CompletedPart::partNumber)
+                .containsExactly(1, 2, 3);
+        assertThat(response.getSizeBytes()).isEqualTo(10);
+        verify(mediaService).record(eq("testuser"), eq(created.getKey()), eq(10L), eq("image/jpeg"), any(), isNull());
+        assertThatThrownBy(() -> rustFsService.getResumableUpload(created.getUploadId(), authentication))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(ex -> ((ResponseStatusException) ex).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("appendResumableChunk - Should keep bytes received before a disconnection and reject a wrong offset")
+    void resumableUpload_InterruptedChunk_ResumesFromReceivedOffset() {
+        // Given
+        when(rustFsProperties.getValidation()).thenReturn(new RustFsProperties.Validation());
+        ResumableUploadResponse created = rustFsService.createResumableUpload(resumableRequest(10), authentication);
+        InputStream droppedConnection = new InputStream() {
+            private final InputStream received = new ByteArrayInputStream("abc".getBytes());
+
+            @Override
+            public int read() throws IOException {
+                int next = received.read();
+                if (next == -1) {
+                    throw new IOException("Connection reset");
+                }
+                return next;
+            }
+        };
+
+        // When
+        rustFsService.appendResumableChunk(created.getUploadId(), 0, droppedConnection, authentication);
+
+        // Then
+        assertThat(rustFsService.getResumableUpload(created.getUploadId(), authentication).getOffset()).isEqualTo(3);
+        assertThatThrownBy(() -> rustFsService.appendResumableChunk(created.getUploadId(), 0,
+                new ByteArrayInputStream("abcdefghij".getBytes()), authentication))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(ex -> ((ResponseStatusException) ex).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+        assertThatThrownBy(() -> rustFsService.completeResumableUpload(created.getUploadId(), authentication))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(ex -> ((ResponseStatusException) ex).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    @DisplayName("cancelResumableUpload - Should abort the parts already sent to RustFS")
+    void resumableUpload_Cancel_AbortsMultipart() {
+        // Given
+        RustFsProperties.Upload upload = new RustFsProperties.Upload();
+        upload.setPartSize(DataSize.ofBytes(4));
+        when(rustFsProperties.getUpload()).thenReturn(upload);
+        when(rustFsProperties.getValidation()).thenReturn(new RustFsProperties.Validation());
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("multipart-1").build());
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+        ResumableUploadResponse created = rustFsService.createResumableUpload(resumableRequest(10), authentication);
+        rustFsService.appendResumableChunk(created.getUploadId(), 0,
+                new ByteArrayInputStream("abcdef".getBytes()), authentication);
+
+        // When
+        rustFsService.cancelResumableUpload(created.getUploadId(), authentication);
+
+        // Then
+        ArgumentCaptor<AbortMultipartUploadRequest> abortCaptor =
+                ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+        verify(s3Client).abortMultipartUpload(abortCaptor.capture());
+        assertThat(abortCaptor.getValue().uploadId()).isEqualTo("multipart-1");
+        verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    private static ResumableUploadRequest resumableRequest(long sizeBytes) {
+        ResumableUploadRequest request = new ResumableUploadRequest();
+        request.setFolder("users");
+        request.setFilename("photo.jpg");
+        request.setContentType("image/jpeg");
+        request.setSizeBytes(sizeBytes);
+        return request;
+    }
+
+    /**
+     * Fichier multipart qui retient le fichier temporaire de destination
+     */
+    private static final class SpoolingMultipartFile extends MockMultipartFile {
+        private final IOException failure;
+        private Path destination;
+
+        private SpoolingMultipartFile(IOException failure) {
+            super("file", "test-image.jpg", "image/jpeg", "content".getBytes());
+            this.failure = failure;
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            destination = dest.toPath();
+            if (failure != null) {
+                throw failure;
+            }
+            super.transferTo(dest);
+        }
+    }
 }
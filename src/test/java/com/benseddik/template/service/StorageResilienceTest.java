@@ -0,0 +1,290 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("StorageResilience - Unit Tests")
+class StorageResilienceTest {
+
+    private RustFsProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private StorageResilience storageResilience;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RustFsProperties();
+        properties.getResilience().setRetryBackoff(Duration.ofMillis(2));
+        properties.getResilience().setCircuitWindowSize(4);
+        properties.getResilience().setCircuitMinimumCalls(4);
+        properties.getResilience().setCircuitHalfOpenCalls(2);
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (storageResilience != null) {
+            storageResilience.shutdown();
+        }
+    }
+
+    private StorageResilience create() {
+        storageResilience = new StorageResilience(properties, meterRegistry, clock);
+        return storageResilience;
+    }
+
+    @Test
+    @DisplayName("execute - Should retry an idempotent read and pass the remaining deadline to the SDK")
+    void execute_RetriesRead() {
+        // Given
+        StorageResilience resilience = create();
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        String result = resilience.execute(StorageResilience.Operation.READ, deadline -> {
+            assertThat(deadline.apiCallTimeout()).hasValueSatisfying(timeout ->
+                    assertThat(timeout).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(2)));
+            if (calls.incrementAndGet() == 1) {
+                throw SdkClientException.create("Connection reset");
+            }
+            return "ok";
+        });
+
+        // Then
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls).hasValue(2);
+        assertThat(meterRegistry.get("rustfs.retries").tag("outcome", "attempted").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("execute - Should not retry a write and surface 503 with Retry-After")
+    void execute_WriteNotRetried() {
+        // Given
+        StorageResilience resilience = create();
+        AtomicInteger calls = new AtomicInteger();
+
+        // When & Then
+        assertThatThrownBy(() -> resilience.execute(StorageResilience.Operation.WRITE, deadline -> {
+            calls.incrementAndGet();
+            throw SdkClientException.create("Read timed out");
+        }))
+                .isInstanceOf(StorageUnavailableException.class)
+                .satisfies(ex -> {
+                    StorageUnavailableException unavailable = (StorageUnavailableException) ex;
+                    assertThat(unavailable.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(unavailable.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+                });
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("execute - Should treat a 404 as a normal answer")
+    void execute_NotFoundIsNotAFailure() {
+        // Given
+        StorageResilience resilience = create();
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> resilience.execute(StorageResilience.Operation.READ, deadline -> {
+                throw NoSuchKeyException.builder().statusCode(404).build();
+            })).isInstanceOf(NoSuchKeyException.class);
+        }
+
+        // Then
+        assertThat(resilience.getCircuitState()).isEqualTo(StorageCircuitBreaker.State.CLOSED);
+        assertThat(resilience.getFailureRate()).isZero();
+    }
+
+    @Test
+    @DisplayName("execute - Should open the circuit, fail fast, then close after successful probes")
+    void execute_CircuitBreakerLifecycle() {
+        // Given
+        properties.getResilience().setMaxRetries(0);
+        StorageResilience resilience = create();
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> resilience.execute(StorageResilience.Operation.READ, deadline -> {
+                throw SdkClientException.create("Connection refused");
+            })).isInstanceOf(StorageUnavailableException.class);
+        }
+        assertThat(resilience.getCircuitState()).isEqualTo(StorageCircuitBreaker.State.OPEN);
+
+        // When : appel refusé sans contacter RustFS
+        AtomicInteger calls = new AtomicInteger();
+        assertThatThrownBy(() -> resilience.execute(StorageResilience.Operation.READ, deadline -> calls.incrementAndGet()))
+                .isInstanceOf(StorageUnavailableException.class)
+                .satisfies(ex -> assertThat(((StorageUnavailableException) ex).getHeaders().getFirst(HttpHeaders.RETRY_AFTER))
+                        .isEqualTo("30"));
+        assertThat(calls).hasValue(0);
+
+        // Then : après la durée d'ouverture, deux appels d'essai réussis referment le disjoncteur
+        clock.advance(Duration.ofSeconds(31));
+        resilience.execute(StorageResilience.Operation.READ, deadline -> calls.incrementAndGet());
+        assertThat(resilience.getCircuitState()).isEqualTo(StorageCircuitBreaker.State.HALF_OPEN);
+        resilience.execute(StorageResilience.Operation.READ, deadline -> calls.incrementAndGet());
+        assertThat(resilience.getCircuitState()).isEqualTo(StorageCircuitBreaker.State.CLOSED);
+        assertThat(meterRegistry.get("rustfs.circuit.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("rustfs.circuit.transitions").tag("state", "open").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("execute - Should stop retrying once the retry budget is spent")
+    void execute_RetryBudgetExhausted() {
+        // Given
+        properties.getResilience().setRetryBudgetCapacity(1);
+        properties.getResilience().setRetryBudgetRatio(0);
+        properties.getResilience().setCircuitMinimumCalls(100);
+        properties.getResilience().setCircuitWindowSize(100);
+        StorageResilience resilience = create();
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> resilience.execute(StorageResilience.Operation.READ, deadline -> {
+                calls.incrementAndGet();
+                throw SdkClientException.create("Connection reset");
+            })).isInstanceOf(StorageUnavailableException.class);
+        }
+
+        // Then : une seule nouvelle tentative sur les deux appels
+        assertThat(calls).hasValue(3);
+        assertThat(meterRegistry.get("rustfs.retries").tag("outcome", "budget_exhausted").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("execute - Should return the hedge when the first read is slow")
+    void execute_HedgedRead() {
+        // Given
+        properties.getResilience().setHedgeEnabled(true);
+        properties.getResilience().setHedgeDelay(Duration.ofMillis(20));
+        StorageResilience resilience = create();
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        String result = resilience.execute(StorageResilience.Operation.READ, deadline -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(1_000);
+                return "slow";
+            }
+            return "fast";
+        });
+
+        // Then
+        assertThat(result).isEqualTo("fast");
+        assertThat(meterRegistry.get("rustfs.hedges").tag("outcome", "hedge").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("executeAsync - Should fail immediately while the circuit is open")
+    void executeAsync_CircuitOpen() {
+        // Given
+        properties.getResilience().setMaxRetries(0);
+        StorageResilience resilience = create();
+        for (int i = 0; i < 4; i++) {
+            resilience.executeAsync(StorageResilience.Operation.DELETE, deadline ->
+                    CompletableFuture.failedFuture(SdkClientException.create("Connection refused"))).exceptionally(e -> null).join();
+        }
+
+        // When
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<Integer> future = resilience.executeAsync(StorageResilience.Operation.DELETE,
+                deadline -> CompletableFuture.completedFuture(calls.incrementAndGet()));
+
+        // Then
+        assertThat(calls).hasValue(0);
+        assertThatThrownBy(future::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(StorageUnavailableException.class);
+    }
+
+    @Test
+    @DisplayName("executeAsync - Should retry an idempotent call under the budget, never a write")
+    void executeAsync_RetriesUnderBudget() {
+        // Given
+        properties.getResilience().setRetryBudgetCapacity(1);
+        properties.getResilience().setRetryBudgetRatio(0);
+        properties.getResilience().setCircuitMinimumCalls(100);
+        properties.getResilience().setCircuitWindowSize(100);
+        StorageResilience resilience = create();
+        AtomicInteger deletes = new AtomicInteger();
+        AtomicInteger writes = new AtomicInteger();
+
+        // When
+        String deleted = resilience.executeAsync(StorageResilience.Operation.DELETE, deadline ->
+                deletes.incrementAndGet() == 1
+                        ? CompletableFuture.failedFuture(SdkClientException.create("Connection reset"))
+                        : CompletableFuture.completedFuture("ok")).join();
+        CompletableFuture<String> exhausted = resilience.executeAsync(StorageResilience.Operation.DELETE, deadline -> {
+            deletes.incrementAndGet();
+            return CompletableFuture.failedFuture(SdkClientException.create("Connection reset"));
+        });
+        CompletableFuture<String> write = resilience.executeAsync(StorageResilience.Operation.WRITE, deadline -> {
+            writes.incrementAndGet();
+            return CompletableFuture.failedFuture(SdkClientException.create("Read timed out"));
+        });
+
+        // Then
+        assertThat(deleted).isEqualTo("ok");
+        assertThatThrownBy(exhausted::join).hasCauseInstanceOf(SdkClientException.class);
+        assertThatThrownBy(write::join).hasCauseInstanceOf(SdkClientException.class);
+        assertThat(deletes).hasValue(3);
+        assertThat(writes).hasValue(1);
+        assertThat(meterRegistry.get("rustfs.retries").tag("outcome", "attempted").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("rustfs.retries").tag("outcome", "budget_exhausted").counter().count()).isEqualTo(1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
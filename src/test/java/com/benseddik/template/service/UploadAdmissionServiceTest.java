@@ -0,0 +1,86 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("UploadAdmissionService - Unit Tests")
+class UploadAdmissionServiceTest {
+
+    private RustFsProperties rustFsProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private UploadAdmissionService uploadAdmissionService;
+
+    @BeforeEach
+    void setUp() {
+        rustFsProperties = new RustFsProperties();
+        rustFsProperties.getAdmission().setMaxInFlightBytes(DataSize.ofBytes(1_000));
+        rustFsProperties.getAdmission().setMaxConcurrentUploads(3);
+        rustFsProperties.getAdmission().setRetryAfter(Duration.ofSeconds(5));
+        meterRegistry = new SimpleMeterRegistry();
+        uploadAdmissionService = new UploadAdmissionService(rustFsProperties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("admit - Should reject with 503 and Retry-After over the byte budget, then admit once released")
+    void admit_OverByteBudget_ServiceUnavailable() {
+        // Given
+        UploadAdmissionService.Permit first = uploadAdmissionService.admit(800);
+
+        // When & Then
+        assertThatThrownBy(() -> uploadAdmissionService.admit(300))
+                .isInstanceOfSatisfying(UploadAdmissionRejectedException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("5");
+                });
+        assertThat(meterRegistry.get("rustfs.admission.utilization").gauge().value()).isEqualTo(0.8);
+
+        first.close();
+        first.close();
+        uploadAdmissionService.admit(300);
+        assertThat(uploadAdmissionService.inFlightBytes()).isEqualTo(300);
+        assertThat(uploadAdmissionService.inFlightUploads()).isEqualTo(1);
+        assertThat(meterRegistry.get("rustfs.admission.rejected").tag("reason", "bytes").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("admit - Should reject beyond the concurrent upload limit and reserve a default size without Content-Length")
+    void admit_ConcurrencyLimitAndUnknownLength() {
+        // Given
+        rustFsProperties.getAdmission().setMaxInFlightBytes(DataSize.ofMegabytes(100));
+        uploadAdmissionService.admit(10);
+        uploadAdmissionService.admit(10);
+        uploadAdmissionService.admit(-1);
+
+        // When & Then
+        assertThat(uploadAdmissionService.inFlightBytes()).isEqualTo(20 + DataSize.ofMegabytes(10).toBytes());
+        assertThatThrownBy(() -> uploadAdmissionService.admit(10))
+                .isInstanceOf(UploadAdmissionRejectedException.class);
+        assertThat(meterRegistry.get("rustfs.admission.rejected").tag("reason", "concurrency").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("admit - Should let a request larger than the whole budget through when nothing else is in flight")
+    void admit_OversizedAlone_Admitted() {
+        // When
+        try (UploadAdmissionService.Permit permit = uploadAdmissionService.admit(5_000)) {
+            // Then
+            assertThat(uploadAdmissionService.inFlightBytes()).isEqualTo(5_000);
+            assertThatThrownBy(() -> uploadAdmissionService.admit(1))
+                    .isInstanceOf(UploadAdmissionRejectedException.class);
+        }
+        assertThat(uploadAdmissionService.inFlightBytes()).isZero();
+        assertThat(uploadAdmissionService.inFlightUploads()).isZero();
+    }
+}
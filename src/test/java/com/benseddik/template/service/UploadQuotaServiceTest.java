@@ -0,0 +1,270 @@
+package com.benseddik.template.service;
+
+import com.benseddik.template.config.RustFsProperties;
+import com.benseddik.template.repository.MediaRepository;
+import com.benseddik.template.repository.UploadQuotaUsageRepository;
+import com.benseddik.template.repository.UploadQuotaUsageRepository.DailyUsage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UploadQuotaService - Unit Tests")
+class UploadQuotaServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 17);
+
+    @Mock
+    private MediaRepository mediaRepository;
+
+    @Mock
+    private UploadQuotaUsageRepository usageRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RustFsProperties rustFsProperties;
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private UploadQuotaService uploadQuotaService;
+
+    @BeforeEach
+    void setUp() {
+        rustFsProperties = new RustFsProperties();
+        clock = new MutableClock(TODAY.atTime(22, 0).toInstant(ZoneOffset.UTC));
+        meterRegistry = new SimpleMeterRegistry();
+        uploadQuotaService = new UploadQuotaService(mediaRepository, usageRepository, rustFsProperties,
+                transactionManager, meterRegistry, clock);
+    }
+
+    @Test
+    @DisplayName("checkUpload - Should reject with 429 and Retry-After once the daily count is reached")
+    void checkUpload_DailyObjectsReached_TooManyRequests() {
+        // Given
+        rustFsProperties.getQuota().setMaxDailyObjects(2);
+        uploadQuotaService.recordUpload("subject-1", 100);
+        uploadQuotaService.recordUpload("subject-1", 100);
+
+        // When & Then
+        assertThatThrownBy(() -> uploadQuotaService.checkUpload("subject-1", 100))
+                .isInstanceOfSatisfying(UploadQuotaExceededException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                    assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("7200");
+                });
+        uploadQuotaService.checkUpload("subject-2", 100);
+        assertThat(meterRegistry.get("rustfs.quota.rejected").tag("scope", "daily").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("checkUpload - Should reject with 507 over the total size and accept again after a removal")
+    void checkUpload_TotalBytes_FreedByRemoval() {
+        // Given
+        rustFsProperties.getQuota().setMaxTotalBytes(DataSize.ofBytes(1_000));
+        uploadQuotaService.recordUpload("subject-1", 800);
+
+        // When & Then
+        assertThatThrownBy(() -> uploadQuotaService.checkUpload("subject-1", 300))
+                .isInstanceOfSatisfying(UploadQuotaExceededException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.INSUFFICIENT_STORAGE));
+
+        uploadQuotaService.recordRemoval("subject-1", 800);
+        uploadQuotaService.checkUpload("subject-1", 300);
+        assertThat(uploadQuotaService.usage("subject-1"))
+                .isEqualTo(new UploadQuotaService.Usage(800, 1, 0, 0));
+    }
+
+    @Test
+    @DisplayName("checkUpload - Should accept everything when quotas are disabled")
+    void checkUpload_Disabled_Accepts() {
+        // Given
+        rustFsProperties.getQuota().setEnabled(false);
+        rustFsProperties.getQuota().setMaxDailyObjects(1);
+        uploadQuotaService.recordUpload("subject-1", 100);
+
+        // When & Then
+        uploadQuotaService.checkUpload("subject-1", 100);
+    }
+
+    @Test
+    @DisplayName("reserve - Should never let concurrent uploads exceed the quota together")
+    void reserve_Concurrent_CapHolds() throws InterruptedException {
+        // Given : 64 uploads de 100 octets simultanés pour 1000 octets de quota
+        rustFsProperties.getQuota().setMaxTotalBytes(DataSize.ofBytes(1_000));
+        int uploads = 64;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<UploadQuotaService.Reservation> reservations = new CopyOnWriteArrayList<>();
+
+        // When
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < uploads; i++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        reservations.add(uploadQuotaService.reserve("subject-1", 100));
+                        accepted.incrementAndGet();
+                    } catch (UploadQuotaExceededException e) {
+                        rejected.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            start.countDown();
+        }
+
+        // Then
+        assertThat(accepted).hasValue(10);
+        assertThat(rejected).hasValue(uploads - 10);
+        assertThat(uploadQuotaService.usage("subject-1")).isEqualTo(new UploadQuotaService.Usage(1_000, 10, 1_000, 10));
+
+        // Uploads terminés : usage enregistré puis réservations rendues, une seule fois chacune
+        reservations.forEach(reservation -> {
+            uploadQuotaService.recordUpload("subject-1", 100);
+            reservation.release();
+            reservation.release();
+        });
+        assertThat(uploadQuotaService.usage("subject-1")).isEqualTo(new UploadQuotaService.Usage(1_000, 10, 1_000, 10));
+        assertThatThrownBy(() -> uploadQuotaService.reserve("subject-1", 1))
+                .isInstanceOf(UploadQuotaExceededException.class);
+    }
+
+    @Test
+    @DisplayName("reserve - Should give the place back when the upload fails")
+    void reserve_Released_FreesQuota() {
+        // Given
+        rustFsProperties.getQuota().setMaxDailyObjects(1);
+        UploadQuotaService.Reservation reservation = uploadQuotaService.reserve("subject-1", 100);
+        assertThatThrownBy(() -> uploadQuotaService.reserve("subject-1", 100))
+                .isInstanceOfSatisfying(UploadQuotaExceededException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+
+        // When
+        reservation.release();
+
+        // Then
+        assertThat(uploadQuotaService.usage("subject-1")).isEqualTo(new UploadQuotaService.Usage(0, 0, 0, 0));
+        uploadQuotaService.reserve("subject-1", 100);
+    }
+
+    @Test
+    @DisplayName("rebuild - Should load totals from media and today's usage from the counters table")
+    void rebuild_LoadsTotalsAndDailyUsage() {
+        // Given
+        MediaRepository.OwnerUsage owner = mock(MediaRepository.OwnerUsage.class);
+        when(owner.getOwnerId()).thenReturn("subject-1");
+        when(owner.getSizeBytes()).thenReturn(5_000L);
+        when(owner.getObjects()).thenReturn(4L);
+        when(mediaRepository.streamUsageByOwner()).thenReturn(Stream.of(owner));
+        when(usageRepository.findByDay(TODAY)).thenReturn(List.of(new DailyUsage("subject-1", TODAY, 1_200, 2)));
+
+        // When
+        uploadQuotaService.rebuild();
+
+        // Then
+        assertThat(uploadQuotaService.usage("subject-1"))
+                .isEqualTo(new UploadQuotaService.Usage(1_200, 2, 5_000, 4));
+    }
+
+    @Test
+    @DisplayName("flush - Should write increments once and assign leftovers to the day they belong to")
+    @SuppressWarnings("unchecked")
+    void flush_WritesIncrementsPerDay() {
+        // Given
+        uploadQuotaService.recordUpload("subject-1", 100);
+        uploadQuotaService.flush();
+        uploadQuotaService.recordUpload("subject-1", 50);
+        clock.setInstant(TODAY.plusDays(1).atTime(0, 5).toInstant(ZoneOffset.UTC));
+        uploadQuotaService.recordUpload("subject-1", 10);
+
+        // When
+        uploadQuotaService.flush();
+        uploadQuotaService.flush();
+
+        // Then
+        ArgumentCaptor<List<DailyUsage>> captor = ArgumentCaptor.forClass(List.class);
+        verify(usageRepository, times(2)).incrementAll(captor.capture());
+        assertThat(captor.getAllValues().get(0)).containsExactly(new DailyUsage("subject-1", TODAY, 100, 1));
+        assertThat(captor.getAllValues().get(1)).containsExactlyInAnyOrder(
+                new DailyUsage("subject-1", TODAY, 50, 1),
+                new DailyUsage("subject-1", TODAY.plusDays(1), 10, 1));
+        assertThat(uploadQuotaService.usage("subject-1").dailyBytes()).isEqualTo(10);
+        verify(usageRepository).deleteBefore(TODAY.plusDays(1).minusDays(7));
+    }
+
+    @Test
+    @DisplayName("flush - Should keep increments for the next flush when the write fails")
+    void flush_Failure_RetriedNextTime() {
+        // Given
+        uploadQuotaService.recordUpload("subject-1", 100);
+        doThrow(new DataAccessResourceFailureException("down"))
+                .doNothing()
+                .when(usageRepository).incrementAll(anyList());
+
+        // When
+        uploadQuotaService.flush();
+        uploadQuotaService.flush();
+
+        // Then
+        verify(usageRepository, times(2)).incrementAll(List.of(new DailyUsage("subject-1", TODAY, 100, 1)));
+        verify(usageRepository, times(1)).deleteBefore(any());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void setInstant(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -3,25 +3,32 @@ package com.benseddik.template.service;
 import com.benseddik.template.domain.AppUser;
 import com.benseddik.template.repository.AppUserRepository;
 import com.benseddik.template.security.CurrentUserService;
+import com.benseddik.template.service.dto.ImageUploadResponse;
 import com.benseddik.template.service.dto.MeResponse;
 import com.benseddik.template.service.dto.UpdateProfileRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -40,6 +47,15 @@ class UserServiceTest {
     @Mock
     private KeycloakService keycloakService;
 
+    @Mock
+    private MediaService mediaService;
+
+    @Mock
+    private RustFsService rustFsService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @Mock
     private Authentication authentication;
 
@@ -51,6 +67,11 @@ class UserServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(new SimpleTransactionStatus());
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
         testUser = AppUser.builder()
                 .id(UUID.randomUUID())
                 .email("test@example.com")
@@ -219,6 +240,71 @@ class UserServiceTest {
         verify(userRepository, never()).save(any());
     }
 
+    @Test
+    @DisplayName("setProfilePhoto - Should update the profile and retire the previous photo")
+    void setProfilePhoto_ReplacesAndRetiresPrevious() {
+        // Given
+        MockMultipartFile file = new MockMultipartFile("file", "new.png", "image/png", new byte[]{1, 2, 3});
+        testUser.setPhotoUrl("https://s3.example.com/bucket/users/old.png");
+        when(currentUserService.ensureCurrentUser(authentication)).thenReturn(testUser);
+        when(authentication.getName()).thenReturn("keycloak-123");
+        when(rustFsService.uploadFile(file, "users", authentication)).thenReturn(ImageUploadResponse.builder()
+                .imageUrl("https://s3.example.com/bucket/users/new.png")
+                .generatedFilename("new.png")
+                .build());
+        when(mediaService.isOwnedBy("users/old.png", "keycloak-123")).thenReturn(true);
+
+        // When
+        ImageUploadResponse response = userService.setProfilePhoto(file, authentication);
+
+        // Then
+        assertThat(response.getImageUrl()).isEqualTo("https://s3.example.com/bucket/users/new.png");
+        assertThat(testUser.getPhotoUrl()).isEqualTo("https://s3.example.com/bucket/users/new.png");
+        verify(userRepository).save(testUser);
+        verify(rustFsService).deleteFileInBackground("users/old.png", authentication);
+        // Upload terminé avant l'ouverture de la transaction
+        InOrder order = inOrder(rustFsService, transactionTemplate, currentUserService);
+        order.verify(rustFsService).uploadFile(file, "users", authentication);
+        order.verify(transactionTemplate).executeWithoutResult(any());
+        order.verify(currentUserService).ensureCurrentUser(authentication);
+    }
+
+    @Test
+    @DisplayName("setProfilePhoto - Should not open a transaction when the upload fails")
+    void setProfilePhoto_UploadFails_NoTransaction() {
+        // Given
+        MockMultipartFile file = new MockMultipartFile("file", "new.png", "image/png", new byte[]{1, 2, 3});
+        when(rustFsService.uploadFile(file, "users", authentication))
+                .thenThrow(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "RustFS indisponible"));
+
+        // When & Then
+        assertThatThrownBy(() -> userService.setProfilePhoto(file, authentication))
+                .isInstanceOf(ResponseStatusException.class);
+        verifyNoInteractions(transactionTemplate, currentUserService, userRepository);
+    }
+
+    @Test
+    @DisplayName("setProfilePhoto - Should keep a previous photo the user did not upload")
+    void setProfilePhoto_ForeignPrevious_NotDeleted() {
+        // Given
+        MockMultipartFile file = new MockMultipartFile("file", "new.png", "image/png", new byte[]{1, 2, 3});
+        testUser.setPhotoUrl("https://s3.example.com/bucket/users/someone-else.png");
+        when(currentUserService.ensureCurrentUser(authentication)).thenReturn(testUser);
+        when(authentication.getName()).thenReturn("keycloak-123");
+        when(rustFsService.uploadFile(file, "users", authentication)).thenReturn(ImageUploadResponse.builder()
+                .imageUrl("https://s3.example.com/bucket/users/new.png")
+                .generatedFilename("new.png")
+                .build());
+        when(mediaService.isOwnedBy("users/someone-else.png", "keycloak-123")).thenReturn(false);
+
+        // When
+        userService.setProfilePhoto(file, authentication);
+
+        // Then
+        verify(userRepository).save(testUser);
+        verify(rustFsService, never()).deleteFileInBackground(any(), any());
+    }
+
     @Test
     @DisplayName("deleteAccount - Should delete user from Keycloak and database")
     void deleteAccount_Success() {
@@ -233,6 +319,7 @@ class UserServiceTest {
         // Then
         verify(keycloakService).deleteUser("keycloak-123");
         verify(userRepository).delete(testUser);
+        verify(mediaService).removeOwner("keycloak-123");
     }
 
     @Test
@@ -0,0 +1,169 @@
+package com.benseddik.template.service.ratelimit;
+
+import com.benseddik.template.config.RateLimitProperties;
+import com.benseddik.template.repository.RateLimitBucketRepository;
+import com.benseddik.template.repository.RateLimitBucketRepository.Grant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JdbcRateLimitStore - Unit Tests")
+class JdbcRateLimitStoreTest {
+
+    private static final String KEY = "ip:203.0.113.7";
+    private static final RateLimitPolicy POLICY = new RateLimitPolicy(60, Duration.ofMinutes(1));
+
+    @Mock
+    private RateLimitBucketRepository repository;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private RateLimitProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private JdbcRateLimitStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.getDistributed().setLeaseSize(10);
+        properties.getDistributed().setLeaseTtl(Duration.ofSeconds(1));
+        properties.getDistributed().setMaxDenialCache(Duration.ofMillis(500));
+        meterRegistry = new SimpleMeterRegistry();
+        store = new JdbcRateLimitStore(repository, properties, meterRegistry, clock::get);
+    }
+
+    @Test
+    @DisplayName("tryConsume - Should serve a whole lease from a single database round trip")
+    void tryConsume_LeaseServedLocally() {
+        // Given
+        when(repository.lease(eq(KEY), eq(10L), eq(1L), eq(0L), eq(60L), anyDouble())).thenReturn(new Grant(10, 40));
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            assertThat(store.tryConsume(KEY, POLICY, 1).allowed()).isTrue();
+        }
+
+        // Then
+        verify(repository, times(1)).lease(eq(KEY), anyLong(), anyLong(), anyLong(), anyLong(), anyDouble());
+        assertThat(meterRegistry.get("rate.limit.store.round.trips").counter().count()).isEqualTo(1.0);
+
+        // Bail expiré : nouvel aller-retour
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        store.tryConsume(KEY, POLICY, 1);
+        verify(repository, times(2)).lease(eq(KEY), anyLong(), anyLong(), anyLong(), anyLong(), anyDouble());
+    }
+
+    @Test
+    @DisplayName("tryConsume - Should replay a denial locally until the refill is due, bounded by the denial cache")
+    void tryConsume_EmptySharedBucket_DenialCached() {
+        // Given : seau partagé vide, un jeton par seconde
+        when(repository.lease(eq(KEY), anyLong(), anyLong(), anyLong(), anyLong(), anyDouble())).thenReturn(new Grant(0, 0.25));
+
+        // When
+        RateLimitResult first = store.tryConsume(KEY, POLICY, 1);
+        RateLimitResult second = store.tryConsume(KEY, POLICY, 1);
+
+        // Then
+        assertThat(first.allowed()).isFalse();
+        assertThat(first.retryAfterNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(750));
+        assertThat(second.allowed()).isFalse();
+        verify(repository, times(1)).lease(eq(KEY), anyLong(), anyLong(), anyLong(), anyLong(), anyDouble());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        store.tryConsume(KEY, POLICY, 1);
+        verify(repository, times(2)).lease(eq(KEY), anyLong(), anyLong(), anyLong(), anyLong(), anyDouble());
+    }
+
+    @Test
+    @DisplayName("tryConsume - Should return unused leased tokens to the shared bucket when a lease expires")
+    void tryConsume_LeaseExpiry_NoTokenLost() {
+        // Given : seau partagé de 60 jetons sans remplissage, bail de 10 jetons expirant toutes les 100 ms
+        properties.getDistributed().setLeaseTtl(Duration.ofMillis(100));
+        AtomicLong shared = sharedBucket(60);
+
+        // When : un jeton par bail, chaque bail expire avant le suivant
+        long allowed = 0;
+        for (int i = 0; i < 200; i++) {
+            if (store.tryConsume(KEY, POLICY, 1).allowed()) {
+                allowed++;
+            }
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+        }
+
+        // Then
+        assertThat(allowed).isEqualTo(60);
+        assertThat(shared.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("tryConsume - Should not debit the shared bucket for a request it cannot fully grant")
+    void tryConsume_InsufficientTokens_NothingDebited() {
+        // Given
+        AtomicLong shared = sharedBucket(5);
+
+        // When
+        RateLimitResult costly = store.tryConsume(KEY, POLICY, 10);
+
+        // Then
+        assertThat(costly.allowed()).isFalse();
+        assertThat(shared.get()).isEqualTo(5);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(store.tryConsume(KEY, POLICY, 5).allowed()).isTrue();
+        assertThat(shared.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("tryConsume - Should fall back to local buckets when the database is unavailable")
+    void tryConsume_DatabaseDown_LocalFallback() {
+        // Given
+        when(repository.lease(eq(KEY), anyLong(), anyLong(), anyLong(), anyLong(), anyDouble()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        // When
+        long allowed = 0;
+        for (int i = 0; i < 61; i++) {
+            if (store.tryConsume(KEY, POLICY, 1).allowed()) {
+                allowed++;
+            }
+        }
+
+        // Then
+        assertThat(allowed).isEqualTo(60);
+        assertThat(meterRegistry.get("rate.limit.store.fallback").counter().count()).isEqualTo(61.0);
+    }
+
+    /**
+     * Seau partagé simulé, sans remplissage : mêmes règles de restitution et de réservation que l'upsert
+     */
+    private AtomicLong sharedBucket(long tokens) {
+        AtomicLong shared = new AtomicLong(tokens);
+        when(repository.lease(eq(KEY), anyLong(), anyLong(), anyLong(), anyLong(), anyDouble())).thenAnswer(invocation -> {
+            long requested = invocation.getArgument(1);
+            long minimum = invocation.getArgument(2);
+            long returned = invocation.getArgument(3);
+            long capacity = invocation.getArgument(4);
+            long available = Math.min(capacity, shared.get() + returned);
+            long granted = available >= minimum ? Math.min(requested, available) : 0;
+            shared.set(available - granted);
+            return new Grant(granted, shared.get());
+        });
+        return shared;
+    }
+}
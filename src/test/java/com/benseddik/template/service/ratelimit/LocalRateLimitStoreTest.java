@@ -0,0 +1,70 @@
+package com.benseddik.template.service.ratelimit;
+
+import com.benseddik.template.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LocalRateLimitStore - Unit Tests")
+class LocalRateLimitStoreTest {
+
+    private static final int MAX_BUCKETS = 10_000;
+    private static final RateLimitPolicy POLICY = new RateLimitPolicy(5, Duration.ofMinutes(1));
+
+    private SimpleMeterRegistry meterRegistry;
+    private LocalRateLimitStore store;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxBuckets(MAX_BUCKETS);
+        meterRegistry = new SimpleMeterRegistry();
+        store = new LocalRateLimitStore(properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("tryConsume - Should deny once the bucket is empty and report the refill delay")
+    void tryConsume_EmptyBucket_Denied() {
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertThat(store.tryConsume("198.51.100.1", POLICY, 1).allowed()).isTrue();
+        }
+        RateLimitResult denied = store.tryConsume("198.51.100.1", POLICY, 1);
+
+        // Then
+        assertThat(denied.allowed()).isFalse();
+        assertThat(denied.retryAfterNanos()).isPositive();
+        assertThat(store.tryConsume("198.51.100.2", POLICY, 1).allowed()).isTrue();
+    }
+
+    @Test
+    @DisplayName("tryConsume - Should stay bounded under millions of unique keys and keep a regular client's bucket")
+    void tryConsume_UniqueKeyFlood_Bounded() {
+        // Given : client régulier dont le seau est vide
+        String regular = "198.51.100.1";
+        for (int i = 0; i < 5; i++) {
+            store.tryConsume(regular, POLICY, 1);
+        }
+
+        // When : deux millions d'adresses vues une seule fois
+        for (int i = 0; i < 2_000_000; i++) {
+            store.tryConsume("2001:db8::" + Integer.toHexString(i), POLICY, 1);
+            if (i % 1_000 == 0) {
+                store.tryConsume(regular, POLICY, 1);
+            }
+        }
+
+        // Then
+        assertThat(store.size()).isLessThanOrEqualTo(MAX_BUCKETS);
+        assertThat(store.tryConsume(regular, POLICY, 1).allowed()).isFalse();
+        assertThat(meterRegistry.get("cache.evictions").tag("cache", "rate.limit.buckets").functionCounter().count())
+                .isGreaterThanOrEqualTo(2_000_000 - MAX_BUCKETS);
+        assertThat(meterRegistry.get("rate.limit.buckets.memory").gauge().value())
+                .isLessThanOrEqualTo(MAX_BUCKETS * LocalRateLimitStore.ESTIMATED_ENTRY_BYTES);
+    }
+}
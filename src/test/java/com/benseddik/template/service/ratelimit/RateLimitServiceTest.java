@@ -0,0 +1,120 @@
+package com.benseddik.template.service.ratelimit;
+
+import com.benseddik.template.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RateLimitService - Unit Tests")
+class RateLimitServiceTest {
+
+    private static final String IP = "198.51.100.1";
+
+    private RateLimitService rateLimitService;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setIp(new RateLimitProperties.Limit(100, Duration.ofMinutes(1)));
+        properties.setAnonymous(new RateLimitProperties.Limit(20, Duration.ofMinutes(1)));
+        properties.setAuthenticated(new RateLimitProperties.Limit(60, Duration.ofMinutes(1)));
+        properties.getUploadBandwidth().setCapacity(DataSize.ofMegabytes(15));
+
+        RateLimitProperties.Route register = new RateLimitProperties.Route();
+        register.setMethod("POST");
+        register.setPath("/auth/register");
+        register.setCost(10);
+        RateLimitProperties.Route upload = new RateLimitProperties.Route();
+        upload.setMethod("POST");
+        upload.setPath("/images/users");
+        upload.setCost(5);
+        upload.setUpload(true);
+        properties.setRoutes(List.of(register, upload));
+
+        rateLimitService = new RateLimitService(new LocalRateLimitStore(properties, new SimpleMeterRegistry()), properties);
+    }
+
+    @Test
+    @DisplayName("consumeByAddress - Should charge one token per request, whatever the route cost")
+    void consumeByAddress_FloodGuard() {
+        // When
+        RateLimitDecision first = rateLimitService.consumeByAddress(IP);
+        for (int i = 0; i < 98; i++) {
+            rateLimitService.consumeByAddress(IP);
+        }
+        RateLimitDecision last = rateLimitService.consumeByAddress(IP);
+        RateLimitDecision denied = rateLimitService.consumeByAddress(IP);
+
+        // Then
+        assertThat(first.allowed()).isTrue();
+        assertThat(first.limit()).isEqualTo(100);
+        assertThat(first.remaining()).isEqualTo(99);
+        assertThat(last.remaining()).isZero();
+        assertThat(denied.allowed()).isFalse();
+        assertThat(denied.retryAfter()).isPositive();
+    }
+
+    @Test
+    @DisplayName("consumeBySubject - Should charge route costs to the anonymous per-IP bucket")
+    void consumeBySubject_Anonymous_RouteCost() {
+        // When
+        RateLimitDecision first = rateLimitService.consumeBySubject(null, IP, "POST", "/auth/register", -1).orElseThrow();
+        RateLimitDecision second = rateLimitService.consumeBySubject(null, IP, "POST", "/auth/register", -1).orElseThrow();
+        RateLimitDecision third = rateLimitService.consumeBySubject(null, IP, "GET", "/users/me", -1).orElseThrow();
+
+        // Then
+        assertThat(first.allowed()).isTrue();
+        assertThat(first.limit()).isEqualTo(20);
+        assertThat(first.remaining()).isEqualTo(10);
+        assertThat(first.reset()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(second.remaining()).isZero();
+        assertThat(third.allowed()).isFalse();
+        assertThat(third.retryAfter()).isPositive();
+    }
+
+    @Test
+    @DisplayName("consumeBySubject - Should key authenticated calls on the subject, independently of the IP")
+    void consumeBySubject_KeyedOnSubject() {
+        // Given : seau anonyme de l'adresse épuisé
+        for (int i = 0; i < 20; i++) {
+            rateLimitService.consumeBySubject(null, IP, "GET", "/users/me", -1);
+        }
+
+        // When
+        RateLimitDecision anonymous = rateLimitService.consumeBySubject(null, IP, "GET", "/users/me", -1).orElseThrow();
+        RateLimitDecision bySubject = rateLimitService.consumeBySubject("user-1", IP, "GET", "/users/me", -1).orElseThrow();
+        RateLimitDecision otherAddress = rateLimitService.consumeBySubject("user-1", "203.0.113.9", "GET", "/users/me", -1)
+                .orElseThrow();
+
+        // Then
+        assertThat(anonymous.allowed()).isFalse();
+        assertThat(bySubject.allowed()).isTrue();
+        assertThat(bySubject.limit()).isEqualTo(60);
+        assertThat(otherAddress.remaining()).isEqualTo(58);
+    }
+
+    @Test
+    @DisplayName("consumeBySubject - Should deny uploads over the byte budget while request tokens remain")
+    void consumeBySubject_UploadBandwidthExceeded() {
+        // When
+        RateLimitDecision first = rateLimitService.consumeBySubject("user-1", IP, "POST", "/images/users",
+                DataSize.ofMegabytes(10).toBytes()).orElseThrow();
+        RateLimitDecision second = rateLimitService.consumeBySubject("user-1", IP, "POST", "/images/users",
+                DataSize.ofMegabytes(10).toBytes()).orElseThrow();
+
+        // Then
+        assertThat(first.allowed()).isTrue();
+        assertThat(second.allowed()).isFalse();
+        assertThat(second.remaining()).isEqualTo(50);
+        assertThat(second.reason()).isEqualTo("Volume d'upload dépassé");
+        // 5 Mo manquants à 15 Mo/min : 20 s
+        assertThat(second.retryAfter()).isBetween(Duration.ofSeconds(19), Duration.ofSeconds(20));
+    }
+}
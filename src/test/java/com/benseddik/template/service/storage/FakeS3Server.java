@@ -0,0 +1,654 @@
+package com.benseddik.template.service.storage;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serveur compatible S3 en mémoire, dans le processus des tests
+ * <p>
+ * Sert en HTTP (adressage par chemin, comme RustFS) le sous-ensemble utilisé par
+ * {@link S3StorageBackend} : PUT, GET (plages et requêtes conditionnelles), HEAD, DELETE,
+ * ListObjectsV2, DeleteObjects et upload multipart. Les signatures ne sont pas vérifiées.
+ * <p>
+ * Latence, débit par requête et pannes sont injectables pour mesurer le chemin de stockage
+ * réel (client HTTP, sérialisation, résilience) sans Docker ni MinIO.
+ */
+public final class FakeS3Server implements AutoCloseable {
+
+    private static final String S3_NAMESPACE = "http://s3.amazonaws.com/doc/2006-03-01/";
+    private static final int IO_CHUNK = 64 * 1024;
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+    private static final Pattern RANGE = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+    private static final Pattern PART = Pattern.compile(
+            "<Part>.*?<PartNumber>(\\d+)</PartNumber>.*?</Part>", Pattern.DOTALL);
+    private static final Pattern OBJECT_KEY = Pattern.compile("<Key>(.*?)</Key>", Pattern.DOTALL);
+
+    private record StoredEntry(byte[] content, String contentType, String eTag, Instant lastModified) {
+    }
+
+    private record PendingUpload(String bucket, String key, String contentType, Map<Integer, byte[]> parts) {
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, ConcurrentSkipListMap<String, StoredEntry>> buckets = new ConcurrentHashMap<>();
+    private final Map<String, PendingUpload> multipartUploads = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+    private final LongAdder bytesReceived = new LongAdder();
+
+    private volatile Duration latency = Duration.ZERO;
+    private volatile long bytesPerSecond;
+    private final AtomicInteger failuresToInject = new AtomicInteger();
+    private volatile int injectedStatus = 503;
+    private volatile double failureRate;
+    private final Random failureRandom = new Random(0);
+    private final AtomicLong failuresInjected = new AtomicLong();
+
+    private FakeS3Server(HttpServer server) {
+        this.server = server;
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Démarrer sur un port libre de l'interface locale
+     */
+    public static FakeS3Server start() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        FakeS3Server fake = new FakeS3Server(server);
+        server.start();
+        return fake;
+    }
+
+    /**
+     * URL à placer dans {@code rustfs.endpoint}
+     */
+    public String endpoint() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public FakeS3Server createBucket(String bucket) {
+        buckets.computeIfAbsent(bucket, name -> new ConcurrentSkipListMap<>());
+        return this;
+    }
+
+    /**
+     * Délai ajouté avant chaque réponse (temps jusqu'au premier octet)
+     */
+    public FakeS3Server latency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * Débit maximal de chaque requête, à l'envoi comme à la réception ; 0 = illimité
+     */
+    public FakeS3Server bandwidth(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        return this;
+    }
+
+    /**
+     * Faire échouer les {@code count} prochaines requêtes avec ce statut (500, 503...)
+     */
+    public FakeS3Server failNext(int count, int status) {
+        this.injectedStatus = status;
+        this.failuresToInject.set(count);
+        return this;
+    }
+
+    /**
+     * Faire échouer une part des requêtes, tirée d'une graine fixe pour des mesures reproductibles
+     */
+    public FakeS3Server failureRate(double rate, int status, long seed) {
+        synchronized (failureRandom) {
+            failureRandom.setSeed(seed);
+        }
+        this.injectedStatus = status;
+        this.failureRate = rate;
+        return this;
+    }
+
+    public Optional<byte[]> object(String bucket, String key) {
+        return Optional.ofNullable(bucket(bucket)).map(entries -> entries.get(key)).map(StoredEntry::content);
+    }
+
+    public int objectCount(String bucket) {
+        ConcurrentSkipListMap<String, StoredEntry> entries = bucket(bucket);
+        return entries != null ? entries.size() : 0;
+    }
+
+    public int pendingMultipartUploads() {
+        return multipartUploads.size();
+    }
+
+    /**
+     * Requêtes reçues pour une opération (PutObject, GetObject, UploadPart...), échecs injectés compris
+     */
+    public long requestCount(String operation) {
+        LongAdder count = requestCounts.get(operation);
+        return count != null ? count.sum() : 0;
+    }
+
+    public long failuresInjected() {
+        return failuresInjected.get();
+    }
+
+    public long bytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Routage
+    // ------------------------------------------------------------------------------------------
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            int slash = path.indexOf('/', 1);
+            String bucket = slash < 0 ? path.substring(1) : path.substring(1, slash);
+            String key = slash < 0 ? "" : path.substring(slash + 1);
+            String operation = operation(method, key, query);
+            requestCounts.computeIfAbsent(operation, op -> new LongAdder()).increment();
+
+            byte[] body = readBody(exchange);
+            pause(latency);
+            if (shouldFail()) {
+                failuresInjected.incrementAndGet();
+                sendError(exchange, injectedStatus, injectedStatus == 503 ? "SlowDown" : "InternalError",
+                        "Panne injectée");
+                return;
+            }
+
+            ConcurrentSkipListMap<String, StoredEntry> entries = bucket(bucket);
+            if (entries == null && !"CreateBucket".equals(operation)) {
+                sendError(exchange, 404, "NoSuchBucket", "Bucket inconnu: " + bucket);
+                return;
+            }
+            switch (operation) {
+                case "CreateBucket" -> {
+                    createBucket(bucket);
+                    send(exchange, 200, null, null);
+                }
+                case "HeadBucket" -> send(exchange, 200, null, null);
+                case "ListObjectsV2" -> listObjects(exchange, bucket, entries, query);
+                case "DeleteObjects" -> deleteObjects(exchange, entries, body);
+                case "PutObject" -> putObject(exchange, entries, key, body);
+                case "GetObject", "HeadObject" -> getObject(exchange, entries, key);
+                case "DeleteObject" -> {
+                    entries.remove(key);
+                    send(exchange, 204, null, null);
+                }
+                case "CreateMultipartUpload" -> createMultipartUpload(exchange, bucket, key);
+                case "UploadPart" -> uploadPart(exchange, query, body);
+                case "CompleteMultipartUpload" -> completeMultipartUpload(exchange, entries, bucket, key, query, body);
+                case "AbortMultipartUpload" -> {
+                    multipartUploads.remove(query.get("uploadId"));
+                    send(exchange, 204, null, null);
+                }
+                default -> sendError(exchange, 501, "NotImplemented", "Opération non prise en charge: " + operation);
+            }
+        }
+    }
+
+    private static String operation(String method, String key, Map<String, String> query) {
+        if (key.isEmpty()) {
+            return switch (method) {
+                case "PUT" -> "CreateBucket";
+                case "HEAD" -> "HeadBucket";
+                case "GET" -> "ListObjectsV2";
+                case "POST" -> query.containsKey("delete") ? "DeleteObjects" : "Unsupported";
+                default -> "Unsupported";
+            };
+        }
+        return switch (method) {
+            case "PUT" -> query.containsKey("uploadId") ? "UploadPart" : "PutObject";
+            case "GET" -> "GetObject";
+            case "HEAD" -> "HeadObject";
+            case "DELETE" -> query.containsKey("uploadId") ? "AbortMultipartUpload" : "DeleteObject";
+            case "POST" -> query.containsKey("uploads") ? "CreateMultipartUpload"
+                    : query.containsKey("uploadId") ? "CompleteMultipartUpload" : "Unsupported";
+            default -> "Unsupported";
+        };
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Opérations
+    // ------------------------------------------------------------------------------------------
+
+    private void putObject(HttpExchange exchange, ConcurrentSkipListMap<String, StoredEntry> entries,
+                           String key, byte[] body) throws IOException {
+        if (exchange.getRequestHeaders().containsKey("x-amz-copy-source")) {
+            sendError(exchange, 501, "NotImplemented", "CopyObject non pris en charge");
+            return;
+        }
+        StoredEntry entry = new StoredEntry(body, contentType(exchange), quote(md5Hex(body)), now());
+        entries.put(key, entry);
+        exchange.getResponseHeaders().set("ETag", entry.eTag());
+        send(exchange, 200, null, null);
+    }
+
+    private void getObject(HttpExchange exchange, ConcurrentSkipListMap<String, StoredEntry> entries, String key)
+            throws IOException {
+        StoredEntry entry = entries.get(key);
+        if (entry == null) {
+            sendError(exchange, 404, "NoSuchKey", "Clé inconnue: " + key);
+            return;
+        }
+        Headers request = exchange.getRequestHeaders();
+        Headers response = exchange.getResponseHeaders();
+        response.set("ETag", entry.eTag());
+        response.set("Last-Modified", HTTP_DATE.format(entry.lastModified()));
+        response.set("Accept-Ranges", "bytes");
+        response.set("Content-Type", entry.contentType());
+
+        if (notModified(request, entry)) {
+            send(exchange, 304, null, null);
+            return;
+        }
+
+        byte[] content = entry.content();
+        String range = request.getFirst("Range");
+        if (range == null) {
+            send(exchange, 200, content, null);
+            return;
+        }
+        long[] bounds = parseRange(range, content.length);
+        if (bounds == null) {
+            response.set("Content-Range", "bytes */" + content.length);
+            sendError(exchange, 416, "InvalidRange", "Plage invalide: " + range);
+            return;
+        }
+        byte[] slice = new byte[(int) (bounds[1] - bounds[0] + 1)];
+        System.arraycopy(content, (int) bounds[0], slice, 0, slice.length);
+        response.set("Content-Range", "bytes " + bounds[0] + "-" + bounds[1] + "/" + content.length);
+        send(exchange, 206, slice, null);
+    }
+
+    private void listObjects(HttpExchange exchange, String bucket, ConcurrentSkipListMap<String, StoredEntry> entries,
+                             Map<String, String> query) throws IOException {
+        String prefix = query.getOrDefault("prefix", "");
+        int maxKeys = Integer.parseInt(query.getOrDefault("max-keys", "1000"));
+        String token = query.get("continuation-token");
+        boolean urlEncoded = "url".equals(query.get("encoding-type"));
+
+        Map<String, StoredEntry> candidates = token != null ? entries.tailMap(token, false) : entries;
+        List<Map.Entry<String, StoredEntry>> page = new ArrayList<>();
+        boolean truncated = false;
+        for (Map.Entry<String, StoredEntry> entry : candidates.entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                continue;
+            }
+            if (page.size() == maxKeys) {
+                truncated = true;
+                break;
+            }
+            page.add(entry);
+        }
+
+        StringBuilder xml = new StringBuilder("<ListBucketResult xmlns=\"" + S3_NAMESPACE + "\">")
+                .append(element("Name", bucket))
+                .append(element("Prefix", urlEncoded ? encodeKey(prefix) : prefix))
+                .append(element("KeyCount", String.valueOf(page.size())))
+                .append(element("MaxKeys", String.valueOf(maxKeys)))
+                .append(element("IsTruncated", String.valueOf(truncated)));
+        if (urlEncoded) {
+            xml.append(element("EncodingType", "url"));
+        }
+        for (Map.Entry<String, StoredEntry> entry : page) {
+            xml.append("<Contents>")
+                    .append(element("Key", urlEncoded ? encodeKey(entry.getKey()) : entry.getKey()))
+                    .append(element("LastModified", DateTimeFormatter.ISO_INSTANT.format(entry.getValue().lastModified())))
+                    .append(element("ETag", entry.getValue().eTag()))
+                    .append(element("Size", String.valueOf(entry.getValue().content().length)))
+                    .append(element("StorageClass", "STANDARD"))
+                    .append("</Contents>");
+        }
+        if (truncated) {
+            xml.append(element("NextContinuationToken", page.get(page.size() - 1).getKey()));
+        }
+        xml.append("</ListBucketResult>");
+        sendXml(exchange, 200, xml.toString());
+    }
+
+    private void deleteObjects(HttpExchange exchange, ConcurrentSkipListMap<String, StoredEntry> entries, byte[] body)
+            throws IOException {
+        String request = new String(body, StandardCharsets.UTF_8);
+        boolean quiet = request.contains("<Quiet>true</Quiet>");
+        StringBuilder xml = new StringBuilder("<DeleteResult xmlns=\"" + S3_NAMESPACE + "\">");
+        Matcher keys = OBJECT_KEY.matcher(request);
+        while (keys.find()) {
+            String key = unescapeXml(keys.group(1));
+            entries.remove(key);
+            if (!quiet) {
+                xml.append("<Deleted>").append(element("Key", key)).append("</Deleted>");
+            }
+        }
+        xml.append("</DeleteResult>");
+        sendXml(exchange, 200, xml.toString());
+    }
+
+    private void createMultipartUpload(HttpExchange exchange, String bucket, String key) throws IOException {
+        String uploadId = UUID.randomUUID().toString();
+        multipartUploads.put(uploadId, new PendingUpload(bucket, key, contentType(exchange), new ConcurrentHashMap<>()));
+        sendXml(exchange, 200, "<InitiateMultipartUploadResult xmlns=\"" + S3_NAMESPACE + "\">"
+                + element("Bucket", bucket) + element("Key", key) + element("UploadId", uploadId)
+                + "</InitiateMultipartUploadResult>");
+    }
+
+    private void uploadPart(HttpExchange exchange, Map<String, String> query, byte[] body) throws IOException {
+        PendingUpload upload = multipartUploads.get(query.get("uploadId"));
+        if (upload == null) {
+            sendError(exchange, 404, "NoSuchUpload", "Upload inconnu: " + query.get("uploadId"));
+            return;
+        }
+        upload.parts().put(Integer.parseInt(query.get("partNumber")), body);
+        exchange.getResponseHeaders().set("ETag", quote(md5Hex(body)));
+        send(exchange, 200, null, null);
+    }
+
+    private void completeMultipartUpload(HttpExchange exchange, ConcurrentSkipListMap<String, StoredEntry> entries,
+                                         String bucket, String key, Map<String, String> query, byte[] body)
+            throws IOException {
+        PendingUpload upload = multipartUploads.remove(query.get("uploadId"));
+        if (upload == null) {
+            sendError(exchange, 404, "NoSuchUpload", "Upload inconnu: " + query.get("uploadId"));
+            return;
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        ByteArrayOutputStream partDigests = new ByteArrayOutputStream();
+        Matcher parts = PART.matcher(new String(body, StandardCharsets.UTF_8));
+        int count = 0;
+        while (parts.find()) {
+            byte[] part = upload.parts().get(Integer.parseInt(parts.group(1)));
+            if (part == null) {
+                sendError(exchange, 400, "InvalidPart", "Part absente: " + parts.group(1));
+                return;
+            }
+            content.writeBytes(part);
+            partDigests.writeBytes(md5(part));
+            count++;
+        }
+        String eTag = quote(md5Hex(partDigests.toByteArray()) + "-" + count);
+        entries.put(key, new StoredEntry(content.toByteArray(), upload.contentType(), eTag, now()));
+        sendXml(exchange, 200, "<CompleteMultipartUploadResult xmlns=\"" + S3_NAMESPACE + "\">"
+                + element("Bucket", bucket) + element("Key", key) + element("ETag", eTag)
+                + "</CompleteMultipartUploadResult>");
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // HTTP
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * Corps de la requête, décodé du format aws-chunked utilisé par le SDK pour les envois
+     * signés en flux ou accompagnés d'une somme de contrôle en fin de corps
+     */
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        Headers headers = exchange.getRequestHeaders();
+        String contentSha = headers.getFirst("x-amz-content-sha256");
+        String encoding = headers.getFirst("Content-Encoding");
+        boolean awsChunked = (contentSha != null && contentSha.startsWith("STREAMING-"))
+                || (encoding != null && encoding.contains("aws-chunked"));
+
+        InputStream in = exchange.getRequestBody();
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        byte[] buffer = new byte[IO_CHUNK];
+        long start = System.nanoTime();
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            raw.write(buffer, 0, read);
+            total += read;
+            throttle(total, start);
+        }
+        bytesReceived.add(total);
+        return awsChunked ? decodeAwsChunked(raw.toByteArray()) : raw.toByteArray();
+    }
+
+    private static byte[] decodeAwsChunked(byte[] raw) {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream(raw.length);
+        int position = 0;
+        while (position < raw.length) {
+            int lineEnd = indexOfCrlf(raw, position);
+            String header = new String(raw, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int semicolon = header.indexOf(';');
+            int size = Integer.parseInt((semicolon >= 0 ? header.substring(0, semicolon) : header).trim(), 16);
+            position = lineEnd + 2;
+            if (size == 0) {
+                break; // Suivent les en-têtes de fin (somme de contrôle), ignorés
+            }
+            decoded.write(raw, position, size);
+            position += size + 2;
+        }
+        return decoded.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] data, int from) {
+        for (int i = from; i < data.length - 1; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return data.length;
+    }
+
+    private void send(HttpExchange exchange, int status, byte[] body, String contentType) throws IOException {
+        if (contentType != null) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+        }
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            if (body != null) {
+                exchange.getResponseHeaders().set("Content-Length", String.valueOf(body.length));
+            }
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        if (body == null || body.length == 0 || status == 204 || status == 304) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        OutputStream out = exchange.getResponseBody();
+        long start = System.nanoTime();
+        for (int offset = 0; offset < body.length; offset += IO_CHUNK) {
+            int length = Math.min(IO_CHUNK, body.length - offset);
+            out.write(body, offset, length);
+            throttle(offset + length, start);
+        }
+    }
+
+    private void sendXml(HttpExchange exchange, int status, String xml) throws IOException {
+        send(exchange, status, ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + xml).getBytes(StandardCharsets.UTF_8),
+                "application/xml");
+    }
+
+    private void sendError(HttpExchange exchange, int status, String code, String message) throws IOException {
+        sendXml(exchange, status, "<Error>" + element("Code", code) + element("Message", message)
+                + element("RequestId", UUID.randomUUID().toString()) + "</Error>");
+    }
+
+    /**
+     * Attendre que le débit moyen depuis {@code startNanos} repasse sous la limite
+     */
+    private void throttle(long bytes, long startNanos) {
+        long limit = bytesPerSecond;
+        if (limit <= 0) {
+            return;
+        }
+        long expectedNanos = bytes * 1_000_000_000L / limit;
+        long aheadNanos = expectedNanos - (System.nanoTime() - startNanos);
+        if (aheadNanos > 0) {
+            pause(Duration.ofNanos(aheadNanos));
+        }
+    }
+
+    private boolean shouldFail() {
+        if (failuresToInject.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+            return true;
+        }
+        if (failureRate <= 0) {
+            return false;
+        }
+        synchronized (failureRandom) {
+            return failureRandom.nextDouble() < failureRate;
+        }
+    }
+
+    private static boolean notModified(Headers request, StoredEntry entry) {
+        String ifNoneMatch = request.getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            return Set.of(ifNoneMatch.split("\\s*,\\s*")).contains(entry.eTag()) || "*".equals(ifNoneMatch);
+        }
+        String ifModifiedSince = request.getFirst("If-Modified-Since");
+        if (ifModifiedSince != null) {
+            try {
+                Instant since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                return !entry.lastModified().isAfter(since);
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Bornes incluses de la plage, ou null si elle n'est pas satisfiable
+     */
+    private static long[] parseRange(String range, long length) {
+        Matcher matcher = RANGE.matcher(range.trim());
+        if (!matcher.matches() || (matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+            return null;
+        }
+        long first;
+        long last;
+        if (matcher.group(1).isEmpty()) {
+            long suffix = Long.parseLong(matcher.group(2));
+            first = Math.max(0, length - suffix);
+            last = length - 1;
+        } else {
+            first = Long.parseLong(matcher.group(1));
+            last = matcher.group(2).isEmpty() ? length - 1 : Math.min(Long.parseLong(matcher.group(2)), length - 1);
+        }
+        return first < length && first <= last ? new long[]{first, last} : null;
+    }
+
+    private ConcurrentSkipListMap<String, StoredEntry> bucket(String bucket) {
+        return buckets.get(bucket);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            String name = URLDecoder.decode(equals >= 0 ? parameter.substring(0, equals) : parameter, StandardCharsets.UTF_8);
+            String value = equals >= 0 ? URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8) : "";
+            query.put(name, value);
+        }
+        return query;
+    }
+
+    private static String contentType(HttpExchange exchange) {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        return contentType != null ? contentType : "application/octet-stream";
+    }
+
+    private static Instant now() {
+        // Précision de l'en-tête Last-Modified, pour que If-Modified-Since compare à l'identique
+        return Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private static void pause(Duration duration) {
+        if (duration.isZero() || duration.isNegative()) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(duration.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String element(String name, String value) {
+        return "<" + name + ">" + escapeXml(value) + "</" + name + ">";
+    }
+
+    private static String encodeKey(String key) {
+        return URLEncoder.encode(key, StandardCharsets.UTF_8).replace("+", "%20").replace("%2F", "/");
+    }
+
+    private static String escapeXml(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static String unescapeXml(String value) {
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&apos;", "'")
+                .replace("&amp;", "&");
+    }
+
+    private static String quote(String eTag) {
+        return "\"" + eTag + "\"";
+    }
+
+    private static String md5Hex(byte[] content) {
+        return HexFormat.of().formatHex(md5(content));
+    }
+
+    private static byte[] md5(byte[] content) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 indisponible", e);
+        }
+    }
+}
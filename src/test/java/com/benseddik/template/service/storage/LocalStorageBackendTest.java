@@ -0,0 +1,145 @@
+package com.benseddik.template.service.storage;
+
+import com.benseddik.template.config.RustFsProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("LocalStorageBackend - Unit Tests")
+class LocalStorageBackendTest {
+
+    @TempDir
+    Path directory;
+
+    private LocalStorageBackend storageBackend;
+
+    @BeforeEach
+    void setUp() {
+        RustFsProperties rustFsProperties = new RustFsProperties();
+        rustFsProperties.getStorage().setLocalDirectory(directory.toString());
+        storageBackend = new LocalStorageBackend(rustFsProperties);
+        storageBackend.verify();
+    }
+
+    @Test
+    @DisplayName("put - Should store the file under the root and expose its metadata")
+    void put_StoresFile() throws IOException {
+        // When
+        put("users/a.jpg", "0123456789");
+
+        // Then
+        assertThat(Files.readString(directory.resolve("users/a.jpg"))).isEqualTo("0123456789");
+        Optional<StoredObjectInfo> info = storageBackend.head("users/a.jpg");
+        assertThat(info).isPresent();
+        assertThat(info.get().size()).isEqualTo(10);
+        assertThat(info.get().contentType()).isEqualTo("image/jpeg");
+    }
+
+    @Test
+    @DisplayName("put - Should reject a truncated stream without leaving a file")
+    void put_TruncatedStream_Throws() throws IOException {
+        // When & Then
+        assertThatThrownBy(() -> storageBackend.put("users/a.jpg", "image/jpeg",
+                new ByteArrayInputStream(new byte[5]), 10))
+                .isInstanceOf(IOException.class);
+        try (var files = Files.list(directory.resolve("users"))) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("get - Should serve the requested range from the file channel")
+    void get_Range_ServesSlice() throws IOException {
+        // Given
+        put("users/a.jpg", "0123456789");
+
+        // When
+        StoredObject object = storageBackend.get("users/a.jpg", new ReadConditions("bytes=2-5", null, null)).orElseThrow();
+
+        // Then
+        assertThat(object.channel()).isNotNull();
+        assertThat(object.contentRange()).isEqualTo("bytes 2-5/10");
+        try (InputStream stream = object.openStream()) {
+            assertThat(new String(stream.readAllBytes())).isEqualTo("2345");
+        }
+    }
+
+    @Test
+    @DisplayName("get - Should report a matching ETag as not modified")
+    void get_MatchingETag_NotModified() throws IOException {
+        // Given
+        put("users/a.jpg", "0123456789");
+        String eTag = storageBackend.head("users/a.jpg").orElseThrow().eTag();
+
+        // When
+        StoredObject object = storageBackend.get("users/a.jpg", new ReadConditions(null, eTag, null)).orElseThrow();
+
+        // Then
+        assertThat(object.notModified()).isTrue();
+        assertThat(object.eTag()).isEqualTo(eTag);
+    }
+
+    @Test
+    @DisplayName("get - Should return 416 when the range starts past the end")
+    void get_UnsatisfiableRange_Throws416() throws IOException {
+        // Given
+        put("users/a.jpg", "0123456789");
+
+        // When & Then
+        assertThatThrownBy(() -> storageBackend.get("users/a.jpg", new ReadConditions("bytes=20-", null, null)))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+    }
+
+    @Test
+    @DisplayName("get - Should return empty for a missing file")
+    void get_Missing_ReturnsEmpty() {
+        assertThat(storageBackend.get("users/missing.jpg", ReadConditions.none())).isEmpty();
+        assertThat(storageBackend.head("users/missing.jpg")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("resolve - Should reject keys escaping the root directory")
+    void get_PathTraversal_Throws400() {
+        assertThatThrownBy(() -> storageBackend.get("../outside.jpg", ReadConditions.none()))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("deleteAll - Should delete existing files and ignore missing ones")
+    void deleteAll_DeletesFiles() throws IOException {
+        // Given
+        put("users/a.jpg", "a");
+        put("users/b.jpg", "b");
+
+        // When
+        var errors = storageBackend.deleteAll(List.of("users/a.jpg", "users/b.jpg", "users/missing.jpg"));
+
+        // Then
+        assertThat(errors).isEmpty();
+        assertThat(storageBackend.head("users/a.jpg")).isEmpty();
+        assertThat(storageBackend.head("users/b.jpg")).isEmpty();
+    }
+
+    private void put(String key, String content) throws IOException {
+        byte[] bytes = content.getBytes();
+        storageBackend.put(key, "image/jpeg", new ByteArrayInputStream(bytes), bytes.length);
+    }
+}
@@ -0,0 +1,213 @@
+package com.benseddik.template.service.storage;
+
+import com.benseddik.template.config.RustFsConfig;
+import com.benseddik.template.config.RustFsProperties;
+import com.benseddik.template.service.StorageResilience;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link S3StorageBackend} contre {@link FakeS3Server} : vrais clients HTTP construits par
+ * {@link RustFsConfig}, sans mock du SDK
+ */
+@Slf4j
+@DisplayName("S3StorageBackend - Fake S3 server")
+class S3StorageBackendFakeServerTest {
+
+    private static final String BUCKET = "test-bucket";
+
+    private FakeS3Server fakeS3;
+    private RustFsProperties rustFsProperties;
+    private S3Client s3Client;
+    private S3AsyncClient s3AsyncClient;
+    private S3Presigner s3Presigner;
+    private StorageResilience storageResilience;
+    private S3StorageBackend storageBackend;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fakeS3 = FakeS3Server.start().createBucket(BUCKET);
+
+        rustFsProperties = new RustFsProperties();
+        rustFsProperties.setEndpoint(fakeS3.endpoint());
+        rustFsProperties.setBucketName(BUCKET);
+        rustFsProperties.setRegion("us-east-1");
+        rustFsProperties.setAccessKey("test");
+        rustFsProperties.setSecretKey("test");
+        rustFsProperties.getUpload().setMultipartThreshold(DataSize.ofMegabytes(6));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RustFsConfig rustFsConfig = new RustFsConfig(rustFsProperties, meterRegistry);
+        s3Client = rustFsConfig.s3Client();
+        s3AsyncClient = rustFsConfig.s3AsyncClient();
+        s3Presigner = rustFsConfig.s3Presigner();
+        storageResilience = new StorageResilience(rustFsProperties, meterRegistry);
+        storageBackend = new S3StorageBackend(s3Client, s3AsyncClient, s3Presigner, rustFsProperties, storageResilience);
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Client.close();
+        s3AsyncClient.close();
+        s3Presigner.close();
+        storageResilience.shutdown();
+        fakeS3.close();
+    }
+
+    @Test
+    @DisplayName("Should store, read, list and delete objects over HTTP")
+    void roundTrip() throws IOException {
+        // Given
+        byte[] content = randomBytes(100_000);
+        storageBackend.verify();
+
+        // When
+        storageBackend.put("users/a.jpg", "image/jpeg", new ByteArrayInputStream(content), content.length);
+        storageBackend.put("users/b.jpg", "image/jpeg", new ByteArrayInputStream(content), content.length);
+        storageBackend.put("dogs/c.jpg", "image/jpeg", new ByteArrayInputStream(content), content.length);
+
+        // Then
+        assertThat(fakeS3.object(BUCKET, "users/a.jpg")).hasValueSatisfying(stored -> assertThat(stored).isEqualTo(content));
+        Optional<StoredObjectInfo> head = storageBackend.head("users/a.jpg");
+        assertThat(head).hasValueSatisfying(info -> {
+            assertThat(info.contentType()).isEqualTo("image/jpeg");
+            assertThat(info.size()).isEqualTo(content.length);
+        });
+        assertThat(storageBackend.head("users/missing.jpg")).isEmpty();
+
+        StoredObject range = storageBackend.get("users/a.jpg", new ReadConditions("bytes=10-19", null, null)).orElseThrow();
+        try (InputStream body = range.openStream()) {
+            assertThat(body.readAllBytes()).isEqualTo(Arrays.copyOfRange(content, 10, 20));
+        }
+        assertThat(range.contentRange()).isEqualTo("bytes 10-19/" + content.length);
+        StoredObject notModified = storageBackend.get("users/a.jpg", new ReadConditions(null, head.get().eTag(), null))
+                .orElseThrow();
+        assertThat(notModified.notModified()).isTrue();
+
+        List<String> listed = new ArrayList<>();
+        storageBackend.list("users", page -> page.forEach(object -> listed.add(object.key())));
+        assertThat(listed).containsExactly("users/a.jpg", "users/b.jpg");
+
+        Map<String, String> errors = storageBackend.deleteAll(List.of("users/a.jpg", "users/b.jpg"));
+        storageBackend.delete("dogs/c.jpg");
+        assertThat(errors).isEmpty();
+        assertThat(fakeS3.objectCount(BUCKET)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should assemble multipart uploads, sync, async and part by part")
+    void multipartUploads() throws Exception {
+        // Given
+        byte[] large = randomBytes(7 * 1024 * 1024);
+        Path spoolFile = Files.createTempFile("fake-s3-", ".bin");
+        Files.write(spoolFile, large);
+
+        // When
+        storageBackend.put("users/large.jpg", "image/jpeg", new ByteArrayInputStream(large), large.length);
+        storageBackend.putAsync("users/async.jpg", "image/jpeg", spoolFile, large.length).join();
+        String multipartId = storageBackend.startMultipart("users/parts.jpg", "image/jpeg").orElseThrow();
+        UploadedPart first = storageBackend.uploadPart("users/parts.jpg", multipartId, 1,
+                new ByteArrayInputStream(large, 0, 5 * 1024 * 1024), 5 * 1024 * 1024);
+        UploadedPart second = storageBackend.uploadPart("users/parts.jpg", multipartId, 2,
+                new ByteArrayInputStream(large, 5 * 1024 * 1024, large.length - 5 * 1024 * 1024),
+                large.length - 5 * 1024 * 1024);
+        storageBackend.completeMultipart("users/parts.jpg", multipartId, List.of(first, second));
+
+        // Then
+        assertThat(fakeS3.object(BUCKET, "users/large.jpg")).hasValueSatisfying(stored -> assertThat(stored).isEqualTo(large));
+        assertThat(fakeS3.object(BUCKET, "users/async.jpg")).hasValueSatisfying(stored -> assertThat(stored).isEqualTo(large));
+        assertThat(fakeS3.object(BUCKET, "users/parts.jpg")).hasValueSatisfying(stored -> assertThat(stored).isEqualTo(large));
+        assertThat(fakeS3.requestCount("UploadPart")).isGreaterThanOrEqualTo(4);
+        assertThat(fakeS3.pendingMultipartUploads()).isZero();
+        Files.deleteIfExists(spoolFile);
+    }
+
+    @Test
+    @DisplayName("Should retry idempotent reads on injected failures and never replay a write")
+    void injectedFailures() throws IOException {
+        // Given
+        byte[] content = randomBytes(1_000);
+        storageBackend.put("users/a.jpg", "image/jpeg", new ByteArrayInputStream(content), content.length);
+
+        // When
+        fakeS3.failNext(1, 503);
+        Optional<StoredObjectInfo> head = storageBackend.head("users/a.jpg");
+        fakeS3.failNext(1, 503);
+
+        // Then
+        assertThat(head).isPresent();
+        assertThat(fakeS3.requestCount("HeadObject")).isEqualTo(2);
+        assertThatThrownBy(() -> storageBackend.put("users/b.jpg", "image/jpeg",
+                new ByteArrayInputStream(content), content.length))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThat(fakeS3.requestCount("PutObject")).isEqualTo(2);
+        assertThat(fakeS3.object(BUCKET, "users/b.jpg")).isEmpty();
+        assertThat(fakeS3.failuresInjected()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should measure upload latency under injected latency and bandwidth limits")
+    void uploadLatencyUnderConstraints() throws IOException {
+        // Given
+        int uploads = 20;
+        int size = 256 * 1024;
+        fakeS3.latency(Duration.ofMillis(20)).bandwidth(DataSize.ofMegabytes(10).toBytes());
+        byte[] content = randomBytes(size);
+        // Chauffe : chargement des classes et première connexion hors mesure
+        storageBackend.put("users/warmup.jpg", "image/jpeg", new ByteArrayInputStream(content), size);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+        // When
+        long[] latencies = new long[uploads];
+        for (int i = 0; i < uploads; i++) {
+            long start = System.nanoTime();
+            storageBackend.put("users/" + i + ".jpg", "image/jpeg", new ByteArrayInputStream(content), size);
+            latencies[i] = System.nanoTime() - start;
+        }
+        long heapAfter = memory.getHeapMemoryUsage().getUsed();
+
+        // Then
+        Arrays.sort(latencies);
+        Duration p50 = Duration.ofNanos(latencies[uploads / 2]);
+        Duration max = Duration.ofNanos(latencies[uploads - 1]);
+        log.info("Upload de {} x {} Ko - p50: {} ms, max: {} ms, tas: {} Ko -> {} Ko", uploads, size / 1024,
+                p50.toMillis(), max.toMillis(), heapBefore / 1024, heapAfter / 1024);
+        // 20 ms de latence + 256 Ko à 10 Mo/s (~25 ms) : plancher d'environ 45 ms par upload
+        assertThat(p50).isGreaterThanOrEqualTo(Duration.ofMillis(40));
+        assertThat(fakeS3.objectCount(BUCKET)).isEqualTo(uploads + 1);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] content = new byte[size];
+        new Random(42).nextBytes(content);
+        return content;
+    }
+}
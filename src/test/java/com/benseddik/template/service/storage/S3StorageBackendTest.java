@@ -0,0 +1,196 @@
+package com.benseddik.template.service.storage;
+
+import com.benseddik.template.config.RustFsProperties;
+import com.benseddik.template.service.StorageResilience;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("S3StorageBackend - Unit Tests")
+class S3StorageBackendTest {
+
+    @Mock
+    private S3Client s3Client;
+
+    @Mock
+    private S3AsyncClient s3AsyncClient;
+
+    @Mock
+    private S3Presigner s3Presigner;
+
+    private RustFsProperties rustFsProperties;
+    private S3StorageBackend storageBackend;
+
+    @BeforeEach
+    void setUp() {
+        rustFsProperties = new RustFsProperties();
+        rustFsProperties.setEndpoint("https://s3.example.com");
+        rustFsProperties.setBucketName("test-bucket");
+        rustFsProperties.getResilience().setMaxRetries(0);
+        StorageResilience storageResilience = new StorageResilience(rustFsProperties, new SimpleMeterRegistry());
+        storageBackend = new S3StorageBackend(s3Client, s3AsyncClient, s3Presigner, rustFsProperties, storageResilience);
+    }
+
+    @Test
+    @DisplayName("physicalKey - Should keep the logical key when the hash prefix is disabled")
+    void physicalKey_NoPrefix_Unchanged() {
+        assertThat(storageBackend.physicalKey("users/a.jpg")).isEqualTo("users/a.jpg");
+        assertThat(storageBackend.publicUrl("users/a.jpg")).isEqualTo("https://s3.example.com/test-bucket/users/a.jpg");
+    }
+
+    @Test
+    @DisplayName("physicalKey - Should prepend a stable SHA-256 prefix")
+    void physicalKey_HashPrefix_Stable() {
+        // Given
+        rustFsProperties.getStorage().setHashPrefixLength(2);
+
+        // When
+        String physicalKey = storageBackend.physicalKey("users/a.jpg");
+
+        // Then
+        assertThat(physicalKey).matches("[0-9a-f]{2}/users/a\\.jpg");
+        assertThat(storageBackend.physicalKey("users/a.jpg")).isEqualTo(physicalKey);
+        assertThat(storageBackend.publicUrl("users/a.jpg")).endsWith("/test-bucket/" + physicalKey);
+    }
+
+    @Test
+    @DisplayName("head - Should query the prefixed key and map the metadata")
+    void head_HashPrefix_UsesPhysicalKey() {
+        // Given
+        rustFsProperties.getStorage().setHashPrefixLength(2);
+        Instant lastModified = Instant.parse("2026-01-01T00:00:00Z");
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenReturn(HeadObjectResponse.builder()
+                .contentType("image/png")
+                .contentLength(42L)
+                .eTag("\"e\"")
+                .lastModified(lastModified)
+                .build());
+
+        // When
+        Optional<StoredObjectInfo> info = storageBackend.head("users/a.png");
+
+        // Then
+        ArgumentCaptor<HeadObjectRequest> captor = ArgumentCaptor.forClass(HeadObjectRequest.class);
+        verify(s3Client).headObject(captor.capture());
+        assertThat(captor.getValue().key()).isEqualTo(storageBackend.physicalKey("users/a.png"));
+        assertThat(info).contains(new StoredObjectInfo("image/png", 42L, "\"e\"", lastModified));
+    }
+
+    @Test
+    @DisplayName("head - Should return empty for a missing object")
+    void head_Missing_ReturnsEmpty() {
+        // Given
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+
+        // When & Then
+        assertThat(storageBackend.head("users/missing.png")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("get - Should answer a 304 with the stored ETag rather than the client's If-None-Match")
+    void get_NotModified_StoredETag() {
+        // Given
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenThrow(notModified("\"e\""));
+
+        // When
+        Optional<StoredObject> object = storageBackend.get("users/a.png", new ReadConditions(null, "*", null));
+
+        // Then
+        assertThat(object).hasValueSatisfying(notModified -> {
+            assertThat(notModified.notModified()).isTrue();
+            assertThat(notModified.eTag()).isEqualTo("\"e\"");
+        });
+    }
+
+    @Test
+    @DisplayName("get - Should read the ETag with a HEAD when the 304 does not carry it")
+    void get_NotModifiedWithoutETag_Head() {
+        // Given
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenThrow(notModified(null));
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenReturn(HeadObjectResponse.builder()
+                .contentType("image/png").contentLength(42L).eTag("\"e\"").build());
+
+        // When
+        Optional<StoredObject> object =
+                storageBackend.get("users/a.png", new ReadConditions(null, "\"x\", \"e\"", null));
+
+        // Then
+        assertThat(object).hasValueSatisfying(notModified -> assertThat(notModified.eTag()).isEqualTo("\"e\""));
+    }
+
+    @Test
+    @DisplayName("list - Should follow continuation tokens and strip the hash prefix")
+    void list_HashPrefix_PagesAndMapsLogicalKeys() {
+        // Given
+        rustFsProperties.getStorage().setHashPrefixLength(2);
+        Instant lastModified = Instant.parse("2026-01-01T00:00:00Z");
+        when(s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(
+                ListObjectsV2Response.builder()
+                        .contents(s3Object("3f/users/a.jpg", lastModified), s3Object("a1/walks/b.jpg", lastModified))
+                        .isTruncated(true)
+                        .nextContinuationToken("next")
+                        .build(),
+                ListObjectsV2Response.builder()
+                        .contents(s3Object("0c/users/c.jpg", lastModified), s3Object("unprefixed.jpg", lastModified))
+                        .isTruncated(false)
+                        .build());
+
+        // When
+        List<ListedObject> listed = new ArrayList<>();
+        storageBackend.list("users", listed::addAll);
+
+        // Then
+        ArgumentCaptor<ListObjectsV2Request> captor = ArgumentCaptor.forClass(ListObjectsV2Request.class);
+        verify(s3Client, times(2)).listObjectsV2(captor.capture());
+        assertThat(captor.getAllValues().get(0).prefix()).isNull();
+        assertThat(captor.getAllValues().get(1).continuationToken()).isEqualTo("next");
+        assertThat(listed).containsExactly(
+                new ListedObject("users/a.jpg", 10, lastModified),
+                new ListedObject("users/c.jpg", 10, lastModified));
+    }
+
+    private static S3Object s3Object(String key, Instant lastModified) {
+        return S3Object.builder().key(key).size(10L).lastModified(lastModified).build();
+    }
+
+    private static S3Exception notModified(String eTag) {
+        SdkHttpResponse.Builder response = SdkHttpResponse.builder().statusCode(304);
+        if (eTag != null) {
+            response.putHeader("ETag", eTag);
+        }
+        return (S3Exception) S3Exception.builder()
+                .statusCode(304)
+                .awsErrorDetails(AwsErrorDetails.builder().sdkHttpResponse(response.build()).build())
+                .build();
+    }
+}
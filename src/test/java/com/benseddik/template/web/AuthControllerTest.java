@@ -1,9 +1,17 @@
 package com.benseddik.template.web;
 
+import com.benseddik.template.config.ConcurrencyLimitProperties;
+import com.benseddik.template.config.RateLimitProperties;
 import com.benseddik.template.config.TestSecurityConfig;
+import com.benseddik.template.service.ConcurrencyLimitService;
 import com.benseddik.template.service.KeycloakService;
+import com.benseddik.template.service.UploadAdmissionService;
+import com.benseddik.template.service.UploadQuotaService;
 import com.benseddik.template.service.dto.RegisterRequest;
+import com.benseddik.template.service.ratelimit.LocalRateLimitStore;
+import com.benseddik.template.service.ratelimit.RateLimitService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,7 +27,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AuthController.class)
-@Import(TestSecurityConfig.class)
+@Import({TestSecurityConfig.class, RateLimitProperties.class, LocalRateLimitStore.class, RateLimitService.class,
+        ConcurrencyLimitProperties.class, ConcurrencyLimitService.class, SimpleMeterRegistry.class})
 @DisplayName("AuthController - Integration Tests")
 class AuthControllerTest {
 
@@ -32,6 +41,12 @@ class AuthControllerTest {
     @MockBean
     private KeycloakService keycloakService;
 
+    @MockBean
+    private UploadQuotaService uploadQuotaService;
+
+    @MockBean
+    private UploadAdmissionService uploadAdmissionService;
+
     @Test
     @DisplayName("POST /auth/register - Should register user successfully")
     void register_Success() throws Exception {
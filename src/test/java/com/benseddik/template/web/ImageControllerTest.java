@@ -1,8 +1,22 @@
 package com.benseddik.template.web;
 
+import com.benseddik.template.config.ConcurrencyLimitProperties;
+import com.benseddik.template.config.RateLimitProperties;
 import com.benseddik.template.config.TestSecurityConfig;
+import com.benseddik.template.service.ConcurrencyLimitService;
+import com.benseddik.template.service.MediaService;
 import com.benseddik.template.service.RustFsService;
+import com.benseddik.template.service.UploadAdmissionService;
+import com.benseddik.template.service.UploadQuotaService;
+import com.benseddik.template.service.dto.AsyncUploadStatusResponse;
+import com.benseddik.template.service.dto.BatchDeleteResponse;
+import com.benseddik.template.service.dto.ImageDownload;
 import com.benseddik.template.service.dto.ImageUploadResponse;
+import com.benseddik.template.service.dto.MediaPageResponse;
+import com.benseddik.template.service.dto.PresignedUploadResponse;
+import com.benseddik.template.service.ratelimit.LocalRateLimitStore;
+import com.benseddik.template.service.ratelimit.RateLimitService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,12 +24,21 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.ByteArrayInputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -25,7 +48,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ImageController.class)
-@Import(TestSecurityConfig.class)
+@Import({TestSecurityConfig.class, RateLimitProperties.class, LocalRateLimitStore.class, RateLimitService.class,
+        ConcurrencyLimitProperties.class, ConcurrencyLimitService.class, SimpleMeterRegistry.class})
 @DisplayName("ImageController - Integration Tests")
 class ImageControllerTest {
 
@@ -35,6 +59,15 @@ class ImageControllerTest {
     @MockBean
     private RustFsService rustFsService;
 
+    @MockBean
+    private MediaService mediaService;
+
+    @MockBean
+    private UploadQuotaService uploadQuotaService;
+
+    @MockBean
+    private UploadAdmissionService uploadAdmissionService;
+
     @Test
     @DisplayName("POST /images/users - Should upload image successfully")
     @WithMockUser(roles = "USER")
@@ -182,14 +215,14 @@ class ImageControllerTest {
     @WithMockUser(roles = "USER")
     void deleteImage_Success() throws Exception {
         // Given
-        doNothing().when(rustFsService).deleteFile("users", "test-123.jpg");
+        doNothing().when(rustFsService).deleteFile(eq("users"), eq("test-123.jpg"), any());
 
         // When & Then
         mockMvc.perform(delete("/images/users/test-123.jpg")
                         .with(jwt()))
                 .andExpect(status().isNoContent());
 
-        verify(rustFsService).deleteFile("users", "test-123.jpg");
+        verify(rustFsService).deleteFile(eq("users"), eq("test-123.jpg"), any());
     }
 
     @Test
@@ -199,7 +232,7 @@ class ImageControllerTest {
         mockMvc.perform(delete("/images/users/test-123.jpg"))
                 .andExpect(status().isUnauthorized());
 
-        verify(rustFsService, never()).deleteFile(any(), any());
+        verify(rustFsService, never()).deleteFile(any(), any(), any());
     }
 
     @Test
@@ -208,14 +241,14 @@ class ImageControllerTest {
     void deleteImage_NotFound_Returns404() throws Exception {
         // Given
         doThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Fichier non trouvé"))
-                .when(rustFsService).deleteFile("users", "non-existent.jpg");
+                .when(rustFsService).deleteFile(eq("users"), eq("non-existent.jpg"), any());
 
         // When & Then
         mockMvc.perform(delete("/images/users/non-existent.jpg")
                         .with(jwt()))
                 .andExpect(status().isNotFound());
 
-        verify(rustFsService).deleteFile("users", "non-existent.jpg");
+        verify(rustFsService).deleteFile(eq("users"), eq("non-existent.jpg"), any());
     }
 
     @Test
@@ -224,14 +257,14 @@ class ImageControllerTest {
     void deleteImage_SpecialCharactersInFilename_Success() throws Exception {
         // Given
         String filename = "test-file%20with%20spaces.jpg";
-        doNothing().when(rustFsService).deleteFile(eq("users"), anyString());
+        doNothing().when(rustFsService).deleteFile(eq("users"), anyString(), any());
 
         // When & Then
         mockMvc.perform(delete("/images/users/" + filename)
                         .with(jwt()))
                 .andExpect(status().isNoContent());
 
-        verify(rustFsService).deleteFile(eq("users"), anyString());
+        verify(rustFsService).deleteFile(eq("users"), anyString(), any());
     }
 
     @Test
@@ -303,4 +336,301 @@ class ImageControllerTest {
 
         verify(rustFsService).uploadFile(any(), eq("users"), any());
     }
+
+    @Test
+    @DisplayName("POST /images/users/async - Should return 202 with upload id")
+    @WithMockUser(roles = "USER")
+    void uploadUserImageAsync_ReturnsAccepted() throws Exception {
+        // Given
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "test-image.jpg",
+                "image/jpeg",
+                "test image content".getBytes()
+        );
+
+        AsyncUploadStatusResponse pending = AsyncUploadStatusResponse.builder()
+                .uploadId("upload-123")
+                .status(AsyncUploadStatusResponse.Status.PENDING)
+                .uploadedBy("testuser")
+                .submittedAt(Instant.now())
+                .build();
+
+        when(rustFsService.uploadFileAsync(any(), eq("users"), any())).thenReturn(pending);
+
+        // When & Then
+        mockMvc.perform(multipart("/images/users/async")
+                        .file(file)
+                        .with(jwt()))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", org.hamcrest.Matchers.endsWith("/images/uploads/upload-123")))
+                .andExpect(jsonPath("$.uploadId").value("upload-123"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        verify(rustFsService).uploadFileAsync(any(), eq("users"), any());
+    }
+
+    @Test
+    @DisplayName("GET /images/uploads/{uploadId} - Should return completed upload")
+    @WithMockUser(roles = "USER")
+    void getUploadStatus_Completed() throws Exception {
+        // Given
+        AsyncUploadStatusResponse completed = AsyncUploadStatusResponse.builder()
+                .uploadId("upload-123")
+                .status(AsyncUploadStatusResponse.Status.COMPLETED)
+                .result(ImageUploadResponse.builder()
+                        .imageUrl("https://s3.example.com/bucket/users/test-123.jpg")
+                        .folder("users")
+                        .build())
+                .build();
+
+        when(rustFsService.getAsyncUploadStatus(eq("upload-123"), any())).thenReturn(completed);
+
+        // When & Then
+        mockMvc.perform(get("/images/uploads/upload-123")
+                        .with(jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.result.imageUrl").value("https://s3.example.com/bucket/users/test-123.jpg"));
+    }
+
+    @Test
+    @DisplayName("POST /images/presigned - Should return presigned upload URL")
+    @WithMockUser(roles = "USER")
+    void createPresignedUpload_Success() throws Exception {
+        // Given
+        PresignedUploadResponse presigned = PresignedUploadResponse.builder()
+                .uploadUrl("https://s3.example.com/bucket/users/abc.png?X-Amz-Signature=sig")
+                .method("PUT")
+                .key("users/abc.png")
+                .headers(Map.of("Content-Type", "image/png"))
+                .expiresAt(Instant.now().plusSeconds(600))
+                .build();
+
+        when(rustFsService.createPresignedUpload(any(), any())).thenReturn(presigned);
+
+        // When & Then
+        mockMvc.perform(post("/images/presigned")
+                        .with(jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"folder":"users","filename":"avatar.png","contentType":"image/png","sizeBytes":2048}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.method").value("PUT"))
+                .andExpect(jsonPath("$.key").value("users/abc.png"))
+                .andExpect(jsonPath("$.headers['Content-Type']").value("image/png"));
+    }
+
+    @Test
+    @DisplayName("POST /images/presigned - Should return 400 when size is missing")
+    @WithMockUser(roles = "USER")
+    void createPresignedUpload_InvalidRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/images/presigned")
+                        .with(jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"folder":"users","filename":"avatar.png","contentType":"image/png"}
+                                """))
+                .andExpect(status().isBadRequest());
+
+        verify(rustFsService, never()).createPresignedUpload(any(), any());
+    }
+
+    @Test
+    @DisplayName("POST /images/presigned/complete - Should finalize upload")
+    @WithMockUser(roles = "USER")
+    void completePresignedUpload_Success() throws Exception {
+        // Given
+        ImageUploadResponse uploaded = ImageUploadResponse.builder()
+                .imageUrl("https://s3.example.com/bucket/users/abc.png")
+                .folder("users")
+                .build();
+
+        when(rustFsService.completePresignedUpload(eq("users/abc.png"), any())).thenReturn(uploaded);
+
+        // When & Then
+        mockMvc.perform(post("/images/presigned/complete")
+                        .with(jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"key":"users/abc.png"}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imageUrl").value("https://s3.example.com/bucket/users/abc.png"));
+    }
+
+    @Test
+    @DisplayName("POST /images/batch-delete - Should return per-key results")
+    @WithMockUser(roles = "USER")
+    void deleteImages_Success() throws Exception {
+        // Given
+        BatchDeleteResponse batch = BatchDeleteResponse.builder()
+                .deleted(1)
+                .failed(0)
+                .results(List.of(BatchDeleteResponse.KeyResult.builder()
+                        .key("users/a.jpg")
+                        .status(BatchDeleteResponse.Status.DELETED)
+                        .build()))
+                .build();
+
+        when(rustFsService.deleteFiles(any(), any())).thenReturn(batch);
+
+        // When & Then
+        mockMvc.perform(post("/images/batch-delete")
+                        .with(jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"keys":["users/a.jpg"]}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("DELETED"));
+    }
+
+    @Test
+    @DisplayName("POST /images/batch-delete - Should return 400 for empty key list")
+    @WithMockUser(roles = "USER")
+    void deleteImages_EmptyKeys() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/images/batch-delete")
+                        .with(jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"keys":[]}
+                                """))
+                .andExpect(status().isBadRequest());
+
+        verify(rustFsService, never()).deleteFiles(any(), any());
+    }
+
+    @Test
+    @DisplayName("GET /images/me - Should list the current user's images")
+    @WithMockUser(roles = "USER")
+    void listMyImages_Success() throws Exception {
+        // Given
+        MediaPageResponse mediaPage = MediaPageResponse.builder()
+                .items(List.of())
+                .page(1)
+                .size(10)
+                .totalElements(12)
+                .totalPages(2)
+                .totalSizeBytes(4096)
+                .build();
+
+        when(mediaService.listForOwner(any(), eq(1), eq(10))).thenReturn(mediaPage);
+
+        // When & Then
+        mockMvc.perform(get("/images/me")
+                        .with(jwt())
+                        .param("page", "1")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(12))
+                .andExpect(jsonPath("$.totalSizeBytes").value(4096));
+    }
+
+    @Test
+    @DisplayName("GET /images/{folder}/{filename} - Should stream image with long cache on immutable key")
+    void getImage_StreamsWithCacheHeaders() throws Exception {
+        // Given
+        byte[] content = "image bytes".getBytes();
+        ImageDownload image = ImageDownload.builder()
+                .content(new ByteArrayInputStream(content))
+                .contentType("image/jpeg")
+                .contentLength((long) content.length)
+                .eTag("\"abc\"")
+                .immutable(true)
+                .build();
+
+        when(rustFsService.openImage(eq("users"), eq("123e4567-e89b-12d3-a456-426614174000.jpg"), any(), any(), any()))
+                .thenReturn(image);
+
+        // When
+        MvcResult result = mockMvc.perform(get("/images/users/123e4567-e89b-12d3-a456-426614174000.jpg"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"))
+                .andExpect(header().string("ETag", "\"abc\""))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(content().bytes(content));
+    }
+
+    @Test
+    @DisplayName("GET /images/{folder}/{filename} - Should return 206 for a range")
+    void getImage_PartialContent() throws Exception {
+        // Given
+        ImageDownload image = ImageDownload.builder()
+                .content(new ByteArrayInputStream(new byte[10]))
+                .contentType("image/jpeg")
+                .contentLength(10L)
+                .contentRange("bytes 0-9/100")
+                .eTag("\"abc\"")
+                .build();
+
+        when(rustFsService.openImage(eq("users"), eq("avatar.jpg"), eq("bytes=0-9"), any(), any())).thenReturn(image);
+
+        // When
+        MvcResult result = mockMvc.perform(get("/images/users/avatar.jpg").header("Range", "bytes=0-9"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 0-9/100"))
+                .andExpect(header().string("Cache-Control", "no-cache, public"));
+    }
+
+    @Test
+    @DisplayName("GET /images/{folder}/{filename} - Should return 304 when ETag matches")
+    void getImage_NotModified() throws Exception {
+        // Given
+        ImageDownload image = ImageDownload.builder()
+                .eTag("\"abc\"")
+                .notModified(true)
+                .immutable(true)
+                .build();
+
+        when(rustFsService.openImage(eq("users"), eq("avatar.jpg"), any(), eq("\"abc\""), any())).thenReturn(image);
+
+        // When & Then
+        mockMvc.perform(get("/images/users/avatar.jpg").header("If-None-Match", "\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"abc\""));
+    }
+
+    @Test
+    @DisplayName("GET /images/{folder}/{filename} - Should serve a disk-cached image through its file channel")
+    void getImage_FromDiskCache() throws Exception {
+        // Given
+        Path file = Files.createTempFile("image-cache", ".img");
+        Files.write(file, "0123456789".getBytes());
+        ImageDownload image = ImageDownload.builder()
+                .fileChannel(FileChannel.open(file, StandardOpenOption.READ))
+                .position(2)
+                .contentLength(5L)
+                .contentRange("bytes 2-6/10")
+                .contentType("image/jpeg")
+                .eTag("\"abc\"")
+                .build();
+
+        when(rustFsService.openImage(eq("users"), eq("avatar.jpg"), eq("bytes=2-6"), any(), any())).thenReturn(image);
+
+        // When
+        MvcResult result = mockMvc.perform(get("/images/users/avatar.jpg").header("Range", "bytes=2-6"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("23456"));
+        Files.deleteIfExists(file);
+    }
 }
@@ -1,10 +1,18 @@
 package com.benseddik.template.web;
 
+import com.benseddik.template.config.ConcurrencyLimitProperties;
+import com.benseddik.template.config.RateLimitProperties;
 import com.benseddik.template.config.TestSecurityConfig;
+import com.benseddik.template.service.ConcurrencyLimitService;
+import com.benseddik.template.service.UploadAdmissionService;
+import com.benseddik.template.service.UploadQuotaService;
 import com.benseddik.template.service.UserService;
 import com.benseddik.template.service.dto.MeResponse;
 import com.benseddik.template.service.dto.UpdateProfileRequest;
+import com.benseddik.template.service.ratelimit.LocalRateLimitStore;
+import com.benseddik.template.service.ratelimit.RateLimitService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,7 +33,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
-@Import(TestSecurityConfig.class)
+@Import({TestSecurityConfig.class, RateLimitProperties.class, LocalRateLimitStore.class, RateLimitService.class,
+        ConcurrencyLimitProperties.class, ConcurrencyLimitService.class, SimpleMeterRegistry.class})
 @DisplayName("UserController - Integration Tests")
 class UserControllerTest {
 
@@ -38,6 +47,12 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UploadQuotaService uploadQuotaService;
+
+    @MockBean
+    private UploadAdmissionService uploadAdmissionService;
+
     @Test
     @DisplayName("GET /users/me - Should return user profile")
     @WithMockUser(roles = "USER")
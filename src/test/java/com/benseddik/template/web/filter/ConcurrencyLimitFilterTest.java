@@ -0,0 +1,163 @@
+package com.benseddik.template.web.filter;
+
+import com.benseddik.template.config.ConcurrencyLimitProperties;
+import com.benseddik.template.service.ConcurrencyLimitService;
+import com.benseddik.template.service.ConcurrencyLimitService.Outcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ConcurrencyLimitFilter - Unit Tests")
+class ConcurrencyLimitFilterTest {
+
+    private static final HandlerExceptionResolver RESOLVER = (request, response, handler, ex) -> null;
+
+    @Test
+    @DisplayName("Should keep the limit on local 503 rejections and cut it only on downstream failures")
+    void localRejection_LimitUnchanged() throws ServletException, IOException {
+        // Given
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setWindowSize(10);
+        ConcurrencyLimitProperties.Group storage = new ConcurrencyLimitProperties.Group();
+        storage.setName("storage");
+        storage.setPaths(List.of("/images/**"));
+        properties.setGroups(List.of(storage));
+        ConcurrencyLimitService concurrencyLimitService = new ConcurrencyLimitService(properties, new SimpleMeterRegistry());
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(concurrencyLimitService, RESOLVER);
+
+        // When : admission, disjoncteur ouvert… refus produits par l'application
+        for (int i = 0; i < 20; i++) {
+            send(filter, new MockHttpServletRequest("GET", "/images/users/a.jpg"), new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest request, HttpServletResponse response) {
+                    response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                }
+            });
+        }
+
+        // Then
+        assertThat(concurrencyLimitService.limit("storage")).isEqualTo(10);
+
+        // When : délai dépassé vers RustFS, signalé par la couche de résilience
+        for (int i = 0; i < 10; i++) {
+            send(filter, new MockHttpServletRequest("GET", "/images/users/a.jpg"), new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest request, HttpServletResponse response) {
+                    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+                    try {
+                        ConcurrencyLimitService.markDownstreamFailure();
+                    } finally {
+                        RequestContextHolder.resetRequestAttributes();
+                    }
+                    response.setStatus(HttpStatus.GATEWAY_TIMEOUT.value());
+                }
+            });
+        }
+
+        // Then
+        assertThat(concurrencyLimitService.limit("storage")).isLessThan(10);
+    }
+
+    @Test
+    @DisplayName("Should ignore upload latency in groups that do not sample request bodies")
+    void upload_NotSampled() throws ServletException, IOException {
+        // Given
+        ConcurrencyLimitService concurrencyLimitService = mock(ConcurrencyLimitService.class);
+        ConcurrencyLimitService.Permit permit = mock(ConcurrencyLimitService.Permit.class);
+        when(concurrencyLimitService.acquire(anyString())).thenReturn(permit);
+        when(permit.samplesRequestBodies()).thenReturn(false);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(concurrencyLimitService, RESOLVER);
+        MockHttpServletRequest upload = new MockHttpServletRequest("POST", "/images/users");
+        upload.setContent(new byte[1024]);
+
+        // When
+        send(filter, upload, new HttpServlet() {
+        });
+        send(filter, new MockHttpServletRequest("GET", "/images/users/a.jpg"), new HttpServlet() {
+        });
+
+        // Then
+        verify(permit).release(Outcome.IGNORED);
+        verify(permit).release(Outcome.SUCCESS);
+    }
+
+    @Test
+    @DisplayName("Should sample a streamed response when the async request completes")
+    void asyncResponse_SampledOnCompletion() throws ServletException, IOException {
+        // Given
+        ConcurrencyLimitService concurrencyLimitService = mock(ConcurrencyLimitService.class);
+        ConcurrencyLimitService.Permit permit = mock(ConcurrencyLimitService.Permit.class);
+        when(concurrencyLimitService.acquire(anyString())).thenReturn(permit);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(concurrencyLimitService, RESOLVER);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/images/users/a.jpg");
+        request.setAsyncSupported(true);
+
+        // When : le contrôleur rend un StreamingResponseBody
+        send(filter, request, new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                request.startAsync();
+            }
+        });
+
+        // Then
+        verify(permit, never()).release(any());
+
+        // When : fin de l'écriture du flux
+        request.getAsyncContext().complete();
+
+        // Then
+        verify(permit).release(Outcome.SUCCESS);
+    }
+
+    @Test
+    @DisplayName("Should count a JWKS timeout propagated by the security chain as a drop")
+    void propagatedTimeout_Dropped() {
+        // Given
+        ConcurrencyLimitService concurrencyLimitService = mock(ConcurrencyLimitService.class);
+        ConcurrencyLimitService.Permit permit = mock(ConcurrencyLimitService.Permit.class);
+        when(concurrencyLimitService.acquire(anyString())).thenReturn(permit);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(concurrencyLimitService, RESOLVER);
+
+        // When
+        assertThatThrownBy(() -> send(filter, new MockHttpServletRequest("GET", "/users/me"), new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                throw new AuthenticationServiceException("Couldn't retrieve remote JWK set",
+                        new SocketTimeoutException("Read timed out"));
+            }
+        })).isInstanceOf(AuthenticationServiceException.class);
+
+        // Then
+        verify(permit).release(Outcome.DROPPED);
+    }
+
+    private void send(ConcurrencyLimitFilter filter, MockHttpServletRequest request, HttpServlet servlet)
+            throws ServletException, IOException {
+        new MockFilterChain(servlet, filter).doFilter(request, new MockHttpServletResponse());
+    }
+}
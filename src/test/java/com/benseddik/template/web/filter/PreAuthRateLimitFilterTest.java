@@ -0,0 +1,175 @@
+package com.benseddik.template.web.filter;
+
+import com.benseddik.template.config.RateLimitProperties;
+import com.benseddik.template.service.ratelimit.LocalRateLimitStore;
+import com.benseddik.template.service.ratelimit.RateLimitExceededException;
+import com.benseddik.template.service.ratelimit.RateLimitService;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@Slf4j
+@DisplayName("PreAuthRateLimitFilter - Unit Tests")
+class PreAuthRateLimitFilterTest {
+
+    private static final String ATTACKER_IP = "203.0.113.66";
+
+    private PreAuthRateLimitFilter preAuthRateLimitFilter;
+    private JwtDecoder jwtDecoder;
+    private BearerTokenAuthenticationFilter bearerTokenFilter;
+    private String forgedToken;
+
+    @BeforeEach
+    void setUp() throws NoSuchAlgorithmException, JOSEException {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setIp(new RateLimitProperties.Limit(10, Duration.ofMinutes(1)));
+        RateLimitService rateLimitService =
+                new RateLimitService(new LocalRateLimitStore(properties, new SimpleMeterRegistry()), properties);
+        HandlerExceptionResolver resolver = (request, response, handler, ex) -> {
+            response.setStatus(((RateLimitExceededException) ex).getStatusCode().value());
+            return null;
+        };
+        preAuthRateLimitFilter = new PreAuthRateLimitFilter(rateLimitService, resolver);
+
+        // Décodeur de l'application (clé du realm) et jeton signé par une autre clé
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair realmKey = generator.generateKeyPair();
+        KeyPair attackerKey = generator.generateKeyPair();
+        // Décodeur réel observé : chaque vérification de signature est comptée
+        jwtDecoder = mock(JwtDecoder.class,
+                delegatesTo(NimbusJwtDecoder.withPublicKey((RSAPublicKey) realmKey.getPublic()).build()));
+        bearerTokenFilter = new BearerTokenAuthenticationFilter(new ProviderManager(new JwtAuthenticationProvider(jwtDecoder)));
+
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), new JWTClaimsSet.Builder()
+                .subject("attacker")
+                .issueTime(new Date())
+                .expirationTime(Date.from(Instant.now().plusSeconds(300)))
+                .build());
+        jwt.sign(new RSASSASigner(attackerKey.getPrivate()));
+        forgedToken = jwt.serialize();
+    }
+
+    @Test
+    @DisplayName("Should reject over-limit requests with 429 before the JWT is decoded")
+    void overLimit_RejectedBeforeAuthentication() throws ServletException, IOException {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            assertThat(send(preAuthRateLimitFilter, bearerTokenFilter).getStatus()).isEqualTo(401);
+        }
+
+        // When
+        MockHttpServletResponse response = send(preAuthRateLimitFilter, bearerTokenFilter);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("X-RateLimit-Limit")).isEqualTo("10");
+        assertThat(response.getHeader("X-RateLimit-Remaining")).isEqualTo("0");
+    }
+
+    @Test
+    @DisplayName("Should never decode the JWT of a request rejected by the IP tier")
+    void overLimit_JwtNeverDecoded() throws ServletException, IOException {
+        // Given : seau de l'adresse épuisé, chaque jeton forgé a été vérifié (401)
+        for (int i = 0; i < 10; i++) {
+            send(preAuthRateLimitFilter, bearerTokenFilter);
+        }
+        verify(jwtDecoder, times(10)).decode(forgedToken);
+        clearInvocations(jwtDecoder);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            assertThat(send(preAuthRateLimitFilter, bearerTokenFilter).getStatus()).isEqualTo(429);
+        }
+
+        // Then
+        verify(jwtDecoder, never()).decode(any());
+    }
+
+    /**
+     * Mesure indicative, hors suite par défaut : {@code mvn test -Dbenchmark=true -Dtest=PreAuthRateLimitFilterTest}
+     */
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark - CPU per rejected forged-token request with the limiter after and before authentication")
+    void cpuPerRejectedRequest() throws ServletException, IOException {
+        // Given : seau de l'adresse épuisé
+        int requests = 2_000;
+        for (int i = 0; i < 10; i++) {
+            send(preAuthRateLimitFilter, bearerTokenFilter);
+        }
+        // Chauffe : compilation JIT des deux chemins hors mesure
+        measureCpuNanos(500, bearerTokenFilter);
+        measureCpuNanos(500, preAuthRateLimitFilter, bearerTokenFilter);
+
+        // When
+        // Avant : le limiteur suit la chaîne de sécurité, chaque jeton forgé est vérifié (401)
+        long afterAuthentication = measureCpuNanos(requests, bearerTokenFilter) / requests;
+        // Après : le premier palier refuse l'adresse (429) sans décoder le jeton
+        long beforeAuthentication = measureCpuNanos(requests, preAuthRateLimitFilter, bearerTokenFilter) / requests;
+
+        // Then
+        log.info("CPU par requête refusée - limiteur après l'authentification : {} µs, avant : {} µs",
+                afterAuthentication / 1_000, beforeAuthentication / 1_000);
+        assertThat(beforeAuthentication * 3).isLessThan(afterAuthentication);
+    }
+
+    private long measureCpuNanos(int requests, Filter... filters) throws ServletException, IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < requests; i++) {
+            int status = send(filters).getStatus();
+            assertThat(status).isIn(401, 429);
+        }
+        return threads.getCurrentThreadCpuTime() - start;
+    }
+
+    private MockHttpServletResponse send(Filter... filters) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/me");
+        request.setRemoteAddr(ATTACKER_IP);
+        request.addHeader("Authorization", "Bearer " + forgedToken);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain(new HttpServlet() {
+        }, filters).doFilter(request, response);
+        return response;
+    }
+}
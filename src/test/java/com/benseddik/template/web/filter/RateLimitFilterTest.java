@@ -0,0 +1,78 @@
+package com.benseddik.template.web.filter;
+
+import com.benseddik.template.config.RateLimitProperties;
+import com.benseddik.template.service.ratelimit.LocalRateLimitStore;
+import com.benseddik.template.service.ratelimit.RateLimitService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RateLimitFilter - Unit Tests")
+class RateLimitFilterTest {
+
+    private PreAuthRateLimitFilter preAuthRateLimitFilter;
+    private RateLimitFilter rateLimitFilter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setIp(new RateLimitProperties.Limit(30, Duration.ofMinutes(1)));
+        properties.setAuthenticated(new RateLimitProperties.Limit(60, Duration.ofMinutes(1)));
+        RateLimitProperties.Route costly = new RateLimitProperties.Route();
+        costly.setMethod("POST");
+        costly.setPath("/auth/register");
+        costly.setCost(40);
+        properties.setRoutes(List.of(costly));
+        RateLimitService rateLimitService =
+                new RateLimitService(new LocalRateLimitStore(properties, new SimpleMeterRegistry()), properties);
+        HandlerExceptionResolver resolver = (request, response, handler, ex) -> null;
+        preAuthRateLimitFilter = new PreAuthRateLimitFilter(rateLimitService, resolver);
+        rateLimitFilter = new RateLimitFilter(rateLimitService, resolver);
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("user-1", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should report the X-RateLimit-* headers of the tighter bucket of both tiers")
+    void headers_TighterBucket() throws ServletException, IOException {
+        // When : adresse 29/30, sujet 59/60
+        MockHttpServletResponse first = send("GET", "/users/me");
+        // When : adresse 28/30, sujet 19/60
+        MockHttpServletResponse second = send("POST", "/auth/register");
+
+        // Then
+        assertThat(first.getHeader("X-RateLimit-Limit")).isEqualTo("30");
+        assertThat(first.getHeader("X-RateLimit-Remaining")).isEqualTo("29");
+        assertThat(second.getHeader("X-RateLimit-Limit")).isEqualTo("60");
+        assertThat(second.getHeader("X-RateLimit-Remaining")).isEqualTo("19");
+    }
+
+    private MockHttpServletResponse send(String method, String path) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain(new HttpServlet() {
+        }, preAuthRateLimitFilter, rateLimitFilter).doFilter(request, response);
+        return response;
+    }
+}